@@ -22,9 +22,10 @@ import java.util.Map;
 import org.uncommons.maths.random.MersenneTwisterRNG;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.examples.EvolutionLogger;
-import org.uncommons.watchmaker.framework.EvolutionEngine;
+import org.uncommons.watchmaker.framework.CostEstimator;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
 import org.uncommons.watchmaker.framework.GenerationalEvolutionEngine;
+import org.uncommons.watchmaker.framework.LearnedCostEstimator;
 import org.uncommons.watchmaker.framework.operators.EvolutionPipeline;
 import org.uncommons.watchmaker.framework.selection.RouletteWheelSelection;
 import org.uncommons.watchmaker.framework.termination.TargetFitness;
@@ -74,11 +75,20 @@ public class GeneticProgrammingExample
         operators.add(new TreeCrossover());
         operators.add(new Simplification());
         TreeEvaluator evaluator = new TreeEvaluator(data);
-        EvolutionEngine<Node> engine = new GenerationalEvolutionEngine<Node>(factory,
-                                                                             new EvolutionPipeline<Node>(operators),
-                                                                             evaluator,
-                                                                             new RouletteWheelSelection(),
-                                                                             new MersenneTwisterRNG());
+        GenerationalEvolutionEngine<Node> engine
+            = new GenerationalEvolutionEngine<Node>(factory,
+                                                    new EvolutionPipeline<Node>(operators),
+                                                    evaluator,
+                                                    new RouletteWheelSelection(),
+                                                    new MersenneTwisterRNG());
+        // Larger programs take longer to evaluate, so evaluate them first.
+        engine.setCostEstimator(new LearnedCostEstimator<Node>(new CostEstimator<Node>()
+        {
+            public double estimateCost(Node candidate)
+            {
+                return candidate.countNodes();
+            }
+        }));
         engine.addEvolutionObserver(new EvolutionLogger<Node>());
         return engine.evolve(1000, 5, new TargetFitness(0d, evaluator.isNatural()));
     }
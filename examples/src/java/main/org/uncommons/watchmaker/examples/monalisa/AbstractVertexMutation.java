@@ -17,12 +17,12 @@ package org.uncommons.watchmaker.examples.monalisa;
 
 import java.awt.Dimension;
 import java.awt.Point;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
 
 /**
  * Base class for mutation operators that modify the points of polygons in an
@@ -79,13 +79,16 @@ abstract class AbstractVertexMutation implements EvolutionaryOperator<ColouredPo
      */
     public List<ColouredPolygon> apply(List<ColouredPolygon> polygons, Random rng)
     {
-        List<ColouredPolygon> newPolygons = new ArrayList<ColouredPolygon>(polygons.size());
-        for (ColouredPolygon polygon : polygons)
+        // Only the polygons that change are replaced, the rest of the image is shared.
+        PersistentVector<ColouredPolygon> newPolygons = PersistentVector.copyOf(polygons);
+        for (int i = 0; i < newPolygons.size(); i++)
         {
+            ColouredPolygon polygon = newPolygons.get(i);
             List<Point> newVertices = mutateVertices(polygon.getVertices(), rng);
-            newPolygons.add(newVertices == polygon.getVertices()
-                            ? polygon
-                            : new ColouredPolygon(polygon.getColour(), newVertices));
+            if (newVertices != polygon.getVertices())
+            {
+                newPolygons = newPolygons.replace(i, new ColouredPolygon(polygon.getColour(), newVertices));
+            }
         }
         return newPolygons;
     }
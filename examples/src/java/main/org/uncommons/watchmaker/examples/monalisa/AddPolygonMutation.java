@@ -22,6 +22,7 @@ import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
 
 /**
  * Randomly mutates the polygons that make up an image by adding a polygon
@@ -80,10 +81,9 @@ public class AddPolygonMutation implements EvolutionaryOperator<List<ColouredPol
             // we already have the maximum permitted number of polygons.
             if (candidate.size() < maxPolygons && addPolygonProbability.nextValue().nextEvent(rng))
             {
-                List<ColouredPolygon> newPolygons = new ArrayList<ColouredPolygon>(candidate);
-                newPolygons.add(rng.nextInt(newPolygons.size() + 1),
-                                factory.createRandomPolygon(rng));
-                mutatedCandidates.add(newPolygons);
+                PersistentVector<ColouredPolygon> polygons = PersistentVector.copyOf(candidate);
+                mutatedCandidates.add(polygons.insert(rng.nextInt(polygons.size() + 1),
+                                                      factory.createRandomPolygon(rng)));
             }
             else // Nothing changed.
             {
@@ -22,6 +22,7 @@ import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
 
 /**
  * Randomly mutates an image by swapping the z-order of two of its polygons
@@ -59,10 +60,11 @@ public class MovePolygonMutation implements EvolutionaryOperator<List<ColouredPo
         {
             if (movePolygonProbability.nextValue().nextEvent(rng))
             {
-                List<ColouredPolygon> newPolygons = new ArrayList<ColouredPolygon>(candidate);
-                ColouredPolygon polygon = newPolygons.remove(rng.nextInt(newPolygons.size()));
-                newPolygons.add(rng.nextInt(newPolygons.size()) + 1, polygon);
-                mutatedCandidates.add(newPolygons);
+                PersistentVector<ColouredPolygon> polygons = PersistentVector.copyOf(candidate);
+                int index = rng.nextInt(polygons.size());
+                ColouredPolygon polygon = polygons.get(index);
+                polygons = polygons.delete(index);
+                mutatedCandidates.add(polygons.insert(rng.nextInt(polygons.size()) + 1, polygon));
             }
             else // Nothing changed.
             {
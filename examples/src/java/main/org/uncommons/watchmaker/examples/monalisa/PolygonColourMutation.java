@@ -16,7 +16,6 @@
 package org.uncommons.watchmaker.examples.monalisa;
 
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import org.uncommons.maths.Maths;
@@ -24,6 +23,7 @@ import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
 
 /**
  * Evolutionary operator for mutating individual polygons.  Polygons are mutated
@@ -65,13 +65,16 @@ public class PolygonColourMutation implements EvolutionaryOperator<ColouredPolyg
 
     public List<ColouredPolygon> apply(List<ColouredPolygon> polygons, Random rng)
     {
-        List<ColouredPolygon> newPolygons = new ArrayList<ColouredPolygon>(polygons.size());
-        for (ColouredPolygon polygon : polygons)
+        // Only the polygons that change are replaced, the rest of the image is shared.
+        PersistentVector<ColouredPolygon> newPolygons = PersistentVector.copyOf(polygons);
+        for (int i = 0; i < newPolygons.size(); i++)
         {
+            ColouredPolygon polygon = newPolygons.get(i);
             Color newColour = mutateColour(polygon.getColour(), rng);
-            newPolygons.add(newColour == polygon.getColour()
-                            ? polygon
-                            : new ColouredPolygon(newColour, polygon.getVertices()));
+            if (newColour != polygon.getColour())
+            {
+                newPolygons = newPolygons.replace(i, new ColouredPolygon(newColour, polygon.getVertices()));
+            }
         }
         return newPolygons;
     }
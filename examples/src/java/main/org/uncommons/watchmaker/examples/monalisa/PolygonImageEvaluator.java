@@ -23,6 +23,7 @@ import java.awt.image.Raster;
 import java.util.List;
 import org.uncommons.watchmaker.framework.FitnessEvaluator;
 import org.uncommons.watchmaker.framework.interactive.Renderer;
+import org.uncommons.watchmaker.framework.kernels.KernelSupport;
 
 /**
  * Compares the generated polygon-based images to the target bitmap.  The polygon images
@@ -132,22 +133,7 @@ public class PolygonImageEvaluator implements FitnessEvaluator<List<ColouredPoly
                                                                           candidateImageData.getWidth(),
                                                                           candidateImageData.getHeight(),
                                                                           candidatePixelValues);
-        double fitness = 0;
-        for (int i = 0; i < targetPixels.length; i++)
-        {
-            fitness += comparePixels(targetPixels[i], candidatePixelValues[i]);
-        }
-
-        return fitness;
-    }
-
-
-    private double comparePixels(int p1, int p2)
-    {
-        int deltaR = ((p1 >>> 16) & 0xFF) - ((p2 >>> 16) & 0xFF);
-        int deltaG = ((p1 >>> 8) & 0xFF) - ((p2 >>> 8) & 0xFF);
-        int deltaB = (p1 & 0xFF) - (p2 & 0xFF);
-        return Math.sqrt(deltaR * deltaR + deltaG * deltaG + deltaB * deltaB);
+        return KernelSupport.getKernels().rgbDistance(targetPixels, candidatePixelValues);
     }
 
 
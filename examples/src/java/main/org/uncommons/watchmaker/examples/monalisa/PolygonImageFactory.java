@@ -21,6 +21,7 @@ import java.awt.Point;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
 import org.uncommons.watchmaker.framework.factories.AbstractCandidateFactory;
 
 /**
@@ -53,10 +54,11 @@ public class PolygonImageFactory extends AbstractCandidateFactory<List<ColouredP
     
     public List<ColouredPolygon> generateRandomCandidate(Random rng)
     {
-        List<ColouredPolygon> polygons = new ArrayList<ColouredPolygon>(MINIMUM_POLYGON_COUNT);
+        // Images are persistent vectors so that mutations can share structure.
+        PersistentVector<ColouredPolygon> polygons = PersistentVector.empty();
         for (int i = 0; i < MINIMUM_POLYGON_COUNT; i++)
         {
-            polygons.add(createRandomPolygon(rng));
+            polygons = polygons.append(createRandomPolygon(rng));
         }
         return polygons;
     }
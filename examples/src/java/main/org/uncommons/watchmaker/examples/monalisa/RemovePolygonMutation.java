@@ -22,6 +22,7 @@ import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
 
 /**
  * Randomly mutates the polygons that make up an image by removing a polygon
@@ -61,9 +62,8 @@ public class RemovePolygonMutation implements EvolutionaryOperator<List<Coloured
             if (candidate.size() > PolygonImageFactory.MINIMUM_POLYGON_COUNT
                 && removePolygonProbability.nextValue().nextEvent(rng))
             {
-                List<ColouredPolygon> newPolygons = new ArrayList<ColouredPolygon>(candidate);
-                newPolygons.remove(rng.nextInt(newPolygons.size()));
-                mutatedCandidates.add(newPolygons);
+                PersistentVector<ColouredPolygon> polygons = PersistentVector.copyOf(candidate);
+                mutatedCandidates.add(polygons.delete(rng.nextInt(polygons.size())));
             }
             else // Nothing changed.
             {
@@ -16,14 +16,18 @@
 package org.uncommons.watchmaker.framework;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Base class for {@link EvolutionEngine} implementations.
@@ -45,7 +49,14 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
 
     private volatile boolean singleThreaded = false;
 
+    private volatile ExecutorService evaluationExecutor = null;
+
+    private volatile DiversityMeasure<? super T> diversityMeasure = null;
+
+    private volatile CostEstimator<? super T> costEstimator = new LearnedCostEstimator<Object>();
+
     private List<TerminationCondition> satisfiedTerminationConditions;
+    private long evaluationCount;
 
 
     /**
@@ -129,7 +140,7 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
         }
 
         satisfiedTerminationConditions = null;
-        int currentGenerationIndex = 0;
+        evaluationCount = 0;
         long startTime = System.currentTimeMillis();
 
         List<T> population = candidateFactory.generateInitialPopulation(populationSize,
@@ -137,13 +148,75 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
                                                                         rng);
 
         // Calculate the fitness scores for each member of the initial population.
-        List<EvaluatedCandidate<T>> evaluatedPopulation = evaluatePopulation(population);
+        List<EvaluatedCandidate<T>> evaluatedPopulation = evaluateInitialPopulation(population, eliteCount, rng);
+        return evolve(evaluatedPopulation, eliteCount, startTime, conditions);
+    }
+
+
+    /**
+     * Continue evolving a population that has already been evaluated (for example, the
+     * population returned by a previous invocation of one of the {@code evolvePopulation}
+     * methods) until one of the termination conditions is met, then return all of the
+     * candidates from the final generation.  The candidates are not re-evaluated, so the
+     * supplied fitness scores must have been calculated by an equivalent fitness function.
+     * The generation number and elapsed time both start again from zero.
+     * <p/>
+     * This method is not part of the {@link EvolutionEngine} interface, so that existing
+     * implementations of that interface are unaffected.  Code that works with arbitrary
+     * engines (such as {@link org.uncommons.watchmaker.framework.islands.IslandEvolution})
+     * falls back to re-seeding and re-evaluating the population for other implementations.
+     * @param evaluatedPopulation The starting population, with fitness scores.  This also
+     * determines the population size.
+     * @param eliteCount The number of candidates preserved via elitism.  This value must
+     * be non-negative and less than the population size.  A value of zero means that no
+     * elitism will be applied.
+     * @param conditions One or more conditions that may cause the evolution to terminate.
+     * @return The final population.
+     * @see #evolvePopulation(int, int, Collection, TerminationCondition[])
+     */
+    public List<EvaluatedCandidate<T>> evolvePopulation(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                        int eliteCount,
+                                                        TerminationCondition... conditions)
+    {
+        if (eliteCount < 0 || eliteCount >= evaluatedPopulation.size())
+        {
+            throw new IllegalArgumentException("Elite count must be non-negative and less than population size.");
+        }
+        if (conditions.length == 0)
+        {
+            throw new IllegalArgumentException("At least one TerminationCondition must be specified.");
+        }
+
+        satisfiedTerminationConditions = null;
+        evaluationCount = 0;
+        long startTime = System.currentTimeMillis();
+        return evolve(restorePopulation(evaluatedPopulation, eliteCount, rng), eliteCount, startTime, conditions);
+    }
+
+
+    /**
+     * Evolves an evaluated population, generation by generation, until one of the
+     * termination conditions is satisfied.
+     * @param evaluatedPopulation The evaluated initial population (generation zero).
+     * @param eliteCount The number of the fittest individuals that must be preserved.
+     * @param startTime The time at which the evolution started.
+     * @param conditions One or more conditions that may cause the evolution to terminate.
+     * @return The final population.
+     */
+    private List<EvaluatedCandidate<T>> evolve(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                               int eliteCount,
+                                               long startTime,
+                                               TerminationCondition... conditions)
+    {
+        int currentGenerationIndex = 0;
+        boolean sortEachGeneration = isSortRequired();
         EvolutionUtils.sortEvaluatedPopulation(evaluatedPopulation, fitnessEvaluator.isNatural());
-        PopulationData<T> data = EvolutionUtils.getPopulationData(evaluatedPopulation,
-                                                                  fitnessEvaluator.isNatural(),
-                                                                  eliteCount,
-                                                                  currentGenerationIndex,
-                                                                  startTime);
+        PopulationData<T> data = getPopulationData(evaluatedPopulation,
+                                                   eliteCount,
+                                                   currentGenerationIndex,
+                                                   startTime,
+                                                   measureDiversity(evaluatedPopulation),
+                                                   evaluationCount);
         // Notify observers of the state of the population.
         notifyPopulationChange(data);
 
@@ -152,21 +225,78 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
         {
             ++currentGenerationIndex;
             evaluatedPopulation = nextEvolutionStep(evaluatedPopulation, eliteCount, rng);
-            EvolutionUtils.sortEvaluatedPopulation(evaluatedPopulation, fitnessEvaluator.isNatural());
-            data = EvolutionUtils.getPopulationData(evaluatedPopulation,
-                                                    fitnessEvaluator.isNatural(),
-                                                    eliteCount,
-                                                    currentGenerationIndex,
-                                                    startTime);
+            if (sortEachGeneration)
+            {
+                EvolutionUtils.sortEvaluatedPopulation(evaluatedPopulation, fitnessEvaluator.isNatural());
+            }
+            data = getPopulationData(evaluatedPopulation,
+                                     eliteCount,
+                                     currentGenerationIndex,
+                                     startTime,
+                                     measureDiversity(evaluatedPopulation),
+                                     evaluationCount);
             // Notify observers of the state of the population.
             notifyPopulationChange(data);
             satisfiedConditions = EvolutionUtils.shouldContinue(data, conditions);
         }
+        if (!sortEachGeneration)
+        {
+            // The final population is always returned fittest first.
+            EvolutionUtils.sortEvaluatedPopulation(evaluatedPopulation, fitnessEvaluator.isNatural());
+        }
         this.satisfiedTerminationConditions = satisfiedConditions;
         return evaluatedPopulation;
     }
 
+
+    /**
+     * Determines whether the population must be sorted into descending order of fitness after
+     * every generation, before it is passed to {@link #nextEvolutionStep(List, int, Random)}.
+     * The default implementation returns true.  Engines that keep the population in their own
+     * arrangement (for example, on a spatial grid) can return false to avoid the cost of a
+     * sort at every generation.  The population returned at the end of the evolution is sorted
+     * either way.
+     * @return True if each generation must be sorted, false otherwise.
+     */
+    protected boolean isSortRequired()
+    {
+        return true;
+    }
+
     
+    /**
+     * Calculates the statistics about a generation that are passed to observers and
+     * termination conditions.  The default implementation scans the whole population
+     * (see {@link EvolutionUtils#getPopulationData(List, boolean, int, int, long, double, long)}).
+     * Engines that keep running statistics about their populations may over-ride this
+     * method to avoid the scan.
+     * @param evaluatedPopulation The population, as returned by the most recent
+     * evolution step.
+     * @param eliteCount The number of the fittest individuals that must be preserved.
+     * @param generationNumber The zero-based index of the generation.
+     * @param startTime The time at which the evolution began.
+     * @param diversity The diversity of the population, or {@link Double#NaN} if it
+     * has not been measured.
+     * @param evaluations The total number of fitness evaluations performed so far.
+     * @return Statistics about the generation.
+     */
+    protected PopulationData<T> getPopulationData(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                  int eliteCount,
+                                                  int generationNumber,
+                                                  long startTime,
+                                                  double diversity,
+                                                  long evaluations)
+    {
+        return EvolutionUtils.getPopulationData(evaluatedPopulation,
+                                                fitnessEvaluator.isNatural(),
+                                                eliteCount,
+                                                generationNumber,
+                                                startTime,
+                                                diversity,
+                                                evaluations);
+    }
+
+
     /**
      * This method performs a single step/iteration of the evolutionary process.
      * @param evaluatedPopulation The population at the beginning of the process.
@@ -180,6 +310,44 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
                                                                      Random rng);
 
 
+    /**
+     * Assigns fitness scores to the initial population.  The default implementation
+     * evaluates every member (see {@link #evaluatePopulation(List)}).  Engines that only
+     * evaluate the candidates that they actually need may over-ride this method, in which
+     * case the returned list contains only the evaluated candidates.
+     * @param population The initial population.
+     * @param eliteCount The number of the fittest individuals that must be preserved.
+     * @param rng A source of randomness.
+     * @return The evaluated population (a list of candidates with attached fitness
+     * scores).
+     */
+    protected List<EvaluatedCandidate<T>> evaluateInitialPopulation(List<T> population,
+                                                                    int eliteCount,
+                                                                    Random rng)
+    {
+        return evaluatePopulation(population);
+    }
+
+
+    /**
+     * Prepares an already-evaluated population so that evolution can continue from it
+     * (see {@link #evolvePopulation(List, int, TerminationCondition[])}).  The default
+     * implementation simply copies the population, so that the caller's list is not
+     * modified.  Engines that keep additional state about the current generation should
+     * over-ride this method to rebuild that state.
+     * @param evaluatedPopulation The population to continue evolving.
+     * @param eliteCount The number of the fittest individuals that must be preserved.
+     * @param rng A source of randomness.
+     * @return The population that becomes generation zero.
+     */
+    protected List<EvaluatedCandidate<T>> restorePopulation(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                            int eliteCount,
+                                                            Random rng)
+    {
+        return new ArrayList<EvaluatedCandidate<T>>(evaluatedPopulation);
+    }
+
+
     /**
      * Takes a population, assigns a fitness score to each member and returns
      * the members with their scores attached, sorted in descending order of
@@ -194,12 +362,50 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
     {
         List<EvaluatedCandidate<T>> evaluatedPopulation = new ArrayList<EvaluatedCandidate<T>>(population.size());
 
+        CostEstimator<? super T> estimator = costEstimator;
+        LearnedCostEstimator<? super T> costModel = estimator instanceof LearnedCostEstimator
+                                                    ? (LearnedCostEstimator<? super T>) estimator
+                                                    : null;
+        ExecutorService executor = evaluationExecutor;
         if (singleThreaded) // Do fitness evaluations on the request thread.
         {
             for (T candidate : population)
             {
-                evaluatedPopulation.add(new EvaluatedCandidate<T>(candidate,
-                                                                  fitnessEvaluator.getFitness(candidate, population)));
+                evaluatedPopulation.add(new FitnessEvalutationTask<T>(fitnessEvaluator,
+                                                                      candidate,
+                                                                      population,
+                                                                      costModel).call());
+            }
+        }
+        else if (executor != null)
+        {
+            // Evaluate on the request thread, with help from any idle threads of the executor.
+            List<T> unmodifiablePopulation = Collections.unmodifiableList(population);
+            final AtomicReferenceArray<EvaluatedCandidate<T>> results
+                = new AtomicReferenceArray<EvaluatedCandidate<T>>(population.size());
+            List<Runnable> tasks = new ArrayList<Runnable>(population.size());
+            for (final int index : getDispatchOrder(population, estimator))
+            {
+                final FitnessEvalutationTask<T> task = new FitnessEvalutationTask<T>(fitnessEvaluator,
+                                                                                     population.get(index),
+                                                                                     unmodifiablePopulation,
+                                                                                     costModel);
+                tasks.add(new Runnable()
+                {
+                    public void run()
+                    {
+                        results.set(index, task.call());
+                    }
+                });
+            }
+            runCooperatively(tasks, executor);
+            // If interrupted, only the completed evaluations are returned.
+            for (int i = 0; i < results.length(); i++)
+            {
+                if (results.get(i) != null)
+                {
+                    evaluatedPopulation.add(results.get(i));
+                }
             }
         }
         else
@@ -211,12 +417,16 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
             {
                 List<T> unmodifiablePopulation = Collections.unmodifiableList(population);
                 List<Future<EvaluatedCandidate<T>>> results = new ArrayList<Future<EvaluatedCandidate<T>>>(population.size());
-                // Submit tasks for execution and wait until all threads have finished fitness evaluations.
-                for (T candidate : population)
+                results.addAll(Collections.<Future<EvaluatedCandidate<T>>>nCopies(population.size(), null));
+                // Submit tasks for execution (most expensive first, if costs are being estimated)
+                // and wait until all threads have finished fitness evaluations.  Results are kept
+                // in the same order as the population.
+                for (int index : getDispatchOrder(population, estimator))
                 {
-                    results.add(getSharedWorker().submit(new FitnessEvalutationTask<T>(fitnessEvaluator,
-                                                                                       candidate,
-                                                                                       unmodifiablePopulation)));
+                    results.set(index, getSharedWorker().submit(new FitnessEvalutationTask<T>(fitnessEvaluator,
+                                                                                              population.get(index),
+                                                                                              unmodifiablePopulation,
+                                                                                              costModel)));
                 }
                 for (Future<EvaluatedCandidate<T>> result : results)
                 {
@@ -235,11 +445,83 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
             }
         }
 
+        // Only count the evaluations that completed, which may be fewer than requested if
+        // the thread was interrupted.
+        evaluationCount += evaluatedPopulation.size();
         return evaluatedPopulation;
     }
 
 
 
+    /**
+     * Runs a batch of independent tasks (such as breeding different parts of a population) on
+     * the same threads that are used for fitness evaluation, and returns once they have all
+     * completed.  If the engine is {@link #setSingleThreaded(boolean) single-threaded}, the
+     * tasks are run in order on the request thread.  If the request thread is interrupted,
+     * this method returns early with the thread's interrupted flag set.
+     * @param tasks The tasks to run.  They may be run concurrently, so they must not depend
+     * on each other.
+     */
+    protected void runConcurrently(List<? extends Runnable> tasks)
+    {
+        ExecutorService executor = evaluationExecutor;
+        if (singleThreaded)
+        {
+            for (Runnable task : tasks)
+            {
+                task.run();
+            }
+        }
+        else if (executor != null)
+        {
+            runCooperatively(tasks, executor);
+        }
+        else
+        {
+            try
+            {
+                List<Future<?>> results = new ArrayList<Future<?>>(tasks.size());
+                for (Runnable task : tasks)
+                {
+                    results.add(getSharedWorker().submit(task));
+                }
+                for (Future<?> result : results)
+                {
+                    result.get();
+                }
+            }
+            catch (ExecutionException ex)
+            {
+                throw new IllegalStateException("Task execution failed.", ex);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * Runs tasks on the request thread, with help from any idle threads of the executor.
+     */
+    private void runCooperatively(List<? extends Runnable> tasks, ExecutorService executor)
+    {
+        try
+        {
+            new CooperativeExecution(tasks).run(executor);
+        }
+        catch (ExecutionException ex)
+        {
+            throw new IllegalStateException("Task execution failed.", ex);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
     /**
      * <p>Returns a list of all {@link TerminationCondition}s that are satisfied by the current
      * state of the evolution engine.  Usually this list will contain only one item, but it
@@ -327,6 +609,109 @@ public abstract class AbstractEvolutionEngine<T> implements EvolutionEngine<T>
     }
 
 
+    /**
+     * <p>Shares fitness evaluations with an executor that is also used for other work, such as
+     * running the islands of an island system.  Evaluations are performed on the request thread,
+     * with help from whichever of the executor's threads are idle at the start of each generation.
+     * If the executor has no idle threads, evaluation is effectively single-threaded, so engines
+     * that are themselves run on the executor don't compete with each other for its threads.</p>
+     *
+     * <p>This setting is ignored if the engine is {@link #setSingleThreaded(boolean) single-threaded}.</p>
+     * @param evaluationExecutor The executor to share evaluations with, or null to use the
+     * default pool of fitness evaluation threads.
+     */
+    public void setEvaluationExecutor(ExecutorService evaluationExecutor)
+    {
+        this.evaluationExecutor = evaluationExecutor;
+    }
+
+
+    /**
+     * Sets the measure used to calculate the genetic diversity of the population at
+     * each generation.  The result is made available to observers and termination
+     * conditions via {@link PopulationData#getDiversity()}.  By default no diversity
+     * measure is used, since measurement has a cost that not all programs need to pay.
+     * @param diversityMeasure The diversity measure to use, or null to disable
+     * diversity measurement.
+     */
+    public void setDiversityMeasure(DiversityMeasure<? super T> diversityMeasure)
+    {
+        this.diversityMeasure = diversityMeasure;
+    }
+
+
+    /**
+     * @return The diversity of the population according to the configured measure,
+     * or {@link Double#NaN} if there is no diversity measure.
+     */
+    private double measureDiversity(List<EvaluatedCandidate<T>> evaluatedPopulation)
+    {
+        DiversityMeasure<? super T> measure = diversityMeasure;
+        return measure == null ? Double.NaN : measure.getDiversity(evaluatedPopulation, rng);
+    }
+
+
+    /**
+     * Sets the estimator used to predict the cost of each fitness evaluation.  When
+     * evaluations are performed by multiple threads, candidates are dispatched in descending
+     * order of estimated cost, so that the most expensive evaluations are not left until
+     * the end of the generation.  If the estimator is a {@link LearnedCostEstimator}, the
+     * engine reports the time taken by each evaluation so that it can learn the relationship
+     * between size and cost.  By default, each engine has its own {@link LearnedCostEstimator}
+     * with the default size measure, so candidates that are collections, arrays, strings or
+     * bit strings are dispatched largest-first once their size has been found to predict
+     * evaluation time.  Other candidate types (such as program trees) need an estimator that
+     * knows how to measure them.
+     * @param costEstimator The cost estimator to use, or null to dispatch evaluations in
+     * population order.
+     */
+    public void setCostEstimator(CostEstimator<? super T> costEstimator)
+    {
+        this.costEstimator = costEstimator;
+    }
+
+
+    /**
+     * Determines the order in which evaluation tasks are submitted to the worker threads.
+     * @return The population indices in descending order of estimated cost, or in ascending
+     * order if there is no estimator.
+     */
+    private int[] getDispatchOrder(List<T> population, CostEstimator<? super T> estimator)
+    {
+        int[] order = new int[population.size()];
+        if (estimator == null)
+        {
+            for (int i = 0; i < order.length; i++)
+            {
+                order[i] = i;
+            }
+        }
+        else
+        {
+            final double[] costs = new double[population.size()];
+            Integer[] indices = new Integer[population.size()];
+            for (int i = 0; i < indices.length; i++)
+            {
+                costs[i] = estimator.estimateCost(population.get(i));
+                indices[i] = i;
+            }
+            // Stable sort, so candidates with equal costs remain in population order.
+            Arrays.sort(indices, new Comparator<Integer>()
+            {
+                public int compare(Integer index1, Integer index2)
+                {
+                    return Double.compare(costs[index2], costs[index1]);
+                }
+            });
+            for (int i = 0; i < order.length; i++)
+            {
+                order[i] = indices[i];
+            }
+        }
+        return order;
+    }
+
+
     /**
      * Lazily create the multi-threaded worker for fitness evaluations.
      */
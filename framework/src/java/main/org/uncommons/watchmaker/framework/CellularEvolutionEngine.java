@@ -0,0 +1,360 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * <p>A fine-grained spatial (cellular, or diffusion-model) evolutionary algorithm.  Each
+ * individual occupies one cell of a two-dimensional toroidal grid and can only mate with
+ * individuals in its local {@link Neighbourhood}.  At each generation, every cell is bred
+ * from its occupant and the winner of a binary tournament between two of its neighbours,
+ * and the offspring replaces the occupant if it is at least as fit.  Good solutions
+ * therefore spread gradually across the grid, which preserves diversity for longer than
+ * panmictic selection.  Because replacement never makes a cell worse, the fittest
+ * individual is never lost, so the elite count is not used.</p>
+ *
+ * <p>There is no global selection, and the population is not sorted between generations
+ * (fitness scores are kept in a primitive array in grid order), so the cost of each
+ * generation is proportional to the number of cells.  Updates may be:</p>
+ * <ul>
+ *   <li><em>Synchronous</em>: every cell is bred from the previous generation.  The grid
+ *   is divided into bands of rows that are bred concurrently on the fitness evaluation
+ *   threads, after which all of the offspring are evaluated together.</li>
+ *   <li><em>Line sweep</em>: rows are updated in order, so each row is bred from a grid
+ *   that already includes the rows updated earlier in the same generation.  Each row's
+ *   offspring are evaluated together.</li>
+ * </ul>
+ *
+ * <p>The population size must be a multiple of the grid width.  When multi-threaded, the
+ * evolutionary operators are invoked concurrently and must be thread-safe.</p>
+ *
+ * @param <T> The type of entity that is to be evolved.
+ * @see GenerationalEvolutionEngine
+ * @author Daniel Dyer
+ */
+public class CellularEvolutionEngine<T> extends AbstractEvolutionEngine<T>
+{
+    private final EvolutionaryOperator<T> evolutionScheme;
+    private final FitnessEvaluator<? super T> fitnessEvaluator;
+    private final int width;
+    private final Neighbourhood neighbourhood;
+    private final boolean synchronous;
+
+    // The grid, in row-major order.  Only modified by the request thread.
+    private List<T> cells;
+    private double[] scores;
+    private int height;
+
+
+    /**
+     * Creates a new cellular evolution engine.
+     * @param candidateFactory Factory used to create the initial population that is
+     * iteratively evolved.
+     * @param evolutionScheme The combination of evolutionary operators used to breed
+     * each cell.  The operators are applied to a list of two parents, and the first
+     * candidate returned becomes the offspring.
+     * @param fitnessEvaluator A function for assigning fitness scores to candidate
+     * solutions.
+     * @param width The number of cells in each row of the grid.  The number of rows is
+     * determined by the population size.
+     * @param neighbourhood The cells from which each cell's mate is chosen.
+     * @param synchronous If true, all cells are updated at once from the previous generation.
+     * If false, rows are updated in turn (a line sweep).
+     * @param rng The source of randomness used by all stochastic processes (including
+     * evolutionary operators and selection).
+     */
+    public CellularEvolutionEngine(CandidateFactory<T> candidateFactory,
+                                   EvolutionaryOperator<T> evolutionScheme,
+                                   FitnessEvaluator<? super T> fitnessEvaluator,
+                                   int width,
+                                   Neighbourhood neighbourhood,
+                                   boolean synchronous,
+                                   Random rng)
+    {
+        super(candidateFactory, fitnessEvaluator, rng);
+        if (width < 1)
+        {
+            throw new IllegalArgumentException("Grid width must be positive.");
+        }
+        this.evolutionScheme = evolutionScheme;
+        this.fitnessEvaluator = fitnessEvaluator;
+        this.width = width;
+        this.neighbourhood = neighbourhood;
+        this.synchronous = synchronous;
+    }
+
+
+    /**
+     * Evaluates the initial population and arranges it on the grid in population order.
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<EvaluatedCandidate<T>> evaluateInitialPopulation(List<T> population,
+                                                                    int eliteCount,
+                                                                    Random rng)
+    {
+        checkPopulationSize(population.size());
+        List<EvaluatedCandidate<T>> evaluatedPopulation = evaluatePopulation(population);
+        // If the thread was interrupted, there will be fewer results and evolution will
+        // stop before the grid is needed.
+        if (evaluatedPopulation.size() == population.size())
+        {
+            initialiseGrid(evaluatedPopulation);
+        }
+        return evaluatedPopulation;
+    }
+
+
+    /**
+     * Arranges an already-evaluated population on the grid.  If the population is a
+     * continuation of this engine's previous evolution (i.e. some of its members are still
+     * on the grid), those members keep their cells, and the remaining candidates (for example,
+     * immigrants in an island model) take the cells of the members that are missing.  The
+     * final population returned by the engine is sorted by fitness, so this preserves the
+     * spatial structure of the grid between runs.  Otherwise, the population is laid out
+     * in population order.
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<EvaluatedCandidate<T>> restorePopulation(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                            int eliteCount,
+                                                            Random rng)
+    {
+        checkPopulationSize(evaluatedPopulation.size());
+        List<EvaluatedCandidate<T>> arrangement = arrangeOnGrid(evaluatedPopulation);
+        initialiseGrid(arrangement);
+        return arrangement;
+    }
+
+
+    /**
+     * The population is kept in grid order, so there is no need to sort it.
+     * @return False.
+     */
+    @Override
+    protected boolean isSortRequired()
+    {
+        return false;
+    }
+
+
+    /**
+     * Updates every cell of the grid once.  The evaluated population passed in is ignored,
+     * since the engine keeps its own copy of the population in grid order.
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<EvaluatedCandidate<T>> nextEvolutionStep(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                            int eliteCount,
+                                                            Random rng)
+    {
+        if (synchronous)
+        {
+            updateSynchronously(rng);
+        }
+        else
+        {
+            for (int row = 0; row < height && !Thread.currentThread().isInterrupted(); row++)
+            {
+                List<T> offspring = new ArrayList<T>(width);
+                for (int index = row * width; index < (row + 1) * width; index++)
+                {
+                    offspring.add(breed(index, rng));
+                }
+                replace(row * width, evaluatePopulation(offspring));
+            }
+        }
+
+        List<EvaluatedCandidate<T>> nextPopulation = new ArrayList<EvaluatedCandidate<T>>(cells.size());
+        for (int i = 0; i < scores.length; i++)
+        {
+            nextPopulation.add(new EvaluatedCandidate<T>(cells.get(i), scores[i]));
+        }
+        return nextPopulation;
+    }
+
+
+    /**
+     * Breeds every cell from the current grid, one band of rows per task, then evaluates
+     * the offspring and replaces the cells that they improve on.
+     */
+    private void updateSynchronously(Random rng)
+    {
+        final List<T> offspring = new ArrayList<T>(Collections.<T>nCopies(cells.size(), null));
+        // Each row gets its own RNG, seeded here on the request thread, so that the bands
+        // don't contend for the engine's RNG and the results don't depend on how the rows
+        // are divided between threads.
+        final long[] rowSeeds = new long[height];
+        for (int row = 0; row < height; row++)
+        {
+            rowSeeds[row] = rng.nextLong();
+        }
+        int bandCount = Math.min(height, Runtime.getRuntime().availableProcessors() * 4);
+        int bandHeight = (height + bandCount - 1) / bandCount;
+        List<Runnable> bands = new ArrayList<Runnable>(bandCount);
+        for (int row = 0; row < height; row += bandHeight)
+        {
+            final int startRow = row;
+            final int endRow = Math.min(row + bandHeight, height);
+            bands.add(new Runnable()
+            {
+                public void run()
+                {
+                    for (int r = startRow; r < endRow; r++)
+                    {
+                        Random rowRNG = new Random(rowSeeds[r]);
+                        for (int index = r * width; index < (r + 1) * width; index++)
+                        {
+                            offspring.set(index, breed(index, rowRNG));
+                        }
+                    }
+                }
+            });
+        }
+        runConcurrently(bands);
+        // If interrupted, some bands may not have been bred, so leave the grid unchanged.
+        if (!Thread.currentThread().isInterrupted())
+        {
+            replace(0, evaluatePopulation(offspring));
+        }
+    }
+
+
+    /**
+     * Breeds the occupant of a cell with the fitter of two randomly-chosen neighbours.
+     * @return The first offspring.
+     */
+    private T breed(int index, Random rng)
+    {
+        int first = neighbourhood.getNeighbour(index, rng.nextInt(neighbourhood.size()), width, height);
+        int second = neighbourhood.getNeighbour(index, rng.nextInt(neighbourhood.size()), width, height);
+        int mate = isFitter(scores[second], scores[first]) ? second : first;
+        List<T> parents = new ArrayList<T>(2);
+        parents.add(cells.get(index));
+        parents.add(cells.get(mate));
+        return evolutionScheme.apply(parents, rng).get(0);
+    }
+
+
+    /**
+     * Replaces a run of consecutive cells with their offspring, where the offspring
+     * are at least as fit.
+     * @param start The index of the first cell.
+     * @param offspring The evaluated offspring, in cell order.
+     */
+    private void replace(int start, List<EvaluatedCandidate<T>> offspring)
+    {
+        // If the thread was interrupted, there may be fewer offspring than cells.
+        for (int i = 0; i < offspring.size(); i++)
+        {
+            EvaluatedCandidate<T> candidate = offspring.get(i);
+            if (!isFitter(scores[start + i], candidate.getFitness()))
+            {
+                cells.set(start + i, candidate.getCandidate());
+                scores[start + i] = candidate.getFitness();
+            }
+        }
+    }
+
+
+    private boolean isFitter(double fitness, double otherFitness)
+    {
+        return fitnessEvaluator.isNatural() ? fitness > otherFitness : fitness < otherFitness;
+    }
+
+
+    private void checkPopulationSize(int populationSize)
+    {
+        if (populationSize % width != 0)
+        {
+            throw new IllegalArgumentException("Population size must be a multiple of the grid width.");
+        }
+    }
+
+
+    /**
+     * @return The population in grid order, keeping members of the current grid in their cells
+     * where possible.
+     */
+    private List<EvaluatedCandidate<T>> arrangeOnGrid(List<EvaluatedCandidate<T>> evaluatedPopulation)
+    {
+        if (cells == null || cells.size() != evaluatedPopulation.size())
+        {
+            return new ArrayList<EvaluatedCandidate<T>>(evaluatedPopulation);
+        }
+        // The same candidate may occupy several cells.
+        Map<T, List<Integer>> occupiedCells = new IdentityHashMap<T, List<Integer>>(cells.size() * 2);
+        for (int i = cells.size() - 1; i >= 0; i--)
+        {
+            List<Integer> indices = occupiedCells.get(cells.get(i));
+            if (indices == null)
+            {
+                indices = new ArrayList<Integer>(1);
+                occupiedCells.put(cells.get(i), indices);
+            }
+            indices.add(i);
+        }
+        List<EvaluatedCandidate<T>> arrangement
+            = new ArrayList<EvaluatedCandidate<T>>(Collections.<EvaluatedCandidate<T>>nCopies(cells.size(), null));
+        List<EvaluatedCandidate<T>> newcomers = new ArrayList<EvaluatedCandidate<T>>();
+        for (EvaluatedCandidate<T> candidate : evaluatedPopulation)
+        {
+            List<Integer> indices = occupiedCells.get(candidate.getCandidate());
+            if (indices == null || indices.isEmpty())
+            {
+                newcomers.add(candidate);
+            }
+            else
+            {
+                arrangement.set(indices.remove(indices.size() - 1), candidate);
+            }
+        }
+        if (newcomers.size() == evaluatedPopulation.size())
+        {
+            // Not a continuation of the current grid.
+            return new ArrayList<EvaluatedCandidate<T>>(evaluatedPopulation);
+        }
+        Iterator<EvaluatedCandidate<T>> iterator = newcomers.iterator();
+        for (int i = 0; i < arrangement.size(); i++)
+        {
+            if (arrangement.get(i) == null)
+            {
+                arrangement.set(i, iterator.next());
+            }
+        }
+        return arrangement;
+    }
+
+
+    private void initialiseGrid(List<EvaluatedCandidate<T>> evaluatedPopulation)
+    {
+        cells = new ArrayList<T>(evaluatedPopulation.size());
+        scores = new double[evaluatedPopulation.size()];
+        for (int i = 0; i < scores.length; i++)
+        {
+            cells.add(evaluatedPopulation.get(i).getCandidate());
+            scores[i] = evaluatedPopulation.get(i).getFitness();
+        }
+        height = scores.length / width;
+    }
+}
@@ -0,0 +1,154 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a batch of independent tasks on the requesting thread, with help from any idle
+ * threads of a shared executor.  Tasks are claimed one at a time from a common index, so
+ * helpers that start late (or never start, because the executor is busy with other work)
+ * simply find less to do, and the requesting thread never waits for a helper that hasn't
+ * started.  This lets nested work, such as fitness evaluation within islands that are
+ * themselves run on the executor, use spare threads without the risk of deadlock or of
+ * flooding the executor when it is already fully occupied.
+ * @author Daniel Dyer
+ */
+class CooperativeExecution
+{
+    private final List<? extends Runnable> tasks;
+
+    private final AtomicInteger nextIndex = new AtomicInteger(0);
+    private final CountDownLatch remaining;
+
+
+    /**
+     * @param tasks The tasks to run, in the order that they should be started.
+     */
+    CooperativeExecution(List<? extends Runnable> tasks)
+    {
+        this.tasks = tasks;
+        this.remaining = new CountDownLatch(tasks.size());
+    }
+
+
+    /**
+     * Runs every task, using idle threads of the executor to help, and returns once
+     * they have all completed.
+     * @param executor The executor that may provide helper threads.
+     * @throws InterruptedException If the requesting thread is interrupted while waiting for
+     * helpers to finish.
+     * @throws ExecutionException If a task failed on a helper thread.
+     */
+    void run(ExecutorService executor) throws InterruptedException, ExecutionException
+    {
+        int helperCount = Math.min(countIdleThreads(executor), tasks.size() - 1);
+        List<Helper> helpers = new ArrayList<Helper>(Math.max(helperCount, 0));
+        for (int i = 0; i < helperCount; i++)
+        {
+            Helper helper = new Helper();
+            helpers.add(helper);
+            executor.execute(helper);
+        }
+
+        runRemaining();
+        remaining.await();
+
+        // Any helper that hasn't started yet is no longer needed.  Helpers that did start
+        // have finished their last task, but check them for failures.
+        for (Helper helper : helpers)
+        {
+            if (helper.started || !helper.cancel(false))
+            {
+                helper.get();
+            }
+        }
+    }
+
+
+    /**
+     * Claims and runs tasks until none are left.
+     */
+    private void runRemaining()
+    {
+        for (int i = nextIndex.getAndIncrement(); i < tasks.size(); i = nextIndex.getAndIncrement())
+        {
+            try
+            {
+                tasks.get(i).run();
+            }
+            finally
+            {
+                remaining.countDown();
+            }
+        }
+    }
+
+
+    /**
+     * Estimates how many of the executor's threads are not currently doing anything.  For
+     * executors other than {@link ThreadPoolExecutor}, assumes one thread per core, with one
+     * core occupied by the requesting thread.
+     */
+    private static int countIdleThreads(ExecutorService executor)
+    {
+        if (executor instanceof ThreadPoolExecutor)
+        {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            if (!pool.getQueue().isEmpty())
+            {
+                return 0; // Already has a backlog, so no threads are idle.
+            }
+            return Math.max(pool.getCorePoolSize(), pool.getPoolSize()) - pool.getActiveCount();
+        }
+        return Runtime.getRuntime().availableProcessors() - 1;
+    }
+
+
+    /**
+     * Runs tasks on one of the executor's threads.
+     */
+    private final class Helper extends FutureTask<Object>
+    {
+        private volatile boolean started = false;
+
+        Helper()
+        {
+            super(new Runnable()
+            {
+                public void run()
+                {
+                    runRemaining();
+                }
+            }, null);
+        }
+
+
+        @Override
+        public void run()
+        {
+            started = true;
+            super.run();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+/**
+ * Strategy interface for predicting the relative cost of evaluating the fitness of
+ * a candidate.  When the cost of evaluation varies greatly between candidates (e.g. in
+ * genetic programming, where it is roughly proportional to the size of the program tree),
+ * an evolution engine configured with a cost estimator dispatches the most expensive
+ * evaluations first.  This avoids a long tail at the end of each generation where a
+ * single worker thread is still busy with a large candidate while the others are idle.
+ * @param <T> The type of candidate for which costs are estimated.
+ * @see AbstractEvolutionEngine#setCostEstimator(CostEstimator)
+ * @see LearnedCostEstimator
+ * @author Daniel Dyer
+ */
+public interface CostEstimator<T>
+{
+    /**
+     * Estimates the cost of evaluating the specified candidate.  Only the relative
+     * values are significant, so any convenient measure of size (such as the number
+     * of nodes in a tree or the number of elements in a list) may be used.  This method
+     * is invoked once per evaluation so it should be much cheaper than the fitness
+     * function itself.
+     * @param candidate The candidate whose fitness is to be evaluated.
+     * @return A non-negative estimate of the evaluation cost.
+     */
+    double estimateCost(T candidate);
+}
@@ -0,0 +1,43 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Strategy interface for measuring the genetic diversity of a population.  Unlike
+ * fitness statistics, diversity indicates whether the population has converged on
+ * a single region of the search space (at which point further evolution is unlikely
+ * to be productive).  Implementations should avoid the O(n<sup>2</sup>) cost of
+ * comparing every pair of individuals, either by working with per-locus statistics
+ * or by sampling.
+ * @param <T> The type of evolved entity that is measured.
+ * @see org.uncommons.watchmaker.framework.termination.DiversityThreshold
+ * @author Daniel Dyer
+ */
+public interface DiversityMeasure<T>
+{
+    /**
+     * Measure the diversity of the specified population.
+     * @param <S> The type of evolved entity that is measured, a sub-type of T.
+     * @param population The population to measure.  This will not be empty.
+     * @param rng A source of randomness for implementations that sample the population.
+     * @return A value between zero (all individuals are identical) and one (maximum
+     * diversity).
+     */
+    <S extends T> double getDiversity(List<EvaluatedCandidate<S>> population, Random rng);
+}
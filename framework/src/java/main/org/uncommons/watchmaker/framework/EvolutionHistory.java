@@ -0,0 +1,285 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+/**
+ * A fixed-capacity record of the statistics for the most recent generations of an
+ * evolution (best fitness, mean fitness, standard deviation, cumulative evaluation count
+ * and elapsed time).  Register an instance as an {@link EvolutionObserver} and it will
+ * record each generation as it completes.  Once the history is full, each new generation
+ * overwrites the oldest.
+ * <p>
+ * The statistics are held in arrays of primitives, so neither recording a generation nor
+ * querying the history allocates any objects.  This makes it suitable for use from
+ * termination conditions and observers that are invoked every generation.  Generations
+ * are addressed by age: zero is the most recent, one is the generation before that, and
+ * so on up to {@code size() - 1}.</p>
+ * <p>
+ * The history is not cleared automatically when a new evolution starts.  Call
+ * {@link #clear()} before re-using an instance.</p>
+ * @author Daniel Dyer
+ */
+public final class EvolutionHistory implements EvolutionObserver<Object>
+{
+    private final int capacity;
+    private final int[] generationNumbers;
+    private final double[] bestFitness;
+    private final double[] meanFitness;
+    private final double[] standardDeviations;
+    private final long[] evaluationCounts;
+    private final long[] elapsedTimes;
+
+    private int next = 0; // Index of the slot that will be written next.
+    private int size = 0;
+    private boolean naturalFitness = true;
+
+    /**
+     * @param capacity The maximum number of generations that will be retained.
+     */
+    public EvolutionHistory(int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.generationNumbers = new int[capacity];
+        this.bestFitness = new double[capacity];
+        this.meanFitness = new double[capacity];
+        this.standardDeviations = new double[capacity];
+        this.evaluationCounts = new long[capacity];
+        this.elapsedTimes = new long[capacity];
+    }
+
+
+    /**
+     * Records the statistics for the latest generation.
+     * @param data Statistics about the current generation.
+     */
+    public void populationUpdate(PopulationData<?> data)
+    {
+        record(data.getGenerationNumber(),
+               data.getBestCandidateFitness(),
+               data.getMeanFitness(),
+               data.getFitnessStandardDeviation(),
+               data.getEvaluationCount(),
+               data.getElapsedTime(),
+               data.isNaturalFitness());
+    }
+
+
+    /**
+     * Records the statistics for a generation.  This is useful when the statistics have not
+     * come from a {@link PopulationData} object (e.g. when replaying a log).
+     * @param generationNumber The (zero-based) generation number.
+     * @param best The fitness of the fittest candidate.
+     * @param mean The mean fitness of the population.
+     * @param standardDeviation The standard deviation of the population's fitness scores.
+     * @param evaluationCount The cumulative number of fitness evaluations.
+     * @param elapsedTime The number of milliseconds since the start of the evolution.
+     * @param natural True if higher fitness scores are better, false otherwise.
+     */
+    public synchronized void record(int generationNumber,
+                                    double best,
+                                    double mean,
+                                    double standardDeviation,
+                                    long evaluationCount,
+                                    long elapsedTime,
+                                    boolean natural)
+    {
+        generationNumbers[next] = generationNumber;
+        bestFitness[next] = best;
+        meanFitness[next] = mean;
+        standardDeviations[next] = standardDeviation;
+        evaluationCounts[next] = evaluationCount;
+        elapsedTimes[next] = elapsedTime;
+        naturalFitness = natural;
+        next = (next + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+    }
+
+
+    /**
+     * Discards all recorded generations.
+     */
+    public synchronized void clear()
+    {
+        next = 0;
+        size = 0;
+    }
+
+
+    /**
+     * @return The number of generations currently held (never more than the capacity).
+     */
+    public synchronized int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * @return The maximum number of generations that this history can hold.
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+
+    /**
+     * @return True if higher fitness scores are better, false otherwise (as reported
+     * by the most recently recorded generation).
+     */
+    public synchronized boolean isNaturalFitness()
+    {
+        return naturalFitness;
+    }
+
+
+    /**
+     * @param age How many generations ago (zero for the latest).
+     * @return The generation number of the specified generation.
+     */
+    public synchronized int getGenerationNumber(int age)
+    {
+        return generationNumbers[slot(age)];
+    }
+
+
+    /**
+     * @param age How many generations ago (zero for the latest).
+     * @return The fitness of the fittest candidate in the specified generation.
+     */
+    public synchronized double getBestFitness(int age)
+    {
+        return bestFitness[slot(age)];
+    }
+
+
+    /**
+     * @param age How many generations ago (zero for the latest).
+     * @return The mean fitness of the population in the specified generation.
+     */
+    public synchronized double getMeanFitness(int age)
+    {
+        return meanFitness[slot(age)];
+    }
+
+
+    /**
+     * @param age How many generations ago (zero for the latest).
+     * @return The standard deviation of fitness scores in the specified generation.
+     */
+    public synchronized double getFitnessStandardDeviation(int age)
+    {
+        return standardDeviations[slot(age)];
+    }
+
+
+    /**
+     * @param age How many generations ago (zero for the latest).
+     * @return The cumulative number of fitness evaluations at the end of the
+     * specified generation.
+     */
+    public synchronized long getEvaluationCount(int age)
+    {
+        return evaluationCounts[slot(age)];
+    }
+
+
+    /**
+     * @param age How many generations ago (zero for the latest).
+     * @return The number of milliseconds between the start of the evolution and
+     * the end of the specified generation.
+     */
+    public synchronized long getElapsedTime(int age)
+    {
+        return elapsedTimes[slot(age)];
+    }
+
+
+    /**
+     * Calculates how much the best fitness has improved over the last {@code window}
+     * generations.  The result is positive if fitness has got better, regardless of
+     * whether fitness scores are natural or non-natural.
+     * @param window The number of generations to look back over.  Must be less than
+     * {@link #size()}.
+     * @return The improvement in best fitness between the generation {@code window}
+     * generations ago and the latest generation.
+     */
+    public synchronized double getImprovement(int window)
+    {
+        double change = bestFitness[slot(0)] - bestFitness[slot(window)];
+        return naturalFitness ? change : -change;
+    }
+
+
+    /**
+     * Calculates the average improvement in best fitness per generation over the last
+     * {@code window} generations.  This is the measure to use when deciding whether
+     * the evolution is still making worthwhile progress.
+     * @param window The number of generations to look back over.  Must be less than
+     * {@link #size()}.
+     * @return The improvement in best fitness per generation (positive is better).
+     */
+    public synchronized double getImprovementRate(int window)
+    {
+        int generations = generationNumbers[slot(0)] - generationNumbers[slot(window)];
+        return generations == 0 ? 0 : getImprovement(window) / generations;
+    }
+
+
+    /**
+     * @param window The number of generations to look back over.  Must be less than
+     * {@link #size()}.
+     * @return The number of fitness evaluations performed per second over the last
+     * {@code window} generations, or {@link Double#NaN} if no measurable time has elapsed.
+     */
+    public synchronized double getEvaluationRate(int window)
+    {
+        long time = elapsedTimes[slot(0)] - elapsedTimes[slot(window)];
+        long evaluations = evaluationCounts[slot(0)] - evaluationCounts[slot(window)];
+        return time == 0 ? Double.NaN : evaluations * 1000d / time;
+    }
+
+
+    /**
+     * @param window The number of generations to look back over.  Must be less than
+     * {@link #size()}.
+     * @return The mean number of milliseconds per generation over the last {@code window}
+     * generations.
+     */
+    public synchronized double getMeanGenerationTime(int window)
+    {
+        int generations = generationNumbers[slot(0)] - generationNumbers[slot(window)];
+        long time = elapsedTimes[slot(0)] - elapsedTimes[slot(window)];
+        return generations == 0 ? 0 : (double) time / generations;
+    }
+
+
+    /**
+     * Maps an age to an array index.
+     */
+    private int slot(int age)
+    {
+        if (age < 0 || age >= size)
+        {
+            throw new IndexOutOfBoundsException("Age " + age + " is not in the history (size " + size + ").");
+        }
+        return (next - 1 - age + capacity) % capacity;
+    }
+}
@@ -18,6 +18,7 @@ package org.uncommons.watchmaker.framework;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import org.uncommons.maths.statistics.DataSet;
 
 /**
@@ -110,20 +111,207 @@ public final class EvolutionUtils
                                                           int eliteCount,
                                                           int iterationNumber,
                                                           long startTime)
+    {
+        return getPopulationData(evaluatedPopulation,
+                                 naturalFitness,
+                                 eliteCount,
+                                 iterationNumber,
+                                 startTime,
+                                 Double.NaN,
+                                 0);
+    }
+
+
+    /**
+     * Gets data about the current population, including the fittest candidate,
+     * statistics about the population as a whole, a pre-calculated measure
+     * of the population's diversity and the cumulative evaluation count.
+     *
+     * @param evaluatedPopulation Population of candidate solutions with their
+     * associated fitness scores.
+     * @param naturalFitness True if higher fitness scores mean fitter individuals, false otherwise.
+     * @param eliteCount The number of candidates preserved via elitism.
+     * @param iterationNumber The zero-based index of the current generation/epoch.
+     * @param startTime The time at which the evolution began, expressed as a number of milliseconds since
+     * 00:00 on 1st January 1970.
+     * @param diversity The diversity of the population, or {@link Double#NaN} if it
+     * has not been measured.
+     * @param evaluationCount The total number of fitness evaluations performed since
+     * the evolution began.
+     * @param <T> The type of entity that is being evolved.
+     * @return Statistics about the current generation of evolved individuals.
+     */
+    public static <T> PopulationData<T> getPopulationData(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                          boolean naturalFitness,
+                                                          int eliteCount,
+                                                          int iterationNumber,
+                                                          long startTime,
+                                                          double diversity,
+                                                          long evaluationCount)
     {
         DataSet stats = new DataSet(evaluatedPopulation.size());
+        // The population is usually sorted, but find the fittest candidate anyway so that
+        // engines that keep their populations in some other order don't have to sort them.
+        EvaluatedCandidate<T> best = evaluatedPopulation.get(0);
         for (EvaluatedCandidate<T> candidate : evaluatedPopulation)
         {
             stats.addValue(candidate.getFitness());
+            boolean fitter = naturalFitness
+                             ? candidate.getFitness() > best.getFitness()
+                             : candidate.getFitness() < best.getFitness();
+            if (fitter)
+            {
+                best = candidate;
+            }
         }
-        return new PopulationData<T>(evaluatedPopulation.get(0).getCandidate(),
-                                     evaluatedPopulation.get(0).getFitness(),
+        return new PopulationData<T>(best.getCandidate(),
+                                     best.getFitness(),
                                      stats.getArithmeticMean(),
                                      stats.getStandardDeviation(),
                                      naturalFitness,
                                      stats.getSize(),
                                      eliteCount,
                                      iterationNumber,
-                                     System.currentTimeMillis() - startTime);
+                                     System.currentTimeMillis() - startTime,
+                                     diversity,
+                                     evaluationCount);
+    }
+
+
+    /**
+     * Combines statistics about several sub-populations (e.g. the islands in an island
+     * model) into statistics for the population as a whole, without needing access to
+     * the individual candidates.  The mean and standard deviation are exact, since they
+     * are derived from the sizes, means and standard deviations of the parts.  Diversity
+     * cannot be combined in this way, so it is reported as {@link Double#NaN}.
+     * @param populations Statistics for each sub-population.  Must not be empty.
+     * @param naturalFitness True if higher fitness scores mean fitter individuals, false otherwise.
+     * @param iterationNumber The zero-based index of the current generation/epoch.
+     * @param startTime The time at which the evolution began, expressed as a number of milliseconds since
+     * 00:00 on 1st January 1970.
+     * @param <T> The type of entity that is being evolved.
+     * @return Statistics about the combined population.  The elite count and evaluation
+     * count are the totals for all of the sub-populations.
+     */
+    public static <T> PopulationData<T> mergePopulationData(List<? extends PopulationData<? extends T>> populations,
+                                                            boolean naturalFitness,
+                                                            int iterationNumber,
+                                                            long startTime)
+    {
+        long evaluationCount = 0;
+        for (PopulationData<? extends T> data : populations)
+        {
+            evaluationCount += data.getEvaluationCount();
+        }
+        return mergePopulationData(populations,
+                                   naturalFitness,
+                                   iterationNumber,
+                                   startTime,
+                                   Double.NaN,
+                                   evaluationCount);
+    }
+
+
+    /**
+     * Combines statistics about several sub-populations into statistics for the population
+     * as a whole, with a diversity and evaluation count that have been determined separately
+     * by the caller.  The cost is proportional to the number of sub-populations, not to the
+     * number of candidates.
+     * @param populations Statistics for each sub-population.  Must not be empty.
+     * @param naturalFitness True if higher fitness scores mean fitter individuals, false otherwise.
+     * @param iterationNumber The zero-based index of the current generation/epoch.
+     * @param startTime The time at which the evolution began, expressed as a number of milliseconds since
+     * 00:00 on 1st January 1970.
+     * @param diversity The diversity of the combined population, or {@link Double#NaN} if not measured.
+     * @param evaluationCount The total number of fitness evaluations performed so far.
+     * @param <T> The type of entity that is being evolved.
+     * @return Statistics about the combined population.  The elite count is the total for all
+     * of the sub-populations.
+     * @see #mergePopulationData(List, boolean, int, long)
+     */
+    public static <T> PopulationData<T> mergePopulationData(List<? extends PopulationData<? extends T>> populations,
+                                                            boolean naturalFitness,
+                                                            int iterationNumber,
+                                                            long startTime,
+                                                            double diversity,
+                                                            long evaluationCount)
+    {
+        PopulationData<? extends T> fittest = null;
+        int populationSize = 0;
+        int eliteCount = 0;
+        // Running mean and sum of squared deviations from the mean, combined pairwise
+        // (Chan et al.) rather than from raw sums of squares, which lose all precision
+        // when the scores are large relative to their spread.
+        double mean = 0;
+        double sumOfSquaredDeviations = 0;
+        for (PopulationData<? extends T> data : populations)
+        {
+            if (fittest == null || isFitter(data.getBestCandidateFitness(),
+                                            fittest.getBestCandidateFitness(),
+                                            naturalFitness))
+            {
+                fittest = data;
+            }
+            int size = data.getPopulationSize();
+            if (size > 0)
+            {
+                double standardDeviation = data.getFitnessStandardDeviation();
+                int combinedSize = populationSize + size;
+                double delta = data.getMeanFitness() - mean;
+                mean += delta * size / combinedSize;
+                sumOfSquaredDeviations += standardDeviation * standardDeviation * size
+                                          + delta * delta * ((double) populationSize * size / combinedSize);
+                populationSize = combinedSize;
+            }
+            eliteCount += data.getEliteCount();
+        }
+        if (fittest == null)
+        {
+            throw new IllegalArgumentException("Cannot merge an empty list of populations.");
+        }
+        return new PopulationData<T>(fittest.getBestCandidate(),
+                                     fittest.getBestCandidateFitness(),
+                                     mean,
+                                     Math.sqrt(sumOfSquaredDeviations / populationSize),
+                                     naturalFitness,
+                                     populationSize,
+                                     eliteCount,
+                                     iterationNumber,
+                                     System.currentTimeMillis() - startTime,
+                                     diversity,
+                                     evaluationCount);
+    }
+
+
+    /**
+     * @return True if {@code fitness1} is better than {@code fitness2}.
+     */
+    private static boolean isFitter(double fitness1, double fitness2, boolean naturalFitness)
+    {
+        return naturalFitness ? fitness1 > fitness2 : fitness1 < fitness2;
+    }
+
+
+    /**
+     * Moves a uniformly random sample of distinct members to the end of a list, using
+     * the first {@code count} steps of a Fisher-Yates shuffle.  Only {@code count} swaps
+     * are performed, rather than shuffling the whole list.  The order of the other members
+     * changes but they remain in the list.
+     * @param list The list to sample from, which should support efficient random access.
+     * @param count The number of members to sample.
+     * @param rng A source of randomness.
+     * @param <E> The type of list element.
+     */
+    public static <E> void moveRandomSampleToEnd(List<E> list, int count, Random rng)
+    {
+        if (count > list.size())
+        {
+            throw new IllegalArgumentException("Sample size must not exceed list size.");
+        }
+        for (int i = list.size() - 1; i >= list.size() - count; i--)
+        {
+            int j = rng.nextInt(i + 1);
+            list.set(j, list.set(i, list.get(j)));
+        }
     }
 }
@@ -77,12 +77,29 @@ public class FitnessEvaluationWorker
     }
 
 
+    /**
+     * Submits a fitness evaluation to the worker threads.
+     * @param task The evaluation to perform.
+     * @param <T> The type of entity that is evaluated.
+     * @return A future that provides the evaluated candidate.
+     */
     public <T> Future<EvaluatedCandidate<T>> submit(FitnessEvalutationTask<T> task)
     {
         return executor.submit(task);
     }
 
 
+    /**
+     * Submits work other than fitness evaluation (such as breeding) to the worker threads.
+     * @param task The task to run.
+     * @return A future that completes when the task has run.
+     */
+    Future<?> submit(Runnable task)
+    {
+        return executor.submit(task);
+    }
+
+
     /**
      * Entry-point for running this class standalone, as an additional node for fitness evaluations.
      * If this method is invoked without using Terracotta (or similar) to share the work queue, the
@@ -28,6 +28,7 @@ class FitnessEvalutationTask<T> implements Callable<EvaluatedCandidate<T>>
     private final FitnessEvaluator<? super T> fitnessEvaluator;
     private final T candidate;
     private final List<T> population;
+    private final LearnedCostEstimator<? super T> costModel;
 
     /**
      * Creates a task for performing fitness evaluations.
@@ -40,16 +41,41 @@ class FitnessEvalutationTask<T> implements Callable<EvaluatedCandidate<T>>
     FitnessEvalutationTask(FitnessEvaluator<? super T> fitnessEvaluator,
                            T candidate,
                            List<T> population)
+    {
+        this(fitnessEvaluator, candidate, population, null);
+    }
+
+
+    /**
+     * Creates a task for performing fitness evaluations that reports the time taken
+     * to a cost model.
+     * @param fitnessEvaluator The fitness function used to determine candidate fitness.
+     * @param candidate The candidate to evaluate.
+     * @param population The entire current population.
+     * @param costModel The cost model that learns from evaluation times (may be null).
+     */
+    FitnessEvalutationTask(FitnessEvaluator<? super T> fitnessEvaluator,
+                           T candidate,
+                           List<T> population,
+                           LearnedCostEstimator<? super T> costModel)
     {
         this.fitnessEvaluator = fitnessEvaluator;
         this.candidate = candidate;
         this.population = population;
+        this.costModel = costModel;
     }
 
 
     public EvaluatedCandidate<T> call()
     {
-        return new EvaluatedCandidate<T>(candidate,
-                                         fitnessEvaluator.getFitness(candidate, population));
+        if (costModel == null)
+        {
+            return new EvaluatedCandidate<T>(candidate,
+                                             fitnessEvaluator.getFitness(candidate, population));
+        }
+        long startTime = System.nanoTime();
+        double fitness = fitnessEvaluator.getFitness(candidate, population);
+        costModel.recordEvaluation(candidate, System.nanoTime() - startTime);
+        return new EvaluatedCandidate<T>(candidate, fitness);
     }
 }
@@ -0,0 +1,411 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
+
+/**
+ * <p>A generational evolutionary algorithm with built-in tournament selection that
+ * only evaluates the candidates that it actually needs.  With tournament selection,
+ * a candidate's fitness is only relevant if it is drawn into at least one tournament.
+ * When tournaments are small, a substantial proportion of each generation is never
+ * drawn, so evaluating the whole population (as {@link GenerationalEvolutionEngine}
+ * does) wastes effort.</p>
+ *
+ * <p>Before each round of selection, this engine draws the entrants for all of the
+ * generation's tournaments and then evaluates, as a single batch, those entrants that
+ * do not yet have a fitness score.  The batch is distributed across the worker threads
+ * in the same way as a full population would be (unless the engine is
+ * {@link #setSingleThreaded(boolean) single-threaded}).  Scores are memoised: elite
+ * candidates, and any other candidates that survive into the next generation unchanged
+ * (i.e. the same object), are not evaluated again.</p>
+ *
+ * <p>Because not every candidate is evaluated, the population statistics passed to
+ * observers and termination conditions (and the population returned by
+ * {@link #evolvePopulation(int, int, TerminationCondition[])}) cover only the evaluated
+ * candidates.  Passing that population back to
+ * {@link #evolvePopulation(List, int, TerminationCondition[])} continues with the full
+ * generation, since the engine remembers the members that it did not evaluate.
+ * Elite candidates are the fittest of those that have been evaluated.
+ * The fitness evaluator is passed the batch being evaluated rather than the entire
+ * population, so this engine is not suitable for evaluators whose scores depend on
+ * the other members of the population.</p>
+ *
+ * @param <T> The type of entity that is to be evolved.
+ * @see org.uncommons.watchmaker.framework.selection.TournamentSelection
+ * @author Daniel Dyer
+ */
+public class LazyTournamentEvolutionEngine<T> extends AbstractEvolutionEngine<T>
+{
+    private final EvolutionaryOperator<T> evolutionScheme;
+    private final FitnessEvaluator<? super T> fitnessEvaluator;
+    private final int tournamentSize;
+    private final ProbabilityGenerator selectionProbability;
+
+    // The current generation, only accessed from the request thread.
+    private List<T> generation;
+    // Fitness scores for the current generation (NaN if not evaluated).
+    private double[] scores;
+    // Indices of the entrants for each tournament, tournamentSize entries per tournament.
+    private int[] entrants;
+
+    /**
+     * Creates a lazily-evaluating engine with a fixed tournament selection probability.
+     * @param candidateFactory Factory used to create the initial population that is
+     * iteratively evolved.
+     * @param evolutionScheme The combination of evolutionary operators used to evolve
+     * the population at each generation.
+     * @param fitnessEvaluator A function for assigning fitness scores to candidate
+     * solutions.
+     * @param tournamentSize The number of candidates that are drawn at random for each
+     * tournament.  Must be at least 2.
+     * @param selectionProbability The probability that the fittest entrant wins a
+     * tournament.  Must be greater than 0.5 for the same reasons as with
+     * {@link org.uncommons.watchmaker.framework.selection.TournamentSelection}.
+     * @param rng The source of randomness used by all stochastic processes (including
+     * evolutionary operators and selection).
+     */
+    public LazyTournamentEvolutionEngine(CandidateFactory<T> candidateFactory,
+                                         EvolutionaryOperator<T> evolutionScheme,
+                                         FitnessEvaluator<? super T> fitnessEvaluator,
+                                         int tournamentSize,
+                                         Probability selectionProbability,
+                                         Random rng)
+    {
+        this(candidateFactory,
+             evolutionScheme,
+             fitnessEvaluator,
+             tournamentSize,
+             new ConstantGenerator<Probability>(selectionProbability),
+             rng);
+        if (selectionProbability.doubleValue() <= 0.5)
+        {
+            throw new IllegalArgumentException("Selection threshold must be greater than 0.5.");
+        }
+    }
+
+
+    /**
+     * Creates a lazily-evaluating engine with a variable tournament selection probability.
+     * @param candidateFactory Factory used to create the initial population that is
+     * iteratively evolved.
+     * @param evolutionScheme The combination of evolutionary operators used to evolve
+     * the population at each generation.
+     * @param fitnessEvaluator A function for assigning fitness scores to candidate
+     * solutions.
+     * @param tournamentSize The number of candidates that are drawn at random for each
+     * tournament.  Must be at least 2.
+     * @param selectionProbability A number generator that produces values in the range
+     * {@literal 0.5 < p < 1}.  These values are used as the probability of the fittest
+     * entrant winning any given tournament.
+     * @param rng The source of randomness used by all stochastic processes (including
+     * evolutionary operators and selection).
+     */
+    public LazyTournamentEvolutionEngine(CandidateFactory<T> candidateFactory,
+                                         EvolutionaryOperator<T> evolutionScheme,
+                                         FitnessEvaluator<? super T> fitnessEvaluator,
+                                         int tournamentSize,
+                                         NumberGenerator<Probability> selectionProbability,
+                                         Random rng)
+    {
+        super(candidateFactory, fitnessEvaluator, rng);
+        if (tournamentSize < 2)
+        {
+            throw new IllegalArgumentException("Tournament size must be at least 2.");
+        }
+        this.evolutionScheme = evolutionScheme;
+        this.fitnessEvaluator = fitnessEvaluator;
+        this.tournamentSize = tournamentSize;
+        this.selectionProbability = ProbabilityGeneratorAdapter.adapt(selectionProbability);
+    }
+
+
+    /**
+     * Draws the first round of tournaments and evaluates only the entrants (plus enough
+     * other candidates to satisfy elitism, if necessary).
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<EvaluatedCandidate<T>> evaluateInitialPopulation(List<T> population,
+                                                                    int eliteCount,
+                                                                    Random rng)
+    {
+        double[] initialScores = new double[population.size()];
+        Arrays.fill(initialScores, Double.NaN);
+        return prepareGeneration(population, initialScores, eliteCount, rng);
+    }
+
+
+    /**
+     * Draws the first round of tournaments for a population that has already been
+     * evaluated.  If the population descends from the one most recently returned by this
+     * engine, the members of that generation that were never evaluated (and so were left
+     * out of the returned population) are restored too, so that continuing the evolution
+     * does not shrink the population.
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<EvaluatedCandidate<T>> restorePopulation(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                            int eliteCount,
+                                                            Random rng)
+    {
+        List<T> unevaluated = findUnevaluatedMembers(evaluatedPopulation);
+        List<T> population = new ArrayList<T>(evaluatedPopulation.size() + unevaluated.size());
+        double[] knownScores = new double[evaluatedPopulation.size() + unevaluated.size()];
+        Arrays.fill(knownScores, Double.NaN);
+        for (int i = 0; i < evaluatedPopulation.size(); i++)
+        {
+            population.add(evaluatedPopulation.get(i).getCandidate());
+            knownScores[i] = evaluatedPopulation.get(i).getFitness();
+        }
+        population.addAll(unevaluated);
+        return prepareGeneration(population, knownScores, eliteCount, rng);
+    }
+
+
+    /**
+     * Finds the members of the most recent generation that have not been evaluated.
+     * @param evaluatedPopulation The population that is being restored.
+     * @return The unevaluated members, or an empty list if the population being restored
+     * has no members in common with the most recent generation (i.e. it is not a
+     * continuation of this engine's previous evolution).
+     */
+    private List<T> findUnevaluatedMembers(List<EvaluatedCandidate<T>> evaluatedPopulation)
+    {
+        List<T> unevaluated = new ArrayList<T>();
+        if (generation != null)
+        {
+            Map<T, Boolean> restored = new IdentityHashMap<T, Boolean>(evaluatedPopulation.size() * 2);
+            for (EvaluatedCandidate<T> candidate : evaluatedPopulation)
+            {
+                restored.put(candidate.getCandidate(), Boolean.TRUE);
+            }
+            boolean continuation = false;
+            for (int i = 0; i < generation.size(); i++)
+            {
+                if (Double.isNaN(scores[i]))
+                {
+                    unevaluated.add(generation.get(i));
+                }
+                else if (restored.containsKey(generation.get(i)))
+                {
+                    continuation = true;
+                }
+            }
+            if (!continuation)
+            {
+                unevaluated.clear();
+            }
+        }
+        return unevaluated;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<EvaluatedCandidate<T>> nextEvolutionStep(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                            int eliteCount,
+                                                            Random rng)
+    {
+        // Remember existing scores so that unchanged survivors are not re-evaluated.
+        Map<T, Double> memo = new IdentityHashMap<T, Double>(evaluatedPopulation.size() * 2);
+        for (EvaluatedCandidate<T> candidate : evaluatedPopulation)
+        {
+            memo.put(candidate.getCandidate(), candidate.getFitness());
+        }
+
+        List<T> population = new ArrayList<T>(generation.size());
+        population.addAll(evolutionScheme.apply(runTournaments(rng), rng));
+        // The evaluated population is sorted, so the elite are at the start.
+        for (int i = 0; i < eliteCount; i++)
+        {
+            population.add(evaluatedPopulation.get(i).getCandidate());
+        }
+
+        double[] nextScores = new double[population.size()];
+        for (int i = 0; i < nextScores.length; i++)
+        {
+            Double score = memo.get(population.get(i));
+            nextScores[i] = score == null ? Double.NaN : score;
+        }
+        return prepareGeneration(population, nextScores, eliteCount, rng);
+    }
+
+
+    /**
+     * Draws the entrants for the next round of tournaments and evaluates those that
+     * have not yet been evaluated.
+     * @param population The complete population.
+     * @param populationScores Known fitness scores for the population, NaN for candidates
+     * that have not been evaluated.  Updated in place.
+     * @param eliteCount The number of candidates that will be preserved by elitism.
+     * @param rng A source of randomness.
+     * @return The candidates that have fitness scores.
+     */
+    private List<EvaluatedCandidate<T>> prepareGeneration(List<T> population,
+                                                          double[] populationScores,
+                                                          int eliteCount,
+                                                          Random rng)
+    {
+        int size = population.size();
+        entrants = new int[(size - eliteCount) * tournamentSize];
+        boolean[] demanded = new boolean[size];
+        int[] pending = new int[size];
+        int pendingCount = 0;
+        for (int i = 0; i < entrants.length; i++)
+        {
+            int index = rng.nextInt(size);
+            entrants[i] = index;
+            if (!demanded[index] && Double.isNaN(populationScores[index]))
+            {
+                demanded[index] = true;
+                pending[pendingCount++] = index;
+            }
+        }
+
+        // Elitism requires at least eliteCount evaluated candidates.
+        int evaluatedCount = pendingCount;
+        for (double score : populationScores)
+        {
+            evaluatedCount += Double.isNaN(score) ? 0 : 1;
+        }
+        for (int i = 0; evaluatedCount < eliteCount && i < size; i++)
+        {
+            if (!demanded[i] && Double.isNaN(populationScores[i]))
+            {
+                pending[pendingCount++] = i;
+                ++evaluatedCount;
+            }
+        }
+
+        // Evaluate all of the demanded candidates as a single batch.
+        List<T> batch = new ArrayList<T>(pendingCount);
+        for (int i = 0; i < pendingCount; i++)
+        {
+            batch.add(population.get(pending[i]));
+        }
+        List<EvaluatedCandidate<T>> results = evaluatePopulation(batch);
+        // If the thread was interrupted, there may be fewer results than candidates.
+        for (int i = 0; i < results.size(); i++)
+        {
+            populationScores[pending[i]] = results.get(i).getFitness();
+        }
+
+        List<EvaluatedCandidate<T>> evaluatedPopulation = new ArrayList<EvaluatedCandidate<T>>(evaluatedCount);
+        for (int i = 0; i < size; i++)
+        {
+            if (!Double.isNaN(populationScores[i]))
+            {
+                evaluatedPopulation.add(new EvaluatedCandidate<T>(population.get(i), populationScores[i]));
+            }
+        }
+        this.generation = population;
+        this.scores = populationScores;
+        return evaluatedPopulation;
+    }
+
+
+    /**
+     * Decides the tournaments for the current generation, using the entrants that were
+     * drawn (and evaluated) when the generation was prepared.  Placings are decided in
+     * the same way as by {@link org.uncommons.watchmaker.framework.selection.TournamentSelection}:
+     * the fittest entrant wins with probability p, otherwise the second fittest wins with
+     * probability p, and so on.
+     * @param rng A source of randomness.
+     * @return The winner of each tournament.
+     */
+    private List<T> runTournaments(Random rng)
+    {
+        boolean natural = fitnessEvaluator.isNatural();
+        List<T> selection = new ArrayList<T>(entrants.length / tournamentSize);
+        for (int offset = 0; offset < entrants.length; offset += tournamentSize)
+        {
+            int place = 0;
+            while (place < tournamentSize - 1 && !selectionProbability.nextEvent(rng))
+            {
+                ++place;
+            }
+            int winner = place == 0 ? findFittest(offset, natural) : rankEntrants(offset, natural)[offset + place];
+            selection.add(generation.get(winner));
+        }
+        return selection;
+    }
+
+
+    /**
+     * @return The index of the fittest entrant in the tournament that starts at the
+     * specified offset.
+     */
+    private int findFittest(int offset, boolean natural)
+    {
+        int fittest = entrants[offset];
+        for (int i = offset + 1; i < offset + tournamentSize; i++)
+        {
+            if (beats(entrants[i], fittest, natural))
+            {
+                fittest = entrants[i];
+            }
+        }
+        return fittest;
+    }
+
+
+    /**
+     * Sorts the entrants of the tournament that starts at the specified offset, fittest
+     * first.  Tournaments are small, so an insertion sort is used.
+     * @return The entrants.
+     */
+    private int[] rankEntrants(int offset, boolean natural)
+    {
+        for (int i = offset + 1; i < offset + tournamentSize; i++)
+        {
+            int entrant = entrants[i];
+            int j = i;
+            while (j > offset && beats(entrant, entrants[j - 1], natural))
+            {
+                entrants[j] = entrants[j - 1];
+                --j;
+            }
+            entrants[j] = entrant;
+        }
+        return entrants;
+    }
+
+
+    /**
+     * Ties are resolved in the same way as by tournament selection: with natural fitness
+     * the earlier entrant wins, otherwise the later one does.
+     * @return True if the challenger should be ranked above the incumbent.
+     */
+    private boolean beats(int challenger, int incumbent, boolean natural)
+    {
+        return natural
+               ? scores[challenger] > scores[incumbent]
+               : scores[challenger] <= scores[incumbent];
+    }
+}
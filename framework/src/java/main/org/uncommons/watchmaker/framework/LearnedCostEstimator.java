@@ -0,0 +1,178 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import org.uncommons.maths.binary.BitString;
+
+/**
+ * A {@link CostEstimator} that learns, from the timings of completed evaluations,
+ * how evaluation cost relates to the size of a candidate.  The evolution engine reports
+ * the time taken by each evaluation, and this class fits a linear model (by least
+ * squares) of evaluation time against a size measure.  If observed timings show no
+ * positive relationship with size, all candidates are given the same estimate, so
+ * evaluations are dispatched in their original order.
+ * <p>
+ * Because the fitted model is linear with a positive slope, candidates are dispatched in
+ * descending order of size whenever the model is used.  What is learned is whether the
+ * size measure is worth using at all, so that time is not wasted reordering candidates
+ * whose evaluation cost does not depend on their size.  The estimates themselves are
+ * in nanoseconds.</p>
+ * <p>
+ * By default the size of a candidate is the number of elements for collections,
+ * maps and arrays, the length for character sequences (such as strings) and bit strings,
+ * and 1 for any other type of object.  Candidates of any other variable-size type (such
+ * as program trees, whose size is the number of nodes) are all the same size as far as the
+ * default measure is concerned, so they need an explicit size measure to be reordered.</p>
+ * <p>
+ * This is the estimator that evolution engines use unless another is specified.</p>
+ * @param <T> The type of candidate for which costs are estimated.
+ * @author Daniel Dyer
+ */
+public class LearnedCostEstimator<T> implements CostEstimator<T>
+{
+    /**
+     * The minimum number of observations required before the learned model is used.
+     */
+    private static final int MINIMUM_OBSERVATIONS = 10;
+
+    private final CostEstimator<? super T> sizeMeasure;
+
+    private long observations = 0;
+    private double sumSize = 0;
+    private double sumTime = 0;
+    private double sumSizeSquared = 0;
+    private double sumSizeTime = 0;
+
+    /**
+     * Creates a cost estimator that uses the default size measure for candidates
+     * (number of elements, characters or bits).
+     */
+    public LearnedCostEstimator()
+    {
+        this(new CostEstimator<Object>()
+        {
+            public double estimateCost(Object candidate)
+            {
+                return getDefaultSize(candidate);
+            }
+        });
+    }
+
+
+    /**
+     * Creates a cost estimator that uses the specified measure of candidate size.
+     * @param sizeMeasure A function that returns the size of a candidate.  Its values
+     * are calibrated against observed evaluation times.
+     */
+    public LearnedCostEstimator(CostEstimator<? super T> sizeMeasure)
+    {
+        this.sizeMeasure = sizeMeasure;
+    }
+
+
+    /**
+     * Estimates the number of nanoseconds required to evaluate the candidate.
+     * Until enough evaluations have been observed, this is simply the size of the
+     * candidate.
+     * @param candidate The candidate whose fitness is to be evaluated.
+     * @return The estimated cost.
+     */
+    public double estimateCost(T candidate)
+    {
+        double size = sizeMeasure.estimateCost(candidate);
+        synchronized (this)
+        {
+            if (observations < MINIMUM_OBSERVATIONS)
+            {
+                return size;
+            }
+            double meanSize = sumSize / observations;
+            double meanTime = sumTime / observations;
+            double variance = sumSizeSquared / observations - meanSize * meanSize;
+            double covariance = sumSizeTime / observations - meanSize * meanTime;
+            if (variance <= 0 || covariance <= 0)
+            {
+                return meanTime; // Size is no use as a predictor.
+            }
+            double slope = covariance / variance;
+            return Math.max(0, meanTime + slope * (size - meanSize));
+        }
+    }
+
+
+    /**
+     * Records the time taken to evaluate a candidate.  This is invoked by the evolution
+     * engine after each evaluation, possibly from several threads concurrently.
+     * @param candidate The candidate that was evaluated.
+     * @param nanoseconds The time taken by the evaluation.
+     */
+    public void recordEvaluation(T candidate, long nanoseconds)
+    {
+        double size = sizeMeasure.estimateCost(candidate);
+        synchronized (this)
+        {
+            ++observations;
+            sumSize += size;
+            sumTime += nanoseconds;
+            sumSizeSquared += size * size;
+            sumSizeTime += size * nanoseconds;
+        }
+    }
+
+
+    /**
+     * @return The number of evaluations that have been observed.
+     */
+    public synchronized long getObservationCount()
+    {
+        return observations;
+    }
+
+
+    /**
+     * Default size measure.
+     */
+    private static double getDefaultSize(Object candidate)
+    {
+        if (candidate instanceof Collection)
+        {
+            return ((Collection<?>) candidate).size();
+        }
+        else if (candidate instanceof Map)
+        {
+            return ((Map<?, ?>) candidate).size();
+        }
+        else if (candidate instanceof CharSequence)
+        {
+            return ((CharSequence) candidate).length();
+        }
+        else if (candidate instanceof BitString)
+        {
+            return ((BitString) candidate).getLength();
+        }
+        else if (candidate != null && candidate.getClass().isArray())
+        {
+            return Array.getLength(candidate);
+        }
+        else
+        {
+            return 1;
+        }
+    }
+}
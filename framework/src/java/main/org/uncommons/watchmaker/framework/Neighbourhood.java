@@ -0,0 +1,97 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+/**
+ * The shape of the neighbourhood from which each cell of a {@link CellularEvolutionEngine}
+ * chooses its mate.  A neighbourhood is a set of offsets from the cell (which is not itself
+ * a member of its neighbourhood).
+ * @author Daniel Dyer
+ */
+public final class Neighbourhood
+{
+    /**
+     * The four cells that share an edge with the centre cell (north, south, west and east).
+     */
+    public static final Neighbourhood VON_NEUMANN = new Neighbourhood(new int[]{0, 0, -1, 1},
+                                                                      new int[]{-1, 1, 0, 0});
+
+    /**
+     * The eight cells that share an edge or a corner with the centre cell.
+     */
+    public static final Neighbourhood MOORE = new Neighbourhood(new int[]{-1, 0, 1, -1, 1, -1, 0, 1},
+                                                                new int[]{-1, -1, -1, 0, 0, 1, 1, 1});
+
+    private final int[] columnOffsets;
+    private final int[] rowOffsets;
+
+
+    /**
+     * Creates a custom neighbourhood (for example, a larger radius than the standard
+     * neighbourhoods).
+     * @param columnOffsets The horizontal offset of each neighbour from the centre cell.
+     * @param rowOffsets The vertical offset of each neighbour from the centre cell.
+     */
+    public Neighbourhood(int[] columnOffsets, int[] rowOffsets)
+    {
+        if (columnOffsets.length != rowOffsets.length || columnOffsets.length == 0)
+        {
+            throw new IllegalArgumentException("Neighbourhood must have at least one neighbour.");
+        }
+        for (int i = 0; i < columnOffsets.length; i++)
+        {
+            if (columnOffsets[i] == 0 && rowOffsets[i] == 0)
+            {
+                throw new IllegalArgumentException("A cell is not its own neighbour.");
+            }
+        }
+        this.columnOffsets = columnOffsets.clone();
+        this.rowOffsets = rowOffsets.clone();
+    }
+
+
+    /**
+     * @return The number of neighbours that each cell has.
+     */
+    public int size()
+    {
+        return columnOffsets.length;
+    }
+
+
+    /**
+     * Finds a neighbour of a cell on a toroidal grid (opposite edges are adjacent).
+     * @param index The index of the centre cell, in row-major order.
+     * @param neighbour The index of the neighbour (between zero and the size of the
+     * neighbourhood).
+     * @param width The width of the grid.
+     * @param height The height of the grid.
+     * @return The index of the neighbouring cell, in row-major order.
+     */
+    int getNeighbour(int index, int neighbour, int width, int height)
+    {
+        int column = wrap(index % width + columnOffsets[neighbour], width);
+        int row = wrap(index / width + rowOffsets[neighbour], height);
+        return row * width + column;
+    }
+
+
+    private static int wrap(int coordinate, int limit)
+    {
+        int wrapped = coordinate % limit;
+        return wrapped < 0 ? wrapped + limit : wrapped;
+    }
+}
@@ -35,6 +35,8 @@ public final class PopulationData<T>
     private final int eliteCount;
     private final int generationNumber;
     private final long elapsedTime;
+    private final double diversity;
+    private final long evaluationCount;
 
     /**
      * @param bestCandidate The fittest candidate present in the population.
@@ -61,6 +63,98 @@ public final class PopulationData<T>
                           int eliteCount,
                           int generationNumber,
                           long elapsedTime)
+    {
+        this(bestCandidate,
+             bestCandidateFitness,
+             meanFitness,
+             fitnessStandardDeviation,
+             naturalFitness,
+             populationSize,
+             eliteCount,
+             generationNumber,
+             elapsedTime,
+             Double.NaN);
+    }
+
+
+    /**
+     * @param bestCandidate The fittest candidate present in the population.
+     * @param bestCandidateFitness The fitness score for the fittest candidate
+     * in the population.
+     * @param meanFitness The arithmetic mean of fitness scores for each member
+     * of the population.
+     * @param fitnessStandardDeviation A measure of the variation in fitness
+     * scores.
+     * @param naturalFitness True if higher fitness scores are better, false
+     * otherwise. 
+     * @param populationSize The number of individuals in the population.
+     * @param eliteCount The number of candidates preserved via elitism.
+     * @param generationNumber The (zero-based) number of the last generation
+     * that was processed.
+     * @param elapsedTime The number of milliseconds since the start of the
+     * evolution.
+     * @param diversity The genetic diversity of the population (between zero and
+     * one), or {@link Double#NaN} if diversity is not being measured.
+     * @see DiversityMeasure
+     */
+    public PopulationData(T bestCandidate,
+                          double bestCandidateFitness,
+                          double meanFitness,
+                          double fitnessStandardDeviation,
+                          boolean naturalFitness,
+                          int populationSize,
+                          int eliteCount,
+                          int generationNumber,
+                          long elapsedTime,
+                          double diversity)
+    {
+        this(bestCandidate,
+             bestCandidateFitness,
+             meanFitness,
+             fitnessStandardDeviation,
+             naturalFitness,
+             populationSize,
+             eliteCount,
+             generationNumber,
+             elapsedTime,
+             diversity,
+             0);
+    }
+
+
+    /**
+     * @param bestCandidate The fittest candidate present in the population.
+     * @param bestCandidateFitness The fitness score for the fittest candidate
+     * in the population.
+     * @param meanFitness The arithmetic mean of fitness scores for each member
+     * of the population.
+     * @param fitnessStandardDeviation A measure of the variation in fitness
+     * scores.
+     * @param naturalFitness True if higher fitness scores are better, false
+     * otherwise. 
+     * @param populationSize The number of individuals in the population.
+     * @param eliteCount The number of candidates preserved via elitism.
+     * @param generationNumber The (zero-based) number of the last generation
+     * that was processed.
+     * @param elapsedTime The number of milliseconds since the start of the
+     * evolution.
+     * @param diversity The genetic diversity of the population (between zero and
+     * one), or {@link Double#NaN} if diversity is not being measured.
+     * @param evaluationCount The total number of fitness evaluations performed since
+     * the start of the evolution.
+     * @see DiversityMeasure
+     */
+    public PopulationData(T bestCandidate,
+                          double bestCandidateFitness,
+                          double meanFitness,
+                          double fitnessStandardDeviation,
+                          boolean naturalFitness,
+                          int populationSize,
+                          int eliteCount,
+                          int generationNumber,
+                          long elapsedTime,
+                          double diversity,
+                          long evaluationCount)
     {
         this.bestCandidate = bestCandidate;
         this.bestCandidateFitness = bestCandidateFitness;
@@ -71,6 +165,8 @@ public final class PopulationData<T>
         this.eliteCount = eliteCount;
         this.generationNumber = generationNumber;
         this.elapsedTime = elapsedTime;
+        this.diversity = diversity;
+        this.evaluationCount = evaluationCount;
     }
 
 
@@ -162,4 +258,30 @@ public final class PopulationData<T>
     {
         return elapsedTime;
     }
+
+
+    /**
+     * Returns the genetic diversity of the population, as calculated by the
+     * {@link DiversityMeasure} configured for the evolution engine.
+     * @return A value between zero (all individuals identical) and one, or
+     * {@link Double#NaN} if no diversity measure has been configured.
+     */
+    public double getDiversity()
+    {
+        return diversity;
+    }
+
+
+    /**
+     * Returns the number of fitness evaluations performed since the start of the
+     * evolutionary algorithm's execution.  This is a better measure of computational
+     * effort than the generation number since different types of engine evaluate
+     * different numbers of candidates per generation.
+     * @return The cumulative number of fitness evaluations, or zero if this
+     * information was not recorded.
+     */
+    public long getEvaluationCount()
+    {
+        return evaluationCount;
+    }
 }
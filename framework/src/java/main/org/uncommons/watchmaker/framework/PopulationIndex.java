@@ -0,0 +1,312 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.List;
+
+/**
+ * An order-statistic index over the slots of a fixed-size population.  The population
+ * itself stays in place; the index records the fitness ranking of its slots in a
+ * size-augmented treap, so that the slot holding the n-th fittest candidate can be found,
+ * and a slot can be re-ranked after its candidate is replaced, in O(log n) time.  Each
+ * node also carries the sum and sum of squares of the fitness scores beneath it so that
+ * the mean and standard deviation of the whole population are always available without
+ * a scan.
+ * <p/>
+ * Nodes are identified by slot number and stored in parallel arrays, so replacing a
+ * candidate allocates nothing.  Candidates with equal fitness are ranked by slot number.
+ * @author Daniel Dyer
+ */
+final class PopulationIndex
+{
+    private static final int NIL = -1;
+
+    private final boolean naturalFitness;
+    private final double[] fitness;
+    private final int[] left;
+    private final int[] right;
+    private final int[] size;
+    private final int[] priority;
+    // Sums are of offsets from the initial mean, which keeps the variance calculation
+    // accurate when the scores are large relative to their spread.
+    private final double offset;
+    private final double[] sum;
+    private final double[] sumOfSquares;
+
+    private int root = NIL;
+    private int seed = 0x2545F491;
+
+    // Results of the most recent call to split.
+    private int splitLeft;
+    private int splitRight;
+
+
+    /**
+     * Indexes every slot of the specified population.
+     * @param population The population to index.  Slot numbers are positions in this list.
+     * @param naturalFitness True if higher fitness scores mean fitter individuals, false otherwise.
+     */
+    PopulationIndex(List<? extends EvaluatedCandidate<?>> population, boolean naturalFitness)
+    {
+        this.naturalFitness = naturalFitness;
+        int count = population.size();
+        this.fitness = new double[count];
+        this.left = new int[count];
+        this.right = new int[count];
+        this.size = new int[count];
+        this.priority = new int[count];
+        this.sum = new double[count];
+        this.sumOfSquares = new double[count];
+        double total = 0;
+        for (int i = 0; i < count; i++)
+        {
+            fitness[i] = population.get(i).getFitness();
+            total += fitness[i];
+        }
+        this.offset = count == 0 ? 0 : total / count;
+        for (int i = 0; i < count; i++)
+        {
+            insert(i);
+        }
+    }
+
+
+    /**
+     * @return The number of indexed slots.
+     */
+    public int size()
+    {
+        return root == NIL ? 0 : size[root];
+    }
+
+
+    /**
+     * Finds the slot that holds the candidate with the specified rank.
+     * @param rank A zero-based rank; zero is the fittest candidate and {@code size() - 1}
+     * is the weakest.
+     * @return The slot of the candidate at that rank.
+     */
+    public int getSlot(int rank)
+    {
+        if (rank < 0 || rank >= size())
+        {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of range, size is " + size());
+        }
+        int node = root;
+        int remaining = rank;
+        while (true)
+        {
+            int leftSize = sizeOf(left[node]);
+            if (remaining < leftSize)
+            {
+                node = left[node];
+            }
+            else if (remaining == leftSize)
+            {
+                return node;
+            }
+            else
+            {
+                remaining -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+
+    /**
+     * Re-ranks a slot after the candidate that occupies it has been replaced.
+     * @param slot The slot whose candidate has changed.
+     * @param newFitness The fitness of the new occupant.
+     */
+    public void update(int slot, double newFitness)
+    {
+        split(root, slot);
+        int before = splitLeft;
+        // The slot is the first node of the right-hand tree since no other node has the same key.
+        int after = removeFirst(splitRight);
+        root = merge(before, after);
+        fitness[slot] = newFitness;
+        insert(slot);
+    }
+
+
+    /**
+     * @return The arithmetic mean of the fitness scores of all indexed slots.
+     */
+    public double getMeanFitness()
+    {
+        return size() == 0 ? 0 : offset + sum[root] / size[root];
+    }
+
+
+    /**
+     * @return The (population) standard deviation of the fitness scores of all indexed slots.
+     */
+    public double getFitnessStandardDeviation()
+    {
+        if (size() == 0)
+        {
+            return 0;
+        }
+        double meanOffset = sum[root] / size[root];
+        double variance = sumOfSquares[root] / size[root] - meanOffset * meanOffset;
+        return variance > 0 ? Math.sqrt(variance) : 0;
+    }
+
+
+    /**
+     * Adds a detached node to the tree at the position determined by its fitness.
+     */
+    private void insert(int slot)
+    {
+        left[slot] = NIL;
+        right[slot] = NIL;
+        priority[slot] = nextPriority();
+        refresh(slot);
+        split(root, slot);
+        root = merge(merge(splitLeft, slot), splitRight);
+    }
+
+
+    /**
+     * Splits a tree into the nodes that rank ahead of the specified key node and the rest.
+     * The two halves are left in {@link #splitLeft} and {@link #splitRight}.
+     */
+    private void split(int node, int key)
+    {
+        if (node == NIL)
+        {
+            splitLeft = NIL;
+            splitRight = NIL;
+        }
+        else if (ranksAhead(node, key))
+        {
+            split(right[node], key);
+            right[node] = splitLeft;
+            refresh(node);
+            splitLeft = node;
+        }
+        else
+        {
+            split(left[node], key);
+            left[node] = splitRight;
+            refresh(node);
+            splitRight = node;
+        }
+    }
+
+
+    /**
+     * Joins two trees where every node of the first ranks ahead of every node of the second.
+     */
+    private int merge(int first, int second)
+    {
+        if (first == NIL)
+        {
+            return second;
+        }
+        else if (second == NIL)
+        {
+            return first;
+        }
+        else if (priority[first] > priority[second])
+        {
+            right[first] = merge(right[first], second);
+            refresh(first);
+            return first;
+        }
+        else
+        {
+            left[second] = merge(first, left[second]);
+            refresh(second);
+            return second;
+        }
+    }
+
+
+    /**
+     * @return The specified tree without its highest-ranked node.
+     */
+    private int removeFirst(int node)
+    {
+        if (left[node] == NIL)
+        {
+            return right[node];
+        }
+        left[node] = removeFirst(left[node]);
+        refresh(node);
+        return node;
+    }
+
+
+    /**
+     * @return True if the first slot's candidate ranks ahead of the second's.
+     */
+    private boolean ranksAhead(int slot, int other)
+    {
+        if (fitness[slot] == fitness[other])
+        {
+            return slot < other;
+        }
+        return naturalFitness ? fitness[slot] > fitness[other] : fitness[slot] < fitness[other];
+    }
+
+
+    /**
+     * Recalculates the aggregates of a node from those of its children.
+     */
+    private void refresh(int node)
+    {
+        double value = fitness[node] - offset;
+        size[node] = 1;
+        sum[node] = value;
+        sumOfSquares[node] = value * value;
+        int child = left[node];
+        if (child != NIL)
+        {
+            size[node] += size[child];
+            sum[node] += sum[child];
+            sumOfSquares[node] += sumOfSquares[child];
+        }
+        child = right[node];
+        if (child != NIL)
+        {
+            size[node] += size[child];
+            sum[node] += sum[child];
+            sumOfSquares[node] += sumOfSquares[child];
+        }
+    }
+
+
+    private int sizeOf(int node)
+    {
+        return node == NIL ? 0 : size[node];
+    }
+
+
+    /**
+     * Treap priorities only need to be well mixed, not statistically random, so a
+     * fixed-seed xorshift keeps runs reproducible without touching the engine's RNG.
+     */
+    private int nextPriority()
+    {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
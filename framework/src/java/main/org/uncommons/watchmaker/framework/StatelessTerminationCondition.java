@@ -0,0 +1,37 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+/**
+ * A {@link TerminationCondition} that keeps no state between checks, so it may be checked
+ * any number of times, from any thread, against partial information about the evolution.
+ * Island systems check these conditions against each island at the end of every generation,
+ * so that all islands can stop in the middle of an epoch rather than at the end of it.  A
+ * condition that is satisfied by the state of any one island should also be satisfied by the
+ * combined population of all the islands.
+ * @author Daniel Dyer
+ */
+public interface StatelessTerminationCondition extends TerminationCondition
+{
+    /**
+     * Determines whether evolution should finish.  Implementations must not depend on
+     * any earlier invocations and must be safe to invoke concurrently.
+     * @param populationData Information about the current state of evolution.  This
+     * may describe only part of the population (such as a single island).
+     * @return true if evolution should be terminated, false otherwise.
+     */
+    boolean shouldTerminate(PopulationData<?> populationData);
+}
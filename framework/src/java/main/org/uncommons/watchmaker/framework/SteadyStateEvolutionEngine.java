@@ -15,14 +15,27 @@
 //=============================================================================
 package org.uncommons.watchmaker.framework;
 
+import java.util.AbstractList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
 
 /**
  * An implementation of steady-state evolution, which is a type of evolutionary algorithm
  * where a population is changed incrementally, with one individual evolved at a time.  This
  * differs from {@link GenerationalEvolutionEngine} in which the entire population is evolved in
  * parallel.
+ * <p/>
+ * Rather than re-sorting the population at every step, the engine maintains an
+ * order-statistic index of the fitness ranking alongside it.  Finding the candidate
+ * at a given rank (which is how selection strategies such as tournament selection and
+ * the replacement policy address the population), replacing a candidate, protecting the
+ * elite and reporting the best candidate and population statistics each take O(log n)
+ * time, so the cost of a step no longer grows with n log n.  Selection strategies that
+ * inspect every candidate (such as roulette-wheel selection) still cost O(n) per step.
+ * Sub-classes that over-ride {@link #doReplacement(List, List, int, Random)} are given
+ * a plain, sorted list instead, as before, and so pay for a sort at every step.
  *
  * @param <T> The type of entity that is to be evolved.
  * @see GenerationalEvolutionEngine
@@ -36,6 +49,13 @@ public class SteadyStateEvolutionEngine<T> extends AbstractEvolutionEngine<T>
     private final SelectionStrategy<? super T> selectionStrategy;
     private final int selectionSize;
     private final boolean forceSingleCandidateUpdate;
+    private final boolean replacementOverridden;
+
+    private volatile boolean replaceWorst = false;
+
+    // The ranked view of the population most recently passed to this engine.  It is rebuilt
+    // whenever a different population list is passed in and discarded at the end of each run.
+    private RankedPopulation<T> rankedPopulation = null;
 
     /**
      * Create a steady-state evolution strategy in which one or more (usually just one) evolved
@@ -84,9 +104,65 @@ public class SteadyStateEvolutionEngine<T> extends AbstractEvolutionEngine<T>
         this.selectionStrategy = selectionStrategy;
         this.selectionSize = selectionSize;
         this.forceSingleCandidateUpdate = forceSingleCandidateUpdate;
+        this.replacementOverridden = isReplacementOverridden(getClass());
+    }
+
+
+    /**
+     * Sets whether offspring replace the weakest member of the population rather than a
+     * randomly-chosen non-elite member.  Replacing the weakest gives much stronger selection
+     * pressure (this is the replacement policy of the GENITOR algorithm).  By default,
+     * randomly-chosen individuals are replaced.
+     * @param replaceWorst True to replace the weakest individual, false to replace randomly
+     * chosen individuals.
+     */
+    public void setReplaceWorst(boolean replaceWorst)
+    {
+        this.replaceWorst = replaceWorst;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EvaluatedCandidate<T>> evolvePopulation(int populationSize,
+                                                        int eliteCount,
+                                                        Collection<T> seedCandidates,
+                                                        TerminationCondition... conditions)
+    {
+        try
+        {
+            return super.evolvePopulation(populationSize, eliteCount, seedCandidates, conditions);
+        }
+        finally
+        {
+            // Don't keep the final population alive after the run.
+            rankedPopulation = null;
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EvaluatedCandidate<T>> evolvePopulation(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                        int eliteCount,
+                                                        TerminationCondition... conditions)
+    {
+        try
+        {
+            return super.evolvePopulation(evaluatedPopulation, eliteCount, conditions);
+        }
+        finally
+        {
+            // Don't keep the final population alive after the run.
+            rankedPopulation = null;
+        }
     }
 
-    
+
     /**
      * {@inheritDoc}
      */
@@ -95,24 +171,92 @@ public class SteadyStateEvolutionEngine<T> extends AbstractEvolutionEngine<T>
                                                             int eliteCount,
                                                             Random rng)
     {
-        EvolutionUtils.sortEvaluatedPopulation(evaluatedPopulation, fitnessEvaluator.isNatural());
-        List<T> selectedCandidates = selectionStrategy.select(evaluatedPopulation,
+        if (replacementOverridden)
+        {
+            // Over-riding replacement methods may modify the list in arbitrary ways, so give
+            // them an ordinary sorted list rather than the ranked view.
+            EvolutionUtils.sortEvaluatedPopulation(evaluatedPopulation, fitnessEvaluator.isNatural());
+            List<T> selectedCandidates = selectionStrategy.select(evaluatedPopulation,
+                                                                  fitnessEvaluator.isNatural(),
+                                                                  selectionSize,
+                                                                  rng);
+            doReplacement(evaluatedPopulation,
+                          evaluatePopulation(evolutionScheme.apply(selectedCandidates, rng)),
+                          eliteCount,
+                          rng);
+            return evaluatedPopulation;
+        }
+
+        RankedPopulation<T> ranked = rank(evaluatedPopulation);
+        List<T> selectedCandidates = selectionStrategy.select(ranked,
                                                               fitnessEvaluator.isNatural(),
                                                               selectionSize,
                                                               rng);
         List<EvaluatedCandidate<T>> offspring = evaluatePopulation(evolutionScheme.apply(selectedCandidates, rng));
 
-        doReplacement(evaluatedPopulation, offspring, eliteCount, rng);
+        doReplacement(ranked, offspring, eliteCount, rng);
 
         return evaluatedPopulation;
     }
 
 
+    /**
+     * The index keeps the population ranked, so there is no need to sort it between steps.
+     * @return False.
+     */
+    @Override
+    protected boolean isSortRequired()
+    {
+        return false;
+    }
+
+
+    /**
+     * Reports the best candidate and the fitness statistics from the population index
+     * rather than by scanning the population.
+     * {@inheritDoc}
+     */
+    @Override
+    protected PopulationData<T> getPopulationData(List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                  int eliteCount,
+                                                  int generationNumber,
+                                                  long startTime,
+                                                  double diversity,
+                                                  long evaluations)
+    {
+        if (replacementOverridden)
+        {
+            return super.getPopulationData(evaluatedPopulation,
+                                           eliteCount,
+                                           generationNumber,
+                                           startTime,
+                                           diversity,
+                                           evaluations);
+        }
+        RankedPopulation<T> ranked = rank(evaluatedPopulation);
+        EvaluatedCandidate<T> best = ranked.get(0);
+        return new PopulationData<T>(best.getCandidate(),
+                                     best.getFitness(),
+                                     ranked.index.getMeanFitness(),
+                                     ranked.index.getFitnessStandardDeviation(),
+                                     fitnessEvaluator.isNatural(),
+                                     ranked.size(),
+                                     eliteCount,
+                                     generationNumber,
+                                     System.currentTimeMillis() - startTime,
+                                     diversity,
+                                     evaluations);
+    }
+
+
     /**
      * Add the offspring to the population, removing the same number of existing individuals to make
      * space for them.
-     * This method randomly chooses which individuals should be replaced, but it can be over-ridden
-     * in sub-classes if alternative behaviour is required.
+     * This method chooses which individuals should be replaced either randomly or, if
+     * {@link #setReplaceWorst(boolean)} is set, by replacing the weakest, but it can be over-ridden
+     * in sub-classes if alternative behaviour is required.  Sub-classes that over-ride it are
+     * passed an ordinary list, which they may modify as they see fit, so the population is
+     * sorted at every step.
      * @param existingPopulation The full popultation, sorted in descending order of fitness.
      * @param newCandidates The (unsorted) newly-created individual(s) that should replace existing members
      * of the population.
@@ -129,19 +273,111 @@ public class SteadyStateEvolutionEngine<T> extends AbstractEvolutionEngine<T>
         // evolved individuals, so just pick one at random and use that.
         if (newCandidates.size() > 1 && forceSingleCandidateUpdate)
         {
-            // Replace a randomly selected individual, but not one of the "elite" individuals at the
-            // beginning of the sorted population.
-            existingPopulation.set(rng.nextInt(existingPopulation.size() - eliteCount) + eliteCount,
+            existingPopulation.set(chooseReplacement(existingPopulation.size(), eliteCount, rng),
                                    newCandidates.get(rng.nextInt(newCandidates.size())));
         }
         else
         {
             for (EvaluatedCandidate<T> candidate : newCandidates)
             {
-                // Replace a randomly selected individual, but not one of the "elite" individuals at the
-                // beginning of the sorted population.
-                existingPopulation.set(rng.nextInt(existingPopulation.size() - eliteCount) + eliteCount, candidate);
+                existingPopulation.set(chooseReplacement(existingPopulation.size(), eliteCount, rng), candidate);
             }
         }
     }
+
+
+    /**
+     * Picks the rank of the individual to replace, which is never one of the "elite"
+     * individuals at the beginning of the ranking.
+     */
+    private int chooseReplacement(int populationSize, int eliteCount, Random rng)
+    {
+        return replaceWorst ? populationSize - 1 : rng.nextInt(populationSize - eliteCount) + eliteCount;
+    }
+
+
+    /**
+     * @param type The class of this engine.
+     * @return True if the class, or one of its super-classes below this one, over-rides
+     * {@link #doReplacement(List, List, int, Random)}.
+     */
+    private static boolean isReplacementOverridden(Class<?> type)
+    {
+        for (Class<?> c = type; c != SteadyStateEvolutionEngine.class; c = c.getSuperclass())
+        {
+            try
+            {
+                c.getDeclaredMethod("doReplacement", List.class, List.class, int.class, Random.class);
+                return true;
+            }
+            catch (NoSuchMethodException ex)
+            {
+                // Not declared at this level, try the super-class.
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * @return A view of the population in descending order of fitness, indexing the
+     * population first if it is not the one that was indexed most recently.
+     */
+    private RankedPopulation<T> rank(List<EvaluatedCandidate<T>> evaluatedPopulation)
+    {
+        RankedPopulation<T> ranked = rankedPopulation;
+        if (ranked == null || ranked.population != evaluatedPopulation)
+        {
+            ranked = new RankedPopulation<T>(evaluatedPopulation, fitnessEvaluator.isNatural());
+            rankedPopulation = ranked;
+        }
+        return ranked;
+    }
+
+
+    /**
+     * A view of a population, which stays in its original order, as a list in descending
+     * order of fitness.  Element access and replacement take O(log n) time.
+     */
+    private static final class RankedPopulation<T> extends AbstractList<EvaluatedCandidate<T>>
+                                                   implements RandomAccess
+    {
+        private final List<EvaluatedCandidate<T>> population;
+        private final PopulationIndex index;
+
+        RankedPopulation(List<EvaluatedCandidate<T>> population, boolean naturalFitness)
+        {
+            this.population = population;
+            this.index = new PopulationIndex(population, naturalFitness);
+        }
+
+
+        @Override
+        public EvaluatedCandidate<T> get(int rank)
+        {
+            return population.get(index.getSlot(rank));
+        }
+
+
+        /**
+         * Replaces the candidate at the specified rank.  Unlike an ordinary list, the new
+         * candidate is not necessarily found at the same position afterwards, since it is
+         * ranked by its own fitness.
+         */
+        @Override
+        public EvaluatedCandidate<T> set(int rank, EvaluatedCandidate<T> candidate)
+        {
+            int slot = index.getSlot(rank);
+            EvaluatedCandidate<T> replaced = population.set(slot, candidate);
+            index.update(slot, candidate.getFitness());
+            return replaced;
+        }
+
+
+        @Override
+        public int size()
+        {
+            return population.size();
+        }
+    }
 }
@@ -0,0 +1,66 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.binary;
+
+import java.util.Collections;
+import java.util.List;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+
+/**
+ * Adapts an existing {@link FitnessEvaluator} for {@link BitString} candidates so that
+ * it can be used to evaluate {@link LongBitString} candidates.  Each candidate is
+ * converted to a {@link BitString} before it is evaluated, so evaluators that are
+ * used frequently should be re-written to work on the words directly.
+ * @author Daniel Dyer
+ */
+public class BitStringEvaluatorAdapter implements FitnessEvaluator<LongBitString>
+{
+    private final FitnessEvaluator<? super BitString> delegate;
+
+    /**
+     * @param delegate The evaluator that scores the converted candidates.
+     */
+    public BitStringEvaluatorAdapter(FitnessEvaluator<? super BitString> delegate)
+    {
+        this.delegate = delegate;
+    }
+
+
+    /**
+     * Converts the candidate to a {@link BitString} and delegates to the wrapped evaluator.
+     * The rest of the population is not converted, the wrapped evaluator sees a
+     * population that contains only the converted candidate, so this adapter is not
+     * suitable for evaluators that score candidates relative to the population.
+     * @param candidate The individual to evaluate.
+     * @param population Not passed on to the wrapped evaluator.
+     * @return The fitness score assigned by the wrapped evaluator.
+     */
+    public double getFitness(LongBitString candidate, List<? extends LongBitString> population)
+    {
+        BitString bitString = candidate.toBitString();
+        return delegate.getFitness(bitString, Collections.singletonList(bitString));
+    }
+
+
+    /**
+     * @return The natural fitness setting of the wrapped evaluator.
+     */
+    public boolean isNatural()
+    {
+        return delegate.isNatural();
+    }
+}
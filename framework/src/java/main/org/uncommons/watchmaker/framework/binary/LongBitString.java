@@ -0,0 +1,326 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.binary;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.watchmaker.framework.kernels.KernelSupport;
+
+/**
+ * A fixed-length bit string held on the heap in an array of 64-bit words.  Bit
+ * {@code i} is stored in bit {@code i % 64} of word {@code i / 64}, the same
+ * layout used by {@link PackedBitStringPopulation}.  Unused high-order bits of
+ * the last word are always zero, so whole-word operations such as
+ * {@link Long#bitCount(long)} can be applied without masking.
+ * <p>
+ * Unlike {@link BitString}, which is backed by an {@code int} array and is
+ * manipulated one bit at a time by the standard operators, this class is designed
+ * to be operated on a word at a time (see
+ * {@link org.uncommons.watchmaker.framework.operators.LongBitStringCrossover},
+ * {@link org.uncommons.watchmaker.framework.operators.LongBitStringUniformCrossover} and
+ * {@link org.uncommons.watchmaker.framework.operators.LongBitStringMutation}).  Use
+ * {@link #LongBitString(BitString)} and {@link #toBitString()} to convert between
+ * the two representations.
+ * @author Daniel Dyer
+ */
+public final class LongBitString
+{
+    private static final int WORD_LENGTH = 64;
+
+    private final int length;
+    private final long[] words;
+
+
+    /**
+     * Creates a bit string of the specified length with all bits set to zero.
+     * @param length The number of bits.
+     */
+    public LongBitString(int length)
+    {
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("Length must be non-negative.");
+        }
+        this.length = length;
+        this.words = new long[(length + WORD_LENGTH - 1) / WORD_LENGTH];
+    }
+
+
+    /**
+     * Creates a bit string of the specified length with each bit set randomly,
+     * a whole word at a time.
+     * @param length The number of bits.
+     * @param rng The source of randomness for setting the bits.
+     */
+    public LongBitString(int length, Random rng)
+    {
+        this(length);
+        for (int i = 0; i < words.length; i++)
+        {
+            setWord(i, rng.nextLong());
+        }
+    }
+
+
+    /**
+     * Creates a copy of a {@link BitString}.
+     * @param bitString The bits to copy.
+     */
+    public LongBitString(BitString bitString)
+    {
+        this(bitString.getLength());
+        for (int i = 0; i < length; i++)
+        {
+            if (bitString.getBit(i))
+            {
+                words[i / WORD_LENGTH] |= 1L << i;
+            }
+        }
+    }
+
+
+    /**
+     * @return The number of bits in this bit string.
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+
+    /**
+     * @return The number of 64-bit words used to store the bits.
+     */
+    public int getWordCount()
+    {
+        return words.length;
+    }
+
+
+    /**
+     * @param wordIndex The index of a 64-bit word of this bit string.
+     * @return The contents of that word.
+     */
+    public long getWord(int wordIndex)
+    {
+        return words[wordIndex];
+    }
+
+
+    /**
+     * Overwrites a whole word.  Bits of the last word that lie beyond the end of
+     * the bit string are discarded.
+     * @param wordIndex The index of a 64-bit word of this bit string.
+     * @param word The new contents of that word.
+     */
+    public void setWord(int wordIndex, long word)
+    {
+        words[wordIndex] = wordIndex == words.length - 1 ? word & getLastWordMask() : word;
+    }
+
+
+    /**
+     * Exchanges selected bits of one word between this bit string and another of
+     * the same length.  This is the building block for word-parallel cross-over.
+     * @param other The bit string to exchange bits with.
+     * @param wordIndex The index of the word in both bit strings.
+     * @param mask The bits of the word to exchange.
+     */
+    public void swapBits(LongBitString other, int wordIndex, long mask)
+    {
+        if (other.length != length)
+        {
+            throw new IllegalArgumentException("Bit strings must be the same length.");
+        }
+        long difference = (words[wordIndex] ^ other.words[wordIndex]) & mask;
+        words[wordIndex] ^= difference;
+        other.words[wordIndex] ^= difference;
+    }
+
+
+    /**
+     * @return A mask of the bits of the last word that are part of the bit string.
+     */
+    long getLastWordMask()
+    {
+        int remainder = length % WORD_LENGTH;
+        return remainder == 0 ? -1L : (1L << remainder) - 1;
+    }
+
+
+    /**
+     * @param index The index of the bit to read (zero is the least significant bit).
+     * @return True if the bit is set (1), false otherwise.
+     */
+    public boolean getBit(int index)
+    {
+        checkIndex(index);
+        return (words[index / WORD_LENGTH] & (1L << index)) != 0;
+    }
+
+
+    /**
+     * @param index The index of the bit to change.
+     * @param set True to set the bit to 1, false to set it to 0.
+     */
+    public void setBit(int index, boolean set)
+    {
+        checkIndex(index);
+        if (set)
+        {
+            words[index / WORD_LENGTH] |= 1L << index;
+        }
+        else
+        {
+            words[index / WORD_LENGTH] &= ~(1L << index);
+        }
+    }
+
+
+    /**
+     * @param index The index of the bit to invert.
+     */
+    public void flipBit(int index)
+    {
+        checkIndex(index);
+        words[index / WORD_LENGTH] ^= 1L << index;
+    }
+
+
+    /**
+     * @return The number of 1s in this bit string.  This is the OneMax fitness
+     * of the bit string.
+     */
+    public int countSetBits()
+    {
+        int count = 0;
+        for (long word : words)
+        {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+
+    /**
+     * @return The number of 0s in this bit string.
+     */
+    public int countUnsetBits()
+    {
+        return length - countSetBits();
+    }
+
+
+    /**
+     * @param other Another bit string of the same length.
+     * @return The number of positions at which the two bit strings differ.
+     */
+    public int hammingDistance(LongBitString other)
+    {
+        if (other.length != length)
+        {
+            throw new IllegalArgumentException("Bit strings must be the same length.");
+        }
+        return KernelSupport.getKernels().hammingDistance(words, other.words);
+    }
+
+
+    /**
+     * @return An independent copy of this bit string.
+     */
+    public LongBitString copy()
+    {
+        LongBitString copy = new LongBitString(length);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        return copy;
+    }
+
+
+    /**
+     * @return A copy of this bit string as a {@link BitString}.
+     */
+    public BitString toBitString()
+    {
+        BitString bitString = new BitString(length);
+        for (int i = 0; i < words.length; i++)
+        {
+            long word = words[i];
+            while (word != 0)
+            {
+                int bit = Long.numberOfTrailingZeros(word);
+                bitString.setBit(i * WORD_LENGTH + bit, true);
+                word &= word - 1;
+            }
+        }
+        return bitString;
+    }
+
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+    }
+
+
+    /**
+     * @return A string of 1s and 0s, most significant (highest index) bit first,
+     * consistent with {@link BitString#toString()}.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder buffer = new StringBuilder(length);
+        for (int i = length - 1; i >= 0; i--)
+        {
+            buffer.append(getBit(i) ? '1' : '0');
+        }
+        return buffer.toString();
+    }
+
+
+    /**
+     * Bit strings are equal if they have the same length and the same bits set.
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other)
+        {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass())
+        {
+            return false;
+        }
+        LongBitString that = (LongBitString) other;
+        return length == that.length && Arrays.equals(words, that.words);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return 31 * length + Arrays.hashCode(words);
+    }
+}
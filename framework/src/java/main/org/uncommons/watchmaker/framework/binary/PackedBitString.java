@@ -0,0 +1,155 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.binary;
+
+import org.uncommons.maths.binary.BitString;
+
+/**
+ * A flyweight view of a single individual in a {@link PackedBitStringPopulation}.
+ * It holds no bits of its own, all reads and writes go directly to the population's
+ * packed storage.  Views are cheap to create and need not be retained.
+ * @author Daniel Dyer
+ */
+public final class PackedBitString
+{
+    private final PackedBitStringPopulation population;
+    private final int index;
+
+
+    /**
+     * @param population The population that holds the bits.
+     * @param index The index of the individual within the population.
+     */
+    PackedBitString(PackedBitStringPopulation population, int index)
+    {
+        this.population = population;
+        this.index = index;
+    }
+
+
+    /**
+     * @return The population that this individual belongs to.
+     */
+    public PackedBitStringPopulation getPopulation()
+    {
+        return population;
+    }
+
+
+    /**
+     * @return The index of this individual within its population.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+
+    /**
+     * @return The number of bits in this bit string.
+     */
+    public int getLength()
+    {
+        return population.getLength();
+    }
+
+
+    /**
+     * @param bitIndex The index of the bit to read.
+     * @return True if the bit is 1, false if it is 0.
+     */
+    public boolean getBit(int bitIndex)
+    {
+        return population.getBit(index, bitIndex);
+    }
+
+
+    /**
+     * @param bitIndex The index of the bit to write.
+     * @param set True to set the bit to 1, false to set it to 0.
+     */
+    public void setBit(int bitIndex, boolean set)
+    {
+        population.setBit(index, bitIndex, set);
+    }
+
+
+    /**
+     * @param bitIndex The index of the bit to invert.
+     */
+    public void flipBit(int bitIndex)
+    {
+        population.flipBit(index, bitIndex);
+    }
+
+
+    /**
+     * @param wordIndex The index of a 64-bit word of this bit string.
+     * @return The contents of that word.
+     * @see PackedBitStringPopulation#getWord(int, int)
+     */
+    public long getWord(int wordIndex)
+    {
+        return population.getWord(index, wordIndex);
+    }
+
+
+    /**
+     * @return The number of 1s in this bit string.
+     */
+    public int countSetBits()
+    {
+        return population.countSetBits(index);
+    }
+
+
+    /**
+     * @return The number of 0s in this bit string.
+     */
+    public int countUnsetBits()
+    {
+        return getLength() - countSetBits();
+    }
+
+
+    /**
+     * @return The fitness score stored for this individual.
+     */
+    public double getFitness()
+    {
+        return population.getFitness(index);
+    }
+
+
+    /**
+     * @return A heap copy of this individual's bits.
+     */
+    public BitString toBitString()
+    {
+        return population.toBitString(index);
+    }
+
+
+    /**
+     * @return A string of 1s and 0s, most significant (highest index) bit first,
+     * consistent with {@link BitString#toString()}.
+     */
+    @Override
+    public String toString()
+    {
+        return toBitString().toString();
+    }
+}
@@ -0,0 +1,657 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+import org.uncommons.watchmaker.framework.selection.FitnessView;
+import org.uncommons.watchmaker.framework.selection.IndexedSelectionStrategy;
+
+/**
+ * <p>A population of fixed-length bit strings packed into blocks of {@code long}
+ * words that live outside of the Java heap, either in direct buffers or in a
+ * memory-mapped file.  Each individual occupies one record consisting of a single
+ * word for its fitness score followed by as many words as are required to hold its
+ * bits.  No objects are created per individual, so a population of tens of millions
+ * of bit strings places no load on the garbage collector and, when file-backed, may
+ * be larger than the heap (or even physical memory).</p>
+ *
+ * <p>Individuals are addressed by index.  A {@link PackedBitString} is a lightweight
+ * view of a single record and can be used wherever a candidate object is required
+ * (for example, as the argument to a {@link FitnessEvaluator}).</p>
+ *
+ * <p>This class is not thread-safe, but operations on disjoint ranges of individuals
+ * do not interfere with each other so the population can be processed in parallel
+ * by partitioning it.</p>
+ *
+ * <p>The evolution engines work with lists of candidate objects, so they cannot evolve a
+ * packed population.  Instead, two populations are used: one for the current generation
+ * and one that the next generation is bred into.  A generation consists of selecting
+ * parents into the second population, then applying operators and evaluating the
+ * offspring in place:</p>
+ * <pre>
+ * factory.generateInitialPopulation(current, rng);
+ * current.evaluate(evaluator, 0, size);
+ * for (int generation = 0; generation &lt; generationCount; generation++)
+ * {
+ *     current.select(new TournamentSelection(new Probability(0.7)), true, next, 0, size, rng);
+ *     crossover.apply(next, 0, size, rng);
+ *     mutation.apply(next, 0, size, rng);
+ *     next.evaluate(evaluator, 0, size);
+ *     PackedBitStringPopulation previous = current;
+ *     current = next;
+ *     next = previous;
+ * }
+ * </pre>
+ * <p>Elitism, if required, can be implemented by {@link #copy(int, PackedBitStringPopulation, int)
+ * copying} the fittest individuals into the start of the next population and selecting
+ * into the rest of it.</p>
+ *
+ * @see org.uncommons.watchmaker.framework.factories.PackedBitStringFactory
+ * @see org.uncommons.watchmaker.framework.operators.PackedBitStringMutation
+ * @see org.uncommons.watchmaker.framework.operators.PackedBitStringCrossover
+ * @author Daniel Dyer
+ */
+public final class PackedBitStringPopulation
+{
+    private static final int WORD_LENGTH = 64;
+    private static final int WORD_BYTES = 8;
+    // Buffers are indexed with ints so no single block may exceed this size.
+    private static final long MAX_BLOCK_BYTES = 1L << 30;
+
+    private final int size;
+    private final int length;
+    private final int genomeWords;
+    private final int recordWords;
+    private final int recordsPerBlock;
+    private final long lastWordMask;
+    private final LongBuffer[] blocks;
+    private final MappedByteBuffer[] mappedBlocks;
+
+
+    /**
+     * Create a population backed by the specified blocks of storage.
+     */
+    private PackedBitStringPopulation(int size,
+                                      int length,
+                                      ByteBuffer[] buffers,
+                                      MappedByteBuffer[] mappedBlocks)
+    {
+        this.size = size;
+        this.length = length;
+        this.genomeWords = wordCount(length);
+        this.recordWords = genomeWords + 1;
+        this.recordsPerBlock = recordsPerBlock(recordWords);
+        int remainder = length % WORD_LENGTH;
+        this.lastWordMask = remainder == 0 ? -1L : (1L << remainder) - 1;
+        this.blocks = new LongBuffer[buffers.length];
+        this.mappedBlocks = mappedBlocks;
+        for (int i = 0; i < buffers.length; i++)
+        {
+            blocks[i] = buffers[i].order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+
+
+    /**
+     * Creates a population of bit strings in direct (off-heap) memory.  All bits and
+     * fitness scores are initially zero.
+     * @param size The number of individuals in the population.
+     * @param length The number of bits in each individual.
+     * @return An empty population of the specified dimensions.
+     */
+    public static PackedBitStringPopulation allocate(int size, int length)
+    {
+        checkDimensions(size, length);
+        int recordsPerBlock = recordsPerBlock(wordCount(length) + 1);
+        ByteBuffer[] buffers = new ByteBuffer[blockCount(size, recordsPerBlock)];
+        for (int i = 0; i < buffers.length; i++)
+        {
+            buffers[i] = ByteBuffer.allocateDirect(blockBytes(i, size, length, recordsPerBlock));
+        }
+        return new PackedBitStringPopulation(size, length, buffers, null);
+    }
+
+
+    /**
+     * Creates a population of bit strings that is stored in a memory-mapped file.  The
+     * operating system pages the population in and out of memory as required, so the
+     * population is limited by available disk space rather than by heap size.  If the file
+     * already exists and is large enough, its contents are used as the initial state of
+     * the population (so a population can be persisted and reloaded).
+     * @param file The file that backs the population.  It will be created or extended
+     * as necessary.
+     * @param size The number of individuals in the population.
+     * @param length The number of bits in each individual.
+     * @return A file-backed population of the specified dimensions.
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public static PackedBitStringPopulation map(File file, int size, int length) throws IOException
+    {
+        checkDimensions(size, length);
+        int recordsPerBlock = recordsPerBlock(wordCount(length) + 1);
+        MappedByteBuffer[] buffers = new MappedByteBuffer[blockCount(size, recordsPerBlock)];
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            long position = 0;
+            for (int i = 0; i < buffers.length; i++)
+            {
+                int blockBytes = blockBytes(i, size, length, recordsPerBlock);
+                buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, blockBytes);
+                position += blockBytes;
+            }
+        }
+        finally
+        {
+            // Mappings remain valid after the channel is closed.
+            randomAccessFile.close();
+        }
+        return new PackedBitStringPopulation(size, length, buffers, buffers);
+    }
+
+
+    private static void checkDimensions(int size, int length)
+    {
+        if (size <= 0)
+        {
+            throw new IllegalArgumentException("Population size must be positive.");
+        }
+        if (length <= 0)
+        {
+            throw new IllegalArgumentException("Bit string length must be positive.");
+        }
+        if (recordsPerBlock(wordCount(length) + 1) == 0)
+        {
+            throw new IllegalArgumentException("Bit string length is too large for packed storage.");
+        }
+    }
+
+
+    private static int wordCount(int length)
+    {
+        return (int) (((long) length + WORD_LENGTH - 1) / WORD_LENGTH);
+    }
+
+
+    private static int recordsPerBlock(int recordWords)
+    {
+        return (int) (MAX_BLOCK_BYTES / ((long) recordWords * WORD_BYTES));
+    }
+
+
+    private static int blockCount(int size, int recordsPerBlock)
+    {
+        return (int) (((long) size + recordsPerBlock - 1) / recordsPerBlock);
+    }
+
+
+    private static int blockBytes(int blockIndex, int size, int length, int recordsPerBlock)
+    {
+        int records = Math.min(recordsPerBlock, size - blockIndex * recordsPerBlock);
+        return records * (wordCount(length) + 1) * WORD_BYTES;
+    }
+
+
+    /**
+     * @return The number of individuals in this population.
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+
+    /**
+     * @return The number of bits in each individual.
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+
+    /**
+     * @return The number of 64-bit words used to store the bits of each individual.
+     */
+    public int getWordCount()
+    {
+        return genomeWords;
+    }
+
+
+    /**
+     * Returns a view of a single individual.  The view does not copy any data, changes
+     * made through it are written directly to the population.
+     * @param index The index of the individual.
+     * @return A flyweight accessor for the individual at the specified index.
+     */
+    public PackedBitString get(int index)
+    {
+        checkIndex(index);
+        return new PackedBitString(this, index);
+    }
+
+
+    /**
+     * Returns a read-only list view of this population.  Each call to {@link List#get(int)}
+     * creates a new {@link PackedBitString} flyweight, nothing is retained by the list
+     * itself.
+     * @return A list of flyweights for all individuals in the population.
+     */
+    public List<PackedBitString> asList()
+    {
+        return new PopulationView();
+    }
+
+
+    /**
+     * @param index The index of an individual.
+     * @return The fitness score most recently stored for the individual.
+     */
+    public double getFitness(int index)
+    {
+        checkIndex(index);
+        return Double.longBitsToDouble(blocks[index / recordsPerBlock].get((index % recordsPerBlock) * recordWords));
+    }
+
+
+    /**
+     * @param index The index of an individual.
+     * @param fitness The fitness score to store for the individual.
+     */
+    public void setFitness(int index, double fitness)
+    {
+        checkIndex(index);
+        blocks[index / recordsPerBlock].put((index % recordsPerBlock) * recordWords,
+                                            Double.doubleToRawLongBits(fitness));
+    }
+
+
+    /**
+     * Calculates and stores fitness scores for a range of individuals.  The evaluator
+     * is passed a flyweight for each individual and the {@link #asList()} view of the
+     * whole population.  Disjoint ranges may be evaluated concurrently.
+     * @param evaluator The fitness function.
+     * @param fromIndex The index of the first individual to evaluate (inclusive).
+     * @param toIndex The index of the last individual to evaluate (exclusive).
+     */
+    public void evaluate(FitnessEvaluator<? super PackedBitString> evaluator,
+                         int fromIndex,
+                         int toIndex)
+    {
+        checkRange(fromIndex, toIndex);
+        List<PackedBitString> population = asList();
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            setFitness(i, evaluator.getFitness(new PackedBitString(this, i), population));
+        }
+    }
+
+
+    /**
+     * Returns one 64-bit word of an individual's bit string.  Bit {@code i} of the
+     * individual is bit {@code i % 64} of word {@code i / 64}.  Any bits in the last word
+     * beyond the length of the bit string are always zero.
+     * @param index The index of the individual.
+     * @param wordIndex The index of the word within the individual.
+     * @return The contents of the word.
+     */
+    public long getWord(int index, int wordIndex)
+    {
+        return blocks[index / recordsPerBlock].get(wordOffset(index, wordIndex));
+    }
+
+
+    /**
+     * Overwrites one 64-bit word of an individual's bit string.  Bits of the last word
+     * that lie beyond the length of the bit string are cleared.
+     * @param index The index of the individual.
+     * @param wordIndex The index of the word within the individual.
+     * @param word The new contents of the word.
+     */
+    public void setWord(int index, int wordIndex, long word)
+    {
+        if (wordIndex == genomeWords - 1)
+        {
+            word &= lastWordMask;
+        }
+        blocks[index / recordsPerBlock].put(wordOffset(index, wordIndex), word);
+    }
+
+
+    /**
+     * @param index The index of an individual.
+     * @param bitIndex The index of a bit within that individual.
+     * @return The value of the bit, true for 1, false for 0.
+     */
+    public boolean getBit(int index, int bitIndex)
+    {
+        checkBitIndex(bitIndex);
+        return (getWord(index, bitIndex / WORD_LENGTH) & (1L << bitIndex)) != 0;
+    }
+
+
+    /**
+     * @param index The index of an individual.
+     * @param bitIndex The index of a bit within that individual.
+     * @param set True to set the bit to 1, false to set it to 0.
+     */
+    public void setBit(int index, int bitIndex, boolean set)
+    {
+        checkBitIndex(bitIndex);
+        int wordIndex = bitIndex / WORD_LENGTH;
+        long word = getWord(index, wordIndex);
+        setWord(index, wordIndex, set ? word | (1L << bitIndex) : word & ~(1L << bitIndex));
+    }
+
+
+    /**
+     * Inverts a single bit of an individual.
+     * @param index The index of an individual.
+     * @param bitIndex The index of a bit within that individual.
+     */
+    public void flipBit(int index, int bitIndex)
+    {
+        checkBitIndex(bitIndex);
+        int wordIndex = bitIndex / WORD_LENGTH;
+        setWord(index, wordIndex, getWord(index, wordIndex) ^ (1L << bitIndex));
+    }
+
+
+    /**
+     * @param index The index of an individual.
+     * @return The number of bits set to 1 in that individual.
+     */
+    public int countSetBits(int index)
+    {
+        checkIndex(index);
+        LongBuffer block = blocks[index / recordsPerBlock];
+        int offset = wordOffset(index, 0);
+        int count = 0;
+        for (int i = 0; i < genomeWords; i++)
+        {
+            count += Long.bitCount(block.get(offset + i));
+        }
+        return count;
+    }
+
+
+    /**
+     * Exchanges the first {@code bitCount} bits of two individuals, whole words at a
+     * time.  This is the packed equivalent of {@link BitString#swapSubstring(BitString, int, int)}
+     * with a start offset of zero, and is the building block for cross-over.
+     * @param index1 The index of the first individual.
+     * @param index2 The index of the second individual.
+     * @param bitCount The number of leading bits to exchange.
+     */
+    public void swapPrefix(int index1, int index2, int bitCount)
+    {
+        checkIndex(index1);
+        checkIndex(index2);
+        if (bitCount < 0 || bitCount > length)
+        {
+            throw new IndexOutOfBoundsException("Invalid bit count: " + bitCount);
+        }
+        LongBuffer block1 = blocks[index1 / recordsPerBlock];
+        LongBuffer block2 = blocks[index2 / recordsPerBlock];
+        int offset1 = wordOffset(index1, 0);
+        int offset2 = wordOffset(index2, 0);
+        int fullWords = bitCount / WORD_LENGTH;
+        for (int i = 0; i < fullWords; i++)
+        {
+            long word1 = block1.get(offset1 + i);
+            block1.put(offset1 + i, block2.get(offset2 + i));
+            block2.put(offset2 + i, word1);
+        }
+        int remainingBits = bitCount % WORD_LENGTH;
+        if (remainingBits > 0)
+        {
+            long mask = (1L << remainingBits) - 1;
+            long word1 = block1.get(offset1 + fullWords);
+            long word2 = block2.get(offset2 + fullWords);
+            long difference = (word1 ^ word2) & mask;
+            block1.put(offset1 + fullWords, word1 ^ difference);
+            block2.put(offset2 + fullWords, word2 ^ difference);
+        }
+    }
+
+
+    /**
+     * Copies an individual (bits and fitness score) into a slot in another population
+     * (or another slot in this population).  This is typically used to transfer selected
+     * parents into the population that will hold the next generation.
+     * @param index The index of the individual to copy.
+     * @param target The population to copy to.  It must have the same bit string length
+     * as this population.
+     * @param targetIndex The slot in the target population that will be overwritten.
+     */
+    public void copy(int index, PackedBitStringPopulation target, int targetIndex)
+    {
+        if (target.length != length)
+        {
+            throw new IllegalArgumentException("Cannot copy between populations with different bit string lengths.");
+        }
+        checkIndex(index);
+        target.checkIndex(targetIndex);
+        LongBuffer source = blocks[index / recordsPerBlock];
+        LongBuffer destination = target.blocks[targetIndex / recordsPerBlock];
+        int sourceOffset = (index % recordsPerBlock) * recordWords;
+        int destinationOffset = (targetIndex % recordsPerBlock) * recordWords;
+        for (int i = 0; i < recordWords; i++)
+        {
+            destination.put(destinationOffset + i, source.get(sourceOffset + i));
+        }
+    }
+
+
+    /**
+     * Fills a range of another population with individuals selected from this population,
+     * according to their fitness scores.  The selected individuals are copied in the order
+     * that the strategy selects them.  For tournament selection this is random, as
+     * {@link org.uncommons.watchmaker.framework.operators.PackedBitStringCrossover} expects.
+     * Strategies such as {@link org.uncommons.watchmaker.framework.selection.StochasticUniversalSampling}
+     * select in population order.  Disjoint ranges of the target may be filled concurrently,
+     * provided that each thread uses its own RNG.
+     * @param strategy The selection strategy.
+     * @param naturalFitness True if higher fitness scores mean fitter individuals, false otherwise.
+     * @param target The population to copy the selected individuals to.  It must have the same
+     * bit string length as this population and must not be this population.
+     * @param fromIndex The first slot of the target to fill (inclusive).
+     * @param toIndex The last slot of the target to fill (exclusive).
+     * @param rng A source of randomness.
+     */
+    public void select(IndexedSelectionStrategy strategy,
+                       boolean naturalFitness,
+                       PackedBitStringPopulation target,
+                       int fromIndex,
+                       int toIndex,
+                       Random rng)
+    {
+        if (target == this)
+        {
+            throw new IllegalArgumentException("Cannot select into the population being selected from.");
+        }
+        target.checkRange(fromIndex, toIndex);
+        int[] selection = new int[toIndex - fromIndex];
+        strategy.select(new FitnessScores(), naturalFitness, selection, rng);
+        for (int i = 0; i < selection.length; i++)
+        {
+            copy(selection[i], target, fromIndex + i);
+        }
+    }
+
+
+    /**
+     * Copies the bits of an individual into a new {@link BitString} object.
+     * @param index The index of the individual.
+     * @return A heap copy of the individual.
+     */
+    public BitString toBitString(int index)
+    {
+        checkIndex(index);
+        BitString bitString = new BitString(length);
+        for (int i = 0; i < genomeWords; i++)
+        {
+            long word = getWord(index, i);
+            while (word != 0)
+            {
+                int bit = Long.numberOfTrailingZeros(word);
+                bitString.setBit(i * WORD_LENGTH + bit, true);
+                word &= word - 1;
+            }
+        }
+        return bitString;
+    }
+
+
+    /**
+     * Overwrites the bits of an individual with the contents of a {@link BitString}.
+     * @param index The index of the individual.
+     * @param bitString The bits to store.  Its length must match the length of
+     * this population's bit strings.
+     */
+    public void set(int index, BitString bitString)
+    {
+        checkIndex(index);
+        if (bitString.getLength() != length)
+        {
+            throw new IllegalArgumentException("Bit string length does not match population.");
+        }
+        for (int i = 0; i < genomeWords; i++)
+        {
+            long word = 0;
+            int limit = Math.min(WORD_LENGTH, length - i * WORD_LENGTH);
+            for (int j = 0; j < limit; j++)
+            {
+                if (bitString.getBit(i * WORD_LENGTH + j))
+                {
+                    word |= 1L << j;
+                }
+            }
+            setWord(index, i, word);
+        }
+    }
+
+
+    /**
+     * Ensures that any changes to a memory-mapped population are written to the
+     * backing file.  This method does nothing for populations held in direct memory.
+     */
+    public void force()
+    {
+        if (mappedBlocks != null)
+        {
+            for (MappedByteBuffer block : mappedBlocks)
+            {
+                block.force();
+            }
+        }
+    }
+
+
+    private int wordOffset(int index, int wordIndex)
+    {
+        if (wordIndex < 0 || wordIndex >= genomeWords)
+        {
+            throw new IndexOutOfBoundsException("Invalid word index: " + wordIndex);
+        }
+        return (index % recordsPerBlock) * recordWords + 1 + wordIndex;
+    }
+
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Invalid individual index: " + index);
+        }
+    }
+
+
+    private void checkBitIndex(int bitIndex)
+    {
+        if (bitIndex < 0 || bitIndex >= length)
+        {
+            throw new IndexOutOfBoundsException("Invalid bit index: " + bitIndex);
+        }
+    }
+
+
+    /**
+     * Checks that the specified range of individuals is valid for this population.
+     * @param fromIndex The first index in the range (inclusive).
+     * @param toIndex The last index in the range (exclusive).
+     */
+    public void checkRange(int fromIndex, int toIndex)
+    {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+        {
+            throw new IndexOutOfBoundsException("Invalid range: " + fromIndex + " - " + toIndex);
+        }
+    }
+
+
+    /**
+     * Read-only list of flyweights, created on demand.
+     */
+    private final class PopulationView extends AbstractList<PackedBitString> implements RandomAccess
+    {
+        @Override
+        public PackedBitString get(int index)
+        {
+            return PackedBitStringPopulation.this.get(index);
+        }
+
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    }
+
+
+    /**
+     * View of the fitness scores stored in the population's records.
+     */
+    private final class FitnessScores implements FitnessView
+    {
+        public int size()
+        {
+            return size;
+        }
+
+
+        public double getFitness(int index)
+        {
+            return PackedBitStringPopulation.this.getFitness(index);
+        }
+    }
+}
@@ -0,0 +1,482 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list that supports efficient creation of modified copies.  It is
+ * intended for variable-length genomes, where the typical mutation changes one
+ * element of a long list and the traditional approach of copying the whole list
+ * into a new {@link ArrayList} dominates the cost of evolution.
+ * <p>
+ * The elements are held in the leaves of a balanced tree in which every node has at
+ * most 32 children and records the sizes of its sub-trees, so elements can be found
+ * by position.  The {@link #insert(int, Object)}, {@link #delete(int)},
+ * {@link #replace(int, Object)} and {@link #swap(int, int)} operations leave this
+ * vector unchanged and return a new vector that shares all but one path through the
+ * tree with it, so each copies only O(log n) nodes rather than O(n) elements.  Nodes
+ * that become sparse after deletions are merged with a neighbour where possible
+ * (the balancing is relaxed, nodes are not required to be at least half full).
+ * <p>
+ * The standard {@link List} mutators are not supported and throw
+ * {@link UnsupportedOperationException}.  In all other respects this class behaves
+ * like any other random-access list, so it can be used wherever existing code expects
+ * a {@code List}.
+ * @param <T> The type of the elements.
+ * @author Daniel Dyer
+ */
+public final class PersistentVector<T> extends AbstractList<T> implements RandomAccess
+{
+    private static final int MAX_WIDTH = 32;
+    // Nodes with fewer entries than this are merged with a neighbour if they fit.
+    private static final int MIN_WIDTH = MAX_WIDTH / 4;
+
+    private static final PersistentVector<Object> EMPTY = new PersistentVector<Object>(new Leaf(new Object[0]));
+
+    private final Node root;
+
+
+    private PersistentVector(Node root)
+    {
+        this.root = root;
+    }
+
+
+    /**
+     * @param <T> The type of the elements.
+     * @return A vector with no elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty()
+    {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+
+    /**
+     * Creates a vector that contains the specified elements, in iteration order.  If
+     * the collection is already a {@link PersistentVector} it is returned as it is
+     * (it is immutable so there is no need to copy it).  Otherwise the tree is built
+     * bottom-up in linear time.
+     * @param elements The elements of the vector.
+     * @param <T> The type of the elements.
+     * @return A vector containing the elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> copyOf(Collection<? extends T> elements)
+    {
+        if (elements instanceof PersistentVector)
+        {
+            return (PersistentVector<T>) elements;
+        }
+        Object[] array = elements.toArray();
+        if (array.length == 0)
+        {
+            return empty();
+        }
+        List<Node> level = new ArrayList<Node>((array.length + MAX_WIDTH - 1) / MAX_WIDTH);
+        for (int i = 0; i < array.length; i += MAX_WIDTH)
+        {
+            Object[] chunk = new Object[Math.min(MAX_WIDTH, array.length - i)];
+            System.arraycopy(array, i, chunk, 0, chunk.length);
+            level.add(new Leaf(chunk));
+        }
+        while (level.size() > 1)
+        {
+            List<Node> parents = new ArrayList<Node>((level.size() + MAX_WIDTH - 1) / MAX_WIDTH);
+            for (int i = 0; i < level.size(); i += MAX_WIDTH)
+            {
+                List<Node> children = level.subList(i, Math.min(i + MAX_WIDTH, level.size()));
+                parents.add(new Branch(children.toArray(new Node[children.size()])));
+            }
+            level = parents;
+        }
+        return new PersistentVector<T>(level.get(0));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index)
+    {
+        checkIndex(index, size() - 1);
+        Node node = root;
+        int position = index;
+        while (node instanceof Branch)
+        {
+            Branch branch = (Branch) node;
+            int child = branch.childIndex(position);
+            position -= branch.start(child);
+            node = branch.children[child];
+        }
+        return (T) ((Leaf) node).elements[position];
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return root.size();
+    }
+
+
+    /**
+     * @param index The position of the element to replace.
+     * @param element The new element.
+     * @return A vector that is the same as this one except for the element at
+     * the specified position.
+     */
+    public PersistentVector<T> replace(int index, T element)
+    {
+        checkIndex(index, size() - 1);
+        return new PersistentVector<T>(root.replace(index, element));
+    }
+
+
+    /**
+     * @param index1 The position of one element.
+     * @param index2 The position of another element.
+     * @return A vector that is the same as this one except that the elements
+     * at the two positions have been exchanged.
+     */
+    public PersistentVector<T> swap(int index1, int index2)
+    {
+        T element1 = get(index1);
+        return replace(index1, get(index2)).replace(index2, element1);
+    }
+
+
+    /**
+     * @param index The position at which to insert the element.  Elements at
+     * this position and after it are shifted along by one place.
+     * @param element The element to insert.
+     * @return A vector that is the same as this one but with the additional element.
+     */
+    public PersistentVector<T> insert(int index, T element)
+    {
+        checkIndex(index, size());
+        Node[] nodes = root.insert(index, element);
+        return new PersistentVector<T>(nodes.length == 1 ? nodes[0] : new Branch(nodes));
+    }
+
+
+    /**
+     * @param element The element to add to the end of the vector.
+     * @return A vector that is the same as this one but with the additional element.
+     */
+    public PersistentVector<T> append(T element)
+    {
+        return insert(size(), element);
+    }
+
+
+    /**
+     * @param index The position of the element to remove.  Elements after this
+     * position are shifted back by one place.
+     * @return A vector that is the same as this one but without the element at
+     * the specified position.
+     */
+    public PersistentVector<T> delete(int index)
+    {
+        checkIndex(index, size() - 1);
+        Node node = root.delete(index);
+        // Remove redundant levels from the top of the tree.
+        while (node instanceof Branch && ((Branch) node).children.length == 1)
+        {
+            node = ((Branch) node).children[0];
+        }
+        return node.size() == 0 ? PersistentVector.<T>empty() : new PersistentVector<T>(node);
+    }
+
+
+    private static void checkIndex(int index, int maximum)
+    {
+        if (index < 0 || index > maximum)
+        {
+            throw new IndexOutOfBoundsException("Invalid index: " + index);
+        }
+    }
+
+
+    /**
+     * A node of the tree.  Nodes are immutable, all modifications return new nodes.
+     */
+    private abstract static class Node
+    {
+        abstract int size();
+
+        abstract int width();
+
+        abstract Node replace(int index, Object element);
+
+        /**
+         * @return Either the single replacement for this node or, if it overflowed,
+         * the two nodes that it was split into.
+         */
+        abstract Node[] insert(int index, Object element);
+
+        abstract Node delete(int index);
+
+        /**
+         * @param next The node that follows this one.  It must be at the same level.
+         * @return A single node that contains the entries of both nodes.
+         */
+        abstract Node merge(Node next);
+    }
+
+
+    /**
+     * A node that holds up to 32 elements.
+     */
+    private static final class Leaf extends Node
+    {
+        private final Object[] elements;
+
+        Leaf(Object[] elements)
+        {
+            this.elements = elements;
+        }
+
+
+        @Override
+        int size()
+        {
+            return elements.length;
+        }
+
+
+        @Override
+        int width()
+        {
+            return elements.length;
+        }
+
+
+        @Override
+        Node replace(int index, Object element)
+        {
+            Object[] newElements = elements.clone();
+            newElements[index] = element;
+            return new Leaf(newElements);
+        }
+
+
+        @Override
+        Node[] insert(int index, Object element)
+        {
+            Object[] newElements = new Object[elements.length + 1];
+            System.arraycopy(elements, 0, newElements, 0, index);
+            newElements[index] = element;
+            System.arraycopy(elements, index, newElements, index + 1, elements.length - index);
+            if (newElements.length <= MAX_WIDTH)
+            {
+                return new Node[]{new Leaf(newElements)};
+            }
+            int half = newElements.length / 2;
+            Object[] left = new Object[half];
+            Object[] right = new Object[newElements.length - half];
+            System.arraycopy(newElements, 0, left, 0, left.length);
+            System.arraycopy(newElements, half, right, 0, right.length);
+            return new Node[]{new Leaf(left), new Leaf(right)};
+        }
+
+
+        @Override
+        Node delete(int index)
+        {
+            Object[] newElements = new Object[elements.length - 1];
+            System.arraycopy(elements, 0, newElements, 0, index);
+            System.arraycopy(elements, index + 1, newElements, index, newElements.length - index);
+            return new Leaf(newElements);
+        }
+
+
+        @Override
+        Node merge(Node next)
+        {
+            Object[] nextElements = ((Leaf) next).elements;
+            Object[] newElements = new Object[elements.length + nextElements.length];
+            System.arraycopy(elements, 0, newElements, 0, elements.length);
+            System.arraycopy(nextElements, 0, newElements, elements.length, nextElements.length);
+            return new Leaf(newElements);
+        }
+    }
+
+
+    /**
+     * An internal node with up to 32 children.  It keeps the cumulative sizes of its
+     * children so that the child containing a given position can be found without
+     * visiting the children.
+     */
+    private static final class Branch extends Node
+    {
+        private final Node[] children;
+        private final int[] ends;
+
+        Branch(Node[] children)
+        {
+            this(children, new int[children.length]);
+            int total = 0;
+            for (int i = 0; i < children.length; i++)
+            {
+                total += children[i].size();
+                ends[i] = total;
+            }
+        }
+
+
+        /**
+         * Creates a branch with the same child sizes as an existing branch.  The
+         * array of sizes is immutable once constructed, so it can be shared.
+         */
+        private Branch(Node[] children, int[] ends)
+        {
+            this.children = children;
+            this.ends = ends;
+        }
+
+
+        @Override
+        int size()
+        {
+            return ends.length == 0 ? 0 : ends[ends.length - 1];
+        }
+
+
+        @Override
+        int width()
+        {
+            return children.length;
+        }
+
+
+        /**
+         * @return The index of the child that contains the specified position.
+         */
+        int childIndex(int index)
+        {
+            int child = 0;
+            while (ends[child] <= index)
+            {
+                ++child;
+            }
+            return child;
+        }
+
+
+        /**
+         * @return The position, within this node, of the first element of the specified child.
+         */
+        int start(int child)
+        {
+            return child == 0 ? 0 : ends[child - 1];
+        }
+
+
+        @Override
+        Node replace(int index, Object element)
+        {
+            int child = childIndex(index);
+            Node[] newChildren = children.clone();
+            newChildren[child] = children[child].replace(index - start(child), element);
+            return new Branch(newChildren, ends);
+        }
+
+
+        @Override
+        Node[] insert(int index, Object element)
+        {
+            // Insertions at the boundary between two children go at the end of the
+            // first, so that appending adds to the last child.
+            int child = index == 0 ? 0 : childIndex(index - 1);
+            Node[] nodes = children[child].insert(index - start(child), element);
+            Node[] newChildren = new Node[children.length + nodes.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, child);
+            System.arraycopy(nodes, 0, newChildren, child, nodes.length);
+            System.arraycopy(children, child + 1, newChildren, child + nodes.length, children.length - child - 1);
+            if (newChildren.length <= MAX_WIDTH)
+            {
+                return new Node[]{new Branch(newChildren)};
+            }
+            int half = newChildren.length / 2;
+            Node[] left = new Node[half];
+            Node[] right = new Node[newChildren.length - half];
+            System.arraycopy(newChildren, 0, left, 0, left.length);
+            System.arraycopy(newChildren, half, right, 0, right.length);
+            return new Node[]{new Branch(left), new Branch(right)};
+        }
+
+
+        @Override
+        Node delete(int index)
+        {
+            int child = childIndex(index);
+            Node newChild = children[child].delete(index - start(child));
+            if (newChild.width() == 0)
+            {
+                return new Branch(without(children, child));
+            }
+            Node[] newChildren = children.clone();
+            newChildren[child] = newChild;
+            if (newChild.width() < MIN_WIDTH)
+            {
+                // Merge the sparse child with whichever neighbour it fits with.
+                if (child > 0 && children[child - 1].width() + newChild.width() <= MAX_WIDTH)
+                {
+                    newChildren[child - 1] = children[child - 1].merge(newChild);
+                    return new Branch(without(newChildren, child));
+                }
+                if (child < children.length - 1 && children[child + 1].width() + newChild.width() <= MAX_WIDTH)
+                {
+                    newChildren[child] = newChild.merge(children[child + 1]);
+                    return new Branch(without(newChildren, child + 1));
+                }
+            }
+            return new Branch(newChildren);
+        }
+
+
+        private static Node[] without(Node[] nodes, int index)
+        {
+            Node[] result = new Node[nodes.length - 1];
+            System.arraycopy(nodes, 0, result, 0, index);
+            System.arraycopy(nodes, index + 1, result, index, result.length - index);
+            return result;
+        }
+
+
+        @Override
+        Node merge(Node next)
+        {
+            Node[] nextChildren = ((Branch) next).children;
+            Node[] newChildren = new Node[children.length + nextChildren.length];
+            System.arraycopy(children, 0, newChildren, 0, children.length);
+            System.arraycopy(nextChildren, 0, newChildren, children.length, nextChildren.length);
+            return new Branch(newChildren);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Base class for diversity measures of fixed-alphabet genomes (strings and arrays)
+ * based on per-locus entropy.  For each position in the genome, the Shannon entropy
+ * of the symbols found at that position in the sampled individuals is calculated and
+ * normalised to the range 0 - 1.  The diversity is the mean of these values over all
+ * positions.  The cost is linear in both the sample size and the genome length (plus
+ * a sort of each column), in contrast with the quadratic cost of all-pairs distance.
+ * @param <T> The type of evolved entity that is measured.
+ * @author Daniel Dyer
+ */
+public abstract class AbstractLocusEntropyDiversity<T> extends AbstractSampledDiversity<T>
+{
+    private final int alphabetSize;
+
+    /**
+     * @param alphabetSize The number of distinct symbols that may appear at any position.
+     * This determines the maximum possible entropy, which is used for normalisation.
+     * @param sampleSize The maximum number of individuals examined for each measurement.
+     */
+    protected AbstractLocusEntropyDiversity(int alphabetSize, int sampleSize)
+    {
+        super(sampleSize);
+        if (alphabetSize < 2)
+        {
+            throw new IllegalArgumentException("Alphabet must contain at least 2 symbols.");
+        }
+        this.alphabetSize = alphabetSize;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double measure(List<? extends T> sample)
+    {
+        int length = Integer.MAX_VALUE;
+        for (T candidate : sample)
+        {
+            length = Math.min(length, getLength(candidate));
+        }
+        if (length == 0)
+        {
+            return 0;
+        }
+
+        // The entropy of a column cannot exceed the log of the number of distinct
+        // values it could hold, which is limited by both the alphabet and the sample.
+        double maximumEntropy = Math.log(Math.min(alphabetSize, sample.size()));
+        int[] column = new int[sample.size()];
+        double totalEntropy = 0;
+        for (int locus = 0; locus < length; locus++)
+        {
+            for (int i = 0; i < column.length; i++)
+            {
+                column[i] = getSymbol(sample.get(i), locus);
+            }
+            totalEntropy += getEntropy(column);
+        }
+        return totalEntropy / length / maximumEntropy;
+    }
+
+
+    /**
+     * Calculate the entropy of the values in the array.  Sorts the array so that the
+     * frequency of each distinct value can be counted without a map.
+     */
+    private double getEntropy(int[] column)
+    {
+        Arrays.sort(column);
+        double entropy = 0;
+        int runStart = 0;
+        for (int i = 1; i <= column.length; i++)
+        {
+            if (i == column.length || column[i] != column[runStart])
+            {
+                double p = (double) (i - runStart) / column.length;
+                entropy -= p * Math.log(p);
+                runStart = i;
+            }
+        }
+        return entropy;
+    }
+
+
+    /**
+     * @param candidate An individual.
+     * @return The number of positions in the individual's genome.
+     */
+    protected abstract int getLength(T candidate);
+
+
+    /**
+     * @param candidate An individual.
+     * @param locus A position in the individual's genome.
+     * @return The symbol at that position, as an integer.
+     */
+    protected abstract int getSymbol(T candidate, int locus);
+}
@@ -0,0 +1,108 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.uncommons.watchmaker.framework.DiversityMeasure;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+
+/**
+ * Base class for diversity measures that examine a random sample of the population
+ * rather than the whole population.  Neither the population nor the candidates are
+ * copied, so the cost of a measurement depends on the configured sample size and not
+ * on the population size.
+ * @param <T> The type of evolved entity that is measured.
+ * @author Daniel Dyer
+ */
+public abstract class AbstractSampledDiversity<T> implements DiversityMeasure<T>
+{
+    private final int sampleSize;
+
+    /**
+     * @param sampleSize The maximum number of individuals examined for each measurement.
+     * If the population is no larger than this, all individuals are examined.
+     */
+    protected AbstractSampledDiversity(int sampleSize)
+    {
+        if (sampleSize < 2)
+        {
+            throw new IllegalArgumentException("Sample size must be at least 2.");
+        }
+        this.sampleSize = sampleSize;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public <S extends T> double getDiversity(List<EvaluatedCandidate<S>> population, Random rng)
+    {
+        if (population.size() < 2)
+        {
+            return 0; // A single individual has no diversity.
+        }
+        return measure(sample(population, rng));
+    }
+
+
+    /**
+     * Select, without replacement, up to {@code sampleSize} individuals.  Floyd's algorithm
+     * is used to choose the indices, so neither the population nor the candidates themselves
+     * are copied, and the cost of sampling depends only on the sample size.
+     */
+    private <S> List<S> sample(List<EvaluatedCandidate<S>> population, Random rng)
+    {
+        int size = population.size();
+        List<S> sample = new ArrayList<S>(Math.min(size, sampleSize));
+        if (size <= sampleSize)
+        {
+            for (EvaluatedCandidate<S> candidate : population)
+            {
+                sample.add(candidate.getCandidate());
+            }
+        }
+        else
+        {
+            Set<Integer> indices = new HashSet<Integer>(sampleSize * 2);
+            for (int j = size - sampleSize; j < size; j++)
+            {
+                int index = rng.nextInt(j + 1);
+                // If the index has already been chosen, choose j instead, which cannot
+                // have been chosen yet.
+                if (!indices.add(index))
+                {
+                    index = j;
+                    indices.add(index);
+                }
+                sample.add(population.get(index).getCandidate());
+            }
+        }
+        return sample;
+    }
+
+
+    /**
+     * Calculate the diversity of a sample of the population.
+     * @param sample Two or more individuals drawn at random from the population.
+     * @return A value between zero (all individuals are identical) and one (maximum
+     * diversity).
+     */
+    protected abstract double measure(List<? extends T> sample);
+}
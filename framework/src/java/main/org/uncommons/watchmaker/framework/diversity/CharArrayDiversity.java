@@ -0,0 +1,53 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+/**
+ * Per-locus entropy diversity measure for arrays of primitive chars.
+ * @see AbstractLocusEntropyDiversity
+ * @author Daniel Dyer
+ */
+public class CharArrayDiversity extends AbstractLocusEntropyDiversity<char[]>
+{
+    /**
+     * @param alphabet The permitted values for each element of an array.
+     * @param sampleSize The maximum number of individuals examined for each measurement.
+     */
+    public CharArrayDiversity(char[] alphabet, int sampleSize)
+    {
+        super(alphabet.length, sampleSize);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getLength(char[] candidate)
+    {
+        return candidate.length;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getSymbol(char[] candidate, int locus)
+    {
+        return candidate[locus];
+    }
+}
@@ -0,0 +1,101 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.List;
+import org.uncommons.maths.binary.BitString;
+
+/**
+ * Measures the diversity of a population of {@link BitString}s as the mean Hamming
+ * distance between pairs of sampled individuals, divided by the bit string length.
+ * Each sampled individual is packed into 64-bit words once, after which the distance
+ * between any two of them is the population count of the exclusive-or of their words.
+ * A population of uniformly random bit strings has a diversity of approximately 0.5.
+ * @author Daniel Dyer
+ */
+public class HammingDiversity extends AbstractSampledDiversity<BitString>
+{
+    private static final int WORD_LENGTH = 64;
+
+    /**
+     * Creates a measure that examines a sample of 100 individuals.
+     */
+    public HammingDiversity()
+    {
+        this(100);
+    }
+
+
+    /**
+     * @param sampleSize The maximum number of individuals examined for each measurement.
+     */
+    public HammingDiversity(int sampleSize)
+    {
+        super(sampleSize);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double measure(List<? extends BitString> sample)
+    {
+        int length = sample.get(0).getLength();
+        int wordCount = (length + WORD_LENGTH - 1) / WORD_LENGTH;
+        long[][] words = new long[sample.size()][];
+        for (int i = 0; i < words.length; i++)
+        {
+            words[i] = pack(sample.get(i), wordCount);
+        }
+
+        long totalDistance = 0;
+        for (int i = 0; i < words.length - 1; i++)
+        {
+            for (int j = i + 1; j < words.length; j++)
+            {
+                totalDistance += distance(words[i], words[j]);
+            }
+        }
+        long pairs = (long) words.length * (words.length - 1) / 2;
+        return (double) totalDistance / pairs / length;
+    }
+
+
+    private long[] pack(BitString bitString, int wordCount)
+    {
+        long[] words = new long[wordCount];
+        for (int i = 0; i < bitString.getLength(); i++)
+        {
+            if (bitString.getBit(i))
+            {
+                words[i / WORD_LENGTH] |= 1L << i;
+            }
+        }
+        return words;
+    }
+
+
+    private int distance(long[] words1, long[] words2)
+    {
+        int distance = 0;
+        for (int i = 0; i < words1.length; i++)
+        {
+            distance += Long.bitCount(words1[i] ^ words2[i]);
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,126 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the diversity of a population of permutations (such as travelling salesman
+ * routes) using adjacency-based distance.  The distance between two permutations is
+ * the proportion of adjacent pairs of elements (treating each permutation as a cycle,
+ * in either direction) in one that are not adjacent in the other.  Two routes that
+ * visit the same cities in the same cyclic order therefore have a distance of zero,
+ * regardless of starting point or direction.
+ * @author Daniel Dyer
+ */
+public class PermutationDiversity extends AbstractSampledDiversity<List<?>>
+{
+    /**
+     * Creates a measure that examines a sample of 50 individuals.
+     */
+    public PermutationDiversity()
+    {
+        this(50);
+    }
+
+
+    /**
+     * @param sampleSize The maximum number of individuals examined for each measurement.
+     */
+    public PermutationDiversity(int sampleSize)
+    {
+        super(sampleSize);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double measure(List<? extends List<?>> sample)
+    {
+        int length = sample.get(0).size();
+        if (length < 3)
+        {
+            return 0; // All cyclic permutations of two or fewer elements are equivalent.
+        }
+        // Replace elements by integer IDs so that the pairwise comparisons use arrays
+        // rather than maps.
+        Map<Object, Integer> ids = new HashMap<Object, Integer>(length * 2);
+        for (Object element : sample.get(0))
+        {
+            ids.put(element, ids.size());
+        }
+        int[][] positions = new int[sample.size()][];
+        int[][] sequences = new int[sample.size()][];
+        for (int i = 0; i < sample.size(); i++)
+        {
+            List<?> permutation = sample.get(i);
+            if (permutation.size() != length)
+            {
+                throw new IllegalArgumentException("Permutations must all be the same length.");
+            }
+            sequences[i] = new int[length];
+            positions[i] = new int[length];
+            for (int j = 0; j < length; j++)
+            {
+                Integer id = ids.get(permutation.get(j));
+                if (id == null)
+                {
+                    throw new IllegalArgumentException("Permutations must all contain the same elements.");
+                }
+                sequences[i][j] = id;
+                positions[i][id] = j;
+            }
+        }
+
+        long totalDistance = 0;
+        for (int i = 0; i < sequences.length - 1; i++)
+        {
+            for (int j = i + 1; j < sequences.length; j++)
+            {
+                totalDistance += distance(sequences[i], positions[j]);
+            }
+        }
+        long pairs = (long) sequences.length * (sequences.length - 1) / 2;
+        return (double) totalDistance / pairs / length;
+    }
+
+
+    /**
+     * Count the adjacencies in the first permutation that are absent from the second.
+     * @param sequence The first permutation, as a sequence of element IDs.
+     * @param positions The inverse of the second permutation (the position of each ID).
+     */
+    private int distance(int[] sequence, int[] positions)
+    {
+        int length = sequence.length;
+        int distance = 0;
+        for (int i = 0; i < length; i++)
+        {
+            int position1 = positions[sequence[i]];
+            int position2 = positions[sequence[(i + 1) % length]];
+            int gap = Math.abs(position1 - position2);
+            if (gap != 1 && gap != length - 1)
+            {
+                ++distance;
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,53 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+/**
+ * Per-locus entropy diversity measure for strings.
+ * @see AbstractLocusEntropyDiversity
+ * @author Daniel Dyer
+ */
+public class StringDiversity extends AbstractLocusEntropyDiversity<String>
+{
+    /**
+     * @param alphabet The permitted values for each character in a string.
+     * @param sampleSize The maximum number of individuals examined for each measurement.
+     */
+    public StringDiversity(char[] alphabet, int sampleSize)
+    {
+        super(alphabet.length, sampleSize);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getLength(String candidate)
+    {
+        return candidate.length();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getSymbol(String candidate, int locus)
+    {
+        return candidate.charAt(locus);
+    }
+}
@@ -0,0 +1,59 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.factories;
+
+import java.util.Random;
+import org.uncommons.watchmaker.framework.operators.DoubleArrayBounds;
+
+/**
+ * Candidate factory for real-valued ({@code double[]}) candidates of a fixed length.
+ * Each gene is drawn uniformly from the range permitted by the configured bounds.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayFactory extends AbstractCandidateFactory<double[]>
+{
+    private final int length;
+    private final DoubleArrayBounds bounds;
+
+    /**
+     * @param length The number of genes in each candidate.
+     * @param bounds The range of values for each gene.
+     */
+    public DoubleArrayFactory(int length, DoubleArrayBounds bounds)
+    {
+        bounds.checkLength(length);
+        this.length = length;
+        this.bounds = bounds;
+    }
+
+
+    /**
+     * Generates a random candidate with each gene uniformly distributed between
+     * its bounds.
+     * @param rng The source of randomness for the gene values.
+     * @return A random candidate.
+     */
+    public double[] generateRandomCandidate(Random rng)
+    {
+        double[] candidate = new double[length];
+        for (int i = 0; i < length; i++)
+        {
+            double minimum = bounds.getMinimum(i);
+            candidate[i] = minimum + rng.nextDouble() * (bounds.getMaximum(i) - minimum);
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,63 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.factories;
+
+import java.util.Random;
+
+/**
+ * Generates random permutations of the integers 0 to n-1, stored as primitive
+ * {@code int} arrays.  Candidates created by this factory are suitable for use
+ * with the int-permutation operators in the
+ * {@link org.uncommons.watchmaker.framework.operators} package, which rely on
+ * every element being a valid index into the array.
+ * @author Daniel Dyer
+ */
+public class IntPermutationFactory extends AbstractCandidateFactory<int[]>
+{
+    private final int size;
+
+    /**
+     * @param size The number of elements in each permutation.
+     */
+    public IntPermutationFactory(int size)
+    {
+        if (size <= 0)
+        {
+            throw new IllegalArgumentException("Permutation size must be positive.");
+        }
+        this.size = size;
+    }
+
+
+    /**
+     * Generates a random permutation of the integers 0 to n-1 using an
+     * in-place Fisher-Yates shuffle.
+     * @param rng A source of randomness used to generate the random
+     * permutation.
+     * @return A random permutation.
+     */
+    public int[] generateRandomCandidate(Random rng)
+    {
+        int[] candidate = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            int j = rng.nextInt(i + 1);
+            candidate[i] = candidate[j];
+            candidate[j] = i;
+        }
+        return candidate;
+    }
+}
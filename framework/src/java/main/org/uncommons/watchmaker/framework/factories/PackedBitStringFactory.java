@@ -0,0 +1,66 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.factories;
+
+import java.util.Random;
+import org.uncommons.watchmaker.framework.binary.PackedBitStringPopulation;
+
+/**
+ * Equivalent of {@link BitStringFactory} for populations held in a
+ * {@link PackedBitStringPopulation}.  Rather than creating new candidate objects, it
+ * fills the slots of an existing packed population with random bits, a whole word
+ * at a time.
+ * @author Daniel Dyer
+ */
+public class PackedBitStringFactory
+{
+    /**
+     * Randomises every individual in the population, with a uniform distribution of
+     * ones and zeroes.
+     * @param population The population to initialise.
+     * @param rng The source of randomness for setting the bits.
+     */
+    public void generateInitialPopulation(PackedBitStringPopulation population, Random rng)
+    {
+        generateRandomCandidates(population, 0, population.getSize(), rng);
+    }
+
+
+    /**
+     * Randomises a range of individuals in the population, with a uniform distribution
+     * of ones and zeroes.  Disjoint ranges may be initialised concurrently, provided
+     * that each thread uses its own RNG.
+     * @param population The population that contains the individuals.
+     * @param fromIndex The index of the first individual to randomise (inclusive).
+     * @param toIndex The index of the last individual to randomise (exclusive).
+     * @param rng The source of randomness for setting the bits.
+     */
+    public void generateRandomCandidates(PackedBitStringPopulation population,
+                                         int fromIndex,
+                                         int toIndex,
+                                         Random rng)
+    {
+        population.checkRange(fromIndex, toIndex);
+        int words = population.getWordCount();
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            for (int j = 0; j < words; j++)
+            {
+                population.setWord(i, j, rng.nextLong());
+            }
+        }
+    }
+}
@@ -0,0 +1,635 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.uncommons.watchmaker.framework.CandidateFactory;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.EvolutionEngine;
+import org.uncommons.watchmaker.framework.EvolutionObserver;
+import org.uncommons.watchmaker.framework.EvolutionUtils;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.SelectionStrategy;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.termination.GenerationCount;
+
+/**
+ * <p>An asynchronous implementation of island evolution.  Unlike {@link IslandEvolution},
+ * there is no barrier at the end of each epoch.  Each island evolves independently of the
+ * others.  At the end of each of its epochs, an island posts copies of randomly-chosen
+ * members of its population to the mailboxes of its neighbours (as determined by the
+ * {@link Topology}) and absorbs any immigrants waiting in its own mailbox.  Mailboxes are
+ * bounded and lock-free, so a slow island never holds up a fast one.</p>
+ *
+ * <p>Each island also publishes a snapshot of its statistics at the end of every epoch.
+ * The request thread combines the latest snapshots into global statistics, which are
+ * passed to observers and termination conditions, without stopping any of the islands.
+ * A global update is made each time the islands have completed, between them, as many
+ * epochs as there are islands (and every island has completed at least one epoch), so the
+ * global epoch number is roughly the average number of epochs completed by each island.</p>
+ *
+ * <p>Islands do not need a thread each.  Every epoch of every island is a separate task
+ * and, when an island completes an epoch, it re-submits itself to the back of the
+ * executor's queue.  Many more islands than threads can therefore be multiplexed onto a
+ * small, long-lived pool (see {@link #setExecutorService(ExecutorService)}), with the
+ * islands taking turns so that none of them is starved.</p>
+ *
+ * @param <T> The type of entity that is to be evolved.
+ * @see IslandEvolution
+ * @author Daniel Dyer
+ */
+public class AsyncIslandEvolution<T>
+{
+    private final List<EvolutionEngine<T>> islands;
+    // The global index of each island, which may differ from its position in the list of
+    // islands if some of the islands are hosted by other JVMs.
+    private final int[] islandIndices;
+    private final int islandCount;
+    private final Topology topology;
+    private final boolean naturalFitness;
+    private final Random rng;
+
+    private final Set<IslandEvolutionObserver<? super T>> observers
+        = new CopyOnWriteArraySet<IslandEvolutionObserver<? super T>>();
+
+    private volatile ExecutorService executorService = null;
+
+    // Evaluations performed by each island during its current epoch.  Each element is
+    // only accessed by the task that is evolving the corresponding island.
+    private final long[] epochEvaluationCounts;
+
+    private List<TerminationCondition> satisfiedTerminationConditions;
+
+
+    /**
+     * Create an asynchronous island system with the specified number of identically-configured
+     * islands.
+     * @param islandCount The number of separate islands that will be part of the system.
+     * @param topology Determines which islands receive emigrants from each island.
+     * @param candidateFactory Generates the initial population for each island.
+     * @param evolutionScheme The evolutionary operator, or combination of evolutionary operators,
+     * used on each island.
+     * @param fitnessEvaluator The fitness function used on each island.
+     * @param selectionStrategy The selection strategy used on each island.
+     * @param rng A source of randomness, used by all islands.
+     */
+    public AsyncIslandEvolution(int islandCount,
+                                Topology topology,
+                                CandidateFactory<T> candidateFactory,
+                                EvolutionaryOperator<T> evolutionScheme,
+                                FitnessEvaluator<? super T> fitnessEvaluator,
+                                SelectionStrategy<? super T> selectionStrategy,
+                                Random rng)
+    {
+        this(IslandEvolution.createIslands(islandCount,
+                                           candidateFactory,
+                                           evolutionScheme,
+                                           fitnessEvaluator,
+                                           selectionStrategy,
+                                           rng),
+             topology,
+             fitnessEvaluator.isNatural(),
+             rng);
+    }
+
+
+    /**
+     * Create an asynchronous island system from a list of pre-configured islands.
+     * @param islands A list of pre-configured islands.
+     * @param topology Determines which islands receive emigrants from each island.
+     * @param naturalFitness If true, indicates that higher fitness values mean fitter
+     * individuals.  If false, indicates that fitter individuals will have lower scores.
+     * @param rng A source of randomness, used by all islands.
+     */
+    public AsyncIslandEvolution(List<EvolutionEngine<T>> islands,
+                                Topology topology,
+                                boolean naturalFitness,
+                                Random rng)
+    {
+        this(islands, sequence(0, islands.size()), islands.size(), topology, naturalFitness, rng);
+    }
+
+
+    /**
+     * Create an asynchronous island system in which only some of the islands are hosted
+     * by this JVM.
+     * @param islands The islands hosted by this JVM.
+     * @param islandIndices The global index of each of the hosted islands.
+     * @param islandCount The total number of islands, in all JVMs.
+     * @param topology Determines which islands receive emigrants from each island.
+     * @param naturalFitness If true, indicates that higher fitness values mean fitter
+     * individuals.  If false, indicates that fitter individuals will have lower scores.
+     * @param rng A source of randomness, used by all hosted islands.
+     */
+    AsyncIslandEvolution(List<EvolutionEngine<T>> islands,
+                         int[] islandIndices,
+                         int islandCount,
+                         Topology topology,
+                         boolean naturalFitness,
+                         Random rng)
+    {
+        if (islandIndices.length != islands.size())
+        {
+            throw new IllegalArgumentException("There must be one index for each island.");
+        }
+        this.islands = islands;
+        this.islandIndices = islandIndices.clone();
+        this.islandCount = islandCount;
+        this.topology = topology;
+        this.naturalFitness = naturalFitness;
+        this.rng = rng;
+        this.epochEvaluationCounts = new long[islands.size()];
+
+        for (int i = 0; i < islands.size(); i++)
+        {
+            final int localIndex = i;
+            final int islandIndex = islandIndices[i];
+            islands.get(localIndex).addEvolutionObserver(new EvolutionObserver<T>()
+            {
+                public void populationUpdate(PopulationData<? extends T> populationData)
+                {
+                    epochEvaluationCounts[localIndex] = populationData.getEvaluationCount();
+                    for (IslandEvolutionObserver<? super T> islandObserver : observers)
+                    {
+                        islandObserver.islandPopulationUpdate(islandIndex, populationData);
+                    }
+                }
+            });
+        }
+    }
+
+
+    /**
+     * <p>Start the evolutionary process on each island and return the fittest candidate so far at the
+     * point any of the termination conditions is satisfied.  Once evolution has terminated, any
+     * epochs that are still in progress are interrupted and this method does not return until they
+     * have stopped, so the islands may safely be evolved again.</p>
+     *
+     * <p><em>If you interrupt the request thread before this method returns, the
+     * method will return prematurely (with the best individual found so far, or null if no island
+     * has yet completed an epoch).  After returning in this way, the current thread's interrupted
+     * flag will be set.</em></p>
+     *
+     * @param populationSize The population size <em>for each island</em>.
+     * @param eliteCount The number of candidates preserved via elitism <em>on each island</em>.
+     * This value must be non-negative and less than the population size.
+     * @param epochLength The number of generations that make up an epoch on each island.  Migration
+     * happens at the end of each of an island's epochs.
+     * @param migrantCount The number of individuals that each island sends to each of its neighbours
+     * at the end of each epoch.
+     * @param conditions One or more conditions that may cause the evolution to terminate.  These are
+     * checked against the global statistics.
+     * @return The fittest solution found by the evolutionary process on any of the islands.
+     */
+    public T evolve(int populationSize,
+                    int eliteCount,
+                    int epochLength,
+                    int migrantCount,
+                    TerminationCondition... conditions)
+    {
+        if (eliteCount < 0 || eliteCount >= populationSize)
+        {
+            throw new IllegalArgumentException("Elite count must be non-negative and less than population size.");
+        }
+        if (migrantCount < 0 || migrantCount > populationSize)
+        {
+            throw new IllegalArgumentException("Migrant count must be non-negative and no more than population size.");
+        }
+        if (conditions.length == 0)
+        {
+            throw new IllegalArgumentException("At least one TerminationCondition must be specified.");
+        }
+
+        ExecutorService islandExecutor = executorService;
+        Shared shared = new Shared(islandExecutor == null ? IslandEvolution.getSharedExecutor() : islandExecutor,
+                                   islands.size(),
+                                   createExchange(Math.max(1, migrantCount) * islandCount));
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < islands.size(); i++)
+        {
+            new IslandTask(i,
+                           shared,
+                           topology.getNeighbours(islandIndices[i], islandCount),
+                           populationSize,
+                           eliteCount,
+                           epochLength,
+                           migrantCount,
+                           startTime).schedule();
+        }
+
+        PopulationData<T> data = null;
+        List<TerminationCondition> satisfiedConditions = null;
+        int currentEpochIndex = 0;
+        try
+        {
+            while (satisfiedConditions == null)
+            {
+                shared.completedEpochs.acquire(islands.size());
+                checkForFailure(shared);
+                // Global statistics are only meaningful once every island has reported.
+                while (!shared.allPublished())
+                {
+                    shared.completedEpochs.acquire();
+                    checkForFailure(shared);
+                }
+                data = mergeSnapshots(shared, currentEpochIndex, startTime);
+                notifyPopulationChange(data);
+                satisfiedConditions = EvolutionUtils.shouldContinue(data, conditions);
+                ++currentEpochIndex;
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            satisfiedConditions = Collections.emptyList();
+            data = mergeSnapshots(shared, currentEpochIndex, startTime);
+        }
+        finally
+        {
+            shared.stop = true;
+            // Don't leave long-running epochs occupying threads that may be shared with other work.
+            for (int i = 0; i < islands.size(); i++)
+            {
+                shared.futures.get(i).cancel(true);
+            }
+            // Cancelling an epoch that has already started does not wait for it to finish, so
+            // wait until no island is running before the engines can be used again.
+            shared.idleIslands.acquireUninterruptibly(islands.size());
+        }
+
+        this.satisfiedTerminationConditions = satisfiedConditions;
+        return data == null ? null : data.getBestCandidate();
+    }
+
+
+    /**
+     * Creates the means by which islands exchange migrants during a single invocation of
+     * {@link #evolve(int, int, int, int, TerminationCondition[])}.  By default, islands exchange
+     * migrants via in-memory mailboxes.
+     * @param capacity The maximum number of migrants that may be waiting for any one island.
+     * @return A migrant exchange for all islands.
+     */
+    MigrantExchange<T> createExchange(int capacity)
+    {
+        return new MailboxExchange<T>(islandCount, capacity);
+    }
+
+
+    static int[] sequence(int start, int count)
+    {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            values[i] = start + i;
+        }
+        return values;
+    }
+
+
+    /**
+     * Islands only stop of their own accord if they fail, so rethrow the failure of
+     * any island whose most recent epoch has finished without re-scheduling the island.
+     */
+    private void checkForFailure(Shared shared) throws InterruptedException
+    {
+        for (int i = 0; i < islands.size(); i++)
+        {
+            Future<?> islandTask = shared.futures.get(i);
+            if (islandTask.isDone() && !islandTask.isCancelled())
+            {
+                try
+                {
+                    islandTask.get();
+                }
+                catch (ExecutionException ex)
+                {
+                    throw new IllegalStateException(ex.getCause());
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Combines the most recent snapshot from each island.
+     * @return The global statistics, or null if no island has published a snapshot.
+     */
+    private PopulationData<T> mergeSnapshots(Shared shared, int epochIndex, long startTime)
+    {
+        List<PopulationData<T>> snapshots = new ArrayList<PopulationData<T>>(islands.size());
+        for (int i = 0; i < islands.size(); i++)
+        {
+            PopulationData<T> snapshot = shared.snapshots.get(i);
+            if (snapshot != null)
+            {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots.isEmpty()
+               ? null
+               : EvolutionUtils.mergePopulationData(snapshots, naturalFitness, epochIndex, startTime);
+    }
+
+
+    /**
+     * <p>Returns a list of all {@link TerminationCondition}s that are satisfied by the current
+     * state of the island evolution.</p>
+     *
+     * <p>If the evolution terminated because the request thread was interrupted before any
+     * termination conditions were satisfied then this method will return an empty list.</p>
+     *
+     * @throws IllegalStateException If this method is invoked on an island system before
+     * evolution is started or while it is still in progress.
+     *
+     * @return A list of statisfied conditions.  The list is guaranteed to be non-null.
+     */
+    public List<TerminationCondition> getSatisfiedTerminationConditions()
+    {
+        if (satisfiedTerminationConditions == null)
+        {
+            throw new IllegalStateException("EvolutionEngine has not terminated.");
+        }
+        else
+        {
+            return Collections.unmodifiableList(satisfiedTerminationConditions);
+        }
+    }
+
+
+    /**
+     * <p>Sets the executor that runs the islands.  Each island is run as a sequence of tasks,
+     * one per epoch, so there may be many more islands than the executor has threads.</p>
+     *
+     * <p>By default, islands are run on a pool shared by all island systems, with one thread
+     * per available core.  The executor is not shut down by this class so it can be re-used
+     * for subsequent invocations of {@link #evolve(int, int, int, int, TerminationCondition[])}.
+     * The executor must queue tasks in the order that they are submitted, and it must not be
+     * shut down while evolution is in progress.</p>
+     * @param executorService The executor to use, or null to use the shared pool.
+     */
+    public void setExecutorService(ExecutorService executorService)
+    {
+        this.executorService = executorService;
+    }
+
+
+    /**
+     * <p>Adds an observer to the evolution.  Observers receive global updates on the request
+     * thread and individual island updates (at the end of each generation) on whichever
+     * thread is running the island, so island updates for different islands may be delivered concurrently.</p>
+     * @param observer The callback that will be notified at the end of each generation and epoch.
+     * @see #removeEvolutionObserver(IslandEvolutionObserver)
+     */
+    public void addEvolutionObserver(IslandEvolutionObserver<? super T> observer)
+    {
+        observers.add(observer);
+    }
+
+
+    /**
+     * Remove the specified observer.
+     * @param observer The observer to remove (if it is registered).
+     * @see #addEvolutionObserver(IslandEvolutionObserver)
+     */
+    public void removeEvolutionObserver(IslandEvolutionObserver<? super T> observer)
+    {
+        observers.remove(observer);
+    }
+
+
+    /**
+     * Send the population data to all registered observers.
+     * @param data Information about the current state of the population.
+     */
+    private void notifyPopulationChange(PopulationData<T> data)
+    {
+        for (IslandEvolutionObserver<? super T> observer : observers)
+        {
+            observer.populationUpdate(data);
+        }
+    }
+
+
+    /**
+     * State shared between the request thread and the island threads for a single
+     * invocation of {@link AsyncIslandEvolution#evolve(int, int, int, int, TerminationCondition[])}.
+     */
+    private final class Shared
+    {
+        private final ExecutorService executor;
+        // The future for the most recently scheduled epoch of each island.
+        private final AtomicReferenceArray<Future<?>> futures;
+        private final MigrantExchange<T> exchange;
+        private final AtomicReferenceArray<PopulationData<T>> snapshots;
+        // One permit is released each time any island completes an epoch.
+        private final Semaphore completedEpochs = new Semaphore(0);
+        // Each island holds one permit for as long as one of its epochs is running.
+        private final Semaphore idleIslands;
+        private volatile boolean stop = false;
+
+        Shared(ExecutorService executor, int localIslandCount, MigrantExchange<T> exchange)
+        {
+            this.executor = executor;
+            this.idleIslands = new Semaphore(localIslandCount);
+            this.futures = new AtomicReferenceArray<Future<?>>(localIslandCount);
+            this.exchange = exchange;
+            this.snapshots = new AtomicReferenceArray<PopulationData<T>>(localIslandCount);
+        }
+
+
+        /**
+         * @return True if every island has published at least one snapshot.
+         */
+        boolean allPublished()
+        {
+            for (int i = 0; i < snapshots.length(); i++)
+            {
+                if (snapshots.get(i) == null)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Evolves a single island, one epoch per invocation.  At the end of each epoch the task
+     * re-schedules itself, until evolution terminates.  Because the next epoch is only
+     * scheduled once the current one is complete, an island's state is never accessed by
+     * more than one thread at a time.
+     */
+    private final class IslandTask implements Callable<Object>
+    {
+        private final int localIndex;
+        private final Shared shared;
+        private final int[] neighbours;
+        private final int populationSize;
+        private final int eliteCount;
+        private final int epochLength;
+        private final int migrantCount;
+        private final long startTime;
+
+        private final List<EvaluatedCandidate<T>> immigrants = new ArrayList<EvaluatedCandidate<T>>();
+        private List<EvaluatedCandidate<T>> islandPopulation = null;
+        private long evaluationCount = 0;
+        private int epochIndex = 0;
+
+        IslandTask(int localIndex,
+                   Shared shared,
+                   int[] neighbours,
+                   int populationSize,
+                   int eliteCount,
+                   int epochLength,
+                   int migrantCount,
+                   long startTime)
+        {
+            this.localIndex = localIndex;
+            this.shared = shared;
+            this.neighbours = neighbours;
+            this.populationSize = populationSize;
+            this.eliteCount = eliteCount;
+            this.epochLength = epochLength;
+            this.migrantCount = migrantCount;
+            this.startTime = startTime;
+        }
+
+
+        /**
+         * Queue the island's next epoch.  The future is recorded before the task is
+         * submitted so that it can never overwrite the future of a later epoch.
+         */
+        void schedule()
+        {
+            FutureTask<Object> epoch = new FutureTask<Object>(this);
+            shared.futures.set(localIndex, epoch);
+            shared.executor.execute(epoch);
+        }
+
+
+        public Object call()
+        {
+            // If the request thread has already taken every permit, evolution has finished and
+            // it is no longer safe to touch the island.
+            if (!shared.idleIslands.tryAcquire())
+            {
+                return null;
+            }
+            boolean reschedule = false;
+            try
+            {
+                if (!shared.stop)
+                {
+                    boolean completed = false;
+                    try
+                    {
+                        evolveEpoch();
+                        completed = true;
+                    }
+                    finally
+                    {
+                        // If the island failed, wake up the request thread so that it can report the failure.
+                        shared.completedEpochs.release(completed ? 1 : islands.size());
+                    }
+                    reschedule = !shared.stop && !Thread.currentThread().isInterrupted();
+                }
+            }
+            finally
+            {
+                shared.idleIslands.release();
+            }
+            // The permit must be released first, otherwise the next epoch could find none left.
+            if (reschedule)
+            {
+                schedule();
+            }
+            return null;
+        }
+
+
+        private void evolveEpoch()
+        {
+            EvolutionEngine<T> island = islands.get(localIndex);
+            TerminationCondition epochEnd = new GenerationCount(epochLength);
+            islandPopulation = Epoch.evolve(island, populationSize, eliteCount, islandPopulation, epochEnd);
+            evaluationCount += epochEvaluationCounts[localIndex];
+            shared.snapshots.set(localIndex, EvolutionUtils.getPopulationData(islandPopulation,
+                                                                                    naturalFitness,
+                                                                                    eliteCount,
+                                                                                    epochIndex,
+                                                                                    startTime,
+                                                                                    Double.NaN,
+                                                                                    evaluationCount));
+            emigrate(islandPopulation);
+            immigrants.clear();
+            shared.exchange.drainTo(islandIndices[localIndex], immigrants);
+            islandPopulation = immigrate(islandPopulation, immigrants);
+            ++epochIndex;
+        }
+
+
+        /**
+         * Posts randomly-chosen, distinct members of the population to each neighbour.
+         * Each neighbour receives an independent sample.
+         */
+        private void emigrate(List<EvaluatedCandidate<T>> population)
+        {
+            if (migrantCount == 0)
+            {
+                return;
+            }
+            for (int neighbour : neighbours)
+            {
+                // Only the sample needs to be shuffled.  The order of the population is not
+                // important since it is sorted again at the start of the next epoch.
+                EvolutionUtils.moveRandomSampleToEnd(population, migrantCount, rng);
+                int offset = population.size() - migrantCount;
+                shared.exchange.post(neighbour, population.subList(offset, population.size()));
+            }
+        }
+
+
+        /**
+         * Replaces randomly-chosen members of the population with immigrants.
+         */
+        private List<EvaluatedCandidate<T>> immigrate(List<EvaluatedCandidate<T>> population,
+                                                      List<EvaluatedCandidate<T>> newArrivals)
+        {
+            int count = Math.min(newArrivals.size(), population.size());
+            EvolutionUtils.moveRandomSampleToEnd(population, count, rng);
+            for (int i = 0; i < count; i++)
+            {
+                population.set(population.size() - count + i, newArrivals.get(i));
+            }
+            return population;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Utility methods used by load balancers.
+ * @author Daniel Dyer
+ */
+final class BalancingUtils
+{
+    private BalancingUtils()
+    {
+        // Prevents instantiation.
+    }
+
+
+    /**
+     * Divides a fixed total into integer shares in proportion to a set of weights, subject
+     * to a minimum share.  Shares that would fall below the minimum are raised to it and the
+     * rest of the total is divided among the others.  Fractional shares are rounded using the
+     * largest remainder method so that the shares sum exactly to the total, unless the total is
+     * too small for every share to receive the minimum, in which case every share is the minimum.
+     * @param weights The positive weight of each share.
+     * @param total The total to divide.
+     * @param minimum The smallest permitted share.
+     * @param shares An array (of the same length as the weights) into which the shares are written.
+     */
+    static void apportion(double[] weights, int total, int minimum, int[] shares)
+    {
+        boolean[] fixed = new boolean[weights.length];
+        int remaining = total;
+        double remainingWeight = 0;
+        for (double weight : weights)
+        {
+            remainingWeight += weight;
+        }
+
+        // Fix shares at the minimum until the remainder, divided proportionally, gives
+        // every other share at least the minimum.
+        int unfixedCount = weights.length;
+        boolean changed = true;
+        while (changed && unfixedCount > 0)
+        {
+            changed = false;
+            double scale = remaining / remainingWeight;
+            for (int i = 0; i < weights.length; i++)
+            {
+                if (!fixed[i] && weights[i] * scale < minimum)
+                {
+                    fixed[i] = true;
+                    shares[i] = minimum;
+                    remaining -= minimum;
+                    remainingWeight -= weights[i];
+                    --unfixedCount;
+                    changed = true;
+                }
+            }
+        }
+        if (unfixedCount == 0)
+        {
+            return;
+        }
+
+        double scale = remaining / remainingWeight;
+        final double[] remainders = new double[weights.length];
+        Integer[] order = new Integer[unfixedCount];
+        int index = 0;
+        for (int i = 0; i < weights.length; i++)
+        {
+            if (!fixed[i])
+            {
+                double exactShare = weights[i] * scale;
+                shares[i] = (int) exactShare;
+                remainders[i] = exactShare - shares[i];
+                remaining -= shares[i];
+                order[index++] = i;
+            }
+        }
+        // Distribute what is left over after rounding down to the largest remainders.
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            public int compare(Integer index1, Integer index2)
+            {
+                return Double.compare(remainders[index2], remainders[index1]);
+            }
+        });
+        for (int i = 0; i < remaining; i++)
+        {
+            ++shares[order[i % order.length]];
+        }
+    }
+}
@@ -0,0 +1,99 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+
+/**
+ * <p>A fitness-aware migration strategy in which each island sends copies of its fittest
+ * individuals to each of its neighbours (as determined by a {@link Topology}), and the
+ * immigrants replace the least fit individuals on the receiving island.  Compared to random
+ * migration, this spreads good solutions more quickly, at the expense of some diversity.</p>
+ *
+ * <p>The island populations must be sorted so that the fittest individuals come first, as
+ * they are at the end of each epoch in {@link IslandEvolution}.  The emigrants and the
+ * individuals to be replaced are then at either end of each population, so no sorting or
+ * shuffling is needed and the cost of migration is proportional to the number of migrants.
+ * If an island has more immigrants than individuals (because it has many neighbours), the
+ * excess immigrants are discarded.</p>
+ * @author Daniel Dyer
+ */
+public class BestReplaceWorstMigration implements Migration<Object>
+{
+    private final Topology topology;
+
+
+    /**
+     * Creates a migration strategy that connects the islands in a ring.
+     */
+    public BestReplaceWorstMigration()
+    {
+        this(new RingTopology());
+    }
+
+
+    /**
+     * @param topology Determines which islands receive emigrants from each island.
+     */
+    public BestReplaceWorstMigration(Topology topology)
+    {
+        this.topology = topology;
+    }
+
+
+    /**
+     * Copies the fittest individuals from each island over the least fit individuals
+     * on each of its neighbours.
+     * @param islandPopulations A list of the populations of each island, each sorted so
+     * that the fittest individuals are first.
+     * @param migrantCount The number of individuals sent from each island to each neighbour.
+     * @param rng A source of randomness (not used).
+     * @param <S> The type of entity being evolved.
+     */
+    public <S extends Object> void migrate(List<List<EvaluatedCandidate<S>>> islandPopulations,
+                                           int migrantCount,
+                                           Random rng)
+    {
+        int islandCount = islandPopulations.size();
+        // Select all emigrants before any island is changed by immigration.
+        List<List<EvaluatedCandidate<S>>> emigrants = new ArrayList<List<EvaluatedCandidate<S>>>(islandCount);
+        for (List<EvaluatedCandidate<S>> island : islandPopulations)
+        {
+            emigrants.add(new ArrayList<EvaluatedCandidate<S>>(island.subList(0, migrantCount)));
+        }
+        // The number of immigrants that have already arrived at each island.
+        int[] arrivals = new int[islandCount];
+        for (int i = 0; i < islandCount; i++)
+        {
+            for (int neighbour : topology.getNeighbours(i, islandCount))
+            {
+                List<EvaluatedCandidate<S>> destination = islandPopulations.get(neighbour);
+                for (EvaluatedCandidate<S> migrant : emigrants.get(i))
+                {
+                    if (arrivals[neighbour] < destination.size())
+                    {
+                        // Fill from the back, so the least fit are replaced first.
+                        ++arrivals[neighbour];
+                        destination.set(destination.size() - arrivals[neighbour], migrant);
+                    }
+                }
+            }
+        }
+    }
+}
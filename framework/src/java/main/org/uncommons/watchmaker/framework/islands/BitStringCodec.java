@@ -0,0 +1,68 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.uncommons.maths.binary.BitString;
+
+/**
+ * Encodes bit strings as their length followed by their bits, packed eight to a byte.
+ * @author Daniel Dyer
+ */
+public class BitStringCodec implements MigrantCodec<BitString>
+{
+    /**
+     * {@inheritDoc}
+     */
+    public void encode(BitString candidate, DataOutput out) throws IOException
+    {
+        int length = candidate.getLength();
+        out.writeInt(length);
+        for (int i = 0; i < length; i += 8)
+        {
+            int packed = 0;
+            for (int j = i; j < Math.min(i + 8, length); j++)
+            {
+                if (candidate.getBit(j))
+                {
+                    packed |= 1 << (j - i);
+                }
+            }
+            out.writeByte(packed);
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public BitString decode(DataInput in) throws IOException
+    {
+        int length = in.readInt();
+        BitString candidate = new BitString(length);
+        for (int i = 0; i < length; i += 8)
+        {
+            int packed = in.readUnsignedByte();
+            for (int j = i; j < Math.min(i + 8, length); j++)
+            {
+                candidate.setBit(j, (packed & (1 << (j - i))) != 0);
+            }
+        }
+        return candidate;
+    }
+}
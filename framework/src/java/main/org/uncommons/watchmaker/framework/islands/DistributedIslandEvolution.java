@@ -0,0 +1,141 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.List;
+import java.util.Random;
+import org.uncommons.watchmaker.framework.CandidateFactory;
+import org.uncommons.watchmaker.framework.EvolutionEngine;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+import org.uncommons.watchmaker.framework.SelectionStrategy;
+
+/**
+ * <p>An asynchronous island model in which the islands are spread across several JVMs,
+ * possibly on different machines.  Each JVM creates a {@code DistributedIslandEvolution}
+ * for the islands that it hosts, and migrants are exchanged with islands in other JVMs via
+ * a {@link MigrantTransport}, encoded by a {@link MigrantCodec}.  Migrants carry their
+ * fitness scores with them so they are not re-evaluated on arrival.</p>
+ *
+ * <p>Islands are identified by a global index.  Each JVM hosts a contiguous range of
+ * islands, and the {@link Topology} is applied to the full set of islands, so islands in
+ * different JVMs are neighbours in exactly the same way as they would be in a single JVM.
+ * The transport must be configured with the same allocation of islands.</p>
+ *
+ * <p>The global statistics passed to observers and termination conditions cover only the
+ * islands in this JVM, so each JVM decides for itself when to stop.  Islands in other JVMs
+ * are unaffected (apart from no longer receiving migrants from the islands that have
+ * stopped).  {@link IslandProcessLauncher} can be used to run several JVMs on a single
+ * machine for development and testing.</p>
+ *
+ * @param <T> The type of entity that is to be evolved.
+ * @see AsyncIslandEvolution
+ * @author Daniel Dyer
+ */
+public class DistributedIslandEvolution<T> extends AsyncIslandEvolution<T>
+{
+    private final MigrantTransport transport;
+    private final MigrantCodec<T> codec;
+
+
+    /**
+     * Creates the part of a distributed island system that is hosted by this JVM, with
+     * identically-configured islands.
+     * @param localIslandCount The number of islands hosted by this JVM.
+     * @param firstIslandIndex The global index of the first island hosted by this JVM.
+     * @param islandCount The total number of islands, in all JVMs.
+     * @param topology Determines which islands receive emigrants from each island.
+     * @param transport Carries migrants to and from islands in other JVMs.
+     * @param codec Encodes migrants for the transport.
+     * @param candidateFactory Generates the initial population for each island.
+     * @param evolutionScheme The evolutionary operator, or combination of evolutionary operators,
+     * used on each island.
+     * @param fitnessEvaluator The fitness function used on each island.
+     * @param selectionStrategy The selection strategy used on each island.
+     * @param rng A source of randomness, used by all islands in this JVM.
+     */
+    public DistributedIslandEvolution(int localIslandCount,
+                                      int firstIslandIndex,
+                                      int islandCount,
+                                      Topology topology,
+                                      MigrantTransport transport,
+                                      MigrantCodec<T> codec,
+                                      CandidateFactory<T> candidateFactory,
+                                      EvolutionaryOperator<T> evolutionScheme,
+                                      FitnessEvaluator<? super T> fitnessEvaluator,
+                                      SelectionStrategy<? super T> selectionStrategy,
+                                      Random rng)
+    {
+        this(IslandEvolution.createIslands(localIslandCount,
+                                           candidateFactory,
+                                           evolutionScheme,
+                                           fitnessEvaluator,
+                                           selectionStrategy,
+                                           rng),
+             firstIslandIndex,
+             islandCount,
+             topology,
+             transport,
+             codec,
+             fitnessEvaluator.isNatural(),
+             rng);
+    }
+
+
+    /**
+     * Creates the part of a distributed island system that is hosted by this JVM, from a
+     * list of pre-configured islands.
+     * @param islands The islands hosted by this JVM.
+     * @param firstIslandIndex The global index of the first island hosted by this JVM.
+     * The islands are assigned consecutive indices, in the order that they are listed.
+     * @param islandCount The total number of islands, in all JVMs.
+     * @param topology Determines which islands receive emigrants from each island.
+     * @param transport Carries migrants to and from islands in other JVMs.
+     * @param codec Encodes migrants for the transport.
+     * @param naturalFitness If true, indicates that higher fitness values mean fitter
+     * individuals.  If false, indicates that fitter individuals will have lower scores.
+     * @param rng A source of randomness, used by all islands in this JVM.
+     */
+    public DistributedIslandEvolution(List<EvolutionEngine<T>> islands,
+                                      int firstIslandIndex,
+                                      int islandCount,
+                                      Topology topology,
+                                      MigrantTransport transport,
+                                      MigrantCodec<T> codec,
+                                      boolean naturalFitness,
+                                      Random rng)
+    {
+        super(islands, sequence(firstIslandIndex, islands.size()), islandCount, topology, naturalFitness, rng);
+        if (firstIslandIndex < 0 || firstIslandIndex + islands.size() > islandCount)
+        {
+            throw new IllegalArgumentException("Hosted islands must be within the range of global indices.");
+        }
+        this.transport = transport;
+        this.codec = codec;
+    }
+
+
+    /**
+     * Migrants are exchanged via the transport, which determines its own capacity.
+     * The transport is not closed at the end of each run, so it may be re-used for
+     * subsequent runs.
+     */
+    @Override
+    MigrantExchange<T> createExchange(int capacity)
+    {
+        return new TransportExchange<T>(transport, codec);
+    }
+}
@@ -15,13 +15,20 @@
 //=============================================================================
 package org.uncommons.watchmaker.framework.islands;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import org.uncommons.watchmaker.framework.AbstractEvolutionEngine;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
 import org.uncommons.watchmaker.framework.EvolutionEngine;
 import org.uncommons.watchmaker.framework.TerminationCondition;
 
 /**
+ * Evolves a single island for one epoch.  The first epoch starts from a new random
+ * population, subsequent epochs continue from the island's evaluated population at the
+ * end of the previous epoch (after migration).  The time taken is recorded so that
+ * a {@link LoadBalancer} can adjust the next epoch.
+ * @param <T> The type of entity that is to be evolved.
  * @author Daniel Dyer
  */
 class Epoch<T> implements Callable<List<EvaluatedCandidate<T>>>
@@ -29,25 +36,84 @@ class Epoch<T> implements Callable<List<EvaluatedCandidate<T>>>
     private final EvolutionEngine<T> island;
     private final int populationSize;
     private final int eliteCount;
-    private final List<T> seedCandidates;
+    private final List<EvaluatedCandidate<T>> evaluatedPopulation;
     private final TerminationCondition[] terminationConditions;
 
+    private volatile long elapsedTime = 0;
+
     Epoch(EvolutionEngine<T> island,
           int populationSize,
           int eliteCount,
-          List<T> seedCandidates,
+          List<EvaluatedCandidate<T>> evaluatedPopulation,
           TerminationCondition... terminationConditions)
     {
         this.island = island;
         this.populationSize = populationSize;
         this.eliteCount = eliteCount;
-        this.seedCandidates = seedCandidates;
+        this.evaluatedPopulation = evaluatedPopulation;
         this.terminationConditions = terminationConditions;
     }
 
 
     public List<EvaluatedCandidate<T>> call() throws Exception
     {
-        return island.evolvePopulation(populationSize, eliteCount, seedCandidates, terminationConditions);
+        long startTime = System.nanoTime();
+        try
+        {
+            return evolve(island, populationSize, eliteCount, evaluatedPopulation, terminationConditions);
+        }
+        finally
+        {
+            elapsedTime = System.nanoTime() - startTime;
+        }
+    }
+
+
+    /**
+     * Evolves an island for one epoch.  Engines derived from {@link AbstractEvolutionEngine}
+     * continue from the evaluated population.  Other engines are seeded with its candidates,
+     * which they then evaluate again.
+     * @param island The engine to run.
+     * @param populationSize The size of the island's population.
+     * @param eliteCount The number of candidates preserved via elitism.
+     * @param evaluatedPopulation The island's population at the end of the previous epoch,
+     * or null for the first epoch.
+     * @param conditions The conditions that end the epoch.
+     * @param <T> The type of entity that is to be evolved.
+     * @return The island's population at the end of the epoch.
+     */
+    static <T> List<EvaluatedCandidate<T>> evolve(EvolutionEngine<T> island,
+                                                  int populationSize,
+                                                  int eliteCount,
+                                                  List<EvaluatedCandidate<T>> evaluatedPopulation,
+                                                  TerminationCondition... conditions)
+    {
+        if (evaluatedPopulation == null)
+        {
+            return island.evolvePopulation(populationSize, eliteCount, conditions);
+        }
+        else if (island instanceof AbstractEvolutionEngine)
+        {
+            return ((AbstractEvolutionEngine<T>) island).evolvePopulation(evaluatedPopulation, eliteCount, conditions);
+        }
+        else
+        {
+            List<T> candidates = new ArrayList<T>(evaluatedPopulation.size());
+            for (EvaluatedCandidate<T> candidate : evaluatedPopulation)
+            {
+                candidates.add(candidate.getCandidate());
+            }
+            return island.evolvePopulation(populationSize, eliteCount, candidates, conditions);
+        }
+    }
+
+
+    /**
+     * @return The time, in nanoseconds, that the island spent evolving.  Only valid
+     * once the epoch has completed.
+     */
+    long getElapsedTime()
+    {
+        return elapsedTime;
     }
 }
@@ -0,0 +1,106 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.StatelessTerminationCondition;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+
+/**
+ * A shared termination condition that stops every island part-way through an epoch.
+ * After each generation, each island checks its own statistics against the global
+ * {@link StatelessTerminationCondition}s.  As soon as one of them is satisfied on any
+ * island, this condition is satisfied for all islands, so they all stop at the end of
+ * their current generation.  The global conditions are then checked as usual at the
+ * end of the shortened epoch.
+ * @author Daniel Dyer
+ */
+class EpochCancellation implements TerminationCondition
+{
+    private final List<TerminationCondition> conditions = new ArrayList<TerminationCondition>();
+    private final long startTime;
+
+    private volatile boolean cancelled = false;
+
+
+    /**
+     * @param globalConditions The termination conditions for the whole island system.  Only
+     * those that are stateless are checked against individual islands.
+     * @param startTime The time at which the island system started, so that elapsed times
+     * are measured from the start of evolution rather than the start of the epoch.
+     */
+    EpochCancellation(TerminationCondition[] globalConditions, long startTime)
+    {
+        for (TerminationCondition condition : globalConditions)
+        {
+            if (condition instanceof StatelessTerminationCondition)
+            {
+                conditions.add(condition);
+            }
+        }
+        this.startTime = startTime;
+    }
+
+
+    /**
+     * Checks the latest statistics for an island and cancels the epoch if any of the
+     * stateless conditions is satisfied.  Invoked by the island threads.
+     * @param islandData The statistics for the island's latest generation.
+     */
+    void check(PopulationData<?> islandData)
+    {
+        if (cancelled || conditions.isEmpty())
+        {
+            return;
+        }
+        PopulationData<?> data = measureFromStart(islandData, System.currentTimeMillis() - startTime);
+        for (TerminationCondition condition : conditions)
+        {
+            if (condition.shouldTerminate(data))
+            {
+                cancelled = true;
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean shouldTerminate(PopulationData<?> populationData)
+    {
+        return cancelled;
+    }
+
+
+    private static <T> PopulationData<T> measureFromStart(PopulationData<T> data, long elapsedTime)
+    {
+        return new PopulationData<T>(data.getBestCandidate(),
+                                     data.getBestCandidateFitness(),
+                                     data.getMeanFitness(),
+                                     data.getFitnessStandardDeviation(),
+                                     data.isNaturalFitness(),
+                                     data.getPopulationSize(),
+                                     data.getEliteCount(),
+                                     data.getGenerationNumber(),
+                                     elapsedTime,
+                                     data.getDiversity(),
+                                     data.getEvaluationCount());
+    }
+}
@@ -0,0 +1,42 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+/**
+ * A {@link LoadBalancer} that gives faster islands more generations per epoch and
+ * slower islands fewer, in proportion to their measured generation rates, so that all
+ * islands spend about the same time on each epoch.  The total number of generations
+ * per epoch (summed over all islands) is unchanged and every island evolves for at
+ * least one generation.  Population sizes are not changed.
+ * @author Daniel Dyer
+ */
+public class EpochLengthBalancer implements LoadBalancer
+{
+    /**
+     * {@inheritDoc}
+     */
+    public void balance(long[] epochTimes, int[] epochLengths, int[] populationSizes)
+    {
+        double[] generationRates = new double[epochLengths.length];
+        int totalGenerations = 0;
+        for (int i = 0; i < epochLengths.length; i++)
+        {
+            generationRates[i] = (double) epochLengths[i] / Math.max(epochTimes[i], 1);
+            totalGenerations += epochLengths[i];
+        }
+        BalancingUtils.apportion(generationRates, totalGenerations, 1, epochLengths);
+    }
+}
@@ -0,0 +1,47 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Arrays;
+
+/**
+ * Arranges the islands at the corners of a hypercube.  Each island is connected to the
+ * islands whose indices differ from its own in exactly one bit, so any island can be reached
+ * from any other in at most log<sub>2</sub>(n) steps, while each island has only
+ * log<sub>2</sub>(n) neighbours.  If the number of islands is not a power of two, the
+ * corners that have no island are skipped, so some islands have fewer neighbours.
+ * @author Daniel Dyer
+ */
+public class HypercubeTopology implements Topology
+{
+    /**
+     * {@inheritDoc}
+     */
+    public int[] getNeighbours(int islandIndex, int islandCount)
+    {
+        int[] neighbours = new int[Integer.SIZE];
+        int count = 0;
+        for (int bit = 1; bit > 0 && bit < islandCount; bit <<= 1)
+        {
+            int neighbour = islandIndex ^ bit;
+            if (neighbour < islandCount)
+            {
+                neighbours[count++] = neighbour;
+            }
+        }
+        return Arrays.copyOf(neighbours, count);
+    }
+}
@@ -0,0 +1,88 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Random;
+import org.uncommons.watchmaker.framework.CandidateFactory;
+import org.uncommons.watchmaker.framework.EvolutionEngine;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+import org.uncommons.watchmaker.framework.GenerationalEvolutionEngine;
+import org.uncommons.watchmaker.framework.SelectionStrategy;
+
+/**
+ * The configuration of a single island in a heterogeneous island system.  Each island
+ * can be given its own operators and selection strategy (for example, islands with
+ * different mutation rates or selection pressure).  All islands in a system must agree
+ * on whether fitness is natural, since migrants keep their fitness scores.
+ * @param <T> The type of entity that is to be evolved.
+ * @see IslandEvolution#IslandEvolution(java.util.List, Migration, Random)
+ * @author Daniel Dyer
+ */
+public final class IslandConfiguration<T>
+{
+    private final CandidateFactory<T> candidateFactory;
+    private final EvolutionaryOperator<T> evolutionScheme;
+    private final FitnessEvaluator<? super T> fitnessEvaluator;
+    private final SelectionStrategy<? super T> selectionStrategy;
+
+
+    /**
+     * @param candidateFactory Generates the initial population for the island.
+     * @param evolutionScheme The evolutionary operator, or combination of evolutionary operators,
+     * used on the island.
+     * @param fitnessEvaluator The fitness function used on the island.
+     * @param selectionStrategy The selection strategy used on the island.
+     */
+    public IslandConfiguration(CandidateFactory<T> candidateFactory,
+                               EvolutionaryOperator<T> evolutionScheme,
+                               FitnessEvaluator<? super T> fitnessEvaluator,
+                               SelectionStrategy<? super T> selectionStrategy)
+    {
+        this.candidateFactory = candidateFactory;
+        this.evolutionScheme = evolutionScheme;
+        this.fitnessEvaluator = fitnessEvaluator;
+        this.selectionStrategy = selectionStrategy;
+    }
+
+
+    /**
+     * @return True if the island's fitness evaluator uses natural fitness scores.
+     */
+    boolean isNatural()
+    {
+        return fitnessEvaluator.isNatural();
+    }
+
+
+    /**
+     * Creates an engine for an island with this configuration.  Fitness evaluations are
+     * shared with idle threads of the pool that runs the islands, so a few islands on many
+     * cores still use all of the cores, while many islands on a few cores evaluate serially.
+     * @param rng A source of randomness.
+     * @return A new island.
+     */
+    EvolutionEngine<T> createIsland(Random rng)
+    {
+        GenerationalEvolutionEngine<T> island = new GenerationalEvolutionEngine<T>(candidateFactory,
+                                                                                   evolutionScheme,
+                                                                                   fitnessEvaluator,
+                                                                                   selectionStrategy,
+                                                                                   rng);
+        island.setEvaluationExecutor(IslandEvolution.getSharedExecutor());
+        return island;
+    }
+}
@@ -16,24 +16,28 @@
 package org.uncommons.watchmaker.framework.islands;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.uncommons.util.concurrent.ConfigurableThreadFactory;
 import org.uncommons.watchmaker.framework.CandidateFactory;
+import org.uncommons.watchmaker.framework.DiversityMeasure;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
 import org.uncommons.watchmaker.framework.EvolutionEngine;
 import org.uncommons.watchmaker.framework.EvolutionObserver;
 import org.uncommons.watchmaker.framework.EvolutionUtils;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
 import org.uncommons.watchmaker.framework.FitnessEvaluator;
-import org.uncommons.watchmaker.framework.GenerationalEvolutionEngine;
 import org.uncommons.watchmaker.framework.PopulationData;
 import org.uncommons.watchmaker.framework.SelectionStrategy;
 import org.uncommons.watchmaker.framework.TerminationCondition;
@@ -47,6 +51,10 @@ import org.uncommons.watchmaker.framework.termination.GenerationCount;
  */
 public class IslandEvolution<T>
 {
+    // A single pool of island threads, one per core, is shared by all island systems that
+    // are not configured with their own executor.
+    private static ExecutorService sharedExecutor = null;
+
     private final List<EvolutionEngine<T>> islands;
     private final Migration<? super T> migration;
     private final boolean naturalFitness;
@@ -55,6 +63,19 @@ public class IslandEvolution<T>
     private final Set<IslandEvolutionObserver<? super T>> observers
         = new CopyOnWriteArraySet<IslandEvolutionObserver<? super T>>();
 
+    private volatile DiversityMeasure<? super T> diversityMeasure = null;
+
+    private volatile ExecutorService executorService = null;
+
+    private volatile LoadBalancer loadBalancer = null;
+
+    // Lets the islands stop each other part-way through the current epoch.
+    private volatile EpochCancellation cancellation = null;
+
+    // The statistics for the last generation of each island's current epoch.  Written by
+    // the island threads, read by the controlling thread once the epoch's futures complete.
+    private final AtomicReferenceArray<PopulationData<? extends T>> islandData;
+
     private List<TerminationCondition> satisfiedTerminationConditions;
 
 
@@ -117,6 +138,7 @@ public class IslandEvolution<T>
         this.migration = migration;
         this.naturalFitness = naturalFitness;
         this.rng = rng;
+        this.islandData = new AtomicReferenceArray<PopulationData<? extends T>>(islands.size());
 
         for (int i = 0; i < islands.size(); i++)
         {
@@ -126,6 +148,12 @@ public class IslandEvolution<T>
             {
                 public void populationUpdate(PopulationData<? extends T> populationData)
                 {
+                    islandData.set(islandIndex, populationData);
+                    EpochCancellation epochCancellation = cancellation;
+                    if (epochCancellation != null)
+                    {
+                        epochCancellation.check(populationData);
+                    }
                     for (IslandEvolutionObserver<? super T> islandObserver : observers)
                     {
                         islandObserver.islandPopulationUpdate(islandIndex, populationData);
@@ -137,26 +165,65 @@ public class IslandEvolution<T>
 
 
     /**
-     * Helper method used by the constructor to create the individual islands if they haven't
-     * been provided already (via the other constructor).
+     * Create a heterogeneous island system in which each island has its own configuration, for
+     * example different operators or selection pressure.  Islands that do different amounts of
+     * work per generation can be kept in step with a {@link LoadBalancer}.
+     * @param configurations The configuration of each island.
+     * @param migration A migration strategy for moving individuals between islands at the
+     * end of an epoch.
+     * @param rng A source of randomness, used by all islands.
+     * @see #setLoadBalancer(LoadBalancer)
+     * @see #evolve(int[], int, int, int, TerminationCondition[])
+     */
+    public IslandEvolution(List<IslandConfiguration<T>> configurations,
+                           Migration<? super T> migration,
+                           Random rng)
+    {
+        this(createIslands(configurations, rng),
+             migration,
+             configurations.get(0).isNatural(),
+             rng);
+    }
+
+
+    /**
+     * Helper method used by the constructors (of this class and {@link AsyncIslandEvolution})
+     * to create the individual islands if they haven't been provided already.
      */
-    private static <T> List<EvolutionEngine<T>> createIslands(int islandCount,
-                                                              CandidateFactory<T> candidateFactory,
-                                                              EvolutionaryOperator<T> evolutionScheme,
-                                                              FitnessEvaluator<? super T> fitnessEvaluator,
-                                                              SelectionStrategy<? super T> selectionStrategy,
-                                                              Random rng)
+    static <T> List<EvolutionEngine<T>> createIslands(int islandCount,
+                                                      CandidateFactory<T> candidateFactory,
+                                                      EvolutionaryOperator<T> evolutionScheme,
+                                                      FitnessEvaluator<? super T> fitnessEvaluator,
+                                                      SelectionStrategy<? super T> selectionStrategy,
+                                                      Random rng)
     {
-        List<EvolutionEngine<T>> islands = new ArrayList<EvolutionEngine<T>>(islandCount);
-        for (int i = 0; i < islandCount; i++)
+        IslandConfiguration<T> configuration = new IslandConfiguration<T>(candidateFactory,
+                                                                          evolutionScheme,
+                                                                          fitnessEvaluator,
+                                                                          selectionStrategy);
+        return createIslands(Collections.nCopies(islandCount, configuration), rng);
+    }
+
+
+    /**
+     * Helper method used to create islands with individual configurations.
+     */
+    static <T> List<EvolutionEngine<T>> createIslands(List<IslandConfiguration<T>> configurations,
+                                                      Random rng)
+    {
+        if (configurations.isEmpty())
         {
-            GenerationalEvolutionEngine<T> island = new GenerationalEvolutionEngine<T>(candidateFactory,
-                                                                                       evolutionScheme,
-                                                                                       fitnessEvaluator,
-                                                                                       selectionStrategy,
-                                                                                       rng);
-            island.setSingleThreaded(true); // Don't need fine-grained concurrency when each island is on a separate thread.
-            islands.add(island);
+            throw new IllegalArgumentException("At least one island must be configured.");
+        }
+        boolean naturalFitness = configurations.get(0).isNatural();
+        List<EvolutionEngine<T>> islands = new ArrayList<EvolutionEngine<T>>(configurations.size());
+        for (IslandConfiguration<T> configuration : configurations)
+        {
+            if (configuration.isNatural() != naturalFitness)
+            {
+                throw new IllegalArgumentException("All islands must agree on whether fitness is natural.");
+            }
+            islands.add(configuration.createIsland(rng));
         }
         return islands;
     }
@@ -166,6 +233,18 @@ public class IslandEvolution<T>
      * <p>Start the evolutionary process on each island and return the fittest candidate so far at the point
      * any of the termination conditions is satisfied.</p>
      *
+     * <p>Termination conditions that implement
+     * {@link org.uncommons.watchmaker.framework.StatelessTerminationCondition} (for example
+     * {@link org.uncommons.watchmaker.framework.termination.TargetFitness} and
+     * {@link org.uncommons.watchmaker.framework.termination.UserAbort}) are also checked against
+     * each island after every generation.  When one is satisfied, every island stops at the end
+     * of its current generation, without waiting for the end of the epoch.  Other conditions are
+     * only checked at the end of each epoch.</p>
+     *
+     * <p>The global statistics for each epoch are combined from the statistics for the last generation
+     * of the epoch on each island, so they describe the islands before migration.  The elite count
+     * reported is the total for all islands.</p>
+     *
      * <p><em>If you interrupt the request thread before this method returns, the
      * method will return prematurely (with the best individual found so far).
      * After returning in this way, the current thread's interrupted flag
@@ -194,48 +273,102 @@ public class IslandEvolution<T>
                     int migrantCount,
                     TerminationCondition... conditions)
     {
-        ExecutorService threadPool = Executors.newFixedThreadPool(islands.size());
-        List<List<T>> islandPopulations = new ArrayList<List<T>>(islands.size());
-        List<EvaluatedCandidate<T>> evaluatedCombinedPopulation = new ArrayList<EvaluatedCandidate<T>>();
+        int[] populationSizes = new int[islands.size()];
+        Arrays.fill(populationSizes, populationSize);
+        return evolve(populationSizes, eliteCount, epochLength, migrantCount, conditions);
+    }
+
+
+    /**
+     * <p>Start the evolutionary process on islands with individual population sizes and return the
+     * fittest candidate so far at the point any of the termination conditions is satisfied.</p>
+     *
+     * <p>If a {@link LoadBalancer} has been set, it may change the epoch length and population size
+     * of each island from the second epoch onwards (the first epoch includes the creation of the
+     * initial populations, so its timings are not representative).  An island whose population
+     * shrinks loses its least fit members, and an island whose population grows is topped up with
+     * copies of randomly chosen members, which are replaced by offspring in the next generation.</p>
+     *
+     * @param populationSizes The initial population size of each island.
+     * @param eliteCount The number of candidates preserved via elitism <em>on each island</em>.  This
+     * value must be non-negative and less than every population size.
+     * @param epochLength The initial number of generations that make up an epoch on each island.
+     * @param migrantCount The number of individuals that will be migrated from each island at the end of each
+     * epoch.
+     * @param conditions One or more conditions that may cause the evolution to terminate.
+     * @return The fittest solution found by the evolutionary process on any of the islands.
+     * @see #evolve(int, int, int, int, TerminationCondition[])
+     */
+    public T evolve(int[] populationSizes,
+                    int eliteCount,
+                    int epochLength,
+                    int migrantCount,
+                    TerminationCondition... conditions)
+    {
+        if (populationSizes.length != islands.size())
+        {
+            throw new IllegalArgumentException("There must be one population size for each island.");
+        }
+        int[] islandSizes = populationSizes.clone();
+        int[] epochLengths = new int[islands.size()];
+        Arrays.fill(epochLengths, epochLength);
+
+        ExecutorService threadPool = getExecutor();
+        List<List<EvaluatedCandidate<T>>> islandPopulations
+            = new ArrayList<List<EvaluatedCandidate<T>>>(islands.size());
 
         PopulationData<T> data = null;
         List<TerminationCondition> satisfiedConditions = null;
         int currentEpochIndex = 0;
+        long evaluationCount = 0;
         long startTime = System.currentTimeMillis();
         while (satisfiedConditions == null)
         {
-            List<Callable<List<EvaluatedCandidate<T>>>> islandEpochs = createEpochTasks(populationSize,
-                                                                                        eliteCount,
-                                                                                        epochLength,
-                                                                                        islandPopulations);
+            cancellation = new EpochCancellation(conditions, startTime);
+            List<Epoch<T>> islandEpochs = createEpochTasks(islandSizes,
+                                                           eliteCount,
+                                                           epochLengths,
+                                                           islandPopulations,
+                                                           cancellation);
             try
             {
                 List<Future<List<EvaluatedCandidate<T>>>> futures = threadPool.invokeAll(islandEpochs);
 
-                evaluatedCombinedPopulation.clear();
                 List<List<EvaluatedCandidate<T>>> evaluatedPopulations
                     = new ArrayList<List<EvaluatedCandidate<T>>>(islands.size());
                 for (Future<List<EvaluatedCandidate<T>>> future : futures)
                 {
-                    List<EvaluatedCandidate<T>> evaluatedIslandPopulation = future.get();
-                    evaluatedCombinedPopulation.addAll(evaluatedIslandPopulation);
-                    evaluatedPopulations.add(evaluatedIslandPopulation);
+                    evaluatedPopulations.add(future.get());
                 }
 
-                migration.migrate(evaluatedPopulations, migrantCount, rng);
-
-                EvolutionUtils.sortEvaluatedPopulation(evaluatedCombinedPopulation, naturalFitness);
-                data = EvolutionUtils.getPopulationData(evaluatedCombinedPopulation,
-                                                        naturalFitness,
-                                                        eliteCount,
-                                                        currentEpochIndex,
-                                                        startTime);
+                // The global statistics are combined from the statistics that each island has
+                // already calculated for the end of the epoch, rather than by merging and sorting
+                // the island populations, so the cost is proportional to the number of islands.
+                List<PopulationData<? extends T>> epochData
+                    = new ArrayList<PopulationData<? extends T>>(islands.size());
+                for (int i = 0; i < islands.size(); i++)
+                {
+                    PopulationData<? extends T> islandEpochData = islandData.get(i);
+                    evaluationCount += islandEpochData.getEvaluationCount();
+                    epochData.add(islandEpochData);
+                }
+                data = EvolutionUtils.mergePopulationData(epochData,
+                                                          naturalFitness,
+                                                          currentEpochIndex,
+                                                          startTime,
+                                                          measureDiversity(evaluatedPopulations),
+                                                          evaluationCount);
                 notifyPopulationChange(data);
 
+                migration.migrate(evaluatedPopulations, migrantCount, rng);
+
+                // Islands keep their evaluated populations (including migrants) for the next
+                // epoch, so that only new offspring need to be evaluated.
                 islandPopulations.clear();
-                for (List<EvaluatedCandidate<T>> evaluatedPopulation : evaluatedPopulations)
+                islandPopulations.addAll(evaluatedPopulations);
+                if (currentEpochIndex > 0)
                 {
-                    islandPopulations.add(toCandidateList(evaluatedPopulation));
+                    balanceLoad(islandEpochs, eliteCount, epochLengths, islandSizes, islandPopulations);
                 }
                 ++currentEpochIndex;
             }
@@ -249,50 +382,88 @@ public class IslandEvolution<T>
             }
             satisfiedConditions = EvolutionUtils.shouldContinue(data, conditions);
         }
-        threadPool.shutdownNow();
+        cancellation = null;
 
         this.satisfiedTerminationConditions = satisfiedConditions;
-        return evaluatedCombinedPopulation.get(0).getCandidate();
+        return data == null ? null : data.getBestCandidate();
     }
 
 
     /**
      * Create the concurrently-executed tasks that perform evolution on each island.
      */
-    private List<Callable<List<EvaluatedCandidate<T>>>> createEpochTasks(int populationSize,
-                                                                         int eliteCount,
-                                                                         int epochLength,
-                                                                         List<List<T>> islandPopulations)
+    private List<Epoch<T>> createEpochTasks(int[] populationSizes,
+                                            int eliteCount,
+                                            int[] epochLengths,
+                                            List<List<EvaluatedCandidate<T>>> populations,
+                                            EpochCancellation epochCancellation)
     {
-        List<Callable<List<EvaluatedCandidate<T>>>> islandEpochs
-            = new ArrayList<Callable<List<EvaluatedCandidate<T>>>>(islands.size());
+        List<Epoch<T>> islandEpochs = new ArrayList<Epoch<T>>(islands.size());
         for (int i = 0; i < islands.size(); i++)
         {
             islandEpochs.add(new Epoch<T>(islands.get(i),
-                                          populationSize,
+                                          populationSizes[i],
                                           eliteCount,
-                                          islandPopulations.isEmpty() ? Collections.<T>emptyList() : islandPopulations.get(i),
-                                          new GenerationCount(epochLength)));
+                                          populations.isEmpty() ? null : populations.get(i),
+                                          new GenerationCount(epochLengths[i]),
+                                          epochCancellation));
         }
         return islandEpochs;
     }
 
 
     /**
-     * Convert a list of {@link EvaluatedCandidate}s into a simple list of candidates.
-     * @param evaluatedCandidates The population of candidate objects to relieve of their
-     * evaluation wrappers.
-     * @param <T> The type of entity that is being evolved.
-     * @return The candidates, stripped of their fitness scores.
+     * Lets the load balancer (if there is one) adjust the islands' epoch lengths and population
+     * sizes according to the time taken by the epoch that has just finished, then resizes the
+     * island populations to match.
      */
-    private static <T> List<T> toCandidateList(List<EvaluatedCandidate<T>> evaluatedCandidates)
+    private void balanceLoad(List<Epoch<T>> islandEpochs,
+                             int eliteCount,
+                             int[] epochLengths,
+                             int[] populationSizes,
+                             List<List<EvaluatedCandidate<T>>> populations)
     {
-        List<T> candidates = new ArrayList<T>(evaluatedCandidates.size());
-        for (EvaluatedCandidate<T> evaluatedCandidate : evaluatedCandidates)
+        LoadBalancer balancer = loadBalancer;
+        if (balancer == null)
+        {
+            return;
+        }
+        long[] epochTimes = new long[islandEpochs.size()];
+        for (int i = 0; i < epochTimes.length; i++)
         {
-            candidates.add(evaluatedCandidate.getCandidate());
+            epochTimes[i] = islandEpochs.get(i).getElapsedTime();
+        }
+        balancer.balance(epochTimes, epochLengths, populationSizes);
+        for (int i = 0; i < populations.size(); i++)
+        {
+            if (epochLengths[i] < 1 || populationSizes[i] <= eliteCount)
+            {
+                throw new IllegalStateException("Invalid epoch length or population size for island " + i);
+            }
+            resizePopulation(populations.get(i), populationSizes[i]);
+        }
+    }
+
+
+    /**
+     * Removes the least fit members of a population, or adds copies of randomly-chosen
+     * members, so that it is the specified size.
+     */
+    private void resizePopulation(List<EvaluatedCandidate<T>> population, int size)
+    {
+        if (population.size() > size)
+        {
+            EvolutionUtils.sortEvaluatedPopulation(population, naturalFitness);
+            population.subList(size, population.size()).clear();
+        }
+        else
+        {
+            int originalSize = population.size();
+            while (population.size() < size)
+            {
+                population.add(population.get(rng.nextInt(originalSize)));
+            }
         }
-        return candidates;
     }
 
 
@@ -361,6 +532,109 @@ public class IslandEvolution<T>
     }
 
 
+    /**
+     * Sets the measure used to calculate the genetic diversity of the combined population
+     * of all islands at the end of each epoch.  The result is made available to global
+     * observers and termination conditions via {@link PopulationData#getDiversity()}.
+     * To measure the diversity of the individual islands, configure the islands' engines
+     * directly.
+     * @param diversityMeasure The diversity measure to use, or null to disable
+     * diversity measurement.
+     */
+    public void setDiversityMeasure(DiversityMeasure<? super T> diversityMeasure)
+    {
+        this.diversityMeasure = diversityMeasure;
+    }
+
+
+    /**
+     * <p>Sets the executor that runs the islands' epochs.  Each island's epoch is submitted as a
+     * separate task so, unlike the one-thread-per-island approach, the number of islands is not
+     * limited by the number of threads.  Epochs are queued in island order and every island
+     * completes exactly one epoch before migration, so all islands make progress at the same rate
+     * however few threads are available.</p>
+     *
+     * <p>By default, islands are run on a pool shared by all island systems, with one thread per
+     * available core.  The executor is not shut down by this class, so a long-lived executor may
+     * be re-used for many invocations of {@link #evolve(int, int, int, int, TerminationCondition[])}
+     * and by several island systems.</p>
+     *
+     * <p>Islands created by the island system (rather than supplied pre-configured) share their
+     * fitness evaluations with idle threads of the shared pool, so when there are fewer islands
+     * than cores the spare cores help with evaluation.</p>
+     * @param executorService The executor to use, or null to use the shared pool.
+     */
+    public void setExecutorService(ExecutorService executorService)
+    {
+        this.executorService = executorService;
+    }
+
+
+    /**
+     * Sets the strategy used to keep islands that do different amounts of work per generation
+     * in step, so that fast islands are not left waiting for slow islands at the end of each
+     * epoch.  By default there is no load balancing: every island evolves for the same number
+     * of generations and keeps its initial population size.
+     * @param loadBalancer The load balancer to use, or null to disable load balancing.
+     * @see EpochLengthBalancer
+     * @see PopulationSizeBalancer
+     */
+    public void setLoadBalancer(LoadBalancer loadBalancer)
+    {
+        this.loadBalancer = loadBalancer;
+    }
+
+
+    private ExecutorService getExecutor()
+    {
+        ExecutorService islandExecutor = executorService;
+        return islandExecutor == null ? getSharedExecutor() : islandExecutor;
+    }
+
+
+    /**
+     * Lazily create the pool of island threads that is shared by all island systems (of this
+     * class and {@link AsyncIslandEvolution}) that have not been configured with their own
+     * executor.  The threads are daemon threads so that they don't prevent the JVM from exiting.
+     */
+    static synchronized ExecutorService getSharedExecutor()
+    {
+        if (sharedExecutor == null)
+        {
+            int threadCount = Runtime.getRuntime().availableProcessors();
+            sharedExecutor = new ThreadPoolExecutor(threadCount,
+                                                    threadCount,
+                                                    60,
+                                                    TimeUnit.SECONDS,
+                                                    new LinkedBlockingQueue<Runnable>(),
+                                                    new ConfigurableThreadFactory("IslandEvolution",
+                                                                                  Thread.NORM_PRIORITY,
+                                                                                  true));
+        }
+        return sharedExecutor;
+    }
+
+
+    /**
+     * Diversity is a property of the combined population, so the island populations
+     * are only combined if a diversity measure has been set.
+     */
+    private double measureDiversity(List<List<EvaluatedCandidate<T>>> evaluatedPopulations)
+    {
+        DiversityMeasure<? super T> measure = diversityMeasure;
+        if (measure == null)
+        {
+            return Double.NaN;
+        }
+        List<EvaluatedCandidate<T>> combinedPopulation = new ArrayList<EvaluatedCandidate<T>>();
+        for (List<EvaluatedCandidate<T>> evaluatedPopulation : evaluatedPopulations)
+        {
+            combinedPopulation.addAll(evaluatedPopulation);
+        }
+        return measure.getDiversity(combinedPopulation, rng);
+    }
+
+
     /**
      * Send the population data to all registered observers.
      * @param data Information about the current state of the population.
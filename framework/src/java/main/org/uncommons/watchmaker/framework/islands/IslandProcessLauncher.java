@@ -0,0 +1,152 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import org.uncommons.util.concurrent.ConfigurableThreadFactory;
+
+/**
+ * <p>Starts several worker JVMs on the local machine, so that a {@link DistributedIslandEvolution}
+ * can be developed and tested without a cluster.  Each worker runs the {@code main} method of
+ * the specified class, using the same Java installation and class path as the launching JVM.
+ * The first two program arguments of each worker are its index and the total number of
+ * workers, followed by any arguments specified when launching.  The worker can use these
+ * to work out which islands to host and how to connect to the other workers.</p>
+ *
+ * <p>The output (and error output) of each worker is copied to the launching JVM's standard
+ * output, with each line prefixed by the worker's index.</p>
+ * @author Daniel Dyer
+ */
+public final class IslandProcessLauncher
+{
+    private static final ThreadFactory OUTPUT_THREAD_FACTORY = new ConfigurableThreadFactory("IslandProcessLauncher",
+                                                                                               Thread.NORM_PRIORITY,
+                                                                                               true);
+
+    private IslandProcessLauncher()
+    {
+        // Prevents instantiation.
+    }
+
+
+    /**
+     * Starts the specified number of worker JVMs.
+     * @param mainClass The class whose {@code main} method each worker runs.
+     * @param workerCount The number of workers to start.
+     * @param arguments Additional program arguments that are passed to every worker.
+     * @return The worker processes, in order of worker index.
+     * @throws IOException If any of the workers cannot be started.  Any workers that
+     * were started before the failure are destroyed.
+     */
+    public static List<Process> launch(Class<?> mainClass,
+                                       int workerCount,
+                                       String... arguments) throws IOException
+    {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> workers = new ArrayList<Process>(workerCount);
+        boolean launched = false;
+        try
+        {
+            for (int i = 0; i < workerCount; i++)
+            {
+                List<String> command = new ArrayList<String>();
+                command.add(java);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(mainClass.getName());
+                command.add(String.valueOf(i));
+                command.add(String.valueOf(workerCount));
+                command.addAll(Arrays.asList(arguments));
+                Process worker = new ProcessBuilder(command).redirectErrorStream(true).start();
+                workers.add(worker);
+                copyOutput(worker, "[" + i + "] ");
+            }
+            launched = true;
+        }
+        finally
+        {
+            if (!launched)
+            {
+                destroy(workers);
+            }
+        }
+        return workers;
+    }
+
+
+    /**
+     * Waits for all of the specified workers to exit.
+     * @param workers The worker processes.
+     * @return The exit code of each worker.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    public static int[] waitFor(List<Process> workers) throws InterruptedException
+    {
+        int[] exitCodes = new int[workers.size()];
+        for (int i = 0; i < exitCodes.length; i++)
+        {
+            exitCodes[i] = workers.get(i).waitFor();
+        }
+        return exitCodes;
+    }
+
+
+    /**
+     * Forcibly terminates the specified workers.
+     * @param workers The worker processes.
+     */
+    public static void destroy(List<Process> workers)
+    {
+        for (Process worker : workers)
+        {
+            worker.destroy();
+        }
+    }
+
+
+    /**
+     * Copies a worker's output on a background thread.  The output must be consumed
+     * even if it is not wanted, otherwise the worker blocks when the pipe is full.
+     */
+    private static void copyOutput(final Process worker, final String prefix)
+    {
+        OUTPUT_THREAD_FACTORY.newThread(new Runnable()
+        {
+            public void run()
+            {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(worker.getInputStream()));
+                try
+                {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine())
+                    {
+                        System.out.println(prefix + line);
+                    }
+                }
+                catch (IOException ex)
+                {
+                    // The worker has exited, so there is nothing more to copy.
+                }
+            }
+        }).start();
+    }
+}
@@ -0,0 +1,43 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+/**
+ * Strategy interface for balancing the work done by the islands in each epoch of
+ * {@link IslandEvolution}.  Migration waits for every island to finish its epoch, so
+ * islands that are slower (because of more expensive operators or larger populations)
+ * leave the others idle.  A load balancer uses the measured duration of each island's
+ * last epoch to adjust the next epoch so that all islands reach migration at about the
+ * same time.
+ * @see IslandEvolution#setLoadBalancer(LoadBalancer)
+ * @author Daniel Dyer
+ */
+public interface LoadBalancer
+{
+    /**
+     * Adjusts the epoch lengths and/or population sizes of the islands for the next epoch.
+     * The arrays are indexed by island and their lengths are all equal to the number of islands.
+     * @param epochTimes The time, in nanoseconds, that each island spent evolving during
+     * the last epoch.
+     * @param epochLengths The number of generations that each island evolved for during the
+     * last epoch.  Should be updated in place with the lengths for the next epoch, each of
+     * which must be at least one.
+     * @param populationSizes The population size of each island during the last epoch.
+     * Should be updated in place with the sizes for the next epoch, each of which must be
+     * greater than the elite count.
+     */
+    void balance(long[] epochTimes, int[] epochLengths, int[] populationSizes);
+}
@@ -0,0 +1,103 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded, lock-free queue of migrants waiting to be absorbed by an island.  Any number
+ * of islands may post to a mailbox concurrently while its owner drains it.  If the mailbox
+ * is full, posting a new item discards the oldest, since fresh migrants are more useful than
+ * stale ones.
+ * @param <T> The type of item held in the mailbox.
+ * @author Daniel Dyer
+ */
+final class Mailbox<T>
+{
+    private final int capacity;
+    private final Queue<T> queue = new ConcurrentLinkedQueue<T>();
+    // Counts reserved slots, which is never less than the number of items in the queue.
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * @param capacity The maximum number of items that the mailbox holds.
+     */
+    Mailbox(int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.capacity = capacity;
+    }
+
+
+    /**
+     * Adds an item, discarding the oldest item if the mailbox is full.
+     * @param item The item to add.
+     */
+    void post(T item)
+    {
+        while (true)
+        {
+            int current = size.get();
+            if (current < capacity)
+            {
+                if (size.compareAndSet(current, current + 1))
+                {
+                    break;
+                }
+            }
+            else if (queue.poll() != null)
+            {
+                size.decrementAndGet();
+            }
+        }
+        queue.offer(item);
+    }
+
+
+    /**
+     * Removes all available items.
+     * @param target The collection that the items are added to, oldest first.
+     * @return The number of items removed.
+     */
+    int drainTo(Collection<? super T> target)
+    {
+        int count = 0;
+        T item = queue.poll();
+        while (item != null)
+        {
+            size.decrementAndGet();
+            target.add(item);
+            ++count;
+            item = queue.poll();
+        }
+        return count;
+    }
+
+
+    /**
+     * @return The maximum number of items that the mailbox holds.
+     */
+    int getCapacity()
+    {
+        return capacity;
+    }
+}
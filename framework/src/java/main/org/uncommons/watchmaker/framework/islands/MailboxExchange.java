@@ -0,0 +1,61 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+
+/**
+ * Exchanges migrants between islands in the same JVM via a {@link Mailbox} for each island.
+ * Migrants are passed by reference, without copying.
+ * @param <T> The type of evolved entity.
+ * @author Daniel Dyer
+ */
+final class MailboxExchange<T> implements MigrantExchange<T>
+{
+    private final List<Mailbox<EvaluatedCandidate<T>>> mailboxes;
+
+    /**
+     * @param islandCount The number of islands.
+     * @param capacity The maximum number of migrants waiting for any one island.
+     */
+    MailboxExchange(int islandCount, int capacity)
+    {
+        this.mailboxes = new ArrayList<Mailbox<EvaluatedCandidate<T>>>(islandCount);
+        for (int i = 0; i < islandCount; i++)
+        {
+            mailboxes.add(new Mailbox<EvaluatedCandidate<T>>(capacity));
+        }
+    }
+
+
+    public void post(int islandIndex, List<EvaluatedCandidate<T>> migrants)
+    {
+        Mailbox<EvaluatedCandidate<T>> mailbox = mailboxes.get(islandIndex);
+        for (EvaluatedCandidate<T> migrant : migrants)
+        {
+            mailbox.post(migrant);
+        }
+    }
+
+
+    public void drainTo(int islandIndex, Collection<? super EvaluatedCandidate<T>> immigrants)
+    {
+        mailboxes.get(islandIndex).drainTo(immigrants);
+    }
+}
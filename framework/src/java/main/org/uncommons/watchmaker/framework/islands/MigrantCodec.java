@@ -0,0 +1,47 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts candidates to and from a compact binary form so that they can migrate
+ * between islands hosted by different JVMs.
+ * @param <T> The type of candidate that can be encoded.
+ * @see DistributedIslandEvolution
+ * @author Daniel Dyer
+ */
+public interface MigrantCodec<T>
+{
+    /**
+     * Writes a candidate.
+     * @param candidate The candidate to encode.
+     * @param out The destination for the encoded candidate.
+     * @throws IOException If the candidate cannot be written.
+     */
+    void encode(T candidate, DataOutput out) throws IOException;
+
+
+    /**
+     * Reads a candidate that was written by {@link #encode(Object, DataOutput)}.
+     * @param in The source of the encoded candidate.
+     * @return The decoded candidate.
+     * @throws IOException If the candidate cannot be read.
+     */
+    T decode(DataInput in) throws IOException;
+}
@@ -0,0 +1,47 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Collection;
+import java.util.List;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+
+/**
+ * Delivers migrants between the islands of an {@link AsyncIslandEvolution}.  Islands are
+ * identified by their global index, so the destination island need not be in the same JVM
+ * as the sender.  Implementations must be safe for concurrent use by multiple islands.
+ * @param <T> The type of evolved entity.
+ * @author Daniel Dyer
+ */
+interface MigrantExchange<T>
+{
+    /**
+     * Sends migrants to an island.  Delivery is best-effort; migrants may be discarded if the
+     * destination's mailbox is full or the destination cannot be reached.
+     * @param islandIndex The global index of the destination island.
+     * @param migrants The migrants, with their fitness scores.  The list itself is not
+     * retained, so the caller may re-use it.
+     */
+    void post(int islandIndex, List<EvaluatedCandidate<T>> migrants);
+
+
+    /**
+     * Removes all migrants that are waiting for the specified island.
+     * @param islandIndex The global index of an island hosted by this JVM.
+     * @param immigrants The collection that the migrants are added to.
+     */
+    void drainTo(int islandIndex, Collection<? super EvaluatedCandidate<T>> immigrants);
+}
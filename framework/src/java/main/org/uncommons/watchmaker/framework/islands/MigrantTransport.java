@@ -0,0 +1,52 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Carries messages between islands that may be hosted by different JVMs.  Messages are
+ * opaque byte arrays (the encoding of migrants is the responsibility of
+ * {@link DistributedIslandEvolution}), addressed to an island by its global index.
+ * Each island's incoming messages are buffered until the island collects them, and
+ * delivery is best-effort: if an island's buffer is full, older messages may be discarded.
+ * Implementations must be safe for concurrent use by multiple threads.
+ * @see SocketTransport
+ * @see SharedFileTransport
+ * @author Daniel Dyer
+ */
+public interface MigrantTransport extends Closeable
+{
+    /**
+     * Sends a message to an island.
+     * @param islandIndex The global index of the destination island.
+     * @param message The message to send.
+     * @throws IOException If the transport fails.
+     */
+    void send(int islandIndex, byte[] message) throws IOException;
+
+
+    /**
+     * Removes all messages that are waiting for an island.
+     * @param islandIndex The global index of an island hosted by this JVM.
+     * @param messages The collection that messages are added to, oldest first.
+     * @return The number of messages received.
+     * @throws IOException If the transport fails.
+     */
+    int receive(int islandIndex, Collection<byte[]> messages) throws IOException;
+}
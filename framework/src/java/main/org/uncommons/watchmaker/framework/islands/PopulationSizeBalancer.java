@@ -0,0 +1,60 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+/**
+ * A {@link LoadBalancer} that moves individuals from slower islands to faster ones,
+ * assuming that the time taken by a generation is proportional to the size of the
+ * population.  Islands that evaluate or breed candidates more cheaply get larger
+ * populations so that all islands spend about the same time on each epoch.  The total
+ * population (summed over all islands) is unchanged and epoch lengths are not changed.
+ * @author Daniel Dyer
+ */
+public class PopulationSizeBalancer implements LoadBalancer
+{
+    private final int minimumSize;
+
+
+    /**
+     * @param minimumSize The smallest population that any island may be given.  This must
+     * be greater than the elite count and at least the number of migrants per epoch.
+     */
+    public PopulationSizeBalancer(int minimumSize)
+    {
+        if (minimumSize < 1)
+        {
+            throw new IllegalArgumentException("Minimum population size must be positive.");
+        }
+        this.minimumSize = minimumSize;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void balance(long[] epochTimes, int[] epochLengths, int[] populationSizes)
+    {
+        // The number of individuals each island can process per unit time.
+        double[] throughputs = new double[populationSizes.length];
+        int totalSize = 0;
+        for (int i = 0; i < populationSizes.length; i++)
+        {
+            throughputs[i] = (double) populationSizes[i] / Math.max(epochTimes[i], 1);
+            totalSize += populationSizes[i];
+        }
+        BalancingUtils.apportion(throughputs, totalSize, minimumSize, populationSizes);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.EvolutionUtils;
 
 /**
  * Migrates a fixed number of candidates away from each island.  Which individuals are migrated is determined
@@ -48,19 +49,18 @@ public class RandomMigration implements Migration<Object>
         List<EvaluatedCandidate<S>> migrants = new ArrayList<EvaluatedCandidate<S>>(migrantCount * islandPopulations.size());
         for (List<EvaluatedCandidate<S>> island : islandPopulations)
         {
-            Collections.shuffle(island, rng);
-            for (int i = 0; i < migrantCount; i++)
-            {
-                migrants.add(island.remove(island.size() - 1));
-            }
+            // Only the migrants need to be randomly chosen, there is no need to shuffle the whole island.
+            EvolutionUtils.moveRandomSampleToEnd(island, migrantCount, rng);
+            migrants.addAll(island.subList(island.size() - migrantCount, island.size()));
         }
-        Collections.shuffle(migrants);
+        Collections.shuffle(migrants, rng);
         Iterator<EvaluatedCandidate<S>> iterator = migrants.iterator();
         for (List<EvaluatedCandidate<S>> island : islandPopulations)
         {
-            for (int i = 0; i < migrantCount; i++)
+            // The emigrants are replaced in place, rather than removed, to avoid shifting the other members.
+            for (int i = island.size() - migrantCount; i < island.size(); i++)
             {
-                island.add(iterator.next());
+                island.set(i, iterator.next());
             }
         }
     }
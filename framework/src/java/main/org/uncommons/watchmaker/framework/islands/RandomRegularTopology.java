@@ -0,0 +1,126 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * <p>Connects each island to a fixed number of other islands, chosen at random.  The
+ * connections form a regular graph: every island sends emigrants to exactly {@code degree}
+ * islands and receives immigrants from exactly {@code degree} islands.  (If there are too
+ * few islands, each island is connected to every other island.)</p>
+ *
+ * <p>The graph is generated once for each number of islands, from the seed, so the
+ * connections remain the same from one epoch to the next and are identical in every JVM
+ * of a {@link DistributedIslandEvolution} that uses the same seed.  It is constructed by
+ * placing the islands in a random order around a ring and connecting each island to the
+ * islands at {@code degree} distinct, randomly-chosen offsets around the ring.</p>
+ * @author Daniel Dyer
+ */
+public class RandomRegularTopology implements Topology
+{
+    private final int degree;
+    private final long seed;
+    // Generated graphs, keyed by the number of islands.
+    private final Map<Integer, int[][]> graphs = new HashMap<Integer, int[][]>();
+
+
+    /**
+     * @param degree The number of neighbours of each island.
+     * @param seed Seed for the random choice of connections.
+     */
+    public RandomRegularTopology(int degree, long seed)
+    {
+        if (degree <= 0)
+        {
+            throw new IllegalArgumentException("Degree must be positive.");
+        }
+        this.degree = degree;
+        this.seed = seed;
+    }
+
+
+    /**
+     * @param degree The number of neighbours of each island.
+     * @param rng The source of the seed for the random choice of connections.
+     */
+    public RandomRegularTopology(int degree, Random rng)
+    {
+        this(degree, rng.nextLong());
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized int[] getNeighbours(int islandIndex, int islandCount)
+    {
+        int[][] graph = graphs.get(islandCount);
+        if (graph == null)
+        {
+            graph = createGraph(islandCount);
+            graphs.put(islandCount, graph);
+        }
+        return graph[islandIndex].clone();
+    }
+
+
+    private int[][] createGraph(int islandCount)
+    {
+        Random rng = new Random(seed);
+        // A random ordering of the islands around the ring.
+        int[] order = new int[islandCount];
+        for (int i = 0; i < islandCount; i++)
+        {
+            order[i] = i;
+        }
+        for (int i = islandCount - 1; i > 0; i--)
+        {
+            int j = rng.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        // Distinct, non-zero offsets, chosen by a partial shuffle of 1 to n - 1.
+        int offsetCount = Math.min(degree, Math.max(islandCount - 1, 0));
+        int[] offsets = new int[Math.max(islandCount - 1, 0)];
+        for (int i = 0; i < offsets.length; i++)
+        {
+            offsets[i] = i + 1;
+        }
+        for (int i = 0; i < offsetCount; i++)
+        {
+            int j = i + rng.nextInt(offsets.length - i);
+            int swap = offsets[i];
+            offsets[i] = offsets[j];
+            offsets[j] = swap;
+        }
+
+        int[][] graph = new int[islandCount][];
+        for (int position = 0; position < islandCount; position++)
+        {
+            int[] neighbours = new int[offsetCount];
+            for (int i = 0; i < offsetCount; i++)
+            {
+                neighbours[i] = order[(position + offsets[i]) % islandCount];
+            }
+            graph[order[position]] = neighbours;
+        }
+        return graph;
+    }
+}
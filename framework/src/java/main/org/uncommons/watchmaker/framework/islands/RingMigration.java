@@ -16,15 +16,18 @@
 package org.uncommons.watchmaker.framework.islands;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.EvolutionUtils;
 
 /**
  * Migrates a fixed number of individuals from each island to the adjacent island.
  * Operates as if the islands are arranged in a ring with migration occurring in a
  * clockwise direction.  The individuals to be migrated are chosen completely at random.
+ * The cost of migration is proportional to the total number of migrants, not to the
+ * size of the islands.
+ * @see RingTopology
  * @author Daniel Dyer
  */
 public class RingMigration implements Migration<Object>
@@ -41,28 +44,32 @@ public class RingMigration implements Migration<Object>
      */
     public <S extends Object> void migrate(List<List<EvaluatedCandidate<S>>> islandPopulations, int migrantCount, Random rng)
     {
+        // Randomly select the migrants from each island and move them to the end of the island's population.
+        for (List<EvaluatedCandidate<S>> island : islandPopulations)
+        {
+            EvolutionUtils.moveRandomSampleToEnd(island, migrantCount, rng);
+        }
+
         // The first batch of immigrants is from the last island to the first.
         List<EvaluatedCandidate<S>> lastIsland = islandPopulations.get(islandPopulations.size() - 1);
-        Collections.shuffle(lastIsland, rng);
-        List<EvaluatedCandidate<S>> migrants = lastIsland.subList(lastIsland.size() - migrantCount, lastIsland.size());
-
+        List<EvaluatedCandidate<S>> immigrants = new ArrayList<EvaluatedCandidate<S>>(migrantCount);
+        immigrants.addAll(lastIsland.subList(lastIsland.size() - migrantCount, lastIsland.size()));
+        List<EvaluatedCandidate<S>> emigrants = new ArrayList<EvaluatedCandidate<S>>(migrantCount);
         for (List<EvaluatedCandidate<S>> island : islandPopulations)
         {
-            // Migrants from the last island are immigrants for this island.
-            List<EvaluatedCandidate<S>> immigrants = migrants;
-            if (island != lastIsland) // We've already migrated individuals from the last island.
-            {
-                // Select the migrants that will move to the next island to make room for the immigrants here.
-                // Randomise the population so that there is no bias concerning which individuals are migrated.
-                Collections.shuffle(island, rng);
-                migrants = new ArrayList<EvaluatedCandidate<S>>(island.subList(island.size() - migrantCount, island.size()));
-            }
-            // Copy the immigrants over the last members of the population (those that are themselves
-            // migrating to the next island).
-            for (int i = 0; i < immigrants.size(); i++)
+            // Copy the immigrants over the members of the population that are themselves migrating
+            // to the next island, after saving them for the next island.
+            int offset = island.size() - migrantCount;
+            emigrants.clear();
+            emigrants.addAll(island.subList(offset, island.size()));
+            for (int i = 0; i < migrantCount; i++)
             {
-                island.set(island.size() - migrantCount + i, immigrants.get(i));
+                island.set(offset + i, immigrants.get(i));
             }
+            // Swap the buffers so that this island's emigrants become the next island's immigrants.
+            List<EvaluatedCandidate<S>> buffer = immigrants;
+            immigrants = emigrants;
+            emigrants = buffer;
         }
     }
 }
@@ -0,0 +1,32 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+/**
+ * Arranges the islands in a ring, with emigrants from each island travelling
+ * clockwise to the next island (the same arrangement as {@link RingMigration}).
+ * @author Daniel Dyer
+ */
+public class RingTopology implements Topology
+{
+    /**
+     * {@inheritDoc}
+     */
+    public int[] getNeighbours(int islandIndex, int islandCount)
+    {
+        return islandCount < 2 ? new int[0] : new int[]{(islandIndex + 1) % islandCount};
+    }
+}
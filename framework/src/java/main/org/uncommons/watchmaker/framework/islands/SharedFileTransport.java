@@ -0,0 +1,217 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>A {@link MigrantTransport} for JVMs on the same machine, which exchange messages via a
+ * memory-mapped file.  The file is divided into a region for each island.  Each region is a
+ * ring buffer of fixed-size slots, preceded by a count of the messages ever written to it.
+ * When the ring buffer is full, new messages overwrite the oldest.</p>
+ *
+ * <p>Writers in different processes are serialised with file locks, and writers in the same
+ * process with an in-memory lock.  The count of messages read from each region is kept in
+ * memory by the process that hosts the island, so each island should be read by exactly
+ * one process.  A new (or empty) file should be used for each run, otherwise islands may
+ * receive up to a buffer's worth of stale messages from the previous run.</p>
+ * @author Daniel Dyer
+ */
+public class SharedFileTransport implements MigrantTransport
+{
+    // Each region starts with a count of the messages written to it.
+    private static final int HEADER_SIZE = 8;
+    // Each slot starts with the length of its message.
+    private static final int LENGTH_SIZE = 4;
+
+    // File locks are held on behalf of the whole JVM, so threads in the same JVM must be
+    // prevented from requesting overlapping locks, even via different transport instances.
+    private static final ConcurrentMap<String, Object> JVM_LOCKS = new ConcurrentHashMap<String, Object>();
+
+    private final int islandCount;
+    private final int capacity;
+    private final int maxMessageSize;
+    private final int slotSize;
+    private final int regionSize;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Object jvmLock;
+    // The number of messages read from each island's region, guarded by jvmLock.
+    private final long[] readCounts;
+
+
+    /**
+     * Creates a transport that uses the specified file, creating the file if it does not
+     * already exist.  Every process that uses the file must specify the same number of islands,
+     * capacity and maximum message size.
+     * @param path The shared file.
+     * @param islandCount The total number of islands.
+     * @param capacity The maximum number of messages that may be waiting for any one island.
+     * @param maxMessageSize The size, in bytes, of the largest message that can be sent.
+     * @throws IOException If the file cannot be opened or mapped into memory.
+     */
+    public SharedFileTransport(File path,
+                               int islandCount,
+                               int capacity,
+                               int maxMessageSize) throws IOException
+    {
+        if (islandCount <= 0 || capacity <= 0 || maxMessageSize <= 0)
+        {
+            throw new IllegalArgumentException("Island count, capacity and message size must be positive.");
+        }
+        this.islandCount = islandCount;
+        this.capacity = capacity;
+        this.maxMessageSize = maxMessageSize;
+        this.slotSize = LENGTH_SIZE + maxMessageSize;
+        long fileSize = (HEADER_SIZE + (long) capacity * slotSize) * islandCount;
+        if (fileSize > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Shared file would be too large: " + fileSize + " bytes.");
+        }
+        this.regionSize = HEADER_SIZE + capacity * slotSize;
+        this.readCounts = new long[islandCount];
+
+        String key = path.getCanonicalPath();
+        JVM_LOCKS.putIfAbsent(key, new Object());
+        this.jvmLock = JVM_LOCKS.get(key);
+
+        this.file = new RandomAccessFile(path, "rw");
+        this.channel = file.getChannel();
+        synchronized (jvmLock)
+        {
+            FileLock lock = channel.lock();
+            try
+            {
+                if (file.length() < fileSize)
+                {
+                    file.setLength(fileSize);
+                }
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException If the message is larger than the maximum
+     * message size specified when the transport was created.
+     */
+    public void send(int islandIndex, byte[] message) throws IOException
+    {
+        if (message.length > maxMessageSize)
+        {
+            throw new IllegalArgumentException("Message is too large: " + message.length + " bytes.");
+        }
+        int region = getRegion(islandIndex);
+        synchronized (jvmLock)
+        {
+            FileLock lock = channel.lock(region, regionSize, false);
+            try
+            {
+                long written = buffer.getLong(region);
+                ByteBuffer slot = buffer.duplicate();
+                slot.position(getSlot(region, written));
+                slot.putInt(message.length);
+                slot.put(message);
+                buffer.putLong(region, written + 1);
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int receive(int islandIndex, Collection<byte[]> messages) throws IOException
+    {
+        int region = getRegion(islandIndex);
+        synchronized (jvmLock)
+        {
+            FileLock lock = channel.lock(region, regionSize, false);
+            try
+            {
+                long written = buffer.getLong(region);
+                // If the reader has fallen behind, the oldest messages have been overwritten.
+                long first = Math.max(readCounts[islandIndex], written - capacity);
+                ByteBuffer slot = buffer.duplicate();
+                for (long i = first; i < written; i++)
+                {
+                    slot.position(getSlot(region, i));
+                    int length = slot.getInt();
+                    if (length < 0 || length > maxMessageSize)
+                    {
+                        throw new IOException("Corrupt message in shared file.");
+                    }
+                    byte[] message = new byte[length];
+                    slot.get(message);
+                    messages.add(message);
+                }
+                readCounts[islandIndex] = written;
+                return (int) (written - first);
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+    }
+
+
+    /**
+     * Closes the shared file.  The file itself is not deleted.
+     * @throws IOException If the file cannot be closed.
+     */
+    public void close() throws IOException
+    {
+        file.close();
+    }
+
+
+    private int getRegion(int islandIndex)
+    {
+        if (islandIndex < 0 || islandIndex >= islandCount)
+        {
+            throw new IllegalArgumentException("Island index is out of range: " + islandIndex);
+        }
+        return islandIndex * regionSize;
+    }
+
+
+    private int getSlot(int region, long messageNumber)
+    {
+        return region + HEADER_SIZE + (int) (messageNumber % capacity) * slotSize;
+    }
+}
@@ -0,0 +1,417 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.uncommons.util.concurrent.ConfigurableThreadFactory;
+
+/**
+ * <p>A {@link MigrantTransport} that sends messages over TCP connections.  The islands are
+ * divided between a number of nodes (usually one per JVM), each hosting the same number of
+ * islands.  Node {@code n} hosts the islands with global indices
+ * {@code n * islandsPerNode} to {@code (n + 1) * islandsPerNode - 1} and listens for
+ * messages at the {@code n}th address.</p>
+ *
+ * <p>Connections are opened on demand.  If another node cannot be reached (for example
+ * because it hasn't started yet, or has already finished), messages for its islands are
+ * discarded and the connection is retried when the next message is sent, so nodes may be
+ * started and stopped in any order.  Messages between islands hosted by the same node are
+ * delivered without using the network.</p>
+ *
+ * <p>Messages are limited in length (see
+ * {@link #SocketTransport(List, int, int, int, int)}), so that a corrupt or hostile peer
+ * cannot make a node allocate an arbitrarily large buffer.  Each node reads from at most
+ * two connections per other node at a time, which allows for a replacement connection
+ * that arrives before the old one has been closed.  Any further connections are refused.</p>
+ * @author Daniel Dyer
+ */
+public class SocketTransport implements MigrantTransport
+{
+    /**
+     * The maximum message length used if none is specified (16 megabytes).
+     */
+    public static final int DEFAULT_MAX_MESSAGE_LENGTH = 16 * 1024 * 1024;
+
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+
+    private final List<InetSocketAddress> nodeAddresses;
+    private final int localNode;
+    private final int islandsPerNode;
+    private final List<Mailbox<byte[]>> inboxes;
+    private final int maxMessageLength;
+
+    private final ServerSocket serverSocket;
+    // Runs one reader per incoming connection.
+    private final ThreadPoolExecutor readers;
+    // Outgoing connections, indexed by node.  Each is guarded by the corresponding lock.
+    private final DataOutputStream[] connections;
+    private final Socket[] connectionSockets;
+    // True while a thread is connecting to the node, without holding the lock.
+    private final boolean[] connecting;
+    private final Object[] connectionLocks;
+    // All open sockets, so that they can be closed along with the transport.
+    private final Set<Socket> openSockets = new CopyOnWriteArraySet<Socket>();
+
+    private volatile boolean closed = false;
+
+
+    /**
+     * Creates a transport for one node and starts listening for messages from the others.
+     * Messages may be up to {@link #DEFAULT_MAX_MESSAGE_LENGTH} bytes long.
+     * @param nodeAddresses The address at which each node listens for messages.
+     * @param localNode The index of the node that this transport belongs to.
+     * @param islandsPerNode The number of islands hosted by each node.
+     * @param capacity The maximum number of messages that may be waiting for any one
+     * island.  Older messages are discarded to make space for newer ones.
+     * @throws IOException If the transport cannot listen at the local node's address.
+     */
+    public SocketTransport(List<InetSocketAddress> nodeAddresses,
+                           int localNode,
+                           int islandsPerNode,
+                           int capacity) throws IOException
+    {
+        this(nodeAddresses, localNode, islandsPerNode, capacity, DEFAULT_MAX_MESSAGE_LENGTH);
+    }
+
+
+    /**
+     * Creates a transport for one node and starts listening for messages from the others.
+     * @param nodeAddresses The address at which each node listens for messages.
+     * @param localNode The index of the node that this transport belongs to.
+     * @param islandsPerNode The number of islands hosted by each node.
+     * @param capacity The maximum number of messages that may be waiting for any one
+     * island.  Older messages are discarded to make space for newer ones.
+     * @param maxMessageLength The maximum length, in bytes, of a message.  Longer messages
+     * are discarded by the sender.  A connection that announces a longer message is closed
+     * by the receiver.  All nodes should use the same limit.
+     * @throws IOException If the transport cannot listen at the local node's address.
+     */
+    public SocketTransport(List<InetSocketAddress> nodeAddresses,
+                           int localNode,
+                           int islandsPerNode,
+                           int capacity,
+                           int maxMessageLength) throws IOException
+    {
+        if (localNode < 0 || localNode >= nodeAddresses.size())
+        {
+            throw new IllegalArgumentException("Local node index is out of range: " + localNode);
+        }
+        if (islandsPerNode <= 0)
+        {
+            throw new IllegalArgumentException("Each node must host at least one island.");
+        }
+        if (maxMessageLength < 0)
+        {
+            throw new IllegalArgumentException("Maximum message length must be non-negative.");
+        }
+        this.nodeAddresses = new ArrayList<InetSocketAddress>(nodeAddresses);
+        this.localNode = localNode;
+        this.islandsPerNode = islandsPerNode;
+        this.inboxes = new ArrayList<Mailbox<byte[]>>(islandsPerNode);
+        for (int i = 0; i < islandsPerNode; i++)
+        {
+            inboxes.add(new Mailbox<byte[]>(capacity));
+        }
+        this.maxMessageLength = maxMessageLength;
+        int nodeCount = nodeAddresses.size();
+        this.connections = new DataOutputStream[nodeCount];
+        this.connectionSockets = new Socket[nodeCount];
+        this.connecting = new boolean[nodeCount];
+        this.connectionLocks = new Object[nodeCount];
+        for (int i = 0; i < nodeCount; i++)
+        {
+            connectionLocks[i] = new Object();
+        }
+        ThreadFactory threadFactory = new ConfigurableThreadFactory("SocketTransport", Thread.NORM_PRIORITY, true);
+        this.readers = new ThreadPoolExecutor(0,
+                                              Math.max(1, 2 * (nodeCount - 1)),
+                                              60,
+                                              TimeUnit.SECONDS,
+                                              new SynchronousQueue<Runnable>(),
+                                              threadFactory);
+
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(nodeAddresses.get(localNode));
+        threadFactory.newThread(new Runnable()
+        {
+            public void run()
+            {
+                acceptConnections();
+            }
+        }).start();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * Messages for islands on nodes that cannot be reached are discarded, as are messages
+     * that are longer than the maximum message length.
+     */
+    public void send(int islandIndex, byte[] message)
+    {
+        int node = getNode(islandIndex);
+        if (node == localNode)
+        {
+            inboxes.get(islandIndex - localNode * islandsPerNode).post(message);
+            return;
+        }
+        if (message.length > maxMessageLength || !connect(node))
+        {
+            return;
+        }
+        synchronized (connectionLocks[node])
+        {
+            DataOutputStream out = connections[node];
+            if (out == null)
+            {
+                return; // Another sender has found the connection to be broken.
+            }
+            try
+            {
+                out.writeInt(islandIndex);
+                out.writeInt(message.length);
+                out.write(message);
+                out.flush();
+            }
+            catch (IOException ex)
+            {
+                // Migration is best-effort, so discard the message and reconnect next time.
+                disconnect(node);
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int receive(int islandIndex, Collection<byte[]> messages)
+    {
+        if (!isLocal(islandIndex))
+        {
+            throw new IllegalArgumentException("Island " + islandIndex + " is not hosted by this node.");
+        }
+        return inboxes.get(islandIndex - localNode * islandsPerNode).drainTo(messages);
+    }
+
+
+    /**
+     * Stops listening for messages and closes all connections.
+     * @throws IOException If the listening socket cannot be closed.
+     */
+    public void close() throws IOException
+    {
+        closed = true;
+        try
+        {
+            serverSocket.close();
+        }
+        finally
+        {
+            for (Socket socket : openSockets)
+            {
+                closeQuietly(socket);
+            }
+            readers.shutdownNow();
+        }
+    }
+
+
+    /**
+     * @return The port that this node is listening on.
+     */
+    public int getLocalPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+
+    private int getNode(int islandIndex)
+    {
+        if (islandIndex < 0 || islandIndex >= islandsPerNode * nodeAddresses.size())
+        {
+            throw new IllegalArgumentException("Island index is out of range: " + islandIndex);
+        }
+        return islandIndex / islandsPerNode;
+    }
+
+
+    private boolean isLocal(int islandIndex)
+    {
+        int first = localNode * islandsPerNode;
+        return islandIndex >= first && islandIndex < first + islandsPerNode;
+    }
+
+
+    /**
+     * Opens a connection to the node, unless there is one already.  The node's lock is not
+     * held while connecting, and only one thread connects to a node at a time, so senders to
+     * a node that cannot be reached discard their messages rather than queueing up behind
+     * the connection attempt.
+     * @return True if there is a connection to the node.
+     */
+    private boolean connect(int node)
+    {
+        synchronized (connectionLocks[node])
+        {
+            if (connections[node] != null)
+            {
+                return true;
+            }
+            if (connecting[node])
+            {
+                return false;
+            }
+            connecting[node] = true;
+        }
+        Socket socket = new Socket();
+        openSockets.add(socket);
+        DataOutputStream out = null;
+        try
+        {
+            socket.setTcpNoDelay(true);
+            socket.connect(nodeAddresses.get(node), CONNECT_TIMEOUT_MS);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+        catch (IOException ex)
+        {
+            closeQuietly(socket);
+        }
+        finally
+        {
+            synchronized (connectionLocks[node])
+            {
+                connecting[node] = false;
+                if (out != null)
+                {
+                    connectionSockets[node] = socket;
+                    connections[node] = out;
+                }
+            }
+        }
+        return out != null;
+    }
+
+
+    private void disconnect(int node)
+    {
+        if (connectionSockets[node] != null)
+        {
+            closeQuietly(connectionSockets[node]);
+            connectionSockets[node] = null;
+        }
+        connections[node] = null;
+    }
+
+
+    private void acceptConnections()
+    {
+        while (!closed)
+        {
+            try
+            {
+                final Socket socket = serverSocket.accept();
+                openSockets.add(socket);
+                try
+                {
+                    readers.execute(new Runnable()
+                    {
+                        public void run()
+                        {
+                            readMessages(socket);
+                        }
+                    });
+                }
+                catch (RejectedExecutionException ex)
+                {
+                    // Too many connections (or the transport has been closed).
+                    closeQuietly(socket);
+                }
+            }
+            catch (IOException ex)
+            {
+                // Either the transport has been closed, in which case the loop will end, or the
+                // connection failed before it could be accepted, which only affects that connection.
+            }
+        }
+    }
+
+
+    /**
+     * Reads messages from a connection until it is closed, posting each message to the
+     * destination island's inbox.
+     */
+    private void readMessages(Socket socket)
+    {
+        try
+        {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while (!closed)
+            {
+                int islandIndex = in.readInt();
+                int length = in.readInt();
+                if (length < 0 || length > maxMessageLength || !isLocal(islandIndex))
+                {
+                    throw new IOException("Invalid message header.");
+                }
+                byte[] message = new byte[length];
+                in.readFully(message);
+                inboxes.get(islandIndex - localNode * islandsPerNode).post(message);
+            }
+        }
+        catch (IOException ex)
+        {
+            // The connection has been closed (by the sender or by this transport) or is
+            // unusable, so there is nothing more to read from it.
+        }
+        finally
+        {
+            closeQuietly(socket);
+        }
+    }
+
+
+    private void closeQuietly(Socket socket)
+    {
+        openSockets.remove(socket);
+        try
+        {
+            socket.close();
+        }
+        catch (IOException ex)
+        {
+            // Nothing useful can be done if the socket can't be closed.
+        }
+    }
+}
@@ -0,0 +1,33 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+/**
+ * Strategy interface for the connections between islands in an island model.  A topology
+ * determines which islands each island sends its emigrants to.
+ * @author Daniel Dyer
+ */
+public interface Topology
+{
+    /**
+     * Determines the destinations of emigrants from the specified island.
+     * @param islandIndex The index of the island that emigrants leave from.
+     * @param islandCount The total number of islands.
+     * @return The indices of the islands that receive emigrants from the specified
+     * island.  Must not include the island itself.
+     */
+    int[] getNeighbours(int islandIndex, int islandCount);
+}
@@ -0,0 +1,91 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Arrays;
+
+/**
+ * Arranges the islands in a two-dimensional grid that wraps around at the edges, so that
+ * every island has four neighbours (up, down, left and right).  In very small grids some
+ * of these directions lead to the same island, in which case the island has fewer distinct
+ * neighbours.
+ * @author Daniel Dyer
+ */
+public class TorusTopology implements Topology
+{
+    private final int width;
+
+
+    /**
+     * @param width The number of islands in each row of the grid.  The number of islands
+     * must be a multiple of the width.
+     */
+    public TorusTopology(int width)
+    {
+        if (width <= 0)
+        {
+            throw new IllegalArgumentException("Width must be positive.");
+        }
+        this.width = width;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException If the number of islands is not a multiple of the
+     * width of the grid.
+     */
+    public int[] getNeighbours(int islandIndex, int islandCount)
+    {
+        if (islandCount % width != 0)
+        {
+            throw new IllegalArgumentException("Island count must be a multiple of the grid width.");
+        }
+        int height = islandCount / width;
+        int row = islandIndex / width;
+        int column = islandIndex % width;
+        int[] candidates = new int[]
+        {
+            ((row + height - 1) % height) * width + column, // Up.
+            ((row + 1) % height) * width + column, // Down.
+            row * width + (column + width - 1) % width, // Left.
+            row * width + (column + 1) % width // Right.
+        };
+        int[] neighbours = new int[candidates.length];
+        int count = 0;
+        for (int candidate : candidates)
+        {
+            if (candidate != islandIndex && !contains(neighbours, count, candidate))
+            {
+                neighbours[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(neighbours, count);
+    }
+
+
+    private static boolean contains(int[] values, int length, int value)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (values[i] == value)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
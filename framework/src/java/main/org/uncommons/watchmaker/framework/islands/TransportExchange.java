@@ -0,0 +1,92 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+
+/**
+ * Exchanges migrants via a {@link MigrantTransport}.  The migrants that are sent from one
+ * island to another at the end of an epoch form a single message, consisting of the number
+ * of migrants followed by each migrant's fitness score and encoded candidate.  Migrants
+ * therefore don't need to be re-evaluated on arrival.
+ * @param <T> The type of evolved entity.
+ * @author Daniel Dyer
+ */
+final class TransportExchange<T> implements MigrantExchange<T>
+{
+    private final MigrantTransport transport;
+    private final MigrantCodec<T> codec;
+
+    TransportExchange(MigrantTransport transport, MigrantCodec<T> codec)
+    {
+        this.transport = transport;
+        this.codec = codec;
+    }
+
+
+    public void post(int islandIndex, List<EvaluatedCandidate<T>> migrants)
+    {
+        try
+        {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(migrants.size());
+            for (EvaluatedCandidate<T> migrant : migrants)
+            {
+                out.writeDouble(migrant.getFitness());
+                codec.encode(migrant.getCandidate(), out);
+            }
+            out.flush();
+            transport.send(islandIndex, buffer.toByteArray());
+        }
+        catch (IOException ex)
+        {
+            throw new IllegalStateException("Failed to send migrants to island " + islandIndex, ex);
+        }
+    }
+
+
+    public void drainTo(int islandIndex, Collection<? super EvaluatedCandidate<T>> immigrants)
+    {
+        try
+        {
+            List<byte[]> messages = new ArrayList<byte[]>();
+            transport.receive(islandIndex, messages);
+            for (byte[] message : messages)
+            {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+                int count = in.readInt();
+                for (int i = 0; i < count; i++)
+                {
+                    double fitness = in.readDouble();
+                    immigrants.add(new EvaluatedCandidate<T>(codec.decode(in), fitness));
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new IllegalStateException("Failed to receive migrants for island " + islandIndex, ex);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.kernels;
+
+/**
+ * Primitive array kernels that are shared by genome types, operators and fitness
+ * evaluators.  Implementations must be thread-safe and must return the same results
+ * as {@link ScalarKernels}, except that floating-point sums may be accumulated in a
+ * different order.  Use {@link KernelSupport#getKernels()} to obtain the best
+ * implementation for the current JVM.
+ * @author Daniel Dyer
+ */
+public interface ArrayKernels
+{
+    /**
+     * @param words1 The words of the first bit string.
+     * @param words2 The words of the second bit string.  Must be the same length
+     * as {@code words1}.
+     * @return The number of bit positions at which the two bit strings differ.
+     */
+    int hammingDistance(long[] words1, long[] words2);
+
+
+    /**
+     * @param values1 The first array.
+     * @param values2 The second array.  Must be the same length as {@code values1}.
+     * @return The sum of the squared differences between corresponding elements.
+     */
+    double squaredError(double[] values1, double[] values2);
+
+
+    /**
+     * Compares two images pixel-by-pixel.  Pixels are packed RGB values (as returned
+     * by {@link java.awt.image.BufferedImage#getRGB(int, int)}), the alpha channel is
+     * ignored.
+     * @param pixels1 The pixels of the first image.
+     * @param pixels2 The pixels of the second image.  Must be the same length as
+     * {@code pixels1}.
+     * @return The sum, over all pixels, of the Euclidean distance between the two
+     * colours in RGB space.
+     */
+    double rgbDistance(int[] pixels1, int[] pixels2);
+
+
+    /**
+     * Uniform cross-over driven by a mask.  Where the mask is set, each offspring
+     * takes the gene from the other parent.  The offspring arrays may be the same
+     * arrays as the parents (to perform the cross-over in place).
+     * @param parent1 The first parent.
+     * @param parent2 The second parent.
+     * @param mask One flag per gene, true where genes are exchanged.
+     * @param offspring1 The array that receives the first offspring.
+     * @param offspring2 The array that receives the second offspring.
+     */
+    void maskedCrossover(double[] parent1,
+                         double[] parent2,
+                         boolean[] mask,
+                         double[] offspring1,
+                         double[] offspring2);
+}
@@ -0,0 +1,101 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.kernels;
+
+/**
+ * Chooses the {@link ArrayKernels} implementation for the current JVM.  If the
+ * optional watchmaker-simd module is on the classpath, and the JVM provides the
+ * incubating Vector API with hardware support (i.e. it was started with
+ * {@code --add-modules jdk.incubator.vector}), the vectorised kernels are used.
+ * Otherwise the {@link ScalarKernels} are used.  The choice can be forced to the
+ * scalar kernels by setting the {@code org.uncommons.watchmaker.kernels} system
+ * property to {@code scalar}, which is useful for benchmarking.
+ * @author Daniel Dyer
+ */
+public final class KernelSupport
+{
+    /**
+     * The name of the system property that can be set to {@code scalar} to disable
+     * the vectorised kernels.
+     */
+    public static final String KERNELS_PROPERTY = "org.uncommons.watchmaker.kernels";
+
+    private static final String VECTOR_KERNELS_CLASS = "org.uncommons.watchmaker.simd.VectorKernels";
+
+    private KernelSupport()
+    {
+        // Prevents instantiation.
+    }
+
+
+    /**
+     * @return The fastest kernels available.  The same instance is returned on
+     * every call.
+     */
+    public static ArrayKernels getKernels()
+    {
+        return KernelsHolder.KERNELS;
+    }
+
+
+    /**
+     * Attempts to load the vectorised kernels.
+     * @return The vectorised kernels, or the scalar kernels if they are not available.
+     */
+    static ArrayKernels loadKernels()
+    {
+        if ("scalar".equals(System.getProperty(KERNELS_PROPERTY)))
+        {
+            return new ScalarKernels();
+        }
+        try
+        {
+            return (ArrayKernels) Class.forName(VECTOR_KERNELS_CLASS).newInstance();
+        }
+        catch (ClassNotFoundException ex)
+        {
+            // The optional module is not on the classpath.
+            return new ScalarKernels();
+        }
+        catch (LinkageError ex)
+        {
+            // The module is present but the JVM does not provide the Vector API.
+            return new ScalarKernels();
+        }
+        catch (UnsupportedOperationException ex)
+        {
+            // The Vector API is present but there is no hardware support for it.
+            return new ScalarKernels();
+        }
+        catch (InstantiationException ex)
+        {
+            throw new IllegalStateException("Failed to create vector kernels.", ex);
+        }
+        catch (IllegalAccessException ex)
+        {
+            throw new IllegalStateException("Failed to create vector kernels.", ex);
+        }
+    }
+
+
+    /**
+     * Lazy holder for the kernels, so that they are only chosen when first used.
+     */
+    private static final class KernelsHolder
+    {
+        private static final ArrayKernels KERNELS = loadKernels();
+    }
+}
@@ -0,0 +1,99 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.kernels;
+
+/**
+ * Straightforward loop implementations of the {@link ArrayKernels}.  This is the
+ * reference implementation and the fallback when no vectorised kernels are available.
+ * @author Daniel Dyer
+ */
+public final class ScalarKernels implements ArrayKernels
+{
+    /**
+     * {@inheritDoc}
+     */
+    public int hammingDistance(long[] words1, long[] words2)
+    {
+        int distance = 0;
+        for (int i = 0; i < words1.length; i++)
+        {
+            distance += Long.bitCount(words1[i] ^ words2[i]);
+        }
+        return distance;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double squaredError(double[] values1, double[] values2)
+    {
+        double error = 0;
+        for (int i = 0; i < values1.length; i++)
+        {
+            double delta = values1[i] - values2[i];
+            error += delta * delta;
+        }
+        return error;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double rgbDistance(int[] pixels1, int[] pixels2)
+    {
+        double distance = 0;
+        for (int i = 0; i < pixels1.length; i++)
+        {
+            distance += rgbDistance(pixels1[i], pixels2[i]);
+        }
+        return distance;
+    }
+
+
+    /**
+     * @param pixel1 The first packed RGB value.
+     * @param pixel2 The second packed RGB value.
+     * @return The Euclidean distance between the two colours in RGB space.
+     */
+    public static double rgbDistance(int pixel1, int pixel2)
+    {
+        int deltaR = ((pixel1 >>> 16) & 0xFF) - ((pixel2 >>> 16) & 0xFF);
+        int deltaG = ((pixel1 >>> 8) & 0xFF) - ((pixel2 >>> 8) & 0xFF);
+        int deltaB = (pixel1 & 0xFF) - (pixel2 & 0xFF);
+        return Math.sqrt(deltaR * deltaR + deltaG * deltaG + deltaB * deltaB);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void maskedCrossover(double[] parent1,
+                                double[] parent2,
+                                boolean[] mask,
+                                double[] offspring1,
+                                double[] offspring2)
+    {
+        for (int i = 0; i < mask.length; i++)
+        {
+            double gene1 = parent1[i];
+            double gene2 = parent2[i];
+            offspring1[i] = mask[i] ? gene2 : gene1;
+            offspring2[i] = mask[i] ? gene1 : gene2;
+        }
+    }
+}
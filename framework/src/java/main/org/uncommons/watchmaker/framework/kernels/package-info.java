@@ -0,0 +1,23 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+/**
+ * Array kernels for the distance and comparison loops that dominate per-candidate
+ * work, such as Hamming distance on bit genomes.  A scalar implementation is always
+ * available.  A vectorised implementation is used instead when the optional
+ * watchmaker-simd module is on the classpath and the JVM supports it.
+ * @author Daniel Dyer
+ */
+package org.uncommons.watchmaker.framework.kernels;
@@ -0,0 +1,44 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+/**
+ * An {@link IntGenerator} that always returns the same value.  The class is
+ * final and the value is held in a final field, so once a call site has only
+ * seen this implementation the JIT can inline the call down to a field read.
+ * @author Daniel Dyer
+ */
+public final class ConstantIntGenerator implements IntGenerator
+{
+    private final int value;
+
+    /**
+     * @param value The value that is always returned.
+     */
+    public ConstantIntGenerator(int value)
+    {
+        this.value = value;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int nextInt()
+    {
+        return value;
+    }
+}
@@ -0,0 +1,57 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+import java.util.Random;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * A {@link ProbabilityGenerator} that always returns the same probability.
+ * The class is final and the value is held in a final field, so once a call
+ * site has only seen this implementation the JIT can inline the calls down
+ * to a field read and a comparison.
+ * @author Daniel Dyer
+ */
+public final class ConstantProbabilityGenerator implements ProbabilityGenerator
+{
+    private final double probability;
+
+    /**
+     * @param probability The probability that is always returned.
+     */
+    public ConstantProbabilityGenerator(Probability probability)
+    {
+        this.probability = probability.doubleValue();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextProbability()
+    {
+        return probability;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean nextEvent(Random rng)
+    {
+        return probability == 1 || rng.nextDouble() < probability;
+    }
+}
@@ -0,0 +1,32 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+/**
+ * Provides a (possibly variable) integer without boxing.  This is the primitive
+ * equivalent of a {@link org.uncommons.maths.number.NumberGenerator} of
+ * {@link Integer} values.
+ * @see ConstantIntGenerator
+ * @see IntGeneratorAdapter
+ * @author Daniel Dyer
+ */
+public interface IntGenerator
+{
+    /**
+     * @return The next value.
+     */
+    int nextInt();
+}
@@ -0,0 +1,63 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+
+/**
+ * Adapts a {@link NumberGenerator} of {@link Integer} values so that it can be
+ * used where an {@link IntGenerator} is required.  Each call still unboxes the
+ * underlying value, so use {@link #adapt(NumberGenerator)}, which avoids the
+ * adapter for constant generators.
+ * @author Daniel Dyer
+ */
+public final class IntGeneratorAdapter implements IntGenerator
+{
+    private final NumberGenerator<Integer> delegate;
+
+    /**
+     * @param delegate The generator that provides the values.
+     */
+    public IntGeneratorAdapter(NumberGenerator<Integer> delegate)
+    {
+        this.delegate = delegate;
+    }
+
+
+    /**
+     * Converts a {@link NumberGenerator} into an {@link IntGenerator}.  A
+     * {@link ConstantGenerator} is converted to a {@link ConstantIntGenerator},
+     * other generators are wrapped in an adapter.
+     * @param generator The generator to convert.
+     * @return A primitive generator that provides the same values.
+     */
+    public static IntGenerator adapt(NumberGenerator<Integer> generator)
+    {
+        return generator.getClass() == ConstantGenerator.class
+               ? new ConstantIntGenerator(generator.nextValue())
+               : new IntGeneratorAdapter(generator);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public int nextInt()
+    {
+        return delegate.nextValue();
+    }
+}
@@ -0,0 +1,44 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+import java.util.Random;
+
+/**
+ * Provides a (possibly variable) probability without boxing.  This is the
+ * primitive equivalent of a {@link org.uncommons.maths.number.NumberGenerator}
+ * of {@link org.uncommons.maths.random.Probability} values.
+ * @see ConstantProbabilityGenerator
+ * @see ProbabilityGeneratorAdapter
+ * @author Daniel Dyer
+ */
+public interface ProbabilityGenerator
+{
+    /**
+     * @return The next probability, in the range 0 to 1 (inclusive).
+     */
+    double nextProbability();
+
+
+    /**
+     * Draws the next probability and uses it to decide whether an event occurs.
+     * This behaves exactly like
+     * {@link org.uncommons.maths.random.Probability#nextEvent(Random)}.
+     * @param rng A source of randomness.
+     * @return True if the event occurs, false otherwise.
+     */
+    boolean nextEvent(Random rng);
+}
@@ -0,0 +1,74 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Adapts a {@link NumberGenerator} of {@link Probability} values so that it can
+ * be used where a {@link ProbabilityGenerator} is required.  Each call still
+ * unboxes the underlying value, so use {@link #adapt(NumberGenerator)}, which
+ * avoids the adapter for constant generators.
+ * @author Daniel Dyer
+ */
+public final class ProbabilityGeneratorAdapter implements ProbabilityGenerator
+{
+    private final NumberGenerator<Probability> delegate;
+
+    /**
+     * @param delegate The generator that provides the probabilities.
+     */
+    public ProbabilityGeneratorAdapter(NumberGenerator<Probability> delegate)
+    {
+        this.delegate = delegate;
+    }
+
+
+    /**
+     * Converts a {@link NumberGenerator} into a {@link ProbabilityGenerator}.
+     * A {@link ConstantGenerator} is converted to a {@link ConstantProbabilityGenerator},
+     * other generators are wrapped in an adapter.
+     * @param generator The generator to convert.
+     * @return A primitive generator that provides the same probabilities.
+     */
+    public static ProbabilityGenerator adapt(NumberGenerator<Probability> generator)
+    {
+        return generator.getClass() == ConstantGenerator.class
+               ? new ConstantProbabilityGenerator(generator.nextValue())
+               : new ProbabilityGeneratorAdapter(generator);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double nextProbability()
+    {
+        return delegate.nextValue().doubleValue();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean nextEvent(Random rng)
+    {
+        return delegate.nextValue().nextEvent(rng);
+    }
+}
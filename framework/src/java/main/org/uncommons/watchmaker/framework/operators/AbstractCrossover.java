@@ -24,6 +24,12 @@ import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.number.ConstantIntGenerator;
+import org.uncommons.watchmaker.framework.number.ConstantProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.IntGenerator;
+import org.uncommons.watchmaker.framework.number.IntGeneratorAdapter;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
 
 /**
  * Generic base class for cross-over implementations.  Supports all
@@ -34,8 +40,8 @@ import org.uncommons.watchmaker.framework.EvolutionaryOperator;
  */
 public abstract class AbstractCrossover<T> implements EvolutionaryOperator<T>
 {
-    private final NumberGenerator<Integer> crossoverPointsVariable;
-    private final NumberGenerator<Probability> crossoverProbabilityVariable;
+    private final IntGenerator crossoverPointsVariable;
+    private final ProbabilityGenerator crossoverProbabilityVariable;
 
     /**
      * Sets up a fixed-point cross-over implementation.  Cross-over is
@@ -66,8 +72,8 @@ public abstract class AbstractCrossover<T> implements EvolutionaryOperator<T>
     protected AbstractCrossover(int crossoverPoints,
                                 Probability crossoverProbability)
     {
-        this(new ConstantGenerator<Integer>(crossoverPoints),
-             new ConstantGenerator<Probability>(crossoverProbability));
+        this(new ConstantIntGenerator(crossoverPoints),
+             new ConstantProbabilityGenerator(crossoverProbability));
         if (crossoverPoints <= 0)
         {
             throw new IllegalArgumentException("Number of cross-over points must be positive.");
@@ -104,6 +110,22 @@ public abstract class AbstractCrossover<T> implements EvolutionaryOperator<T>
      */
     protected AbstractCrossover(NumberGenerator<Integer> crossoverPointsVariable,
                                 NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        this(IntGeneratorAdapter.adapt(crossoverPointsVariable),
+             ProbabilityGeneratorAdapter.adapt(crossoverProbabilityVariable));
+    }
+
+
+    /**
+     * Cross-over driven by primitive parameter generators, which avoid boxing when
+     * the parameters are consulted for each pair of parents.
+     * @param crossoverPointsVariable A variable that provides a (possibly constant,
+     * possibly random) number of cross-over points for each cross-over operation.
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over.
+     */
+    protected AbstractCrossover(IntGenerator crossoverPointsVariable,
+                                ProbabilityGenerator crossoverProbabilityVariable)
     {
         this.crossoverPointsVariable = crossoverPointsVariable;
         this.crossoverProbabilityVariable = crossoverProbabilityVariable;
@@ -139,8 +161,8 @@ public abstract class AbstractCrossover<T> implements EvolutionaryOperator<T>
                 T parent2 = iterator.next();
                 // Randomly decide (according to the current cross-over probability)
                 // whether to perform cross-over for these 2 parents.
-                int crossoverPoints = crossoverProbabilityVariable.nextValue().nextEvent(rng)
-                                      ? crossoverPointsVariable.nextValue()
+                int crossoverPoints = crossoverProbabilityVariable.nextEvent(rng)
+                                      ? crossoverPointsVariable.nextInt()
                                       : 0;
                 if (crossoverPoints > 0)
                 {
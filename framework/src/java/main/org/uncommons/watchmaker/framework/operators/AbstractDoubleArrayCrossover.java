@@ -0,0 +1,117 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Base class for cross-over operators that combine the gene values of real-valued
+ * ({@code double[]}) parents rather than exchanging them at cross-over points.
+ * In addition to the standard {@link #apply(List, Random)} method, sub-classes
+ * provide {@link #crossover(double[], double[], double[], double[], Random)}, which
+ * writes the offspring into arrays supplied by the caller so that engines that
+ * recycle their population arrays can breed without any allocation.
+ * @author Daniel Dyer
+ */
+public abstract class AbstractDoubleArrayCrossover extends AbstractCrossover<double[]>
+{
+    private final DoubleArrayBounds bounds;
+
+    /**
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over rather
+     * than being copied, unchanged, into the output population.
+     * @param bounds The limits that offspring genes are clamped to.
+     */
+    protected AbstractDoubleArrayCrossover(NumberGenerator<Probability> crossoverProbabilityVariable,
+                                           DoubleArrayBounds bounds)
+    {
+        super(new ConstantGenerator<Integer>(1), // Cross-over points are not used by these operators.
+              crossoverProbabilityVariable);
+        this.bounds = bounds;
+    }
+
+
+    /**
+     * @return The limits that offspring genes are clamped to.
+     */
+    protected DoubleArrayBounds getBounds()
+    {
+        return bounds;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<double[]> mate(double[] parent1,
+                                  double[] parent2,
+                                  int numberOfCrossoverPoints,
+                                  Random rng)
+    {
+        double[] offspring1 = new double[parent1.length];
+        double[] offspring2 = new double[parent2.length];
+        crossover(parent1, parent2, offspring1, offspring2, rng);
+        List<double[]> result = new ArrayList<double[]>(2);
+        result.add(offspring1);
+        result.add(offspring2);
+        return result;
+    }
+
+
+    /**
+     * Combines two parents, writing the offspring into the supplied arrays.  Each gene
+     * of the parents is read before the corresponding genes of the offspring are
+     * written, so the offspring arrays may be the parent arrays themselves.
+     * @param parent1 The first parent.
+     * @param parent2 The second parent.
+     * @param offspring1 The array that receives the first offspring.
+     * @param offspring2 The array that receives the second offspring.
+     * @param rng A source of randomness.
+     */
+    public abstract void crossover(double[] parent1,
+                                   double[] parent2,
+                                   double[] offspring1,
+                                   double[] offspring2,
+                                   Random rng);
+
+
+    /**
+     * Checks that the parents, the offspring and the bounds all have the same length.
+     * @param parent1 The first parent.
+     * @param parent2 The second parent.
+     * @param offspring1 The array that receives the first offspring.
+     * @param offspring2 The array that receives the second offspring.
+     */
+    protected void checkLengths(double[] parent1,
+                                double[] parent2,
+                                double[] offspring1,
+                                double[] offspring2)
+    {
+        int length = parent1.length;
+        if (parent2.length != length || offspring1.length != length || offspring2.length != length)
+        {
+            throw new IllegalArgumentException("Cannot perform cross-over with different length arrays.");
+        }
+        bounds.checkLength(length);
+    }
+}
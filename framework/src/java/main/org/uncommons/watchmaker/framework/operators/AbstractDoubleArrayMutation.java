@@ -0,0 +1,129 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
+
+/**
+ * Base class for mutations of real-valued ({@code double[]}) candidates in which
+ * each gene is mutated independently with a given probability.  The genes to mutate
+ * are found by skip sampling, so the number of random values drawn is proportional
+ * to the number of mutations, not to the length of the candidate.  A candidate is
+ * only copied if at least one of its genes is mutated.  Mutated genes are clamped
+ * to the configured bounds.
+ * @author Daniel Dyer
+ */
+public abstract class AbstractDoubleArrayMutation implements EvolutionaryOperator<double[]>
+{
+    private final ProbabilityGenerator mutationProbability;
+    private final DoubleArrayBounds bounds;
+
+    /**
+     * @param mutationProbability A variable that provides, for each candidate, the
+     * probability that any given gene of that candidate will be mutated.
+     * @param bounds The limits that mutated genes are clamped to.
+     */
+    protected AbstractDoubleArrayMutation(NumberGenerator<Probability> mutationProbability,
+                                          DoubleArrayBounds bounds)
+    {
+        this.mutationProbability = ProbabilityGeneratorAdapter.adapt(mutationProbability);
+        this.bounds = bounds;
+    }
+
+
+    /**
+     * @return The limits that mutated genes are clamped to.
+     */
+    protected DoubleArrayBounds getBounds()
+    {
+        return bounds;
+    }
+
+
+    /**
+     * Applies mutation to each of the selected candidates.
+     * @param selectedCandidates The individuals to mutate.
+     * @param rng A source of randomness.
+     * @return The mutated population.
+     */
+    public List<double[]> apply(List<double[]> selectedCandidates, Random rng)
+    {
+        List<double[]> result = new ArrayList<double[]>(selectedCandidates.size());
+        for (double[] candidate : selectedCandidates)
+        {
+            double probability = mutationProbability.nextProbability();
+            int index = SkipSampling.nextIndex(-1, probability, rng);
+            if (index < candidate.length)
+            {
+                double[] mutant = candidate.clone();
+                mutate(mutant, index, probability, rng);
+                result.add(mutant);
+            }
+            else
+            {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Mutates a candidate in place.  This allows engines that recycle their
+     * population arrays to mutate offspring without any allocation.
+     * @param candidate The candidate to modify.
+     * @param rng A source of randomness.
+     * @return True if any genes were mutated, false if the candidate is unchanged.
+     */
+    public boolean mutate(double[] candidate, Random rng)
+    {
+        double probability = mutationProbability.nextProbability();
+        int index = SkipSampling.nextIndex(-1, probability, rng);
+        if (index < candidate.length)
+        {
+            mutate(candidate, index, probability, rng);
+            return true;
+        }
+        return false;
+    }
+
+
+    private void mutate(double[] candidate, int firstIndex, double probability, Random rng)
+    {
+        bounds.checkLength(candidate.length);
+        for (int i = firstIndex; i < candidate.length; i = SkipSampling.nextIndex(i, probability, rng))
+        {
+            candidate[i] = bounds.clamp(i, mutateGene(candidate[i], i, rng));
+        }
+    }
+
+
+    /**
+     * Mutates a single gene.
+     * @param value The current value of the gene.
+     * @param index The position of the gene.
+     * @param rng A source of randomness.
+     * @return The new value of the gene, before it is clamped to the bounds.
+     */
+    protected abstract double mutateGene(double value, int index, Random rng);
+}
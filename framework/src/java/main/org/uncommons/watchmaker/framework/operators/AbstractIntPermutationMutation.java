@@ -0,0 +1,96 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.number.IntGenerator;
+import org.uncommons.watchmaker.framework.number.IntGeneratorAdapter;
+
+/**
+ * Base class for mutations of permutations stored as primitive {@code int} arrays.
+ * Each candidate is subjected to a fixed or random number of mutations.  A candidate
+ * is only copied if at least one mutation is applied to it, the copy is then modified
+ * in place by the sub-class.  Candidates that are not mutated are passed through
+ * unchanged.
+ * @author Daniel Dyer
+ */
+public abstract class AbstractIntPermutationMutation implements EvolutionaryOperator<int[]>
+{
+    private final IntGenerator mutationCountVariable;
+
+    /**
+     * @param mutationCount A random variable that provides a number
+     * of mutations that will be applied to each individual.
+     */
+    protected AbstractIntPermutationMutation(NumberGenerator<Integer> mutationCount)
+    {
+        this.mutationCountVariable = IntGeneratorAdapter.adapt(mutationCount);
+    }
+
+
+    /**
+     * @param mutationCount The constant number of mutations
+     * to apply to each individual in the population.
+     */
+    protected AbstractIntPermutationMutation(int mutationCount)
+    {
+        this(new ConstantGenerator<Integer>(mutationCount));
+    }
+
+
+    /**
+     * Applies the configured number of mutations to each of the selected candidates.
+     * @param selectedCandidates The individuals to mutate.
+     * @param rng A source of randomness.
+     * @return The mutated population.
+     */
+    public List<int[]> apply(List<int[]> selectedCandidates, Random rng)
+    {
+        List<int[]> result = new ArrayList<int[]>(selectedCandidates.size());
+        for (int[] candidate : selectedCandidates)
+        {
+            int mutationCount = Math.abs(mutationCountVariable.nextInt());
+            if (mutationCount > 0 && candidate.length > 1)
+            {
+                int[] newCandidate = candidate.clone();
+                for (int i = 0; i < mutationCount; i++)
+                {
+                    mutate(newCandidate, rng);
+                }
+                result.add(newCandidate);
+            }
+            else
+            {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Applies a single mutation, in place, to a copy of a candidate.
+     * @param candidate The permutation to modify.  It always has at least
+     * two elements.
+     * @param rng A source of randomness.
+     */
+    protected abstract void mutate(int[] candidate, Random rng);
+}
@@ -19,10 +19,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import org.uncommons.maths.binary.BitString;
-import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.number.ConstantIntGenerator;
+import org.uncommons.watchmaker.framework.number.ConstantProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.IntGenerator;
+import org.uncommons.watchmaker.framework.number.IntGeneratorAdapter;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
 
 /**
  * Mutation of individual bits in a {@link BitString} according to some
@@ -32,8 +37,8 @@ import org.uncommons.watchmaker.framework.EvolutionaryOperator;
  */
 public class BitStringMutation implements EvolutionaryOperator<BitString>
 {
-    private final NumberGenerator<Probability> mutationProbability;
-    private final NumberGenerator<Integer> mutationCount;
+    private final ProbabilityGenerator mutationProbability;
+    private final IntGenerator mutationCount;
 
 
     /**
@@ -43,8 +48,8 @@ public class BitStringMutation implements EvolutionaryOperator<BitString>
      */
     public BitStringMutation(Probability mutationProbability)
     {
-        this(new ConstantGenerator<Probability>(mutationProbability),
-             new ConstantGenerator<Integer>(1));
+        this(new ConstantProbabilityGenerator(mutationProbability),
+             new ConstantIntGenerator(1));
     }
 
 
@@ -58,6 +63,22 @@ public class BitStringMutation implements EvolutionaryOperator<BitString>
      */
     public BitStringMutation(NumberGenerator<Probability> mutationProbability,
                              NumberGenerator<Integer> mutationCount)
+    {
+        this(ProbabilityGeneratorAdapter.adapt(mutationProbability),
+             IntGeneratorAdapter.adapt(mutationCount));
+    }
+
+
+    /**
+     * Creates a mutation operator from primitive parameter generators, which avoid
+     * boxing when the parameters are consulted for each candidate.
+     * @param mutationProbability The (possibly variable) probability of a candidate
+     * bit string being mutated at all.
+     * @param mutationCount The (possibly variable) number of bits that will be flipped
+     * on any candidate bit string that is selected for mutation.
+     */
+    public BitStringMutation(ProbabilityGenerator mutationProbability,
+                             IntGenerator mutationCount)
     {
         this.mutationProbability = mutationProbability;
         this.mutationCount = mutationCount;
@@ -85,10 +106,10 @@ public class BitStringMutation implements EvolutionaryOperator<BitString>
      */
     private BitString mutateBitString(BitString bitString, Random rng)
     {
-        if (mutationProbability.nextValue().nextEvent(rng))
+        if (mutationProbability.nextEvent(rng))
         {
             BitString mutatedBitString = bitString.clone();
-            int mutations = mutationCount.nextValue();
+            int mutations = mutationCount.nextInt();
             for (int i = 0; i < mutations; i++)
             {
                 mutatedBitString.flipBit(rng.nextInt(mutatedBitString.getLength()));
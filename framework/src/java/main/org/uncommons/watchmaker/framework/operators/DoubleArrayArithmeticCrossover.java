@@ -0,0 +1,84 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Whole arithmetic cross-over for real-valued candidates.  A single weight,
+ * {@code w}, is drawn uniformly from [0, 1) for each pair of parents.  The first
+ * offspring is {@code w * parent1 + (1 - w) * parent2} and the second is
+ * {@code (1 - w) * parent1 + w * parent2}.  Both offspring lie on the line between
+ * the parents, so they are always within any convex bounds that the parents satisfy.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayArithmeticCrossover extends AbstractDoubleArrayCrossover
+{
+    /**
+     * Creates an arithmetic cross-over that is applied to all parents.
+     */
+    public DoubleArrayArithmeticCrossover()
+    {
+        this(Probability.ONE);
+    }
+
+
+    /**
+     * @param crossoverProbability The probability that, once selected,
+     * a pair of parents will be subjected to cross-over rather than
+     * being copied, unchanged, into the output population.
+     */
+    public DoubleArrayArithmeticCrossover(Probability crossoverProbability)
+    {
+        this(new ConstantGenerator<Probability>(crossoverProbability));
+    }
+
+
+    /**
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over rather
+     * than being copied, unchanged, into the output population.
+     */
+    public DoubleArrayArithmeticCrossover(NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(crossoverProbabilityVariable, DoubleArrayBounds.UNBOUNDED);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void crossover(double[] parent1,
+                          double[] parent2,
+                          double[] offspring1,
+                          double[] offspring2,
+                          Random rng)
+    {
+        checkLengths(parent1, parent2, offspring1, offspring2);
+        double weight = rng.nextDouble();
+        for (int i = 0; i < parent1.length; i++)
+        {
+            double gene1 = parent1[i];
+            double gene2 = parent2[i];
+            offspring1[i] = weight * gene1 + (1 - weight) * gene2;
+            offspring2[i] = (1 - weight) * gene1 + weight * gene2;
+        }
+    }
+}
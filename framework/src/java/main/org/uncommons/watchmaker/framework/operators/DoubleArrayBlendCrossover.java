@@ -0,0 +1,98 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Blend cross-over (BLX-&alpha;) for real-valued candidates.  Each offspring gene
+ * is drawn uniformly from the interval spanned by the two parent genes, extended
+ * on both sides by &alpha; times the distance between them, and is then clamped
+ * to the bounds.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayBlendCrossover extends AbstractDoubleArrayCrossover
+{
+    private final double alpha;
+
+    /**
+     * Creates an unbounded blend cross-over with &alpha; = 0.5, applied to all parents.
+     */
+    public DoubleArrayBlendCrossover()
+    {
+        this(0.5, DoubleArrayBounds.UNBOUNDED);
+    }
+
+
+    /**
+     * Creates a blend cross-over that is applied to all parents.
+     * @param alpha The proportion of the distance between the parent genes by
+     * which the sampling interval is extended on each side.
+     * @param bounds The limits that offspring genes are clamped to.
+     */
+    public DoubleArrayBlendCrossover(double alpha, DoubleArrayBounds bounds)
+    {
+        this(alpha, bounds, new ConstantGenerator<Probability>(Probability.ONE));
+    }
+
+
+    /**
+     * @param alpha The proportion of the distance between the parent genes by
+     * which the sampling interval is extended on each side.
+     * @param bounds The limits that offspring genes are clamped to.
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over rather
+     * than being copied, unchanged, into the output population.
+     */
+    public DoubleArrayBlendCrossover(double alpha,
+                                     DoubleArrayBounds bounds,
+                                     NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(crossoverProbabilityVariable, bounds);
+        if (alpha < 0)
+        {
+            throw new IllegalArgumentException("Alpha must not be negative.");
+        }
+        this.alpha = alpha;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void crossover(double[] parent1,
+                          double[] parent2,
+                          double[] offspring1,
+                          double[] offspring2,
+                          Random rng)
+    {
+        checkLengths(parent1, parent2, offspring1, offspring2);
+        DoubleArrayBounds bounds = getBounds();
+        for (int i = 0; i < parent1.length; i++)
+        {
+            double lower = Math.min(parent1[i], parent2[i]);
+            double range = Math.abs(parent1[i] - parent2[i]);
+            lower -= alpha * range;
+            range *= 1 + 2 * alpha;
+            offspring1[i] = bounds.clamp(i, lower + rng.nextDouble() * range);
+            offspring2[i] = bounds.clamp(i, lower + rng.nextDouble() * range);
+        }
+    }
+}
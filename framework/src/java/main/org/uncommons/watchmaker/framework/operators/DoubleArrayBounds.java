@@ -0,0 +1,125 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+/**
+ * Lower and upper limits for the genes of real-valued ({@code double[]}) candidates.
+ * The limits can either be the same for every gene, or specified separately for
+ * each position.  Bounds are shared by the real-valued candidate factory and the
+ * operators that need to keep offspring within the feasible region.
+ * @author Daniel Dyer
+ */
+public final class DoubleArrayBounds
+{
+    /**
+     * Bounds that permit any value for any gene.
+     */
+    public static final DoubleArrayBounds UNBOUNDED = new DoubleArrayBounds(Double.NEGATIVE_INFINITY,
+                                                                            Double.POSITIVE_INFINITY);
+
+    private final double minimum;
+    private final double maximum;
+    private final double[] minima;
+    private final double[] maxima;
+
+    /**
+     * Creates bounds that are the same for every gene, whatever the length of the
+     * candidates.
+     * @param minimum The lowest permitted value of any gene.
+     * @param maximum The highest permitted value of any gene.
+     */
+    public DoubleArrayBounds(double minimum, double maximum)
+    {
+        if (!(minimum <= maximum))
+        {
+            throw new IllegalArgumentException("Minimum must not be greater than maximum.");
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.minima = null;
+        this.maxima = null;
+    }
+
+
+    /**
+     * Creates bounds that can be different for each gene.
+     * @param minima The lowest permitted value of each gene.
+     * @param maxima The highest permitted value of each gene.
+     */
+    public DoubleArrayBounds(double[] minima, double[] maxima)
+    {
+        if (minima.length != maxima.length)
+        {
+            throw new IllegalArgumentException("Minima and maxima must be the same length.");
+        }
+        for (int i = 0; i < minima.length; i++)
+        {
+            if (!(minima[i] <= maxima[i]))
+            {
+                throw new IllegalArgumentException("Minimum must not be greater than maximum at index " + i);
+            }
+        }
+        this.minimum = Double.NaN;
+        this.maximum = Double.NaN;
+        this.minima = minima.clone();
+        this.maxima = maxima.clone();
+    }
+
+
+    /**
+     * @param index The position of a gene.
+     * @return The lowest permitted value at that position.
+     */
+    public double getMinimum(int index)
+    {
+        return minima == null ? minimum : minima[index];
+    }
+
+
+    /**
+     * @param index The position of a gene.
+     * @return The highest permitted value at that position.
+     */
+    public double getMaximum(int index)
+    {
+        return maxima == null ? maximum : maxima[index];
+    }
+
+
+    /**
+     * @param index The position of a gene.
+     * @param value A candidate value for that gene.
+     * @return The value, moved to the nearest bound if it lies outside of them.
+     */
+    public double clamp(int index, double value)
+    {
+        return Math.max(getMinimum(index), Math.min(getMaximum(index), value));
+    }
+
+
+    /**
+     * Checks that these bounds can be applied to candidates of the specified length.
+     * Uniform bounds can be applied to candidates of any length.
+     * @param length The length of a candidate.
+     */
+    public void checkLength(int length)
+    {
+        if (minima != null && minima.length != length)
+        {
+            throw new IllegalArgumentException("Bounds are for length " + minima.length + ", not " + length);
+        }
+    }
+}
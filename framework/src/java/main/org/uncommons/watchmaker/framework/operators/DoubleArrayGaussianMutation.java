@@ -0,0 +1,83 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Mutation of real-valued candidates that adds normally-distributed noise, with
+ * a mean of zero and a fixed standard deviation, to each mutated gene.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayGaussianMutation extends AbstractDoubleArrayMutation
+{
+    private final double standardDeviation;
+
+    /**
+     * Creates an unbounded Gaussian mutation.
+     * @param mutationProbability The probability that any given gene will be mutated.
+     * @param standardDeviation The standard deviation of the noise added to mutated genes.
+     */
+    public DoubleArrayGaussianMutation(Probability mutationProbability, double standardDeviation)
+    {
+        this(mutationProbability, standardDeviation, DoubleArrayBounds.UNBOUNDED);
+    }
+
+
+    /**
+     * @param mutationProbability The probability that any given gene will be mutated.
+     * @param standardDeviation The standard deviation of the noise added to mutated genes.
+     * @param bounds The limits that mutated genes are clamped to.
+     */
+    public DoubleArrayGaussianMutation(Probability mutationProbability,
+                                       double standardDeviation,
+                                       DoubleArrayBounds bounds)
+    {
+        this(new ConstantGenerator<Probability>(mutationProbability), standardDeviation, bounds);
+    }
+
+
+    /**
+     * @param mutationProbability A variable that provides, for each candidate, the
+     * probability that any given gene of that candidate will be mutated.
+     * @param standardDeviation The standard deviation of the noise added to mutated genes.
+     * @param bounds The limits that mutated genes are clamped to.
+     */
+    public DoubleArrayGaussianMutation(NumberGenerator<Probability> mutationProbability,
+                                       double standardDeviation,
+                                       DoubleArrayBounds bounds)
+    {
+        super(mutationProbability, bounds);
+        if (standardDeviation <= 0)
+        {
+            throw new IllegalArgumentException("Standard deviation must be positive.");
+        }
+        this.standardDeviation = standardDeviation;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double mutateGene(double value, int index, Random rng)
+    {
+        return value + rng.nextGaussian() * standardDeviation;
+    }
+}
@@ -0,0 +1,103 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Polynomial mutation for real-valued candidates, as described by Deb and Goyal.
+ * The perturbation of each mutated gene is drawn from a polynomial distribution
+ * that is scaled to the distance to the bounds, so mutated genes always remain
+ * within the bounds.  Larger values of the distribution index produce smaller
+ * perturbations.  The bounds must be finite.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayPolynomialMutation extends AbstractDoubleArrayMutation
+{
+    private final double distributionIndex;
+
+    /**
+     * @param mutationProbability The probability that any given gene will be mutated.
+     * Typically this is one divided by the number of genes.
+     * @param distributionIndex The non-negative distribution index (typically
+     * between 20 and 100).
+     * @param bounds The finite limits of each gene.
+     */
+    public DoubleArrayPolynomialMutation(Probability mutationProbability,
+                                         double distributionIndex,
+                                         DoubleArrayBounds bounds)
+    {
+        this(new ConstantGenerator<Probability>(mutationProbability), distributionIndex, bounds);
+    }
+
+
+    /**
+     * @param mutationProbability A variable that provides, for each candidate, the
+     * probability that any given gene of that candidate will be mutated.
+     * @param distributionIndex The non-negative distribution index (typically
+     * between 20 and 100).
+     * @param bounds The finite limits of each gene.
+     */
+    public DoubleArrayPolynomialMutation(NumberGenerator<Probability> mutationProbability,
+                                         double distributionIndex,
+                                         DoubleArrayBounds bounds)
+    {
+        super(mutationProbability, bounds);
+        if (distributionIndex < 0)
+        {
+            throw new IllegalArgumentException("Distribution index must not be negative.");
+        }
+        this.distributionIndex = distributionIndex;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double mutateGene(double value, int index, Random rng)
+    {
+        double minimum = getBounds().getMinimum(index);
+        double range = getBounds().getMaximum(index) - minimum;
+        if (Double.isInfinite(range))
+        {
+            throw new IllegalArgumentException("Polynomial mutation requires finite bounds.");
+        }
+        if (range <= 0)
+        {
+            return value;
+        }
+        double delta1 = (value - minimum) / range;
+        double delta2 = 1 - delta1;
+        double exponent = 1 / (distributionIndex + 1);
+        double u = rng.nextDouble();
+        double deltaQ;
+        if (u < 0.5)
+        {
+            double v = 2 * u + (1 - 2 * u) * Math.pow(1 - delta1, distributionIndex + 1);
+            deltaQ = Math.pow(v, exponent) - 1;
+        }
+        else
+        {
+            double v = 2 * (1 - u) + 2 * (u - 0.5) * Math.pow(1 - delta2, distributionIndex + 1);
+            deltaQ = 1 - Math.pow(v, exponent);
+        }
+        return value + deltaQ * range;
+    }
+}
@@ -0,0 +1,94 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Simulated binary cross-over (SBX) for real-valued candidates, as described by
+ * Deb and Agrawal.  For each gene, a spread factor is drawn from a polynomial
+ * distribution and the two offspring genes are placed symmetrically about the
+ * mean of the parent genes.  Larger values of the distribution index produce
+ * offspring that are closer to their parents.  Offspring genes are clamped to the
+ * bounds.
+ * @author Daniel Dyer
+ */
+public class DoubleArraySBXCrossover extends AbstractDoubleArrayCrossover
+{
+    private final double distributionIndex;
+
+    /**
+     * Creates an SBX cross-over that is applied to all parents.
+     * @param distributionIndex The non-negative distribution index (typically
+     * between 2 and 20).
+     * @param bounds The limits that offspring genes are clamped to.
+     */
+    public DoubleArraySBXCrossover(double distributionIndex, DoubleArrayBounds bounds)
+    {
+        this(distributionIndex, bounds, new ConstantGenerator<Probability>(Probability.ONE));
+    }
+
+
+    /**
+     * @param distributionIndex The non-negative distribution index (typically
+     * between 2 and 20).
+     * @param bounds The limits that offspring genes are clamped to.
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over rather
+     * than being copied, unchanged, into the output population.
+     */
+    public DoubleArraySBXCrossover(double distributionIndex,
+                                   DoubleArrayBounds bounds,
+                                   NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(crossoverProbabilityVariable, bounds);
+        if (distributionIndex < 0)
+        {
+            throw new IllegalArgumentException("Distribution index must not be negative.");
+        }
+        this.distributionIndex = distributionIndex;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void crossover(double[] parent1,
+                          double[] parent2,
+                          double[] offspring1,
+                          double[] offspring2,
+                          Random rng)
+    {
+        checkLengths(parent1, parent2, offspring1, offspring2);
+        DoubleArrayBounds bounds = getBounds();
+        double exponent = 1 / (distributionIndex + 1);
+        for (int i = 0; i < parent1.length; i++)
+        {
+            double gene1 = parent1[i];
+            double gene2 = parent2[i];
+            double u = rng.nextDouble();
+            double beta = u <= 0.5
+                          ? Math.pow(2 * u, exponent)
+                          : Math.pow(1 / (2 * (1 - u)), exponent);
+            offspring1[i] = bounds.clamp(i, 0.5 * ((1 + beta) * gene1 + (1 - beta) * gene2));
+            offspring2[i] = bounds.clamp(i, 0.5 * ((1 - beta) * gene1 + (1 + beta) * gene2));
+        }
+    }
+}
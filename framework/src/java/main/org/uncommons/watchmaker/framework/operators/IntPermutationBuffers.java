@@ -0,0 +1,148 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread scratch arrays shared by the int-permutation operators.  Operators
+ * may be applied concurrently from several threads, so each thread gets its own
+ * set of buffers, which grow as required and are then re-used for every
+ * subsequent operation instead of allocating position maps for each one.
+ * @author Daniel Dyer
+ */
+final class IntPermutationBuffers
+{
+    private static final ThreadLocal<IntPermutationBuffers> BUFFERS = new ThreadLocal<IntPermutationBuffers>()
+    {
+        @Override
+        protected IntPermutationBuffers initialValue()
+        {
+            return new IntPermutationBuffers();
+        }
+    };
+
+    private int[] positions = new int[0];
+    private int[] marks = new int[0];
+    private int[] adjacency = new int[0];
+    private int[] counts = new int[0];
+    private int[] pool = new int[0];
+    private int stamp = 0;
+
+
+    private IntPermutationBuffers()
+    {
+        // Only accessed via the get() method.
+    }
+
+
+    /**
+     * @param length The length of the permutations that are to be processed.
+     * @return The buffers for the calling thread, with capacity for
+     * permutations of at least the specified length.
+     */
+    static IntPermutationBuffers get(int length)
+    {
+        IntPermutationBuffers buffers = BUFFERS.get();
+        if (buffers.positions.length < length)
+        {
+            buffers.positions = new int[length];
+            buffers.marks = new int[length];
+            buffers.counts = new int[length];
+            buffers.pool = new int[length];
+            buffers.stamp = 0;
+        }
+        return buffers;
+    }
+
+
+    /**
+     * @return An array that can be used to record the index of each element
+     * in a permutation.
+     */
+    int[] getPositions()
+    {
+        return positions;
+    }
+
+
+    /**
+     * @return An array of per-element counts.
+     */
+    int[] getCounts()
+    {
+        return counts;
+    }
+
+
+    /**
+     * @return A general-purpose array of the same capacity as the positions array.
+     */
+    int[] getPool()
+    {
+        return pool;
+    }
+
+
+    /**
+     * @param length The number of elements in the permutation.
+     * @param degree The maximum number of entries recorded per element.
+     * @return An array with room for {@code degree} entries per element.
+     */
+    int[] getAdjacency(int length, int degree)
+    {
+        if (adjacency.length < length * degree)
+        {
+            adjacency = new int[length * degree];
+        }
+        return adjacency;
+    }
+
+
+    /**
+     * Unmarks every element without touching the marks array, by moving on to
+     * a new stamp value.  The array is only cleared when the stamp wraps around.
+     */
+    void clearMarks()
+    {
+        ++stamp;
+        if (stamp == 0)
+        {
+            Arrays.fill(marks, 0);
+            stamp = 1;
+        }
+    }
+
+
+    /**
+     * @param index The element or position to mark.
+     */
+    void mark(int index)
+    {
+        marks[index] = stamp;
+    }
+
+
+    /**
+     * @param index The element or position to check.
+     * @return True if the element has been marked since the last call to
+     * {@link #clearMarks()}.
+     */
+    boolean isMarked(int index)
+    {
+        return marks[index] == stamp;
+    }
+}
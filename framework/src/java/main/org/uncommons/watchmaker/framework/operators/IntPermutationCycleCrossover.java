@@ -0,0 +1,116 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Cycle Cross-over (CX) for permutations of the integers 0 to n-1 stored as
+ * primitive {@code int} arrays.  The positions are partitioned into cycles using
+ * an index of where each element occurs in the first parent.  Alternate cycles
+ * are copied from alternate parents, so every element of each offspring keeps
+ * the absolute position it had in one of its parents.  Cycle cross-over has no
+ * cross-over points; the offspring are fully determined by the parents.
+ * @author Daniel Dyer
+ */
+public class IntPermutationCycleCrossover extends AbstractCrossover<int[]>
+{
+    /**
+     * Creates a cross-over operator with a cross-over probability of 1.
+     */
+    public IntPermutationCycleCrossover()
+    {
+        this(Probability.ONE);
+    }
+
+
+    /**
+     * Creates a cross-over operator with the specified cross-over probability.
+     * @param crossoverProbability The probability that cross-over will be performed
+     * for any given pair.
+     */
+    public IntPermutationCycleCrossover(Probability crossoverProbability)
+    {
+        super(1, // Cross-over points are not used by this operator.
+              crossoverProbability);
+    }
+
+
+    /**
+     * Creates a cross-over operator where cross-over may or may not be applied to a
+     * given pair of parents depending on the {@code crossoverProbability}.
+     * @param crossoverProbabilityVariable The probability that, once selected,
+     * a pair of parents will be subjected to cross-over rather than
+     * being copied, unchanged, into the output population.
+     */
+    public IntPermutationCycleCrossover(NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(new ConstantGenerator<Integer>(1), // Cross-over points are not used by this operator.
+              crossoverProbabilityVariable);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<int[]> mate(int[] parent1,
+                               int[] parent2,
+                               int numberOfCrossoverPoints,
+                               Random rng)
+    {
+        if (parent1.length != parent2.length)
+        {
+            throw new IllegalArgumentException("Cannot perform cross-over with different length parents.");
+        }
+
+        int length = parent1.length;
+        IntPermutationBuffers buffers = IntPermutationBuffers.get(length);
+        int[] positions = buffers.getPositions();
+        for (int i = 0; i < length; i++)
+        {
+            positions[parent1[i]] = i;
+        }
+        int[] offspring1 = new int[length];
+        int[] offspring2 = new int[length];
+        buffers.clearMarks();
+        boolean swap = false;
+        for (int start = 0; start < length; start++)
+        {
+            if (!buffers.isMarked(start))
+            {
+                int index = start;
+                do
+                {
+                    buffers.mark(index);
+                    offspring1[index] = swap ? parent2[index] : parent1[index];
+                    offspring2[index] = swap ? parent1[index] : parent2[index];
+                    index = positions[parent2[index]];
+                } while (index != start);
+                swap = !swap;
+            }
+        }
+        List<int[]> result = new ArrayList<int[]>(2);
+        result.add(offspring1);
+        result.add(offspring2);
+        return result;
+    }
+}
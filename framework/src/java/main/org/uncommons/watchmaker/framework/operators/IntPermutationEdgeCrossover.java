@@ -0,0 +1,223 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Edge Recombination Cross-over (ERX) for permutations of the integers 0 to n-1
+ * stored as primitive {@code int} arrays.  This operator is intended for problems
+ * such as the travelling salesman where adjacency, rather than absolute position,
+ * is what matters.  Each offspring is built by repeatedly moving to the neighbour
+ * (in either parent) of the current element that has the fewest remaining
+ * neighbours of its own.  The edge table is a flat per-thread array with room for
+ * the four possible neighbours of each element, so no collections are allocated.
+ * @author Daniel Dyer
+ */
+public class IntPermutationEdgeCrossover extends AbstractCrossover<int[]>
+{
+    /**
+     * Each element has at most two neighbours in each parent.
+     */
+    private static final int MAX_NEIGHBOURS = 4;
+
+    /**
+     * Creates a cross-over operator with a cross-over probability of 1.
+     */
+    public IntPermutationEdgeCrossover()
+    {
+        this(Probability.ONE);
+    }
+
+
+    /**
+     * Creates a cross-over operator with the specified cross-over probability.
+     * @param crossoverProbability The probability that cross-over will be performed
+     * for any given pair.
+     */
+    public IntPermutationEdgeCrossover(Probability crossoverProbability)
+    {
+        super(1, // Cross-over points are not used by this operator.
+              crossoverProbability);
+    }
+
+
+    /**
+     * Creates a cross-over operator where cross-over may or may not be applied to a
+     * given pair of parents depending on the {@code crossoverProbability}.
+     * @param crossoverProbabilityVariable The probability that, once selected,
+     * a pair of parents will be subjected to cross-over rather than
+     * being copied, unchanged, into the output population.
+     */
+    public IntPermutationEdgeCrossover(NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(new ConstantGenerator<Integer>(1), // Cross-over points are not used by this operator.
+              crossoverProbabilityVariable);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<int[]> mate(int[] parent1,
+                               int[] parent2,
+                               int numberOfCrossoverPoints,
+                               Random rng)
+    {
+        if (parent1.length != parent2.length)
+        {
+            throw new IllegalArgumentException("Cannot perform cross-over with different length parents.");
+        }
+
+        List<int[]> result = new ArrayList<int[]>(2);
+        IntPermutationBuffers buffers = IntPermutationBuffers.get(parent1.length);
+        result.add(recombine(parent1, parent2, rng, buffers));
+        result.add(recombine(parent2, parent1, rng, buffers));
+        return result;
+    }
+
+
+    private int[] recombine(int[] parent1, int[] parent2, Random rng, IntPermutationBuffers buffers)
+    {
+        int length = parent1.length;
+        int[] edges = buffers.getAdjacency(length, MAX_NEIGHBOURS);
+        int[] counts = buffers.getCounts();
+        // The unvisited elements are kept in an unordered pool with their indices
+        // in the positions array so that any element can be removed in constant time.
+        int[] pool = buffers.getPool();
+        int[] positions = buffers.getPositions();
+        for (int i = 0; i < length; i++)
+        {
+            counts[i] = 0;
+            pool[i] = i;
+            positions[i] = i;
+        }
+        addEdges(parent1, edges, counts);
+        addEdges(parent2, edges, counts);
+
+        int[] offspring = new int[length];
+        int poolSize = length;
+        int current = parent1[0];
+        for (int i = 0; i < length; i++)
+        {
+            offspring[i] = current;
+            // Remove the current element from the pool of candidates.
+            int last = pool[--poolSize];
+            pool[positions[current]] = last;
+            positions[last] = positions[current];
+            // Remove the current element from the edge lists of its neighbours.
+            int base = current * MAX_NEIGHBOURS;
+            for (int j = 0; j < counts[current]; j++)
+            {
+                removeEdge(edges[base + j], current, edges, counts);
+            }
+            if (poolSize > 0)
+            {
+                current = selectNext(current, edges, counts, rng);
+                if (current < 0)
+                {
+                    // Dead end, no unvisited neighbours so pick any remaining element.
+                    current = pool[rng.nextInt(poolSize)];
+                }
+            }
+        }
+        return offspring;
+    }
+
+
+    /**
+     * Records the (undirected, cyclic) edges of the parent in the edge table,
+     * ignoring edges that have already been recorded from the other parent.
+     */
+    private void addEdges(int[] parent, int[] edges, int[] counts)
+    {
+        int length = parent.length;
+        for (int i = 0; i < length; i++)
+        {
+            int element = parent[i];
+            addEdge(element, parent[(i + 1) % length], edges, counts);
+            addEdge(element, parent[(i + length - 1) % length], edges, counts);
+        }
+    }
+
+
+    private void addEdge(int from, int to, int[] edges, int[] counts)
+    {
+        int base = from * MAX_NEIGHBOURS;
+        for (int j = 0; j < counts[from]; j++)
+        {
+            if (edges[base + j] == to)
+            {
+                return;
+            }
+        }
+        if (from != to) // Single-element permutations have no edges.
+        {
+            edges[base + counts[from]] = to;
+            ++counts[from];
+        }
+    }
+
+
+    private void removeEdge(int from, int to, int[] edges, int[] counts)
+    {
+        int base = from * MAX_NEIGHBOURS;
+        for (int j = 0; j < counts[from]; j++)
+        {
+            if (edges[base + j] == to)
+            {
+                --counts[from];
+                edges[base + j] = edges[base + counts[from]];
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * @return The unvisited neighbour of the current element that has the
+     * fewest unvisited neighbours itself, with ties broken randomly, or -1
+     * if there are no unvisited neighbours.
+     */
+    private int selectNext(int current, int[] edges, int[] counts, Random rng)
+    {
+        int base = current * MAX_NEIGHBOURS;
+        int next = -1;
+        int fewest = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int j = 0; j < counts[current]; j++)
+        {
+            int neighbour = edges[base + j];
+            if (counts[neighbour] < fewest)
+            {
+                fewest = counts[neighbour];
+                next = neighbour;
+                ties = 1;
+            }
+            else if (counts[neighbour] == fewest && rng.nextInt(++ties) == 0)
+            {
+                next = neighbour;
+            }
+        }
+        return next;
+    }
+}
@@ -0,0 +1,82 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+
+/**
+ * Mutation for permutations stored as primitive {@code int} arrays that
+ * removes a randomly-selected element and re-inserts it at another random
+ * position, shifting the elements in between by one place.
+ * @author Daniel Dyer
+ */
+public class IntPermutationInsertMutation extends AbstractIntPermutationMutation
+{
+    /**
+     * Default is one mutation per candidate.
+     */
+    public IntPermutationInsertMutation()
+    {
+        this(1);
+    }
+
+
+    /**
+     * @param mutationCount The constant number of mutations
+     * to apply to each individual in the population.
+     */
+    public IntPermutationInsertMutation(int mutationCount)
+    {
+        super(mutationCount);
+    }
+
+
+    /**
+     * Typically the mutation count will be from a Poisson distribution.
+     * @param mutationCount A random variable that provides a number
+     * of mutations that will be applied to each individual.
+     */
+    public IntPermutationInsertMutation(NumberGenerator<Integer> mutationCount)
+    {
+        super(mutationCount);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void mutate(int[] candidate, Random rng)
+    {
+        int from = rng.nextInt(candidate.length);
+        int to = rng.nextInt(candidate.length - 1);
+        if (to >= from)
+        {
+            ++to; // Ensure that the element actually moves.
+        }
+        int element = candidate[from];
+        if (from < to)
+        {
+            System.arraycopy(candidate, from + 1, candidate, from, to - from);
+        }
+        else
+        {
+            System.arraycopy(candidate, to, candidate, to + 1, from - to);
+        }
+        candidate[to] = element;
+    }
+}
@@ -0,0 +1,130 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+
+/**
+ * Order Cross-over (OX) for permutations of the integers 0 to n-1 stored as
+ * primitive {@code int} arrays.  Each offspring inherits a randomly-chosen segment
+ * from one parent and the remaining elements in the relative order in which they
+ * appear in the other parent, starting after the end of the segment.  Elements
+ * already copied are tracked in a re-usable per-thread array rather than a set.
+ * @author Daniel Dyer
+ */
+public class IntPermutationOrderCrossover extends AbstractCrossover<int[]>
+{
+    /**
+     * Creates a cross-over operator with a cross-over probability of 1.
+     */
+    public IntPermutationOrderCrossover()
+    {
+        this(Probability.ONE);
+    }
+
+
+    /**
+     * Creates a cross-over operator with the specified cross-over probability.
+     * @param crossoverProbability The probability that cross-over will be performed
+     * for any given pair.
+     */
+    public IntPermutationOrderCrossover(Probability crossoverProbability)
+    {
+        super(2, // Requires exactly two cross-over points.
+              crossoverProbability);
+    }
+
+
+    /**
+     * Creates a cross-over operator where cross-over may or may not be applied to a
+     * given pair of parents depending on the {@code crossoverProbability}.
+     * @param crossoverProbabilityVariable The probability that, once selected,
+     * a pair of parents will be subjected to cross-over rather than
+     * being copied, unchanged, into the output population.
+     */
+    public IntPermutationOrderCrossover(NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(new ConstantGenerator<Integer>(2), // Requires exactly two cross-over points.
+              crossoverProbabilityVariable);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<int[]> mate(int[] parent1,
+                               int[] parent2,
+                               int numberOfCrossoverPoints,
+                               Random rng)
+    {
+        if (parent1.length != parent2.length)
+        {
+            throw new IllegalArgumentException("Cannot perform cross-over with different length parents.");
+        }
+
+        List<int[]> result = new ArrayList<int[]>(2);
+        int length = parent1.length;
+        if (length < 2)
+        {
+            // There is nothing to re-order.
+            result.add(parent1.clone());
+            result.add(parent2.clone());
+            return result;
+        }
+        int point1 = rng.nextInt(length);
+        int segmentLength = rng.nextInt(length - 1) + 1; // Wraps around the end of the array if necessary.
+        IntPermutationBuffers buffers = IntPermutationBuffers.get(length);
+        result.add(orderCrossover(parent1, parent2, point1, segmentLength, buffers));
+        result.add(orderCrossover(parent2, parent1, point1, segmentLength, buffers));
+        return result;
+    }
+
+
+    private int[] orderCrossover(int[] segmentParent,
+                                 int[] orderParent,
+                                 int start,
+                                 int segmentLength,
+                                 IntPermutationBuffers buffers)
+    {
+        int length = segmentParent.length;
+        int[] offspring = new int[length];
+        buffers.clearMarks();
+        for (int i = 0; i < segmentLength; i++)
+        {
+            int index = (start + i) % length;
+            offspring[index] = segmentParent[index];
+            buffers.mark(segmentParent[index]);
+        }
+        int end = start + segmentLength;
+        int next = end % length;
+        for (int i = 0; i < length; i++)
+        {
+            int value = orderParent[(end + i) % length];
+            if (!buffers.isMarked(value))
+            {
+                offspring[next] = value;
+                next = (next + 1) % length;
+            }
+        }
+        return offspring;
+    }
+}
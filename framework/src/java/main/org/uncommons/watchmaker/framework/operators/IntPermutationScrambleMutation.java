@@ -0,0 +1,78 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+
+/**
+ * Mutation for permutations stored as primitive {@code int} arrays that
+ * randomly shuffles the elements of a randomly-selected segment of at least
+ * two elements.  The segment may wrap around the end of the array.
+ * @author Daniel Dyer
+ */
+public class IntPermutationScrambleMutation extends AbstractIntPermutationMutation
+{
+    /**
+     * Default is one mutation per candidate.
+     */
+    public IntPermutationScrambleMutation()
+    {
+        this(1);
+    }
+
+
+    /**
+     * @param mutationCount The constant number of mutations
+     * to apply to each individual in the population.
+     */
+    public IntPermutationScrambleMutation(int mutationCount)
+    {
+        super(mutationCount);
+    }
+
+
+    /**
+     * Typically the mutation count will be from a Poisson distribution.
+     * @param mutationCount A random variable that provides a number
+     * of mutations that will be applied to each individual.
+     */
+    public IntPermutationScrambleMutation(NumberGenerator<Integer> mutationCount)
+    {
+        super(mutationCount);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void mutate(int[] candidate, Random rng)
+    {
+        int length = candidate.length;
+        int start = rng.nextInt(length);
+        int segmentLength = 2 + rng.nextInt(length - 1); // Make sure segment length is at least 2.
+        // Fisher-Yates shuffle of the segment.
+        for (int i = segmentLength - 1; i > 0; i--)
+        {
+            int index1 = (start + i) % length;
+            int index2 = (start + rng.nextInt(i + 1)) % length;
+            int temp = candidate[index1];
+            candidate[index1] = candidate[index2];
+            candidate[index2] = temp;
+        }
+    }
+}
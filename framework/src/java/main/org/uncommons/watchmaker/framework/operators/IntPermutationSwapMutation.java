@@ -0,0 +1,74 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+
+/**
+ * Mutation for permutations stored as primitive {@code int} arrays that
+ * swaps two randomly-selected elements.
+ * @author Daniel Dyer
+ */
+public class IntPermutationSwapMutation extends AbstractIntPermutationMutation
+{
+    /**
+     * Default is one mutation per candidate.
+     */
+    public IntPermutationSwapMutation()
+    {
+        this(1);
+    }
+
+
+    /**
+     * @param mutationCount The constant number of mutations
+     * to apply to each individual in the population.
+     */
+    public IntPermutationSwapMutation(int mutationCount)
+    {
+        super(mutationCount);
+    }
+
+
+    /**
+     * Typically the mutation count will be from a Poisson distribution.
+     * @param mutationCount A random variable that provides a number
+     * of mutations that will be applied to each individual.
+     */
+    public IntPermutationSwapMutation(NumberGenerator<Integer> mutationCount)
+    {
+        super(mutationCount);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void mutate(int[] candidate, Random rng)
+    {
+        int index1 = rng.nextInt(candidate.length);
+        int index2 = rng.nextInt(candidate.length - 1);
+        if (index2 >= index1)
+        {
+            ++index2; // Ensure that the two positions are different.
+        }
+        int temp = candidate[index1];
+        candidate[index1] = candidate[index2];
+        candidate[index2] = temp;
+    }
+}
@@ -20,9 +20,11 @@ import java.util.List;
 import java.util.Random;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
 
 /**
- * Variable-point (fixed or random) cross-over for arbitrary lists.
+ * Variable-point (fixed or random) cross-over for arbitrary lists.  If a parent
+ * is a {@link PersistentVector}, the offspring derived from it is too.
  * @param <T> The component type of the lists that are combined.
  * @author Daniel Dyer
  */
@@ -122,8 +124,10 @@ public class ListCrossover<T> extends AbstractCrossover<List<T>>
             }
         }
         List<List<T>> result = new ArrayList<List<T>>(2);
-        result.add(offspring1);
-        result.add(offspring2);
+        // Preserve the representation of the parents so that later operators can
+        // continue to share structure.
+        result.add(parent1 instanceof PersistentVector ? PersistentVector.copyOf(offspring1) : offspring1);
+        result.add(parent2 instanceof PersistentVector ? PersistentVector.copyOf(offspring2) : offspring2);
         return result;
     }
 }
@@ -23,15 +23,20 @@ import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
 
 /**
  * An evolutionary operator that randomly reverses a subsection of a list.
+ * Candidates that are {@link PersistentVector}s are not copied, the reversal
+ * creates a modified vector that shares most of its structure with the original.
  * @author Daniel Dyer
  * @param <T> The type of entity being evolved.
  */
 public class ListInversion<T> implements EvolutionaryOperator<List<T>>
 {
-    private final NumberGenerator<Probability> inversionProbability;
+    private final ProbabilityGenerator inversionProbability;
 
 
     /**
@@ -50,7 +55,7 @@ public class ListInversion<T> implements EvolutionaryOperator<List<T>>
      */
     public ListInversion(NumberGenerator<Probability> inversionProbability)
     {
-        this.inversionProbability = inversionProbability;
+        this.inversionProbability = ProbabilityGeneratorAdapter.adapt(inversionProbability);
     }
 
 
@@ -59,9 +64,12 @@ public class ListInversion<T> implements EvolutionaryOperator<List<T>>
         List<List<T>> result = new ArrayList<List<T>>(selectedCandidates.size());
         for (List<T> candidate : selectedCandidates)
         {
-            if (inversionProbability.nextValue().nextEvent(rng))
+            if (inversionProbability.nextEvent(rng))
             {
-                List<T> newCandidate = new ArrayList<T>(candidate);
+                // Persistent vectors are immutable, so they need not be copied.
+                List<T> newCandidate = candidate instanceof PersistentVector
+                                       ? candidate
+                                       : new ArrayList<T>(candidate);
                 int length = newCandidate.size();
                 int start = rng.nextInt(length);
                 int offset = 2 + rng.nextInt(length - 2); // Make sure segment length is at least 2.
@@ -73,7 +81,7 @@ public class ListInversion<T> implements EvolutionaryOperator<List<T>>
                 }
                 for (int i = 0; i < segmentLength / 2; i++)
                 {
-                    Collections.swap(newCandidate, (start + i) % length, (end - i + length) % length);
+                    newCandidate = swap(newCandidate, (start + i) % length, (end - i + length) % length);
                 }
                 result.add(newCandidate);
             }
@@ -84,4 +92,19 @@ public class ListInversion<T> implements EvolutionaryOperator<List<T>>
         }
         return result;
     }
+
+
+    /**
+     * Swaps two elements of a mutable list in place or, for a {@link PersistentVector},
+     * returns a modified copy that shares most of its structure with the original.
+     */
+    private List<T> swap(List<T> list, int index1, int index2)
+    {
+        if (list instanceof PersistentVector)
+        {
+            return ((PersistentVector<T>) list).swap(index1, index2);
+        }
+        Collections.swap(list, index1, index2);
+        return list;
+    }
 }
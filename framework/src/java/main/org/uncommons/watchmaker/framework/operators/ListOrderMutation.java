@@ -22,6 +22,9 @@ import java.util.Random;
 import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.collections.PersistentVector;
+import org.uncommons.watchmaker.framework.number.IntGenerator;
+import org.uncommons.watchmaker.framework.number.IntGeneratorAdapter;
 
 /**
  * A special mutation implementation that instead of changing the
@@ -31,14 +34,16 @@ import org.uncommons.watchmaker.framework.EvolutionaryOperator;
  * mutations to each candidate or it can draw values from a random
  * sequence, typically a poisson distribution (see
  * {@link org.uncommons.maths.random.PoissonGenerator}), to determine how
- * many mutations to apply.
+ * many mutations to apply.  Candidates that are {@link PersistentVector}s are
+ * not copied, each swap creates a modified vector that shares most of its
+ * structure with the original.
  * @param <T> The component type of the lists that are mutated.
  * @author Daniel Dyer
  */
 public class ListOrderMutation<T> implements EvolutionaryOperator<List<T>>
 {
-    private final NumberGenerator<Integer> mutationCountVariable;
-    private final NumberGenerator<Integer> mutationAmountVariable;
+    private final IntGenerator mutationCountVariable;
+    private final IntGenerator mutationAmountVariable;
 
     /**
      * Default is one mutation per candidate.
@@ -73,8 +78,8 @@ public class ListOrderMutation<T> implements EvolutionaryOperator<List<T>>
     public ListOrderMutation(NumberGenerator<Integer> mutationCount,
                              NumberGenerator<Integer> mutationAmount)
     {
-        this.mutationCountVariable = mutationCount;
-        this.mutationAmountVariable = mutationAmount;
+        this.mutationCountVariable = IntGeneratorAdapter.adapt(mutationCount);
+        this.mutationAmountVariable = IntGeneratorAdapter.adapt(mutationAmount);
     }
 
 
@@ -83,12 +88,13 @@ public class ListOrderMutation<T> implements EvolutionaryOperator<List<T>>
         List<List<T>> result = new ArrayList<List<T>>(selectedCandidates.size());
         for (List<T> candidate : selectedCandidates)
         {
-            List<T> newCandidate = new ArrayList<T>(candidate);
-            int mutationCount = Math.abs(mutationCountVariable.nextValue());
+            // Persistent vectors are immutable, so they need not be copied.
+            List<T> newCandidate = candidate instanceof PersistentVector ? candidate : new ArrayList<T>(candidate);
+            int mutationCount = Math.abs(mutationCountVariable.nextInt());
             for (int i = 0; i < mutationCount; i++)
             {
                 int fromIndex = rng.nextInt(newCandidate.size());
-                int mutationAmount = mutationAmountVariable.nextValue();
+                int mutationAmount = mutationAmountVariable.nextInt();
                 int toIndex = (fromIndex + mutationAmount) % newCandidate.size();
                 if (toIndex < 0)
                 {
@@ -96,10 +102,25 @@ public class ListOrderMutation<T> implements EvolutionaryOperator<List<T>>
                 }
                 // Swap the randomly selected element with the one that is the
                 // specified displacement distance away.
-                Collections.swap(newCandidate, fromIndex, toIndex);
+                newCandidate = swap(newCandidate, fromIndex, toIndex);
             }
             result.add(newCandidate);
         }
         return result;
     }
+
+
+    /**
+     * Swaps two elements of a mutable list in place or, for a {@link PersistentVector},
+     * returns a modified copy that shares most of its structure with the original.
+     */
+    private List<T> swap(List<T> list, int index1, int index2)
+    {
+        if (list instanceof PersistentVector)
+        {
+            return ((PersistentVector<T>) list).swap(index1, index2);
+        }
+        Collections.swap(list, index1, index2);
+        return list;
+    }
 }
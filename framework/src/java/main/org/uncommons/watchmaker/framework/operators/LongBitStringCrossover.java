@@ -0,0 +1,155 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.binary.LongBitString;
+
+/**
+ * Cross-over with a configurable number of points (fixed or random) for
+ * {@link LongBitString} candidates.  This is the word-parallel equivalent of
+ * {@link BitStringCrossover}.  Rather than swapping one substring per cross-over
+ * point, the sorted cross-over points are converted into a mask for each 64-bit
+ * word and the masked bits are exchanged in a single pass over the parents.
+ * @author Daniel Dyer
+ */
+public class LongBitStringCrossover extends AbstractCrossover<LongBitString>
+{
+    private static final int WORD_LENGTH = 64;
+
+    /**
+     * Default is single-point cross-over, applied to all parents.
+     */
+    public LongBitStringCrossover()
+    {
+        this(1);
+    }
+
+
+    /**
+     * Cross-over with a fixed number of cross-over points.
+     * @param crossoverPoints The constant number of cross-over points
+     * to use for all cross-over operations.
+     */
+    public LongBitStringCrossover(int crossoverPoints)
+    {
+        super(crossoverPoints);
+    }
+
+
+    /**
+     * Cross-over with a fixed number of cross-over points.  Cross-over
+     * may or may not be applied to a given pair of parents depending on
+     * the {@code crossoverProbability}.
+     * @param crossoverPoints The constant number of cross-over points
+     * to use for all cross-over operations.
+     * @param crossoverProbability The probability that, once selected,
+     * a pair of parents will be subjected to cross-over rather than
+     * being copied, unchanged, into the output population.
+     */
+    public LongBitStringCrossover(int crossoverPoints, Probability crossoverProbability)
+    {
+        super(crossoverPoints, crossoverProbability);
+    }
+
+
+    /**
+     * Cross-over with a variable number of cross-over points.
+     * @param crossoverPointsVariable A random variable that provides a number
+     * of cross-over points for each cross-over operation.
+     */
+    public LongBitStringCrossover(NumberGenerator<Integer> crossoverPointsVariable)
+    {
+        super(crossoverPointsVariable);
+    }
+
+
+    /**
+     * Sets up a cross-over implementation that uses a variable number of cross-over
+     * points.  Cross-over is applied to a proportion of selected parent pairs, with
+     * the remainder copied unchanged into the output population.  The size of this
+     * evolved proportion is controlled by the {@code crossoverProbabilityVariable}
+     * parameter.
+     * @param crossoverPointsVariable A variable that provides a (possibly constant,
+     * possibly random) number of cross-over points for each cross-over operation.
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over rather
+     * than being copied, unchanged, into the output population.
+     */
+    public LongBitStringCrossover(NumberGenerator<Integer> crossoverPointsVariable,
+                                  NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(crossoverPointsVariable, crossoverProbabilityVariable);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<LongBitString> mate(LongBitString parent1,
+                                       LongBitString parent2,
+                                       int numberOfCrossoverPoints,
+                                       Random rng)
+    {
+        if (parent1.getLength() != parent2.getLength())
+        {
+            throw new IllegalArgumentException("Cannot perform cross-over with different length parents.");
+        }
+        LongBitString offspring1 = parent1.copy();
+        LongBitString offspring2 = parent2.copy();
+        int length = parent1.getLength();
+        if (length > 1 && numberOfCrossoverPoints > 0)
+        {
+            // Cross-over index is always greater than zero and less than
+            // the length of the parent so that we always pick a point that
+            // will result in a meaningful cross-over.
+            int[] points = new int[numberOfCrossoverPoints];
+            for (int i = 0; i < points.length; i++)
+            {
+                points[i] = 1 + rng.nextInt(length - 1);
+            }
+            Arrays.sort(points);
+            // Each cross-over point toggles whether the bits from that point onwards
+            // are exchanged.  The state at the end of one word carries into the next.
+            int point = 0;
+            long carry = 0;
+            for (int i = 0; i < offspring1.getWordCount(); i++)
+            {
+                long mask = carry;
+                while (point < points.length && points[point] / WORD_LENGTH == i)
+                {
+                    mask ^= -1L << (points[point] % WORD_LENGTH);
+                    ++point;
+                }
+                carry = mask < 0 ? -1L : 0;
+                if (mask != 0)
+                {
+                    offspring1.swapBits(offspring2, i, mask);
+                }
+            }
+        }
+        List<LongBitString> result = new ArrayList<LongBitString>(2);
+        result.add(offspring1);
+        result.add(offspring2);
+        return result;
+    }
+}
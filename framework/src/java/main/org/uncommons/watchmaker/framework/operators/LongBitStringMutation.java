@@ -0,0 +1,179 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.binary.LongBitString;
+import org.uncommons.watchmaker.framework.number.ConstantProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
+
+/**
+ * Mutation of {@link LongBitString} candidates in which every bit is flipped
+ * independently with a given probability.  Rather than testing each bit in turn,
+ * a mask is built for a whole 64-bit word and applied with a single XOR.  The mask
+ * is built from the binary expansion of the probability (to 32 binary places):
+ * starting from the least significant non-zero digit, each digit combines the mask
+ * with a fresh random word, using OR for a 1 and AND for a 0.  This takes at most 32
+ * random words per 64 bits, and far fewer for probabilities with short expansions,
+ * such as one half or one sixteenth.  When fewer than one flip per word is expected,
+ * the positions of the flipped bits are instead found by skip sampling (the gap to
+ * the next flipped bit is drawn from a geometric distribution), so the cost is
+ * proportional to the number of flips rather than the length of the bit string.
+ * Candidates that are not changed are not copied.
+ * @author Daniel Dyer
+ */
+public class LongBitStringMutation implements EvolutionaryOperator<LongBitString>
+{
+    private static final int PRECISION = 32;
+
+    private final ProbabilityGenerator mutationProbability;
+
+    /**
+     * @param mutationProbability The probability that any given bit will be flipped.
+     */
+    public LongBitStringMutation(Probability mutationProbability)
+    {
+        this(new ConstantProbabilityGenerator(mutationProbability));
+    }
+
+
+    /**
+     * @param mutationProbability A variable that provides, for each candidate, the
+     * probability that any given bit of that candidate will be flipped.
+     */
+    public LongBitStringMutation(NumberGenerator<Probability> mutationProbability)
+    {
+        this(ProbabilityGeneratorAdapter.adapt(mutationProbability));
+    }
+
+
+    /**
+     * Creates a mutation operator from a primitive probability generator, which avoids
+     * boxing when the probability is consulted for each candidate.
+     * @param mutationProbability A variable that provides, for each candidate, the
+     * probability that any given bit of that candidate will be flipped.
+     */
+    public LongBitStringMutation(ProbabilityGenerator mutationProbability)
+    {
+        this.mutationProbability = mutationProbability;
+    }
+
+
+    /**
+     * Applies mutation to each of the selected candidates.
+     * @param selectedCandidates The individuals to mutate.
+     * @param rng A source of randomness.
+     * @return The mutated population.
+     */
+    public List<LongBitString> apply(List<LongBitString> selectedCandidates, Random rng)
+    {
+        List<LongBitString> result = new ArrayList<LongBitString>(selectedCandidates.size());
+        for (LongBitString candidate : selectedCandidates)
+        {
+            double probability = mutationProbability.nextProbability();
+            LongBitString mutant = probability * Long.SIZE < 1
+                                   ? mutateSparse(candidate, probability, rng)
+                                   : mutateDense(candidate, probability, rng);
+            result.add(mutant == null ? candidate : mutant);
+        }
+        return result;
+    }
+
+
+    /**
+     * Flips bits chosen by skip sampling.  This is used for low probabilities.
+     * @param candidate The bit string to mutate.
+     * @param probability The probability that any given bit is flipped.
+     * @param rng A source of randomness.
+     * @return The mutated copy of the candidate, or null if no bits were flipped.
+     */
+    private LongBitString mutateSparse(LongBitString candidate, double probability, Random rng)
+    {
+        int index = SkipSampling.nextIndex(-1, probability, rng);
+        if (index >= candidate.getLength())
+        {
+            return null;
+        }
+        LongBitString mutant = candidate.copy();
+        while (index < mutant.getLength())
+        {
+            mutant.flipBit(index);
+            index = SkipSampling.nextIndex(index, probability, rng);
+        }
+        return mutant;
+    }
+
+
+    /**
+     * Flips bits by XOR-ing each word with a random mask.  This is used for high
+     * probabilities.
+     * @param candidate The bit string to mutate.
+     * @param probability The probability that any given bit is flipped.
+     * @param rng A source of randomness.
+     * @return The mutated copy of the candidate, or null if no bits were flipped.
+     */
+    private LongBitString mutateDense(LongBitString candidate, double probability, Random rng)
+    {
+        long threshold = Math.round(probability * (1L << PRECISION));
+        LongBitString mutant = null;
+        for (int i = 0; i < candidate.getWordCount(); i++)
+        {
+            long mask = randomMask(threshold, rng);
+            if (mask != 0)
+            {
+                if (mutant == null)
+                {
+                    mutant = candidate.copy();
+                }
+                mutant.setWord(i, mutant.getWord(i) ^ mask);
+            }
+        }
+        return mutant;
+    }
+
+
+    /**
+     * @param threshold The bit probability as a fixed-point number with
+     * {@link #PRECISION} binary places.
+     * @param rng A source of randomness.
+     * @return A random word in which each bit is independently set with the
+     * specified probability.
+     */
+    static long randomMask(long threshold, Random rng)
+    {
+        if (threshold <= 0)
+        {
+            return 0;
+        }
+        if (threshold >= 1L << PRECISION)
+        {
+            return -1L;
+        }
+        long mask = 0;
+        for (int digit = Long.numberOfTrailingZeros(threshold); digit < PRECISION; digit++)
+        {
+            long random = rng.nextLong();
+            mask = ((threshold >>> digit) & 1) == 0 ? mask & random : mask | random;
+        }
+        return mask;
+    }
+}
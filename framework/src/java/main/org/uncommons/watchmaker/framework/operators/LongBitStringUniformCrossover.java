@@ -0,0 +1,93 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.binary.LongBitString;
+
+/**
+ * Uniform cross-over for {@link LongBitString} candidates.  Each bit is exchanged
+ * between the parents with a probability of one half.  A single random {@code long}
+ * provides the exchange mask for 64 bits at once.
+ * @author Daniel Dyer
+ */
+public class LongBitStringUniformCrossover extends AbstractCrossover<LongBitString>
+{
+    /**
+     * Creates a cross-over operator with a cross-over probability of 1.
+     */
+    public LongBitStringUniformCrossover()
+    {
+        this(Probability.ONE);
+    }
+
+
+    /**
+     * Creates a cross-over operator with the specified cross-over probability.
+     * @param crossoverProbability The probability that cross-over will be performed
+     * for any given pair.
+     */
+    public LongBitStringUniformCrossover(Probability crossoverProbability)
+    {
+        super(1, // Cross-over points are not used by this operator.
+              crossoverProbability);
+    }
+
+
+    /**
+     * Creates a cross-over operator where cross-over may or may not be applied to a
+     * given pair of parents depending on the {@code crossoverProbability}.
+     * @param crossoverProbabilityVariable The probability that, once selected,
+     * a pair of parents will be subjected to cross-over rather than
+     * being copied, unchanged, into the output population.
+     */
+    public LongBitStringUniformCrossover(NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        super(new ConstantGenerator<Integer>(1), // Cross-over points are not used by this operator.
+              crossoverProbabilityVariable);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<LongBitString> mate(LongBitString parent1,
+                                       LongBitString parent2,
+                                       int numberOfCrossoverPoints,
+                                       Random rng)
+    {
+        if (parent1.getLength() != parent2.getLength())
+        {
+            throw new IllegalArgumentException("Cannot perform cross-over with different length parents.");
+        }
+        LongBitString offspring1 = parent1.copy();
+        LongBitString offspring2 = parent2.copy();
+        for (int i = 0; i < offspring1.getWordCount(); i++)
+        {
+            offspring1.swapBits(offspring2, i, rng.nextLong());
+        }
+        List<LongBitString> result = new ArrayList<LongBitString>(2);
+        result.add(offspring1);
+        result.add(offspring2);
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.binary.PackedBitStringPopulation;
+import org.uncommons.watchmaker.framework.number.ConstantIntGenerator;
+import org.uncommons.watchmaker.framework.number.ConstantProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.IntGenerator;
+import org.uncommons.watchmaker.framework.number.IntGeneratorAdapter;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
+
+/**
+ * Equivalent of {@link BitStringCrossover} for populations held in a
+ * {@link PackedBitStringPopulation}.  Adjacent pairs of individuals are replaced,
+ * in place, by their offspring.  Bits are exchanged a whole word at a time rather
+ * than bit by bit.  Since there is no shuffling step (unlike {@link AbstractCrossover}),
+ * the range should be populated in random order, which is the case when it has been
+ * filled by tournament selection (see
+ * {@link PackedBitStringPopulation#select(org.uncommons.watchmaker.framework.selection.IndexedSelectionStrategy,
+ * boolean, PackedBitStringPopulation, int, int, java.util.Random)}).
+ * @author Daniel Dyer
+ */
+public class PackedBitStringCrossover
+{
+    private final IntGenerator crossoverPointsVariable;
+    private final ProbabilityGenerator crossoverProbabilityVariable;
+
+
+    /**
+     * Default is single-point cross-over, applied to all parents.
+     */
+    public PackedBitStringCrossover()
+    {
+        this(1);
+    }
+
+
+    /**
+     * Cross-over with a fixed number of cross-over points.
+     * @param crossoverPoints The constant number of cross-over points
+     * to use for all cross-over operations.
+     */
+    public PackedBitStringCrossover(int crossoverPoints)
+    {
+        this(crossoverPoints, Probability.ONE);
+    }
+
+
+    /**
+     * Cross-over with a fixed number of cross-over points.  Cross-over
+     * may or may not be applied to a given pair of parents depending on
+     * the {@code crossoverProbability}.
+     * @param crossoverPoints The constant number of cross-over points
+     * to use for all cross-over operations.
+     * @param crossoverProbability The probability that, once selected,
+     * a pair of parents will be subjected to cross-over rather than
+     * being left unchanged.
+     */
+    public PackedBitStringCrossover(int crossoverPoints, Probability crossoverProbability)
+    {
+        this(new ConstantIntGenerator(crossoverPoints),
+             new ConstantProbabilityGenerator(crossoverProbability));
+        if (crossoverPoints <= 0)
+        {
+            throw new IllegalArgumentException("Number of cross-over points must be positive.");
+        }
+    }
+
+
+    /**
+     * Cross-over with a variable number of cross-over points, applied to a
+     * variable proportion of parent pairs.
+     * @param crossoverPointsVariable A variable that provides a (possibly constant,
+     * possibly random) number of cross-over points for each cross-over operation.
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over rather
+     * than being left unchanged.
+     */
+    public PackedBitStringCrossover(NumberGenerator<Integer> crossoverPointsVariable,
+                                    NumberGenerator<Probability> crossoverProbabilityVariable)
+    {
+        this(IntGeneratorAdapter.adapt(crossoverPointsVariable),
+             ProbabilityGeneratorAdapter.adapt(crossoverProbabilityVariable));
+    }
+
+
+    /**
+     * Cross-over driven by primitive parameter generators, which avoid boxing when
+     * the parameters are consulted for each pair of parents.
+     * @param crossoverPointsVariable A variable that provides a (possibly constant,
+     * possibly random) number of cross-over points for each cross-over operation.
+     * @param crossoverProbabilityVariable A variable that controls the probability
+     * that, once selected, a pair of parents will be subjected to cross-over.
+     */
+    public PackedBitStringCrossover(IntGenerator crossoverPointsVariable,
+                                    ProbabilityGenerator crossoverProbabilityVariable)
+    {
+        this.crossoverPointsVariable = crossoverPointsVariable;
+        this.crossoverProbabilityVariable = crossoverProbabilityVariable;
+    }
+
+
+    /**
+     * Applies cross-over, in place, to consecutive pairs of individuals in the specified
+     * range (i.e. {@code fromIndex} with {@code fromIndex + 1}, {@code fromIndex + 2} with
+     * {@code fromIndex + 3}, and so on).  If the range has an odd number of individuals, the
+     * last is left unmodified.  Disjoint ranges may be processed concurrently, provided that
+     * each thread uses its own RNG.
+     * @param population The population that contains the parents.
+     * @param fromIndex The index of the first individual (inclusive).
+     * @param toIndex The index of the last individual (exclusive).
+     * @param rng A source of randomness used to determine the location of
+     * cross-over points.
+     */
+    public void apply(PackedBitStringPopulation population,
+                      int fromIndex,
+                      int toIndex,
+                      Random rng)
+    {
+        population.checkRange(fromIndex, toIndex);
+        for (int i = fromIndex; i + 1 < toIndex; i += 2)
+        {
+            int crossoverPoints = crossoverProbabilityVariable.nextEvent(rng)
+                                  ? crossoverPointsVariable.nextInt()
+                                  : 0;
+            if (crossoverPoints > 0)
+            {
+                mate(population, i, i + 1, crossoverPoints, rng);
+            }
+        }
+    }
+
+
+    /**
+     * Perform cross-over on a pair of parents, replacing them with their offspring.
+     * @param population The population that contains the parents.
+     * @param index1 The index of the first parent.
+     * @param index2 The index of the second parent.
+     * @param numberOfCrossoverPoints The number of cross-overs performed on the
+     * two parents.
+     * @param rng A source of randomness used to determine the location of
+     * cross-over points.
+     */
+    protected void mate(PackedBitStringPopulation population,
+                        int index1,
+                        int index2,
+                        int numberOfCrossoverPoints,
+                        Random rng)
+    {
+        int length = population.getLength();
+        if (length < 2)
+        {
+            return; // No meaningful cross-over point exists.
+        }
+        for (int i = 0; i < numberOfCrossoverPoints; i++)
+        {
+            // Cross-over index is always greater than zero and less than
+            // the length of the parent so that we always pick a point that
+            // will result in a meaningful cross-over.
+            int crossoverIndex = (1 + rng.nextInt(length - 1));
+            population.swapPrefix(index1, index2, crossoverIndex);
+        }
+    }
+}
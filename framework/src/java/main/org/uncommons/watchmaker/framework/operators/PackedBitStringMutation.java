@@ -0,0 +1,113 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.binary.PackedBitStringPopulation;
+import org.uncommons.watchmaker.framework.number.ConstantIntGenerator;
+import org.uncommons.watchmaker.framework.number.ConstantProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.IntGenerator;
+import org.uncommons.watchmaker.framework.number.IntGeneratorAdapter;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
+
+/**
+ * Equivalent of {@link BitStringMutation} for populations held in a
+ * {@link PackedBitStringPopulation}.  Individuals are mutated in place, no copies
+ * are made.  Callers that need to preserve the parents should first copy them into
+ * the population that will hold the offspring (see
+ * {@link PackedBitStringPopulation#copy(int, PackedBitStringPopulation, int)}).
+ * @author Daniel Dyer
+ */
+public class PackedBitStringMutation
+{
+    private final ProbabilityGenerator mutationProbability;
+    private final IntGenerator mutationCount;
+
+
+    /**
+     * Creates a mutation operator for packed bit strings with the specified probability
+     * that a given bit string will be mutated, with exactly one bit being flipped.
+     * @param mutationProbability The probability of a candidate being mutated.
+     */
+    public PackedBitStringMutation(Probability mutationProbability)
+    {
+        this(new ConstantProbabilityGenerator(mutationProbability),
+             new ConstantIntGenerator(1));
+    }
+
+
+    /**
+     * Creates a mutation operator for packed bit strings.
+     * @param mutationProbability The (possibly variable) probability of a candidate
+     * bit string being mutated at all.
+     * @param mutationCount The (possibly variable) number of bits that will be flipped
+     * on any candidate bit string that is selected for mutation.
+     */
+    public PackedBitStringMutation(NumberGenerator<Probability> mutationProbability,
+                                   NumberGenerator<Integer> mutationCount)
+    {
+        this(ProbabilityGeneratorAdapter.adapt(mutationProbability),
+             IntGeneratorAdapter.adapt(mutationCount));
+    }
+
+
+    /**
+     * Creates a mutation operator from primitive parameter generators, which avoid
+     * boxing when the parameters are consulted for each candidate.
+     * @param mutationProbability The (possibly variable) probability of a candidate
+     * bit string being mutated at all.
+     * @param mutationCount The (possibly variable) number of bits that will be flipped
+     * on any candidate bit string that is selected for mutation.
+     */
+    public PackedBitStringMutation(ProbabilityGenerator mutationProbability,
+                                   IntGenerator mutationCount)
+    {
+        this.mutationProbability = mutationProbability;
+        this.mutationCount = mutationCount;
+    }
+
+
+    /**
+     * Mutates, in place, a range of individuals in a packed population.  Disjoint ranges
+     * may be mutated concurrently, provided that each thread uses its own RNG.
+     * @param population The population that contains the individuals.
+     * @param fromIndex The index of the first individual to mutate (inclusive).
+     * @param toIndex The index of the last individual to mutate (exclusive).
+     * @param rng A source of randomness.
+     */
+    public void apply(PackedBitStringPopulation population,
+                      int fromIndex,
+                      int toIndex,
+                      Random rng)
+    {
+        population.checkRange(fromIndex, toIndex);
+        int length = population.getLength();
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            if (mutationProbability.nextEvent(rng))
+            {
+                int mutations = mutationCount.nextInt();
+                for (int j = 0; j < mutations; j++)
+                {
+                    population.flipBit(i, rng.nextInt(length));
+                }
+            }
+        }
+    }
+}
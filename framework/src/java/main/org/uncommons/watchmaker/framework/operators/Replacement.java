@@ -23,6 +23,8 @@ import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.CandidateFactory;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
 
 /**
  * An evolutionary operator that replaces individuals with randomly-generated
@@ -36,7 +38,7 @@ import org.uncommons.watchmaker.framework.EvolutionaryOperator;
 public class Replacement<T> implements EvolutionaryOperator<T>
 {
     private final CandidateFactory<T> factory;
-    private final NumberGenerator<Probability> replacementProbability;
+    private final ProbabilityGenerator replacementProbability;
 
 
     /**
@@ -69,7 +71,7 @@ public class Replacement<T> implements EvolutionaryOperator<T>
                        NumberGenerator<Probability> replacementProbability)
     {
         this.factory = factory;
-        this.replacementProbability = replacementProbability;
+        this.replacementProbability = ProbabilityGeneratorAdapter.adapt(replacementProbability);
     }
 
 
@@ -87,7 +89,7 @@ public class Replacement<T> implements EvolutionaryOperator<T>
         List<T> output = new ArrayList<T>(selectedCandidates.size());
         for (T candidate : selectedCandidates)
         {
-            output.add(replacementProbability.nextValue().nextEvent(rng)
+            output.add(replacementProbability.nextEvent(rng)
                        ? factory.generateRandomCandidate(rng)
                        : candidate);
         }
@@ -0,0 +1,70 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+
+/**
+ * Skip sampling for per-gene mutation.  Rather than drawing a random number for
+ * every gene to decide whether it should be mutated, the number of genes to skip
+ * before the next mutated gene is drawn from a geometric distribution.  The cost
+ * of mutating a candidate is then proportional to the number of mutations rather
+ * than its length.
+ * @author Daniel Dyer
+ */
+final class SkipSampling
+{
+    private SkipSampling()
+    {
+        // Prevents instantiation.
+    }
+
+
+    /**
+     * @param mutationProbability The probability that any given gene is mutated.
+     * @param rng A source of randomness.
+     * @return The number of genes to pass over before the next mutated gene.  This
+     * is {@link Integer#MAX_VALUE} if the probability is zero.
+     */
+    static int nextGap(double mutationProbability, Random rng)
+    {
+        if (mutationProbability >= 1)
+        {
+            return 0;
+        }
+        if (mutationProbability <= 0)
+        {
+            return Integer.MAX_VALUE;
+        }
+        // Inversion of the geometric CDF.  1 - nextDouble() is in (0, 1] so the logarithm is finite.
+        double gap = Math.floor(Math.log(1 - rng.nextDouble()) / Math.log1p(-mutationProbability));
+        return gap >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) gap;
+    }
+
+
+    /**
+     * @param index The index of the last mutated gene, or -1 to find the first.
+     * @param mutationProbability The probability that any given gene is mutated.
+     * @param rng A source of randomness.
+     * @return The index of the next gene to mutate.  This may be beyond the end of
+     * the candidate, in which case there are no more mutations.
+     */
+    static int nextIndex(int index, double mutationProbability, Random rng)
+    {
+        long next = (long) index + 1 + nextGap(mutationProbability, rng);
+        return next >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) next;
+    }
+}
@@ -18,20 +18,26 @@ package org.uncommons.watchmaker.framework.operators;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import org.uncommons.maths.number.ConstantGenerator;
 import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.number.ConstantProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
 
 /**
  * Mutation of individual characters in a string according to some
- * probability.
+ * probability.  Rather than testing every character, the gap to the next
+ * mutated character is drawn from a geometric distribution, so the cost of
+ * mutating a string is proportional to the number of characters changed
+ * rather than its length.
+ * Strings that are not changed are returned as they are.
  * @author Daniel Dyer
  */
 public class StringMutation implements EvolutionaryOperator<String>
 {
     private final char[] alphabet;
-    private final NumberGenerator<Probability> mutationProbability;
+    private final ProbabilityGenerator mutationProbability;
 
     /**
      * Creates a mutation operator that is applied with the given
@@ -42,7 +48,7 @@ public class StringMutation implements EvolutionaryOperator<String>
      */
     public StringMutation(char[] alphabet, Probability mutationProbability)
     {
-        this(alphabet, new ConstantGenerator<Probability>(mutationProbability));
+        this(alphabet, new ConstantProbabilityGenerator(mutationProbability));
     }
 
 
@@ -51,10 +57,26 @@ public class StringMutation implements EvolutionaryOperator<String>
      * probability and draws its characters from the specified alphabet.
      * @param alphabet The permitted values for each character in a string.
      * @param mutationProbability The (possibly variable) probability that a
-     * given character is changed.
+     * given character is changed.  A new value is drawn for each string.
      */
     public StringMutation(char[] alphabet,
                           NumberGenerator<Probability> mutationProbability)
+    {
+        this(alphabet, ProbabilityGeneratorAdapter.adapt(mutationProbability));
+    }
+
+
+    /**
+     * Creates a mutation operator that is applied with the given
+     * probability and draws its characters from the specified alphabet.
+     * The probability is consulted once for every string, so a primitive
+     * generator avoids boxing when mutating large populations.
+     * @param alphabet The permitted values for each character in a string.
+     * @param mutationProbability The (possibly variable) probability that a
+     * given character is changed.
+     */
+    public StringMutation(char[] alphabet,
+                          ProbabilityGenerator mutationProbability)
     {
         this.alphabet = alphabet.clone();
         this.mutationProbability = mutationProbability;
@@ -75,21 +97,26 @@ public class StringMutation implements EvolutionaryOperator<String>
     /**
      * Mutate a single string.  Zero or more characters may be modified.  The
      * probability of any given character being modified is governed by the
-     * probability generator configured for this mutation operator.
+     * probability generator configured for this mutation operator, which is
+     * consulted once per string.
      * @param s The string to mutate.
      * @param rng A source of randomness.
      * @return The mutated string.
      */
     private String mutateString(String s, Random rng)
     {
-        StringBuilder buffer = new StringBuilder(s);
-        for (int i = 0; i < buffer.length(); i++)
+        double probability = mutationProbability.nextProbability();
+        int index = SkipSampling.nextIndex(-1, probability, rng);
+        if (index >= s.length())
+        {
+            return s;
+        }
+        char[] chars = s.toCharArray();
+        while (index < chars.length)
         {
-            if (mutationProbability.nextValue().nextEvent(rng))
-            {
-                buffer.setCharAt(i, alphabet[rng.nextInt(alphabet.length)]);
-            }
+            chars[index] = alphabet[rng.nextInt(alphabet.length)];
+            index = SkipSampling.nextIndex(index, probability, rng);
         }
-        return buffer.toString();
+        return new String(chars);
     }
 }
@@ -0,0 +1,87 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.List;
+import java.util.Random;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.SelectionStrategy;
+
+/**
+ * Fitness-proportionate selection using the alias method.  Candidates are selected
+ * with the same probabilities as {@link RouletteWheelSelection}, but after a set-up
+ * cost that is linear in the population size, each selection takes constant time
+ * rather than a binary search.  This makes a difference for large populations with
+ * large selection sizes.  To share one distribution between several breeding
+ * threads, build a {@link SelectionDistribution} directly.
+ * @author Daniel Dyer
+ */
+public class AliasMethodSelection implements SelectionStrategy<Object>, IndexedSelectionStrategy
+{
+    /**
+     * Selects the required number of candidates from the population with
+     * the probability of selecting any particular candidate being proportional
+     * to that candidate's fitness score.  Selection is with replacement (the same
+     * candidate may be selected multiple times).
+     * @param <S> The type of the evolved objects in the population.
+     * @param population The candidates to select from.
+     * @param naturalFitnessScores True if higher fitness scores indicate fitter
+     * individuals, false if lower fitness scores indicate fitter individuals.
+     * @param selectionSize The number of selections to make.
+     * @param rng A source of randomness.
+     * @return The selected candidates.
+     */
+    public <S> List<S> select(List<EvaluatedCandidate<S>> population,
+                              boolean naturalFitnessScores,
+                              int selectionSize,
+                              Random rng)
+    {
+        SelectionDistribution<S> distribution
+            = SelectionDistribution.fitnessProportionate(population, naturalFitnessScores);
+        return distribution.select(selectionSize, rng);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void select(FitnessView fitness,
+                       boolean naturalFitnessScores,
+                       int[] selection,
+                       Random rng)
+    {
+        double[] weights = new double[fitness.size()];
+        for (int i = 0; i < weights.length; i++)
+        {
+            weights[i] = SelectionDistribution.getAdjustedFitness(fitness.getFitness(i), naturalFitnessScores);
+        }
+        AliasTable table = new AliasTable(weights);
+        for (int i = 0; i < selection.length; i++)
+        {
+            selection[i] = table.sample(rng);
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "Alias Method Selection";
+    }
+}
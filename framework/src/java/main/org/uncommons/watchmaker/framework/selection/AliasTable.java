@@ -0,0 +1,164 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.Random;
+
+/**
+ * A discrete probability distribution over the indices {@literal 0..n-1} that can be
+ * sampled in constant time, using Vose's version of Walker's alias method.  Building
+ * the table takes time proportional to <i>n</i>.  Each sample then needs only a
+ * single random number: it picks a column uniformly and then either the column's own
+ * index or its alias, regardless of how skewed the weights are.  Tables are immutable
+ * so a single table may be sampled concurrently by several threads, provided that
+ * each uses its own RNG.
+ * @author Daniel Dyer
+ */
+public final class AliasTable
+{
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * Creates a table in which the probability of each index is proportional to its
+     * weight.  If any weights are infinite, those indices share all of the probability
+     * equally.
+     * @param weights The relative weights of the indices.  Must be non-negative and
+     * must not all be zero.
+     */
+    public AliasTable(double[] weights)
+    {
+        int n = weights.length;
+        if (n == 0)
+        {
+            throw new IllegalArgumentException("There must be at least one weight.");
+        }
+        double[] scaled = normalise(weights);
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        // Partition the columns into those that are under-full and those that
+        // are over-full, then top up each under-full column from an over-full one.
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (scaled[i] < 1)
+            {
+                small[smallCount++] = i;
+            }
+            else
+            {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0)
+        {
+            int under = small[--smallCount];
+            int over = large[--largeCount];
+            probabilities[under] = scaled[under];
+            aliases[under] = over;
+            scaled[over] = (scaled[over] + scaled[under]) - 1;
+            if (scaled[over] < 1)
+            {
+                small[smallCount++] = over;
+            }
+            else
+            {
+                large[largeCount++] = over;
+            }
+        }
+        // Any columns that remain are full, give or take rounding errors.
+        while (largeCount > 0)
+        {
+            int full = large[--largeCount];
+            probabilities[full] = 1;
+            aliases[full] = full;
+        }
+        while (smallCount > 0)
+        {
+            int full = small[--smallCount];
+            probabilities[full] = 1;
+            aliases[full] = full;
+        }
+    }
+
+
+    /**
+     * Scales the weights so that their mean is one.
+     */
+    private static double[] normalise(double[] weights)
+    {
+        double total = 0;
+        int infinite = 0;
+        for (double weight : weights)
+        {
+            if (weight < 0 || Double.isNaN(weight))
+            {
+                throw new IllegalArgumentException("Weights must be non-negative: " + weight);
+            }
+            if (Double.isInfinite(weight))
+            {
+                infinite++;
+            }
+            total += weight;
+        }
+        if (total == 0)
+        {
+            throw new IllegalArgumentException("Weights must not all be zero.");
+        }
+        double[] scaled = new double[weights.length];
+        for (int i = 0; i < weights.length; i++)
+        {
+            if (infinite > 0)
+            {
+                scaled[i] = Double.isInfinite(weights[i]) ? (double) weights.length / infinite : 0;
+            }
+            else
+            {
+                scaled[i] = weights[i] * weights.length / total;
+            }
+        }
+        return scaled;
+    }
+
+
+    /**
+     * @return The number of indices in the distribution.
+     */
+    public int size()
+    {
+        return probabilities.length;
+    }
+
+
+    /**
+     * @param rng A source of randomness.
+     * @return A random index, with each index chosen with probability proportional
+     * to its weight.
+     */
+    public int sample(Random rng)
+    {
+        // The integer part of the random number picks the column, the fractional
+        // part decides between the column's own index and its alias.
+        double position = rng.nextDouble() * probabilities.length;
+        // The product can round up to the length for very large tables.
+        int column = Math.min((int) position, probabilities.length - 1);
+        return position - column < probabilities[column] ? column : aliases[column];
+    }
+}
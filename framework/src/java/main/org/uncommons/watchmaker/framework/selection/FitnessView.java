@@ -0,0 +1,40 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+/**
+ * Read-only, index-based access to the fitness scores of a population, or to
+ * scores derived from them.  Views let selection strategies work with transformed
+ * scores (ranks, sigma-scaled scores, etc.) without building a new population of
+ * {@link org.uncommons.watchmaker.framework.EvaluatedCandidate} objects.  Index
+ * <i>i</i> of a view always refers to the candidate at index <i>i</i> of the
+ * underlying population.  See {@link FitnessViews} for the standard views.
+ * @author Daniel Dyer
+ */
+public interface FitnessView
+{
+    /**
+     * @return The number of candidates in the population.
+     */
+    int size();
+
+
+    /**
+     * @param index The index of a candidate in the population.
+     * @return The (possibly transformed) fitness score of that candidate.
+     */
+    double getFitness(int index);
+}
@@ -0,0 +1,296 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+
+/**
+ * Factory methods for {@link FitnessView}s.  The base views read the fitness scores
+ * of a population directly, without copying them.  The transforming views wrap
+ * another view and compute their scores on demand, so they can be composed (e.g.
+ * a Boltzmann view over a linear view over a population) at a cost of a few small
+ * objects per generation rather than one object per candidate.  Transforms that
+ * need population statistics compute them when the view is created, so the
+ * underlying scores must not change while a view is in use.  Views are immutable
+ * and may be shared between threads.
+ * @author Daniel Dyer
+ */
+public final class FitnessViews
+{
+    private FitnessViews()
+    {
+        // Prevents instantiation.
+    }
+
+
+    /**
+     * @param population An evaluated population.
+     * @return A view of the fitness scores of the population.  The population should
+     * support efficient random access.
+     */
+    public static FitnessView of(final List<? extends EvaluatedCandidate<?>> population)
+    {
+        return new FitnessView()
+        {
+            public int size()
+            {
+                return population.size();
+            }
+
+            public double getFitness(int index)
+            {
+                return population.get(index).getFitness();
+            }
+        };
+    }
+
+
+    /**
+     * @param fitness An array of fitness scores.  The array is not copied.
+     * @return A view of the scores.
+     */
+    public static FitnessView of(final double[] fitness)
+    {
+        return new FitnessView()
+        {
+            public int size()
+            {
+                return fitness.length;
+            }
+
+            public double getFitness(int index)
+            {
+                return fitness[index];
+            }
+        };
+    }
+
+
+    /**
+     * Linear ranking.  The actual scores are ignored, the population is assumed to be
+     * sorted fittest first (as it is for all selection strategies).
+     * @param source The view to rank.
+     * @return A view with natural scores of {@code size - index}.
+     */
+    public static FitnessView rank(final FitnessView source)
+    {
+        return new FitnessView()
+        {
+            public int size()
+            {
+                return source.size();
+            }
+
+            public double getFitness(int index)
+            {
+                return source.size() - index;
+            }
+        };
+    }
+
+
+    /**
+     * Exponential ranking.  The actual scores are ignored, the population is assumed
+     * to be sorted fittest first.
+     * @param source The view to rank.
+     * @param base The ratio between the scores of consecutive ranks.  Must be in the
+     * range {@literal 0 < base < 1}.
+     * @return A view with natural scores of {@code base^index}.
+     */
+    public static FitnessView exponentialRank(final FitnessView source, final double base)
+    {
+        if (base <= 0 || base >= 1)
+        {
+            throw new IllegalArgumentException("Base must be between 0 and 1.");
+        }
+        return new FitnessView()
+        {
+            public int size()
+            {
+                return source.size();
+            }
+
+            public double getFitness(int index)
+            {
+                return Math.pow(base, index);
+            }
+        };
+    }
+
+
+    /**
+     * Linear scaling.
+     * @param source The view to scale.
+     * @param multiplier The factor by which each score is multiplied.
+     * @param offset The amount added to each score after multiplication.
+     * @return A view with scores of {@code multiplier * fitness + offset}.
+     */
+    public static FitnessView linear(final FitnessView source,
+                                     final double multiplier,
+                                     final double offset)
+    {
+        return new FitnessView()
+        {
+            public int size()
+            {
+                return source.size();
+            }
+
+            public double getFitness(int index)
+            {
+                return multiplier * source.getFitness(index) + offset;
+            }
+        };
+    }
+
+
+    /**
+     * Sigma scaling, as used by {@link SigmaScaling}.  Each score is replaced by
+     * {@code 1 + (fitness - mean) / (2 * standardDeviation)}, with a floor of 0.1 so
+     * that no candidate has a negative expected frequency.  If all scores are equal
+     * they are all scaled to 1.
+     * @param source The view to scale.
+     * @return A view of the sigma-scaled scores.
+     */
+    public static FitnessView sigma(FitnessView source)
+    {
+        return new SigmaScaledView(source);
+    }
+
+
+    /**
+     * Boltzmann scaling.  Each score is replaced by {@code exp(fitness / temperature)},
+     * normalised so that the largest score is one.  High temperatures give weak
+     * selection pressure, low temperatures strong selection pressure.  The source
+     * scores are assumed to be natural; use {@link #linear(FitnessView, double, double)}
+     * with a multiplier of -1 to convert non-natural scores first.
+     * @param source The view to scale.
+     * @param temperature The temperature.  Must be positive.
+     * @return A view of the Boltzmann-scaled (natural) scores.
+     */
+    public static FitnessView boltzmann(final FitnessView source, final double temperature)
+    {
+        if (temperature <= 0)
+        {
+            throw new IllegalArgumentException("Temperature must be positive.");
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < source.size(); i++)
+        {
+            max = Math.max(max, source.getFitness(i));
+        }
+        final double maxFitness = max;
+        return new FitnessView()
+        {
+            public int size()
+            {
+                return source.size();
+            }
+
+            public double getFitness(int index)
+            {
+                return Math.exp((source.getFitness(index) - maxFitness) / temperature);
+            }
+        };
+    }
+
+
+    /**
+     * Performs indexed selection and returns the selected candidates.
+     * @param <S> The type of the evolved entities.
+     * @param strategy The strategy that selects by index.
+     * @param fitness The (possibly transformed) fitness scores of the population.
+     * @param population The population, indexed in the same way as the view.
+     * @param naturalFitnessScores Whether higher scores in the view represent fitter
+     * individuals or not.
+     * @param selectionSize The number of selections to make.
+     * @param rng A source of randomness.
+     * @return The selected candidates.
+     */
+    public static <S> List<S> select(IndexedSelectionStrategy strategy,
+                                     FitnessView fitness,
+                                     List<EvaluatedCandidate<S>> population,
+                                     boolean naturalFitnessScores,
+                                     int selectionSize,
+                                     Random rng)
+    {
+        int[] indices = new int[selectionSize];
+        strategy.select(fitness, naturalFitnessScores, indices, rng);
+        List<S> selection = new ArrayList<S>(selectionSize);
+        for (int index : indices)
+        {
+            selection.add(population.get(index).getCandidate());
+        }
+        return selection;
+    }
+
+
+    /**
+     * Sigma-scaled view.  The mean and standard deviation are calculated once, when
+     * the view is created.
+     */
+    private static final class SigmaScaledView implements FitnessView
+    {
+        private final FitnessView source;
+        private final double mean;
+        private final double standardDeviation;
+
+        SigmaScaledView(FitnessView source)
+        {
+            this.source = source;
+            int size = source.size();
+            double total = 0;
+            for (int i = 0; i < size; i++)
+            {
+                total += source.getFitness(i);
+            }
+            this.mean = total / size;
+            double squaredDeviations = 0;
+            for (int i = 0; i < size; i++)
+            {
+                double deviation = source.getFitness(i) - mean;
+                squaredDeviations += deviation * deviation;
+            }
+            this.standardDeviation = Math.sqrt(squaredDeviations / size);
+        }
+
+
+        public int size()
+        {
+            return source.size();
+        }
+
+
+        public double getFitness(int index)
+        {
+            if (standardDeviation == 0)
+            {
+                return 1;
+            }
+            else
+            {
+                double scaledFitness = 1 + (source.getFitness(index) - mean) / (2 * standardDeviation);
+                // Don't allow negative expected frequencies, use an arbitrary low but still positive
+                // frequency of 1 time in 10 for extremely unfit individuals (relative to the remainder
+                // of the population).
+                return scaledFitness > 0 ? scaledFitness : 0.1;
+            }
+        }
+    }
+}
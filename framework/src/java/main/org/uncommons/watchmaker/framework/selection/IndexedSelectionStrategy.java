@@ -0,0 +1,43 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.Random;
+
+/**
+ * A selection strategy that selects by index from a {@link FitnessView} rather
+ * than from a list of evaluated candidates.  This allows other strategies, such as
+ * {@link RankSelection} and {@link SigmaScaling}, to delegate to it with transformed
+ * fitness scores without first building a transformed population.
+ * @author Daniel Dyer
+ */
+public interface IndexedSelectionStrategy
+{
+    /**
+     * Selects candidates by index.  The number of selections made is the length
+     * of the {@code selection} array.
+     * @param fitness The fitness scores of the population to select from.
+     * @param naturalFitnessScores Whether higher fitness values represent fitter
+     * individuals or not.
+     * @param selection An array that is filled with the indices of the selected
+     * candidates.  The same index may appear more than once.
+     * @param rng Source of randomness for stochastic selection strategies.
+     */
+    void select(FitnessView fitness,
+                boolean naturalFitnessScores,
+                int[] selection,
+                Random rng);
+}
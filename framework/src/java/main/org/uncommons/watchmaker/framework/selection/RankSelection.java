@@ -31,7 +31,9 @@ import org.uncommons.watchmaker.framework.SelectionStrategy;
  * <p>Rank selection is implemented in terms of a mapping function ({@link
  * #mapRankToScore(int, int)}) and delegation to a fitness-proportionate selector.  The
  * mapping function converts ranks into relative fitness scores that are used to
- * drive the delegate selector.</p>
+ * drive the delegate selector.  If the delegate is an {@link IndexedSelectionStrategy},
+ * the scores are passed to it as a {@link FitnessView}, so no new population needs
+ * to be created.</p>
  * @author Daniel Dyer
  */
 public class RankSelection implements SelectionStrategy<Object>
@@ -69,6 +71,16 @@ public class RankSelection implements SelectionStrategy<Object>
                               int selectionSize,
                               Random rng)
     {
+        if (delegate instanceof IndexedSelectionStrategy)
+        {
+            // Select by index from a view of the ranks, without building a new population.
+            return FitnessViews.select((IndexedSelectionStrategy) delegate,
+                                       new RankView(population.size()),
+                                       population,
+                                       true,
+                                       selectionSize,
+                                       rng);
+        }
         List<EvaluatedCandidate<S>> rankedPopulation = new ArrayList<EvaluatedCandidate<S>>(population.size());
         Iterator<EvaluatedCandidate<S>> iterator = population.iterator();
         int index = -1;
@@ -110,4 +122,30 @@ public class RankSelection implements SelectionStrategy<Object>
     {
         return "Rank Selection";
     }
+
+
+    /**
+     * A view of the scores produced by the (possibly over-ridden) mapping function.
+     */
+    private final class RankView implements FitnessView
+    {
+        private final int populationSize;
+
+        RankView(int populationSize)
+        {
+            this.populationSize = populationSize;
+        }
+
+
+        public int size()
+        {
+            return populationSize;
+        }
+
+
+        public double getFitness(int index)
+        {
+            return mapRankToScore(index, populationSize);
+        }
+    }
 }
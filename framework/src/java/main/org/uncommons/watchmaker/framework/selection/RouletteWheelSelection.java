@@ -15,7 +15,6 @@
 //=============================================================================
 package org.uncommons.watchmaker.framework.selection;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
@@ -37,7 +36,7 @@ import org.uncommons.watchmaker.framework.SelectionStrategy;
  *
  * @author Daniel Dyer
  */
-public class RouletteWheelSelection implements SelectionStrategy<Object>
+public class RouletteWheelSelection implements SelectionStrategy<Object>, IndexedSelectionStrategy
 {
     /**
      * Selects the required number of candidates from the population with
@@ -56,6 +55,23 @@ public class RouletteWheelSelection implements SelectionStrategy<Object>
                               boolean naturalFitnessScores,
                               int selectionSize,
                               Random rng)
+    {
+        return FitnessViews.select(this,
+                                   FitnessViews.of(population),
+                                   population,
+                                   naturalFitnessScores,
+                                   selectionSize,
+                                   rng);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void select(FitnessView fitness,
+                       boolean naturalFitnessScores,
+                       int[] selection,
+                       Random rng)
     {
         // Record the cumulative fitness scores.  It doesn't matter whether the
         // population is sorted or not.  We will use these cumulative scores to work out
@@ -64,18 +80,17 @@ public class RouletteWheelSelection implements SelectionStrategy<Object>
         // numerical difference between an element and the previous one is directly
         // proportional to the probability of the corresponding candidate in the population
         // being selected.
-        double[] cumulativeFitnesses = new double[population.size()];
-        cumulativeFitnesses[0] = getAdjustedFitness(population.get(0).getFitness(),
+        double[] cumulativeFitnesses = new double[fitness.size()];
+        cumulativeFitnesses[0] = getAdjustedFitness(fitness.getFitness(0),
                                                     naturalFitnessScores);
-        for (int i = 1; i < population.size(); i++)
+        for (int i = 1; i < cumulativeFitnesses.length; i++)
         {
-            double fitness = getAdjustedFitness(population.get(i).getFitness(),
-                                                naturalFitnessScores);
-            cumulativeFitnesses[i] = cumulativeFitnesses[i - 1] + fitness;
+            double adjustedFitness = getAdjustedFitness(fitness.getFitness(i),
+                                                        naturalFitnessScores);
+            cumulativeFitnesses[i] = cumulativeFitnesses[i - 1] + adjustedFitness;
         }
 
-        List<S> selection = new ArrayList<S>(selectionSize);
-        for (int i = 0; i < selectionSize; i++)
+        for (int i = 0; i < selection.length; i++)
         {
             double randomFitness = rng.nextDouble() * cumulativeFitnesses[cumulativeFitnesses.length - 1];
             int index = Arrays.binarySearch(cumulativeFitnesses, randomFitness);
@@ -84,9 +99,8 @@ public class RouletteWheelSelection implements SelectionStrategy<Object>
                 // Convert negative insertion point to array index.
                 index = Math.abs(index + 1);
             }
-            selection.add(population.get(index).getCandidate());
+            selection[i] = index;
         }
-        return selection;
     }
 
 
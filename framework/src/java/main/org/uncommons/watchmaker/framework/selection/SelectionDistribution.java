@@ -0,0 +1,134 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+
+/**
+ * A probability distribution over a fixed set of candidates that can be built once
+ * per generation and then sampled, in constant time per selection, by any number
+ * of breeders.  Distributions are immutable, so a single instance may be shared
+ * by parallel breeding threads provided that each thread uses its own RNG.
+ * @param <S> The type of the candidates.
+ * @author Daniel Dyer
+ */
+public final class SelectionDistribution<S>
+{
+    private final List<S> candidates;
+    private final AliasTable table;
+
+    /**
+     * Creates a distribution in which each candidate is selected with probability
+     * proportional to its weight.
+     * @param candidates The candidates to select from.
+     * @param weights The relative weights of the candidates (see {@link AliasTable}).
+     */
+    public SelectionDistribution(List<S> candidates, double[] weights)
+    {
+        if (candidates.size() != weights.length)
+        {
+            throw new IllegalArgumentException("There must be exactly one weight per candidate.");
+        }
+        this.candidates = new ArrayList<S>(candidates);
+        this.table = new AliasTable(weights);
+    }
+
+
+    /**
+     * Creates a distribution for fitness-proportionate selection.  This gives each
+     * candidate the same probability of selection as {@link RouletteWheelSelection}.
+     * @param <S> The type of the candidates.
+     * @param population The evaluated candidates to select from.
+     * @param naturalFitnessScores True if higher fitness scores indicate fitter
+     * individuals, false if lower fitness scores indicate fitter individuals.
+     * @return A distribution that selects candidates in proportion to their fitness.
+     */
+    public static <S> SelectionDistribution<S> fitnessProportionate(List<EvaluatedCandidate<S>> population,
+                                                                    boolean naturalFitnessScores)
+    {
+        List<S> candidates = new ArrayList<S>(population.size());
+        double[] weights = new double[population.size()];
+        int i = 0;
+        for (EvaluatedCandidate<S> candidate : population)
+        {
+            candidates.add(candidate.getCandidate());
+            weights[i++] = getAdjustedFitness(candidate.getFitness(), naturalFitnessScores);
+        }
+        return new SelectionDistribution<S>(candidates, weights);
+    }
+
+
+    /**
+     * @param rawFitness A fitness score.
+     * @param naturalFitness Whether higher fitness scores are better.
+     * @return A weight that is proportional to the fitness of the candidate.
+     */
+    static double getAdjustedFitness(double rawFitness,
+                                     boolean naturalFitness)
+    {
+        if (naturalFitness)
+        {
+            return rawFitness;
+        }
+        else
+        {
+            // If standardised fitness is zero we have found the best possible
+            // solution.  The evolutionary algorithm should not be continuing
+            // after finding it.
+            return rawFitness == 0 ? Double.POSITIVE_INFINITY : 1 / rawFitness;
+        }
+    }
+
+
+    /**
+     * @return The number of candidates in the distribution.
+     */
+    public int size()
+    {
+        return candidates.size();
+    }
+
+
+    /**
+     * @param rng A source of randomness.
+     * @return A single randomly-selected candidate.
+     */
+    public S sample(Random rng)
+    {
+        return candidates.get(table.sample(rng));
+    }
+
+
+    /**
+     * Selects candidates with replacement (the same candidate may be selected
+     * multiple times).
+     * @param selectionSize The number of selections to make.
+     * @param rng A source of randomness.
+     * @return The selected candidates.
+     */
+    public List<S> select(int selectionSize, Random rng)
+    {
+        List<S> selection = new ArrayList<S>(selectionSize);
+        for (int i = 0; i < selectionSize; i++)
+        {
+            selection.add(candidates.get(table.sample(rng)));
+        }
+        return selection;
+    }
+}
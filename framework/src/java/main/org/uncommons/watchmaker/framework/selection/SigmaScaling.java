@@ -18,7 +18,6 @@ package org.uncommons.watchmaker.framework.selection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import org.uncommons.maths.statistics.DataSet;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
 import org.uncommons.watchmaker.framework.SelectionStrategy;
 
@@ -65,44 +64,28 @@ public class SigmaScaling implements SelectionStrategy<Object>
                               int selectionSize,
                               Random rng)
     {
-        DataSet statistics = new DataSet(population.size());
-        for (EvaluatedCandidate<S> candidate : population)
+        FitnessView scaledFitness = FitnessViews.sigma(FitnessViews.of(population));
+        if (delegate instanceof IndexedSelectionStrategy)
         {
-            statistics.addValue(candidate.getFitness());
+            // Select by index from the scaled view, without building a new population.
+            return FitnessViews.select((IndexedSelectionStrategy) delegate,
+                                       scaledFitness,
+                                       population,
+                                       naturalFitnessScores,
+                                       selectionSize,
+                                       rng);
         }
-
         List<EvaluatedCandidate<S>> scaledPopulation = new ArrayList<EvaluatedCandidate<S>>(population.size());
+        int index = 0;
         for (EvaluatedCandidate<S> candidate : population)
         {
-            double scaledFitness = getSigmaScaledFitness(candidate.getFitness(),
-                                                         statistics.getArithmeticMean(),
-                                                         statistics.getStandardDeviation());
             scaledPopulation.add(new EvaluatedCandidate<S>(candidate.getCandidate(),
-                                                           scaledFitness));
+                                                           scaledFitness.getFitness(index++)));
         }
         return delegate.select(scaledPopulation, naturalFitnessScores, selectionSize, rng);
     }
 
 
-    private double getSigmaScaledFitness(double candidateFitness,
-                                         double populationMeanFitness,
-                                         double fitnessStandardDeviation)
-    {
-        if (fitnessStandardDeviation == 0)
-        {
-            return 1;
-        }
-        else
-        {
-            double scaledFitness = 1 + (candidateFitness - populationMeanFitness) / (2 * fitnessStandardDeviation);
-            // Don't allow negative expected frequencies, use an arbitrary low but still positive
-            // frequency of 1 time in 10 for extremely unfit individuals (relative to the remainder
-            // of the population).
-            return scaledFitness > 0 ? scaledFitness : 0.1;
-        }
-    }
-
-
     /**
      * {@inheritDoc}
      */
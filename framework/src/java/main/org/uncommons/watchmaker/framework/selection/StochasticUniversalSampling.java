@@ -15,7 +15,6 @@
 //=============================================================================
 package org.uncommons.watchmaker.framework.selection;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
@@ -27,44 +26,77 @@ import org.uncommons.watchmaker.framework.SelectionStrategy;
  * each candidate is consistent with its expected frequency of selection.
  * @author Daniel Dyer
  */
-public class StochasticUniversalSampling implements SelectionStrategy<Object>
+public class StochasticUniversalSampling implements SelectionStrategy<Object>, IndexedSelectionStrategy
 {
     public <S> List<S> select(List<EvaluatedCandidate<S>> population,
                               boolean naturalFitnessScores,
                               int selectionSize,
                               Random rng)
     {
-        // Calculate the sum of all fitness values.
+        return FitnessViews.select(this,
+                                   FitnessViews.of(population),
+                                   population,
+                                   naturalFitnessScores,
+                                   selectionSize,
+                                   rng);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void select(FitnessView fitness,
+                       boolean naturalFitnessScores,
+                       int[] selection,
+                       Random rng)
+    {
+        // Calculate the adjusted fitness values, and their sum, just once.
+        double[] adjustedFitnesses = new double[fitness.size()];
         double aggregateFitness = 0;
-        for (EvaluatedCandidate<S> candidate : population)
+        for (int i = 0; i < adjustedFitnesses.length; i++)
         {
-            aggregateFitness += getAdjustedFitness(candidate.getFitness(),
-                                                   naturalFitnessScores);
+            adjustedFitnesses[i] = getAdjustedFitness(fitness.getFitness(i), naturalFitnessScores);
+            aggregateFitness += adjustedFitnesses[i];
         }
+        if (Double.isInfinite(aggregateFitness))
+        {
+            // One or more perfect (zero) non-natural scores.  These share all of the
+            // selections, as they do with roulette wheel selection.
+            aggregateFitness = 0;
+            for (int i = 0; i < adjustedFitnesses.length; i++)
+            {
+                adjustedFitnesses[i] = Double.isInfinite(adjustedFitnesses[i]) ? 1 : 0;
+                aggregateFitness += adjustedFitnesses[i];
+            }
+        }
+        // The expected number of selections per unit of fitness.
+        double scale = selection.length / aggregateFitness;
 
-        List<S> selection = new ArrayList<S>(selectionSize);
         // Pick a random offset between 0 and 1 as the starting point for selection.
         double startOffset = rng.nextDouble();
         double cumulativeExpectation = 0;
         int index = 0;
-        for (EvaluatedCandidate<S> candidate : population)
+        for (int i = 0; i < adjustedFitnesses.length; i++)
         {
             // Calculate the number of times this candidate is expected to
             // be selected on average and add it to the cumulative total
             // of expected frequencies.
-            cumulativeExpectation += getAdjustedFitness(candidate.getFitness(),
-                                                        naturalFitnessScores) / aggregateFitness * selectionSize;
+            cumulativeExpectation += adjustedFitnesses[i] * scale;
 
             // If f is the expected frequency, the candidate will be selected at
             // least as often as floor(f) and at most as often as ceil(f). The
             // actual count depends on the random starting offset.
-            while (cumulativeExpectation > startOffset + index)
+            while (cumulativeExpectation > startOffset + index && index < selection.length)
             {
-                selection.add(candidate.getCandidate());
-                index++;
+                selection[index++] = i;
             }
         }
-        return selection;
+        // Rounding errors may leave the final expectation fractionally short of the
+        // selection size, in which case the last candidate takes the remaining places.
+        while (index < selection.length)
+        {
+            selection[index++] = adjustedFitnesses.length - 1;
+        }
     }
 
 
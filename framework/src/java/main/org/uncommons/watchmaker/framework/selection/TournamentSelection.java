@@ -15,7 +15,6 @@
 //=============================================================================
 package org.uncommons.watchmaker.framework.selection;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import org.uncommons.maths.number.ConstantGenerator;
@@ -23,17 +22,26 @@ import org.uncommons.maths.number.NumberGenerator;
 import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
 import org.uncommons.watchmaker.framework.SelectionStrategy;
+import org.uncommons.watchmaker.framework.number.ProbabilityGenerator;
+import org.uncommons.watchmaker.framework.number.ProbabilityGeneratorAdapter;
 
 /**
  * Selection strategy that picks a pair of candidates at random and then
  * selects the fitter of the two candidates with probability p, where p
  * is the configured selection probability (therefore the probability of
- * the less fit candidate being selected is 1 - p).
+ * the less fit candidate being selected is 1 - p).  Larger tournaments
+ * can also be configured.  In a tournament of <i>k</i> candidates, the
+ * fittest wins with probability p, the second fittest with probability
+ * p(1 - p), the third with probability p(1 - p)<sup>2</sup> and so on, with
+ * the weakest candidate taking whatever probability remains.  No objects are
+ * allocated per tournament.  Tournaments can also be run directly on fitness
+ * scores (see {@link IndexedSelectionStrategy}).
  * @author Daniel Dyer
  */
-public class TournamentSelection implements SelectionStrategy<Object>
+public class TournamentSelection implements SelectionStrategy<Object>, IndexedSelectionStrategy
 {
-    private final NumberGenerator<Probability> selectionProbability;
+    private final int tournamentSize;
+    private final ProbabilityGenerator selectionProbability;
 
     private String description = "Tournament Selection";
 
@@ -47,7 +55,29 @@ public class TournamentSelection implements SelectionStrategy<Object>
      */
     public TournamentSelection(NumberGenerator<Probability> selectionProbability)
     {
-        this.selectionProbability = selectionProbability;
+        this(2, selectionProbability);
+    }
+
+
+    /**
+     * Creates a tournament selection strategy with the specified number of
+     * candidates per tournament that is controlled by the variable selection
+     * probability provided by the specified {@link NumberGenerator}.
+     * @param tournamentSize The number of candidates that are picked at random
+     * for each tournament.  Must be at least 2.
+     * @param selectionProbability A number generator that produces values in
+     * the range {@literal 0.5 < p < 1}.  These values are used as the probability
+     * of the fittest candidate being selected in any given tournament.
+     */
+    public TournamentSelection(int tournamentSize,
+                               NumberGenerator<Probability> selectionProbability)
+    {
+        if (tournamentSize < 2)
+        {
+            throw new IllegalArgumentException("Tournament size must be at least 2.");
+        }
+        this.tournamentSize = tournamentSize;
+        this.selectionProbability = ProbabilityGeneratorAdapter.adapt(selectionProbability);
     }
 
     
@@ -62,12 +92,28 @@ public class TournamentSelection implements SelectionStrategy<Object>
      */
     public TournamentSelection(Probability selectionProbability)
     {
-        this(new ConstantGenerator<Probability>(selectionProbability));
+        this(2, selectionProbability);
+        this.description = "Tournament Selection (p = " + selectionProbability.toString() + ')';
+    }
+
+
+    /**
+     * Creates a tournament selection strategy with the specified number of
+     * candidates per tournament and a fixed probability.
+     * @param tournamentSize The number of candidates that are picked at random
+     * for each tournament.  Must be at least 2.
+     * @param selectionProbability The probability that the fittest of the randomly
+     * chosen candidates will be selected.  Must be greater than 0.5.
+     */
+    public TournamentSelection(int tournamentSize, Probability selectionProbability)
+    {
+        this(tournamentSize, new ConstantGenerator<Probability>(selectionProbability));
         if (selectionProbability.doubleValue() <= 0.5)
         {
             throw new IllegalArgumentException("Selection threshold must be greater than 0.5.");
         }
-        this.description = "Tournament Selection (p = " + selectionProbability.toString() + ')';
+        this.description = "Tournament Selection (k = " + tournamentSize
+                           + ", p = " + selectionProbability.toString() + ')';
     }
 
 
@@ -76,31 +122,103 @@ public class TournamentSelection implements SelectionStrategy<Object>
                               int selectionSize,
                               Random rng)
     {
-        List<S> selection = new ArrayList<S>(selectionSize);
-        for (int i = 0; i < selectionSize; i++)
+        return FitnessViews.select(this,
+                                   FitnessViews.of(population),
+                                   population,
+                                   naturalFitnessScores,
+                                   selectionSize,
+                                   rng);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void select(FitnessView fitness,
+                       boolean naturalFitnessScores,
+                       int[] selection,
+                       Random rng)
+    {
+        // Indices of the entrants, re-used for every tournament.
+        int[] entrants = new int[tournamentSize];
+        for (int i = 0; i < selection.length; i++)
         {
-            // Pick two candidates at random.
-            EvaluatedCandidate<S> candidate1 = population.get(rng.nextInt(population.size()));
-            EvaluatedCandidate<S> candidate2 = population.get(rng.nextInt(population.size()));
+            for (int j = 0; j < tournamentSize; j++)
+            {
+                entrants[j] = rng.nextInt(fitness.size());
+            }
+            // Decide which place wins: first place with probability p, otherwise
+            // second place with probability p, and so on.
+            int place = 0;
+            while (place < tournamentSize - 1 && !selectionProbability.nextEvent(rng))
+            {
+                ++place;
+            }
+            selection[i] = place == 0
+                           ? findFittest(fitness, entrants, naturalFitnessScores)
+                           : rankEntrants(fitness, entrants, naturalFitnessScores)[place];
+        }
+    }
+
 
-            // Use a random value to decide wether to select the fitter individual or the weaker one.
-            boolean selectFitter = selectionProbability.nextValue().nextEvent(rng);
-            if (selectFitter == naturalFitnessScores)
+    /**
+     * @return The index of the fittest entrant.
+     */
+    private static int findFittest(FitnessView fitness,
+                                   int[] entrants,
+                                   boolean naturalFitnessScores)
+    {
+        int fittest = entrants[0];
+        for (int j = 1; j < entrants.length; j++)
+        {
+            if (beats(fitness, entrants[j], fittest, naturalFitnessScores))
             {
-                // Select the fitter candidate.
-                selection.add(candidate2.getFitness() > candidate1.getFitness()
-                              ? candidate2.getCandidate()
-                              : candidate1.getCandidate());
+                fittest = entrants[j];
             }
-            else
+        }
+        return fittest;
+    }
+
+
+    /**
+     * Sorts the entrants in place, fittest first.  Tournaments are small, so
+     * an insertion sort is used.
+     * @return The sorted entrants.
+     */
+    private static int[] rankEntrants(FitnessView fitness,
+                                      int[] entrants,
+                                      boolean naturalFitnessScores)
+    {
+        for (int j = 1; j < entrants.length; j++)
+        {
+            int entrant = entrants[j];
+            int k = j;
+            while (k > 0 && beats(fitness, entrant, entrants[k - 1], naturalFitnessScores))
             {
-                // Select the less fit candidate.
-                selection.add(candidate2.getFitness() > candidate1.getFitness()
-                              ? candidate1.getCandidate()
-                              : candidate2.getCandidate());
+                entrants[k] = entrants[k - 1];
+                --k;
             }
+            entrants[k] = entrant;
         }
-        return selection;
+        return entrants;
+    }
+
+
+    /**
+     * Ties are resolved in the same way as the original two-candidate tournament:
+     * with natural fitness the earlier entrant wins, otherwise the later one does.
+     * @return True if the challenger should be ranked above the incumbent.
+     */
+    private static boolean beats(FitnessView fitness,
+                                 int challenger,
+                                 int incumbent,
+                                 boolean naturalFitnessScores)
+    {
+        double challengerFitness = fitness.getFitness(challenger);
+        double incumbentFitness = fitness.getFitness(incumbent);
+        return naturalFitnessScores
+               ? challengerFitness > incumbentFitness
+               : challengerFitness <= incumbentFitness;
     }
 
 
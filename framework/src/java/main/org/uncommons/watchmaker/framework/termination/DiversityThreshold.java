@@ -0,0 +1,89 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.termination;
+
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+
+/**
+ * A {@link TerminationCondition} that halts evolution once the population has lost
+ * its genetic diversity (i.e. it has converged), at which point further generations
+ * are unlikely to find anything new.  This condition relies on the evolution engine
+ * having been configured with a {@link org.uncommons.watchmaker.framework.DiversityMeasure}.
+ * If diversity is not being measured, this condition is never satisfied.
+ * @see org.uncommons.watchmaker.framework.AbstractEvolutionEngine#setDiversityMeasure
+ * @author Daniel Dyer
+ */
+public class DiversityThreshold implements TerminationCondition
+{
+    private final double minimumDiversity;
+    private final int generationLimit;
+
+    private int lowDiversityGenerations = 0;
+
+    /**
+     * Creates a condition that is satisfied as soon as the diversity of the population
+     * falls below the specified threshold.
+     * @param minimumDiversity The level of diversity (between zero and one) below which
+     * evolution should stop.
+     */
+    public DiversityThreshold(double minimumDiversity)
+    {
+        this(minimumDiversity, 1);
+    }
+
+
+    /**
+     * Creates a condition that is satisfied once the diversity of the population has
+     * remained below the specified threshold for a number of consecutive generations.
+     * This avoids terminating when diversity dips only briefly.
+     * @param minimumDiversity The level of diversity (between zero and one) below which
+     * evolution should stop.
+     * @param generationLimit The number of consecutive generations that must have low
+     * diversity before evolution stops.
+     */
+    public DiversityThreshold(double minimumDiversity, int generationLimit)
+    {
+        if (generationLimit <= 0)
+        {
+            throw new IllegalArgumentException("Generation limit must be positive.");
+        }
+        this.minimumDiversity = minimumDiversity;
+        this.generationLimit = generationLimit;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean shouldTerminate(PopulationData<?> populationData)
+    {
+        if (populationData.getGenerationNumber() == 0)
+        {
+            lowDiversityGenerations = 0; // Starting a new evolution.
+        }
+        // NaN (no diversity measure) always compares as false, so never terminates.
+        if (populationData.getDiversity() < minimumDiversity)
+        {
+            ++lowDiversityGenerations;
+        }
+        else
+        {
+            lowDiversityGenerations = 0;
+        }
+        return lowDiversityGenerations >= generationLimit;
+    }
+}
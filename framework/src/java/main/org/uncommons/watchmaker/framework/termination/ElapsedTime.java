@@ -16,13 +16,13 @@
 package org.uncommons.watchmaker.framework.termination;
 
 import org.uncommons.watchmaker.framework.PopulationData;
-import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.StatelessTerminationCondition;
 
 /**
  * Terminates evolution after a pre-determined period of time has elapsed.
  * @author Daniel Dyer
  */
-public class ElapsedTime implements TerminationCondition
+public class ElapsedTime implements StatelessTerminationCondition
 {
     private final long maxDuration;
 
@@ -0,0 +1,66 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.termination;
+
+import org.uncommons.watchmaker.framework.EvolutionHistory;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+
+/**
+ * A {@link TerminationCondition} that halts evolution once the best fitness is improving
+ * too slowly to be worth continuing.  Unlike {@link Stagnation}, which waits for progress
+ * to stop completely, this condition looks at the average improvement per generation over
+ * a sliding window of recent generations.
+ * @author Daniel Dyer
+ */
+public class ImprovementRate implements TerminationCondition
+{
+    private final int window;
+    private final double minimumRate;
+    private final EvolutionHistory history;
+
+    /**
+     * @param window The number of generations over which to measure the rate of
+     * improvement.  Evolution will always continue for at least this many generations.
+     * @param minimumRate The average improvement in best fitness per generation below
+     * which evolution should stop.  Improvement is always positive when fitness is
+     * getting better, regardless of whether fitness scores are natural or non-natural.
+     */
+    public ImprovementRate(int window, double minimumRate)
+    {
+        if (window <= 0)
+        {
+            throw new IllegalArgumentException("Window must be positive.");
+        }
+        this.window = window;
+        this.minimumRate = minimumRate;
+        this.history = new EvolutionHistory(window + 1);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean shouldTerminate(PopulationData<?> populationData)
+    {
+        if (populationData.getGenerationNumber() == 0)
+        {
+            history.clear(); // Starting a new evolution.
+        }
+        history.populationUpdate(populationData);
+        return history.size() > window && history.getImprovementRate(window) < minimumRate;
+    }
+}
@@ -16,14 +16,14 @@
 package org.uncommons.watchmaker.framework.termination;
 
 import org.uncommons.watchmaker.framework.PopulationData;
-import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.StatelessTerminationCondition;
 
 /**
  * Terminates evolution once at least one candidate in the population has equalled
  * or bettered a pre-determined fitness score. 
  * @author Daniel Dyer
  */
-public class TargetFitness implements TerminationCondition
+public class TargetFitness implements StatelessTerminationCondition
 {
     private final double targetFitness;
     private final boolean natural;
@@ -16,10 +16,10 @@
 package org.uncommons.watchmaker.framework.termination;
 
 import org.uncommons.watchmaker.framework.PopulationData;
-import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.StatelessTerminationCondition;
 
 /**
- * {@link TerminationCondition} implementation that allows for user-initiated
+ * {@link StatelessTerminationCondition} implementation that allows for user-initiated
  * termination of an evolutionary algorithm.  This condition can be used, for
  * instance, to provide a button on a GUI that terminates execution.  The
  * application should retain a reference to the instance after passing it to
@@ -28,7 +28,7 @@ import org.uncommons.watchmaker.framework.TerminationCondition;
  * @see org.uncommons.watchmaker.swing.AbortControl
  * @author Daniel Dyer
  */
-public final class UserAbort implements TerminationCondition
+public final class UserAbort implements StatelessTerminationCondition
 {
     private volatile boolean aborted = false;
 
@@ -0,0 +1,244 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.factories.StubIntegerFactory;
+import org.uncommons.watchmaker.framework.operators.IntegerAdjuster;
+import org.uncommons.watchmaker.framework.termination.GenerationCount;
+
+/**
+ * Unit test for the {@link CellularEvolutionEngine} class.
+ * @author Daniel Dyer
+ */
+public class CellularEvolutionEngineTest
+{
+    /**
+     * Every cell's offspring is one better than the occupant, so every cell should be
+     * replaced at every generation.
+     */
+    @Test
+    public void testSynchronousUpdate()
+    {
+        CellularEvolutionEngine<Integer> engine = new CellularEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                       new IntegerAdjuster(1),
+                                                                                       new IntegerEvaluator(),
+                                                                                       10,
+                                                                                       Neighbourhood.VON_NEUMANN,
+                                                                                       true,
+                                                                                       FrameworkTestUtils.getRNG());
+        checkUpdates(engine);
+    }
+
+
+    @Test
+    public void testLineSweepUpdate()
+    {
+        CellularEvolutionEngine<Integer> engine = new CellularEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                       new IntegerAdjuster(1),
+                                                                                       new IntegerEvaluator(),
+                                                                                       10,
+                                                                                       Neighbourhood.MOORE,
+                                                                                       false,
+                                                                                       FrameworkTestUtils.getRNG());
+        engine.setSingleThreaded(true);
+        checkUpdates(engine);
+    }
+
+
+    private void checkUpdates(CellularEvolutionEngine<Integer> engine)
+    {
+        EvolutionHistory history = new EvolutionHistory(10);
+        engine.addEvolutionObserver(history);
+        List<EvaluatedCandidate<Integer>> population = engine.evolvePopulation(100, 0, new GenerationCount(10));
+        assert population.size() == 100 : "Wrong population size: " + population.size();
+        for (EvaluatedCandidate<Integer> candidate : population)
+        {
+            assert candidate.getCandidate() == 9 : "Cell not updated at every generation: " + candidate.getCandidate();
+        }
+        assert history.getEvaluationCount(0) == 1000 : "Wrong evaluation count: " + history.getEvaluationCount(0);
+    }
+
+
+    /**
+     * In one synchronous generation, a candidate can spread to its immediate neighbours
+     * but no further.
+     */
+    @Test
+    public void testLocalMating()
+    {
+        CellularEvolutionEngine<Integer> engine = new CellularEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                       new MateOperator(),
+                                                                                       new IntegerEvaluator(),
+                                                                                       10,
+                                                                                       Neighbourhood.VON_NEUMANN,
+                                                                                       true,
+                                                                                       FrameworkTestUtils.getRNG());
+        List<EvaluatedCandidate<Integer>> grid = new ArrayList<EvaluatedCandidate<Integer>>(100);
+        for (int i = 0; i < 100; i++)
+        {
+            grid.add(new EvaluatedCandidate<Integer>(i == 55 ? 100 : 0, i == 55 ? 100 : 0));
+        }
+        List<EvaluatedCandidate<Integer>> population = engine.evolvePopulation(grid, 0, new GenerationCount(2));
+        int count = 0;
+        for (EvaluatedCandidate<Integer> candidate : population)
+        {
+            count += candidate.getCandidate() == 100 ? 1 : 0;
+        }
+        // The occupant keeps its cell, and each neighbour may or may not have chosen it as a mate.
+        assert count >= 1 && count <= 5 : "Best candidate should only spread to its neighbours: " + count;
+        assert population.get(0).getCandidate() == 100 : "Population should be returned fittest first.";
+    }
+
+
+    /**
+     * Continuing from the (sorted) population returned by a previous run should keep the
+     * candidates in their cells, with any newcomers taking the cells of missing candidates.
+     */
+    @Test
+    public void testContinuationKeepsGrid()
+    {
+        OccupantRecorder recorder = new OccupantRecorder();
+        CellularEvolutionEngine<Integer> engine = new CellularEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                       recorder,
+                                                                                       new IntegerEvaluator(),
+                                                                                       10,
+                                                                                       Neighbourhood.VON_NEUMANN,
+                                                                                       false,
+                                                                                       FrameworkTestUtils.getRNG());
+        engine.setSingleThreaded(true);
+        List<EvaluatedCandidate<Integer>> grid = new ArrayList<EvaluatedCandidate<Integer>>(100);
+        for (int i = 0; i < 100; i++)
+        {
+            // Not in fitness order.
+            int value = 1000 + (i * 37) % 100;
+            grid.add(new EvaluatedCandidate<Integer>(new Integer(value), value));
+        }
+        List<EvaluatedCandidate<Integer>> population = engine.evolvePopulation(grid, 0, new GenerationCount(2));
+        assert population.get(0).getFitness() == 1099 : "Population should be returned fittest first.";
+
+        // Simulate migration by replacing one candidate with a newcomer.
+        Integer migrant = new Integer(1050);
+        Integer emigrant = population.remove(10).getCandidate();
+        population.add(new EvaluatedCandidate<Integer>(migrant, 1050));
+        recorder.getOccupants().clear();
+        engine.evolvePopulation(population, 0, new GenerationCount(2));
+        List<Integer> occupants = recorder.getOccupants();
+        assert occupants.size() == 100 : "Every cell should have been bred once.";
+        for (int i = 0; i < 100; i++)
+        {
+            Integer expected = grid.get(i).getCandidate() == emigrant ? migrant : grid.get(i).getCandidate();
+            assert occupants.get(i) == expected : "Wrong occupant in cell " + i + ": " + occupants.get(i);
+        }
+    }
+
+
+    /**
+     * Synchronous updates are bred concurrently, but runs with the same seed should still
+     * produce the same results.
+     */
+    @Test
+    public void testSynchronousUpdateReproducible()
+    {
+        List<EvaluatedCandidate<Integer>> first = evolveSeeded(42);
+        List<EvaluatedCandidate<Integer>> second = evolveSeeded(42);
+        for (int i = 0; i < first.size(); i++)
+        {
+            assert first.get(i).getCandidate().equals(second.get(i).getCandidate()) : "Runs differ at " + i;
+        }
+    }
+
+
+    private List<EvaluatedCandidate<Integer>> evolveSeeded(long seed)
+    {
+        CellularEvolutionEngine<Integer> engine = new CellularEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                       new RandomAdjuster(),
+                                                                                       new IntegerEvaluator(),
+                                                                                       10,
+                                                                                       Neighbourhood.MOORE,
+                                                                                       true,
+                                                                                       new Random(seed));
+        return engine.evolvePopulation(400, 0, new GenerationCount(5));
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testPopulationNotMultipleOfWidth()
+    {
+        CellularEvolutionEngine<Integer> engine = new CellularEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                       new IntegerAdjuster(1),
+                                                                                       new IntegerEvaluator(),
+                                                                                       10,
+                                                                                       Neighbourhood.VON_NEUMANN,
+                                                                                       true,
+                                                                                       FrameworkTestUtils.getRNG());
+        engine.evolve(25, 0, new GenerationCount(2));
+    }
+
+
+    /**
+     * Offspring is a copy of the mate (the second parent).
+     */
+    private static final class MateOperator implements EvolutionaryOperator<Integer>
+    {
+        public List<Integer> apply(List<Integer> selectedCandidates, Random rng)
+        {
+            List<Integer> offspring = new ArrayList<Integer>(1);
+            offspring.add(selectedCandidates.get(1));
+            return offspring;
+        }
+    }
+
+
+    /**
+     * Records the occupant (the first parent) of each cell as it is bred, and returns
+     * an offspring that is worse than the occupant so that no cell is ever replaced.
+     */
+    private static final class OccupantRecorder implements EvolutionaryOperator<Integer>
+    {
+        private final List<Integer> occupants = new ArrayList<Integer>();
+
+        public List<Integer> apply(List<Integer> selectedCandidates, Random rng)
+        {
+            occupants.add(selectedCandidates.get(0));
+            List<Integer> offspring = new ArrayList<Integer>(1);
+            offspring.add(selectedCandidates.get(0) - 1);
+            return offspring;
+        }
+
+        public List<Integer> getOccupants()
+        {
+            return occupants;
+        }
+    }
+
+
+    /**
+     * Offspring is the occupant (the first parent) plus a random amount.
+     */
+    private static final class RandomAdjuster implements EvolutionaryOperator<Integer>
+    {
+        public List<Integer> apply(List<Integer> selectedCandidates, Random rng)
+        {
+            List<Integer> offspring = new ArrayList<Integer>(1);
+            offspring.add(selectedCandidates.get(0) + rng.nextInt(1000));
+            return offspring;
+        }
+    }
+}
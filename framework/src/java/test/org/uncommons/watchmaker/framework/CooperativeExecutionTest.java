@@ -0,0 +1,133 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link CooperativeExecution} class.
+ * @author Daniel Dyer
+ */
+public class CooperativeExecutionTest
+{
+    /**
+     * Idle threads should help to run the tasks, and every task should be run exactly once.
+     */
+    @Test
+    public void testIdleThreadsHelp() throws InterruptedException, ExecutionException
+    {
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        AtomicIntegerArray runCounts = new AtomicIntegerArray(20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            new CooperativeExecution(createTasks(runCounts, threads)).run(executor);
+            for (int i = 0; i < runCounts.length(); i++)
+            {
+                assert runCounts.get(i) == 1 : "Task " + i + " run " + runCounts.get(i) + " times.";
+            }
+            assert threads.size() > 1 : "Idle threads should have helped.";
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * If every thread of the executor is busy, the requesting thread should run all
+     * of the tasks itself rather than waiting.
+     */
+    @Test(timeOut = 10000)
+    public void testBusyExecutor() throws InterruptedException, ExecutionException
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+            AtomicIntegerArray runCounts = new AtomicIntegerArray(5);
+            new CooperativeExecution(createTasks(runCounts, threads)).run(executor);
+            for (int i = 0; i < runCounts.length(); i++)
+            {
+                assert runCounts.get(i) == 1 : "Task " + i + " run " + runCounts.get(i) + " times.";
+            }
+            assert threads.size() == 1 && threads.contains(Thread.currentThread())
+                : "Requesting thread should have run all of the tasks.";
+        }
+        finally
+        {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Creates tasks that take a short time and record how many times they are run,
+     * and on which threads.
+     */
+    private List<Runnable> createTasks(final AtomicIntegerArray runCounts, final Set<Thread> threads)
+    {
+        List<Runnable> tasks = new ArrayList<Runnable>(runCounts.length());
+        for (int i = 0; i < runCounts.length(); i++)
+        {
+            final int index = i;
+            tasks.add(new Runnable()
+            {
+                public void run()
+                {
+                    threads.add(Thread.currentThread());
+                    runCounts.incrementAndGet(index);
+                    try
+                    {
+                        Thread.sleep(10);
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,93 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link EvolutionHistory}.
+ * @author Daniel Dyer
+ */
+public class EvolutionHistoryTest
+{
+    @Test
+    public void testRecording()
+    {
+        EvolutionHistory history = new EvolutionHistory(5);
+        assert history.size() == 0 : "History should be empty.";
+        history.populationUpdate(new PopulationData<Object>(new Object(), 2, 1.5, 0.5, true, 10, 0, 0, 100, Double.NaN, 10));
+        history.populationUpdate(new PopulationData<Object>(new Object(), 3, 2.5, 0.4, true, 10, 0, 1, 200, Double.NaN, 20));
+        assert history.size() == 2 : "Wrong size: " + history.size();
+        assert history.getGenerationNumber(0) == 1 : "Latest generation should be first.";
+        assert history.getBestFitness(0) == 3 : "Wrong best fitness: " + history.getBestFitness(0);
+        assert history.getMeanFitness(1) == 1.5 : "Wrong mean fitness: " + history.getMeanFitness(1);
+        assert history.getFitnessStandardDeviation(1) == 0.5 : "Wrong standard deviation.";
+        assert history.getEvaluationCount(0) == 20 : "Wrong evaluation count.";
+        assert history.getElapsedTime(0) == 200 : "Wrong elapsed time.";
+        assert history.isNaturalFitness() : "Fitness should be natural.";
+    }
+
+
+    /**
+     * Once the capacity is reached, the oldest generations should be overwritten.
+     */
+    @Test
+    public void testWrapAround()
+    {
+        EvolutionHistory history = new EvolutionHistory(3);
+        for (int i = 0; i < 7; i++)
+        {
+            history.record(i, i, i, 0, i * 10, i * 100, true);
+        }
+        assert history.size() == 3 : "Size should not exceed capacity.";
+        assert history.getGenerationNumber(0) == 6 : "Wrong latest generation.";
+        assert history.getGenerationNumber(2) == 4 : "Wrong oldest generation.";
+        history.clear();
+        assert history.size() == 0 : "History should be empty after clearing.";
+    }
+
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testAgeTooOld()
+    {
+        EvolutionHistory history = new EvolutionHistory(3);
+        history.record(0, 1, 1, 0, 10, 100, true);
+        history.getBestFitness(1);
+    }
+
+
+    @Test
+    public void testWindowedAggregates()
+    {
+        EvolutionHistory history = new EvolutionHistory(10);
+        for (int i = 0; i < 5; i++)
+        {
+            history.record(i, 100 - i * 2, 150, 10, (i + 1) * 50, (i + 1) * 100, false);
+        }
+        // Fitness is non-natural, so falling scores are an improvement.
+        assert history.getImprovement(4) == 8 : "Wrong improvement: " + history.getImprovement(4);
+        assert history.getImprovementRate(4) == 2 : "Wrong improvement rate: " + history.getImprovementRate(4);
+        assert history.getEvaluationRate(2) == 500 : "Wrong evaluation rate: " + history.getEvaluationRate(2);
+        assert history.getMeanGenerationTime(3) == 100 : "Wrong generation time: " + history.getMeanGenerationTime(3);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroCapacity()
+    {
+        new EvolutionHistory(0);
+    }
+}
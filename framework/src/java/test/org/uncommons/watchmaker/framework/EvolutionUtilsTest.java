@@ -0,0 +1,228 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link EvolutionUtils} class.
+ * @author Daniel Dyer
+ */
+public class EvolutionUtilsTest
+{
+    /**
+     * Merged statistics should be the same as those calculated for the
+     * combined population.
+     */
+    /**
+     * Statistics should identify the fittest candidate even if the population is not sorted.
+     */
+    @Test
+    public void testPopulationDataUnsorted()
+    {
+        List<EvaluatedCandidate<String>> population = createPopulation(4, 9, 2);
+        PopulationData<String> natural = EvolutionUtils.getPopulationData(population, true, 0, 0, 0);
+        assert natural.getBestCandidate().equals("9") : "Wrong best candidate: " + natural.getBestCandidate();
+        PopulationData<String> nonNatural = EvolutionUtils.getPopulationData(population, false, 0, 0, 0);
+        assert nonNatural.getBestCandidate().equals("2") : "Wrong best candidate: " + nonNatural.getBestCandidate();
+    }
+
+
+    @Test
+    public void testMergePopulationData()
+    {
+        List<EvaluatedCandidate<String>> population1 = createPopulation(2, 4, 9);
+        List<EvaluatedCandidate<String>> population2 = createPopulation(1, 7, 3, 5, 12);
+        List<EvaluatedCandidate<String>> combined = new ArrayList<EvaluatedCandidate<String>>(population1);
+        combined.addAll(population2);
+        EvolutionUtils.sortEvaluatedPopulation(population1, true);
+        EvolutionUtils.sortEvaluatedPopulation(population2, true);
+        EvolutionUtils.sortEvaluatedPopulation(combined, true);
+
+        long startTime = System.currentTimeMillis();
+        PopulationData<String> expected = EvolutionUtils.getPopulationData(combined, true, 0, 3, startTime);
+        @SuppressWarnings("unchecked")
+        PopulationData<String> merged
+            = EvolutionUtils.mergePopulationData(Arrays.asList(EvolutionUtils.getPopulationData(population1, true, 0, 3, startTime),
+                                                               EvolutionUtils.getPopulationData(population2, true, 0, 3, startTime)),
+                                                 true,
+                                                 3,
+                                                 startTime);
+        assert merged.getBestCandidate().equals("12") : "Wrong best candidate: " + merged.getBestCandidate();
+        assert merged.getBestCandidateFitness() == 12 : "Wrong best fitness.";
+        assert merged.getPopulationSize() == 8 : "Wrong population size: " + merged.getPopulationSize();
+        assert Math.abs(merged.getMeanFitness() - expected.getMeanFitness()) < 1e-9 : "Wrong mean.";
+        assert Math.abs(merged.getFitnessStandardDeviation() - expected.getFitnessStandardDeviation()) < 1e-9
+            : "Wrong standard deviation: " + merged.getFitnessStandardDeviation();
+        assert merged.getGenerationNumber() == 3 : "Wrong generation number.";
+    }
+
+
+    /**
+     * The merged standard deviation should be accurate even when the fitness scores are
+     * large relative to their spread.
+     */
+    @Test
+    public void testMergeLargeScores()
+    {
+        List<EvaluatedCandidate<String>> population1 = new ArrayList<EvaluatedCandidate<String>>();
+        List<EvaluatedCandidate<String>> population2 = new ArrayList<EvaluatedCandidate<String>>();
+        for (int i = 0; i < 10; i++)
+        {
+            double fitness = 1e9 + i * 0.25;
+            (i < 4 ? population1 : population2).add(new EvaluatedCandidate<String>(String.valueOf(i), fitness));
+        }
+        List<EvaluatedCandidate<String>> combined = new ArrayList<EvaluatedCandidate<String>>(population1);
+        combined.addAll(population2);
+        EvolutionUtils.sortEvaluatedPopulation(population1, true);
+        EvolutionUtils.sortEvaluatedPopulation(population2, true);
+        EvolutionUtils.sortEvaluatedPopulation(combined, true);
+
+        PopulationData<String> expected = EvolutionUtils.getPopulationData(combined, true, 0, 0, 0);
+        @SuppressWarnings("unchecked")
+        PopulationData<String> merged
+            = EvolutionUtils.mergePopulationData(Arrays.asList(EvolutionUtils.getPopulationData(population1, true, 0, 0, 0),
+                                                               EvolutionUtils.getPopulationData(population2, true, 0, 0, 0)),
+                                                 true,
+                                                 0,
+                                                 0);
+        assert Math.abs(merged.getMeanFitness() - expected.getMeanFitness()) < 1e-6 : "Wrong mean.";
+        assert Math.abs(merged.getFitnessStandardDeviation() - expected.getFitnessStandardDeviation()) < 1e-6
+            : "Wrong standard deviation: " + merged.getFitnessStandardDeviation()
+              + ", expected " + expected.getFitnessStandardDeviation();
+    }
+
+
+    @Test
+    public void testMergeNonNatural()
+    {
+        List<EvaluatedCandidate<String>> population1 = createPopulation(2, 4, 9);
+        List<EvaluatedCandidate<String>> population2 = createPopulation(1, 7);
+        EvolutionUtils.sortEvaluatedPopulation(population1, false);
+        EvolutionUtils.sortEvaluatedPopulation(population2, false);
+        @SuppressWarnings("unchecked")
+        PopulationData<String> merged
+            = EvolutionUtils.mergePopulationData(Arrays.asList(EvolutionUtils.getPopulationData(population1, false, 0, 0, 0),
+                                                               EvolutionUtils.getPopulationData(population2, false, 0, 0, 0)),
+                                                 false,
+                                                 0,
+                                                 0);
+        assert merged.getBestCandidate().equals("1") : "Wrong best candidate: " + merged.getBestCandidate();
+    }
+
+
+    /**
+     * Diversity and evaluation count can be supplied by the caller instead of
+     * being derived from the parts.
+     */
+    @Test
+    public void testMergeWithDiversityAndEvaluationCount()
+    {
+        List<EvaluatedCandidate<String>> population = createPopulation(5, 3);
+        EvolutionUtils.sortEvaluatedPopulation(population, true);
+        PopulationData<String> merged
+            = EvolutionUtils.mergePopulationData(Collections.singletonList(EvolutionUtils.getPopulationData(population,
+                                                                                                            true,
+                                                                                                            0,
+                                                                                                            0,
+                                                                                                            0,
+                                                                                                            Double.NaN,
+                                                                                                            2)),
+                                                 true,
+                                                 0,
+                                                 0,
+                                                 0.5,
+                                                 100);
+        assert merged.getDiversity() == 0.5 : "Wrong diversity: " + merged.getDiversity();
+        assert merged.getEvaluationCount() == 100 : "Wrong evaluation count: " + merged.getEvaluationCount();
+        assert merged.getMeanFitness() == 4 : "Wrong mean: " + merged.getMeanFitness();
+    }
+
+
+    /**
+     * Sampling should only re-order the list, never add or remove members.
+     */
+    @Test
+    public void testSampleIsPermutation()
+    {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < 20; i++)
+        {
+            list.add(i);
+        }
+        EvolutionUtils.moveRandomSampleToEnd(list, 5, FrameworkTestUtils.getRNG());
+        List<Integer> sorted = new ArrayList<Integer>(list);
+        Collections.sort(sorted);
+        for (int i = 0; i < 20; i++)
+        {
+            assert sorted.get(i) == i : "Members lost or duplicated.";
+        }
+    }
+
+
+    /**
+     * Every member should be equally likely to be sampled.
+     */
+    @Test
+    public void testUniformSample()
+    {
+        final int size = 10;
+        final int iterations = 20000;
+        Random rng = FrameworkTestUtils.getRNG();
+        int[] sampled = new int[size];
+        List<Integer> list = new ArrayList<Integer>(size);
+        for (int i = 0; i < iterations; i++)
+        {
+            list.clear();
+            for (int j = 0; j < size; j++)
+            {
+                list.add(j);
+            }
+            EvolutionUtils.moveRandomSampleToEnd(list, 2, rng);
+            ++sampled[list.get(size - 1)];
+            ++sampled[list.get(size - 2)];
+        }
+        // Each member is expected to be sampled 4000 times.
+        for (int count : sampled)
+        {
+            assert Math.abs(count - 4000) < 300 : "Sample is not uniform: " + count;
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSampleTooLarge()
+    {
+        List<Integer> list = new ArrayList<Integer>(Collections.nCopies(3, 0));
+        EvolutionUtils.moveRandomSampleToEnd(list, 4, FrameworkTestUtils.getRNG());
+    }
+
+
+    private List<EvaluatedCandidate<String>> createPopulation(int... scores)
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>(scores.length);
+        for (int score : scores)
+        {
+            population.add(new EvaluatedCandidate<String>(String.valueOf(score), score));
+        }
+        return population;
+    }
+}
@@ -16,6 +16,7 @@
 package org.uncommons.watchmaker.framework;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import org.testng.annotations.BeforeMethod;
@@ -82,6 +83,117 @@ public class GenerationalEvolutionEngineTest
     }
 
 
+    @Test
+    public void testDiversityMeasure()
+    {
+        GenerationalEvolutionEngine<Integer> diversityEngine = new GenerationalEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                                        new IntegerZeroMaker(),
+                                                                                                        new IntegerEvaluator(),
+                                                                                                        new RouletteWheelSelection(),
+                                                                                                        FrameworkTestUtils.getRNG());
+        final double[] diversity = new double[1];
+        diversityEngine.addEvolutionObserver(new EvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> data)
+            {
+                diversity[0] = data.getDiversity();
+            }
+        });
+        diversityEngine.evolve(10, 0, new GenerationCount(2));
+        assert Double.isNaN(diversity[0]) : "Diversity should not be measured by default.";
+
+        diversityEngine.setDiversityMeasure(new DiversityMeasure<Object>()
+        {
+            public <S> double getDiversity(List<EvaluatedCandidate<S>> population, Random rng)
+            {
+                return 0.25;
+            }
+        });
+        diversityEngine.evolve(10, 0, new GenerationCount(2));
+        assert diversity[0] == 0.25 : "Diversity measure not used: " + diversity[0];
+    }
+
+
+    @Test
+    public void testEvaluationCount()
+    {
+        EvolutionHistory history = new EvolutionHistory(5);
+        engine.addEvolutionObserver(history);
+        engine.evolve(10, 0, new GenerationCount(3));
+        engine.removeEvolutionObserver(history);
+        assert history.size() == 3 : "Wrong number of generations recorded: " + history.size();
+        // The whole population is evaluated in every generation.
+        assert history.getEvaluationCount(0) == 30 : "Wrong evaluation count: " + history.getEvaluationCount(0);
+        assert history.getEvaluationCount(2) == 10 : "Wrong evaluation count: " + history.getEvaluationCount(2);
+    }
+
+
+    /**
+     * Continuing from an evaluated population should not re-evaluate it.
+     */
+    @Test
+    public void testContinueEvolution()
+    {
+        List<EvaluatedCandidate<Integer>> population = engine.evolvePopulation(10, 2, new GenerationCount(2));
+        EvolutionHistory history = new EvolutionHistory(5);
+        engine.addEvolutionObserver(history);
+        AbstractEvolutionEngine<Integer> continuable = (AbstractEvolutionEngine<Integer>) engine;
+        List<EvaluatedCandidate<Integer>> continued = continuable.evolvePopulation(population, 2, new GenerationCount(3));
+        engine.removeEvolutionObserver(history);
+        assert continued.size() == 10 : "Wrong population size: " + continued.size();
+        assert history.getGenerationNumber(2) == 0 : "Generation numbers should start from zero.";
+        assert history.getEvaluationCount(2) == 0 : "Initial population should not be evaluated.";
+        assert history.getEvaluationCount(0) == 20 : "Wrong evaluation count: " + history.getEvaluationCount(0);
+    }
+
+
+    /**
+     * Dispatching evaluations in order of cost must not change the order of the
+     * evaluated population.
+     */
+    @Test
+    public void testCostEstimator()
+    {
+        GenerationalEvolutionEngine<Integer> costEngine = new GenerationalEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                                   new IntegerZeroMaker(),
+                                                                                                   new IntegerEvaluator(),
+                                                                                                   new RouletteWheelSelection(),
+                                                                                                   FrameworkTestUtils.getRNG());
+        final int[] estimates = new int[1];
+        costEngine.setCostEstimator(new CostEstimator<Integer>()
+        {
+            public double estimateCost(Integer candidate)
+            {
+                ++estimates[0];
+                return candidate;
+            }
+        });
+        List<Integer> population = Arrays.asList(3, 9, 1, 7, 5);
+        List<EvaluatedCandidate<Integer>> evaluatedPopulation = costEngine.evaluatePopulation(population);
+        assert estimates[0] == population.size() : "Estimator should be used once per candidate.";
+        for (int i = 0; i < population.size(); i++)
+        {
+            assert evaluatedPopulation.get(i).getCandidate().equals(population.get(i)) : "Wrong order.";
+            assert evaluatedPopulation.get(i).getFitness() == population.get(i) : "Wrong fitness.";
+        }
+    }
+
+
+    @Test
+    public void testLearnedCostEstimator()
+    {
+        GenerationalEvolutionEngine<Integer> costEngine = new GenerationalEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                                   new IntegerZeroMaker(),
+                                                                                                   new IntegerEvaluator(),
+                                                                                                   new RouletteWheelSelection(),
+                                                                                                   FrameworkTestUtils.getRNG());
+        LearnedCostEstimator<Object> estimator = new LearnedCostEstimator<Object>();
+        costEngine.setCostEstimator(estimator);
+        costEngine.evolve(10, 0, new GenerationCount(3));
+        assert estimator.getObservationCount() == 30 : "Wrong observation count: " + estimator.getObservationCount();
+    }
+
+
     /**
      * The number of candidates preserved by elitism must be less than the total
      * population size.
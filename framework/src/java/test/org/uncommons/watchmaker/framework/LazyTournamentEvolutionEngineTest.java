@@ -0,0 +1,296 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.factories.AbstractCandidateFactory;
+import org.uncommons.watchmaker.framework.factories.StubIntegerFactory;
+import org.uncommons.watchmaker.framework.operators.IntegerAdjuster;
+import org.uncommons.watchmaker.framework.selection.TournamentSelection;
+import org.uncommons.watchmaker.framework.termination.GenerationCount;
+
+/**
+ * Unit test for the {@link LazyTournamentEvolutionEngine} class.
+ * @author Daniel Dyer
+ */
+public class LazyTournamentEvolutionEngineTest
+{
+    /**
+     * With binary tournaments, roughly 14% of each generation is never drawn
+     * and therefore should never be evaluated.
+     */
+    @Test
+    public void testOnlyEntrantsEvaluated()
+    {
+        CountingEvaluator evaluator = new CountingEvaluator();
+        // Each generation's offspring are new objects, so nothing is memoised.
+        LazyTournamentEvolutionEngine<Integer> engine = new LazyTournamentEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                                   new IntegerAdjuster(1000),
+                                                                                                   evaluator,
+                                                                                                   2,
+                                                                                                   new Probability(0.7),
+                                                                                                   FrameworkTestUtils.getRNG());
+        EvolutionHistory history = new EvolutionHistory(10);
+        engine.addEvolutionObserver(history);
+        engine.evolve(100, 0, new GenerationCount(10));
+        int evaluations = evaluator.getCount();
+        assert evaluations < 1000 : "Too many evaluations: " + evaluations;
+        assert history.getEvaluationCount(0) == evaluations : "Wrong evaluation count: " + history.getEvaluationCount(0);
+    }
+
+
+    /**
+     * Candidates that survive unchanged into the next generation should not be
+     * evaluated again.
+     */
+    @Test
+    public void testMemoisation()
+    {
+        CountingEvaluator evaluator = new CountingEvaluator();
+        LazyTournamentEvolutionEngine<Integer> engine = new LazyTournamentEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                                   new CopyOperator(),
+                                                                                                   evaluator,
+                                                                                                   3,
+                                                                                                   new Probability(0.8),
+                                                                                                   FrameworkTestUtils.getRNG());
+        engine.setSingleThreaded(true);
+        EvolutionHistory history = new EvolutionHistory(5);
+        engine.addEvolutionObserver(history);
+        List<EvaluatedCandidate<Integer>> population = engine.evolvePopulation(20, 2, new GenerationCount(5));
+        // The operator does not create new candidates, so every evaluation should
+        // happen in the first generation.
+        assert evaluator.getCount() == history.getEvaluationCount(4) : "Candidates re-evaluated: " + evaluator.getCount();
+        assert history.getEvaluationCount(0) == history.getEvaluationCount(4) : "Evaluation count increased.";
+        assert !population.isEmpty() : "Evaluated population should not be empty.";
+    }
+
+
+    /**
+     * The population returned by the engine only includes evaluated candidates, but
+     * continuing the evolution from it should carry on with the full population rather
+     * than losing the unevaluated members at each continuation.
+     */
+    @Test
+    public void testContinuedEvolution()
+    {
+        SizeRecordingOperator operator = new SizeRecordingOperator();
+        LazyTournamentEvolutionEngine<Integer> engine = new LazyTournamentEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                                                                   operator,
+                                                                                                   new IntegerEvaluator(),
+                                                                                                   2,
+                                                                                                   new Probability(0.7),
+                                                                                                   FrameworkTestUtils.getRNG());
+        List<EvaluatedCandidate<Integer>> population = engine.evolvePopulation(100, 1, new GenerationCount(2));
+        for (int i = 0; i < 8; i++)
+        {
+            assert population.size() < 100 : "Returned population should only include evaluated candidates.";
+            population = engine.evolvePopulation(population, 1, new GenerationCount(2));
+        }
+        // Each generation breeds the non-elite members of a full population.
+        assert operator.getSizes().size() == 9 : "Wrong number of generations: " + operator.getSizes().size();
+        for (int size : operator.getSizes())
+        {
+            assert size == 99 : "Population should not shrink, selection size is " + size;
+        }
+    }
+
+
+    /**
+     * Larger tournaments should apply the same selection pressure as {@link TournamentSelection}
+     * with the same tournament size and selection probability.
+     */
+    @Test
+    public void testSelectionPressure()
+    {
+        final int populationSize = 1000;
+        RecordingOperator operator = new RecordingOperator();
+        LazyTournamentEvolutionEngine<Integer> engine = new LazyTournamentEvolutionEngine<Integer>(new SequenceFactory(populationSize),
+                                                                                                   operator,
+                                                                                                   new IntegerEvaluator(),
+                                                                                                   5,
+                                                                                                   new Probability(0.6),
+                                                                                                   FrameworkTestUtils.getRNG());
+        for (int run = 0; run < 10; run++)
+        {
+            engine.evolve(populationSize, 0, new GenerationCount(2));
+        }
+        List<Integer> lazySelection = operator.getSelected();
+        assert lazySelection.size() == 10 * populationSize : "Wrong selection size: " + lazySelection.size();
+
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>(populationSize);
+        for (int i = 0; i < populationSize; i++)
+        {
+            population.add(new EvaluatedCandidate<Integer>(i, i));
+        }
+        TournamentSelection selectionStrategy = new TournamentSelection(5, new Probability(0.6));
+        List<Integer> tournamentSelection = selectionStrategy.select(population,
+                                                                     true,
+                                                                     lazySelection.size(),
+                                                                     FrameworkTestUtils.getRNG());
+        // The mean is about 0.72 of the population size.  If weaker entrants won with
+        // equal probability, it would be about 0.67.
+        double lazyMean = mean(lazySelection) / populationSize;
+        double tournamentMean = mean(tournamentSelection) / populationSize;
+        assert Math.abs(lazyMean - tournamentMean) < 0.02
+            : "Selection pressure differs: " + lazyMean + " vs " + tournamentMean;
+    }
+
+
+    private double mean(List<Integer> values)
+    {
+        double total = 0;
+        for (int value : values)
+        {
+            total += value;
+        }
+        return total / values.size();
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTournamentTooSmall()
+    {
+        new LazyTournamentEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                   new CopyOperator(),
+                                                   new IntegerEvaluator(),
+                                                   1,
+                                                   new Probability(0.7),
+                                                   FrameworkTestUtils.getRNG());
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testProbabilityTooLow()
+    {
+        new LazyTournamentEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                   new CopyOperator(),
+                                                   new IntegerEvaluator(),
+                                                   2,
+                                                   Probability.EVENS,
+                                                   FrameworkTestUtils.getRNG());
+    }
+
+
+    /**
+     * Fitness evaluator that keeps track of how many times it has been invoked.
+     */
+    private static final class CountingEvaluator implements FitnessEvaluator<Integer>
+    {
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        public double getFitness(Integer candidate, List<? extends Integer> population)
+        {
+            count.incrementAndGet();
+            return candidate;
+        }
+
+        public boolean isNatural()
+        {
+            return true;
+        }
+
+        public int getCount()
+        {
+            return count.get();
+        }
+    }
+
+
+    /**
+     * Operator that returns the selected candidates unchanged.
+     */
+    private static final class CopyOperator implements EvolutionaryOperator<Integer>
+    {
+        public List<Integer> apply(List<Integer> selectedCandidates, Random rng)
+        {
+            return new ArrayList<Integer>(selectedCandidates);
+        }
+    }
+
+
+    /**
+     * Operator that records how many candidates it is given each generation and returns
+     * new candidates with the same values.
+     */
+    private static final class SizeRecordingOperator implements EvolutionaryOperator<Integer>
+    {
+        private final List<Integer> sizes = new ArrayList<Integer>();
+
+        public List<Integer> apply(List<Integer> selectedCandidates, Random rng)
+        {
+            sizes.add(selectedCandidates.size());
+            List<Integer> offspring = new ArrayList<Integer>(selectedCandidates.size());
+            for (Integer candidate : selectedCandidates)
+            {
+                offspring.add(new Integer(candidate + rng.nextInt(1000)));
+            }
+            return offspring;
+        }
+
+        public List<Integer> getSizes()
+        {
+            return sizes;
+        }
+    }
+
+
+    /**
+     * Candidate factory that generates each of the integers from zero up to the
+     * population size in turn.
+     */
+    private static final class SequenceFactory extends AbstractCandidateFactory<Integer>
+    {
+        private final int populationSize;
+        private int next = 0;
+
+        public SequenceFactory(int populationSize)
+        {
+            this.populationSize = populationSize;
+        }
+
+        public Integer generateRandomCandidate(Random rng)
+        {
+            Integer candidate = next;
+            next = (next + 1) % populationSize;
+            return candidate;
+        }
+    }
+
+
+    /**
+     * Operator that records the selected candidates and returns them unchanged.
+     */
+    private static final class RecordingOperator implements EvolutionaryOperator<Integer>
+    {
+        private final List<Integer> selected = new ArrayList<Integer>();
+
+        public List<Integer> apply(List<Integer> selectedCandidates, Random rng)
+        {
+            selected.addAll(selectedCandidates);
+            return new ArrayList<Integer>(selectedCandidates);
+        }
+
+        public List<Integer> getSelected()
+        {
+            return selected;
+        }
+    }
+}
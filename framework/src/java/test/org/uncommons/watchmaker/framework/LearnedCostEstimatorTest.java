@@ -0,0 +1,79 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.Arrays;
+import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BitString;
+
+/**
+ * Unit test for {@link LearnedCostEstimator}.
+ * @author Daniel Dyer
+ */
+public class LearnedCostEstimatorTest
+{
+    @Test
+    public void testDefaultSizeMeasure()
+    {
+        LearnedCostEstimator<Object> estimator = new LearnedCostEstimator<Object>();
+        // Before any observations, the estimate is just the size.
+        assert estimator.estimateCost(Arrays.asList(1, 2, 3)) == 3 : "Wrong size for list.";
+        assert estimator.estimateCost("abcd") == 4 : "Wrong size for string.";
+        assert estimator.estimateCost(new int[5]) == 5 : "Wrong size for array.";
+        assert estimator.estimateCost(new BitString(6)) == 6 : "Wrong size for bit string.";
+        assert estimator.estimateCost(7) == 1 : "Wrong size for other object.";
+    }
+
+
+    @Test
+    public void testLearnedModel()
+    {
+        LearnedCostEstimator<String> estimator = new LearnedCostEstimator<String>();
+        // Evaluation time is 100ns per character plus 50ns overhead.
+        for (int i = 1; i <= 20; i++)
+        {
+            estimator.recordEvaluation(createString(i), 100 * i + 50);
+        }
+        assert estimator.getObservationCount() == 20 : "Wrong observation count.";
+        double estimate = estimator.estimateCost(createString(30));
+        assert Math.abs(estimate - 3050) < 0.001 : "Wrong estimate: " + estimate;
+    }
+
+
+    /**
+     * If size does not predict evaluation time, all candidates should be
+     * given the same estimate.
+     */
+    @Test
+    public void testNoCorrelation()
+    {
+        LearnedCostEstimator<String> estimator = new LearnedCostEstimator<String>();
+        for (int i = 1; i <= 20; i++)
+        {
+            estimator.recordEvaluation(createString(i), 1000 - i);
+        }
+        assert estimator.estimateCost(createString(1)) == estimator.estimateCost(createString(50))
+            : "Estimates should be equal.";
+    }
+
+
+    private String createString(int length)
+    {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+}
@@ -0,0 +1,71 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link Neighbourhood} class.
+ * @author Daniel Dyer
+ */
+public class NeighbourhoodTest
+{
+    /**
+     * Neighbours of a corner cell wrap around to the opposite edges.
+     */
+    @Test
+    public void testWrapping()
+    {
+        Set<Integer> neighbours = new HashSet<Integer>();
+        for (int i = 0; i < Neighbourhood.VON_NEUMANN.size(); i++)
+        {
+            neighbours.add(Neighbourhood.VON_NEUMANN.getNeighbour(0, i, 4, 3));
+        }
+        // On a 4x3 grid, cell 0 is adjacent to cells 1 and 3 (same row) and 4 and 8 (same column).
+        assert neighbours.size() == 4 : "Wrong number of neighbours: " + neighbours.size();
+        assert neighbours.contains(1) && neighbours.contains(3) : "Wrong horizontal neighbours.";
+        assert neighbours.contains(4) && neighbours.contains(8) : "Wrong vertical neighbours.";
+    }
+
+
+    @Test
+    public void testMoore()
+    {
+        Set<Integer> neighbours = new HashSet<Integer>();
+        for (int i = 0; i < Neighbourhood.MOORE.size(); i++)
+        {
+            neighbours.add(Neighbourhood.MOORE.getNeighbour(5, i, 4, 3));
+        }
+        assert neighbours.size() == 8 : "Wrong number of neighbours: " + neighbours.size();
+        assert !neighbours.contains(5) : "Cell should not be its own neighbour.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCentreNotNeighbour()
+    {
+        new Neighbourhood(new int[]{0, 1}, new int[]{0, 0});
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMismatchedOffsets()
+    {
+        new Neighbourhood(new int[]{1, 0}, new int[]{0});
+    }
+}
@@ -0,0 +1,129 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.statistics.DataSet;
+
+/**
+ * Unit test for the {@link PopulationIndex} class.  Checks the index against a sorted
+ * copy of the population after a long sequence of random replacements.
+ * @author Daniel Dyer
+ */
+public class PopulationIndexTest
+{
+    @Test
+    public void testNaturalRanking()
+    {
+        checkRandomReplacements(true);
+    }
+
+
+    @Test
+    public void testNonNaturalRanking()
+    {
+        checkRandomReplacements(false);
+    }
+
+
+    /**
+     * Candidates with equal fitness must all be indexed, in slot order.
+     */
+    @Test
+    public void testEqualFitness()
+    {
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>();
+        for (int i = 0; i < 10; i++)
+        {
+            population.add(new EvaluatedCandidate<Integer>(i, 3));
+        }
+        PopulationIndex index = new PopulationIndex(population, true);
+        assert index.size() == 10 : "Wrong size: " + index.size();
+        for (int rank = 0; rank < 10; rank++)
+        {
+            assert index.getSlot(rank) == rank : "Equal scores should be ranked by slot.";
+        }
+        assert index.getFitnessStandardDeviation() == 0 : "Standard deviation should be zero.";
+        index.update(7, 4);
+        assert index.getSlot(0) == 7 : "Improved slot should be ranked first.";
+        assert index.getSlot(1) == 0 : "Other slots should follow in order.";
+    }
+
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testRankOutOfRange()
+    {
+        @SuppressWarnings("unchecked")
+        List<EvaluatedCandidate<Integer>> population = Arrays.asList(new EvaluatedCandidate<Integer>(1, 1),
+                                                                     new EvaluatedCandidate<Integer>(2, 2));
+        new PopulationIndex(population, true).getSlot(2);
+    }
+
+
+    private void checkRandomReplacements(boolean natural)
+    {
+        Random rng = FrameworkTestUtils.getRNG();
+        double[] fitness = new double[200];
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>(fitness.length);
+        for (int i = 0; i < fitness.length; i++)
+        {
+            // Few distinct values, so that there are plenty of ties.
+            fitness[i] = 1000 + rng.nextInt(50);
+            population.add(new EvaluatedCandidate<Integer>(i, fitness[i]));
+        }
+        PopulationIndex index = new PopulationIndex(population, natural);
+        for (int step = 0; step < 2000; step++)
+        {
+            int slot = rng.nextInt(fitness.length);
+            fitness[slot] = 1000 + rng.nextInt(50);
+            index.update(slot, fitness[slot]);
+            if (step % 100 == 0)
+            {
+                checkIndex(index, fitness, natural);
+            }
+        }
+        checkIndex(index, fitness, natural);
+    }
+
+
+    private void checkIndex(PopulationIndex index, double[] fitness, boolean natural)
+    {
+        assert index.size() == fitness.length : "Wrong size: " + index.size();
+        boolean[] seen = new boolean[fitness.length];
+        for (int rank = 0; rank < fitness.length; rank++)
+        {
+            int slot = index.getSlot(rank);
+            assert !seen[slot] : "Slot " + slot + " indexed twice.";
+            seen[slot] = true;
+            if (rank > 0)
+            {
+                int previous = index.getSlot(rank - 1);
+                boolean ordered = fitness[previous] == fitness[slot]
+                                  ? previous < slot
+                                  : natural == fitness[previous] > fitness[slot];
+                assert ordered : "Slots " + previous + " and " + slot + " are out of order.";
+            }
+        }
+        DataSet stats = new DataSet(fitness);
+        assert Math.abs(index.getMeanFitness() - stats.getArithmeticMean()) < 1e-9 : "Wrong mean.";
+        assert Math.abs(index.getFitnessStandardDeviation() - stats.getStandardDeviation()) < 1e-9
+            : "Wrong standard deviation.";
+    }
+}
@@ -15,12 +15,17 @@
 //=============================================================================
 package org.uncommons.watchmaker.framework;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.factories.StubIntegerFactory;
 import org.uncommons.watchmaker.framework.operators.IntegerAdjuster;
 import org.uncommons.watchmaker.framework.selection.RouletteWheelSelection;
+import org.uncommons.watchmaker.framework.selection.TournamentSelection;
+import org.uncommons.watchmaker.framework.termination.GenerationCount;
 
 /**
  * Unit test for the {@link SteadyStateEvolutionEngine} class.
@@ -135,4 +140,143 @@ public class SteadyStateEvolutionEngineTest
             assert found : "Elite candidate should be preserved.";
         }
     }
+
+
+    /**
+     * When the replace-worst policy is used, each offspring should replace the weakest
+     * member of the population.
+     */
+    @Test
+    public void testReplaceWorst()
+    {
+        SteadyStateEvolutionEngine<Integer> steadyState = createEngine(1, true);
+        steadyState.setReplaceWorst(true);
+        @SuppressWarnings("unchecked")
+        List<EvaluatedCandidate<Integer>> population = Arrays.asList(new EvaluatedCandidate<Integer>(3, 3),
+                                                                     new EvaluatedCandidate<Integer>(1, 1),
+                                                                     new EvaluatedCandidate<Integer>(5, 5),
+                                                                     new EvaluatedCandidate<Integer>(2, 2),
+                                                                     new EvaluatedCandidate<Integer>(4, 4));
+        List<EvaluatedCandidate<Integer>> evaluatedPopulation = steadyState.nextEvolutionStep(population,
+                                                                                              0,
+                                                                                              FrameworkTestUtils.getRNG());
+        assert evaluatedPopulation.size() == 5 : "Population size should be unchanged.";
+        assert evaluatedPopulation.get(1).getCandidate() != 1 : "Weakest candidate should have been replaced.";
+        for (int i = 0; i < evaluatedPopulation.size(); i++)
+        {
+            if (i != 1)
+            {
+                assert evaluatedPopulation.get(i) == population.get(i) : "Only the weakest should be replaced.";
+            }
+        }
+    }
+
+
+    /**
+     * The statistics maintained by the engine's index should agree with those obtained by
+     * scanning the population, however many replacements have been made.
+     */
+    @Test
+    public void testPopulationData()
+    {
+        SteadyStateEvolutionEngine<Integer> steadyState = createEngine(2, false);
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>();
+        for (int i = 0; i < 50; i++)
+        {
+            population.add(new EvaluatedCandidate<Integer>(i, i));
+        }
+        for (int i = 0; i < 500; i++)
+        {
+            population = steadyState.nextEvolutionStep(population, 2, FrameworkTestUtils.getRNG());
+        }
+        PopulationData<Integer> data = steadyState.getPopulationData(population, 2, 500, 0, Double.NaN, 1000);
+        PopulationData<Integer> expected = EvolutionUtils.getPopulationData(population,
+                                                                            true,
+                                                                            2,
+                                                                            500,
+                                                                            0,
+                                                                            Double.NaN,
+                                                                            1000);
+        assert data.getBestCandidateFitness() == expected.getBestCandidateFitness() : "Wrong best fitness.";
+        assert data.getBestCandidate().equals(expected.getBestCandidate()) : "Wrong best candidate.";
+        assert data.getPopulationSize() == 50 : "Wrong population size: " + data.getPopulationSize();
+        assert Math.abs(data.getMeanFitness() - expected.getMeanFitness()) < 1e-9 : "Wrong mean fitness.";
+        assert Math.abs(data.getFitnessStandardDeviation() - expected.getFitnessStandardDeviation()) < 1e-9
+            : "Wrong standard deviation.";
+        assert data.getEvaluationCount() == 1000 : "Wrong evaluation count.";
+    }
+
+
+    /**
+     * The population is not sorted between steps, but the final population must still be
+     * returned fittest first.
+     */
+    @Test
+    public void testFinalPopulationSorted()
+    {
+        SteadyStateEvolutionEngine<Integer> steadyState = createEngine(1, true);
+        List<EvaluatedCandidate<Integer>> population = steadyState.evolvePopulation(20, 2, new GenerationCount(200));
+        assert population.size() == 20 : "Wrong population size: " + population.size();
+        for (int i = 1; i < population.size(); i++)
+        {
+            assert population.get(i - 1).getFitness() >= population.get(i).getFitness() : "Population not sorted.";
+        }
+    }
+
+
+    /**
+     * Sub-classes that over-ride the replacement policy must still be given an ordinary,
+     * sorted, modifiable list.
+     */
+    @Test
+    public void testOverriddenReplacement()
+    {
+        SteadyStateEvolutionEngine<Integer> steadyState
+            = new SteadyStateEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                      new IntegerAdjuster(10),
+                                                      new IntegerEvaluator(),
+                                                      new TournamentSelection(new Probability(0.7)),
+                                                      1,
+                                                      true,
+                                                      FrameworkTestUtils.getRNG())
+            {
+                @Override
+                protected void doReplacement(List<EvaluatedCandidate<Integer>> existingPopulation,
+                                             List<EvaluatedCandidate<Integer>> newCandidates,
+                                             int eliteCount,
+                                             Random rng)
+                {
+                    for (int i = 1; i < existingPopulation.size(); i++)
+                    {
+                        assert existingPopulation.get(i - 1).getFitness() >= existingPopulation.get(i).getFitness()
+                            : "Population should be sorted.";
+                    }
+                    // Replace the weakest by removing it and appending the offspring.
+                    existingPopulation.remove(existingPopulation.size() - 1);
+                    existingPopulation.add(newCandidates.get(0));
+                    assert existingPopulation.get(existingPopulation.size() - 1) == newCandidates.get(0)
+                        : "Offspring should be where it was put.";
+                }
+            };
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>();
+        for (int i = 0; i < 10; i++)
+        {
+            population.add(new EvaluatedCandidate<Integer>(i, i));
+        }
+        population = steadyState.evolvePopulation(population, 1, new GenerationCount(50));
+        assert population.size() == 10 : "Wrong population size: " + population.size();
+        assert population.get(0).getFitness() >= 9 : "Fittest candidate should have been preserved.";
+    }
+
+
+    private SteadyStateEvolutionEngine<Integer> createEngine(int selectionSize, boolean forceSingleCandidateUpdate)
+    {
+        return new SteadyStateEvolutionEngine<Integer>(new StubIntegerFactory(),
+                                                       new IntegerAdjuster(10),
+                                                       new IntegerEvaluator(),
+                                                       new TournamentSelection(new Probability(0.7)),
+                                                       selectionSize,
+                                                       forceSingleCandidateUpdate,
+                                                       FrameworkTestUtils.getRNG());
+    }
 }
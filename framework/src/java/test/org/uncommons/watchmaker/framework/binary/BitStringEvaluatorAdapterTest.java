@@ -0,0 +1,52 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.binary;
+
+import java.util.Collections;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+
+/**
+ * Unit test for {@link BitStringEvaluatorAdapter}.
+ * @author Daniel Dyer
+ */
+public class BitStringEvaluatorAdapterTest
+{
+    @Test
+    public void testDelegation()
+    {
+        FitnessEvaluator<BitString> evaluator = new FitnessEvaluator<BitString>()
+        {
+            public double getFitness(BitString candidate, List<? extends BitString> population)
+            {
+                assert population.contains(candidate) : "Population should include the candidate.";
+                return candidate.countSetBits();
+            }
+
+            public boolean isNatural()
+            {
+                return false;
+            }
+        };
+        BitStringEvaluatorAdapter adapter = new BitStringEvaluatorAdapter(evaluator);
+        LongBitString candidate = new LongBitString(new BitString("1011001110"));
+        double fitness = adapter.getFitness(candidate, Collections.singletonList(candidate));
+        assert fitness == 6 : "Wrong fitness: " + fitness;
+        assert !adapter.isNatural() : "Natural fitness should match the wrapped evaluator.";
+    }
+}
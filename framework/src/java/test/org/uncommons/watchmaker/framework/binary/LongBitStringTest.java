@@ -0,0 +1,111 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.binary;
+
+import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link LongBitString}.
+ * @author Daniel Dyer
+ */
+public class LongBitStringTest
+{
+    @Test
+    public void testBitAccess()
+    {
+        LongBitString bits = new LongBitString(100);
+        assert bits.getWordCount() == 2 : "Wrong word count: " + bits.getWordCount();
+        bits.setBit(0, true);
+        bits.setBit(64, true);
+        bits.flipBit(99);
+        assert bits.getBit(0) && bits.getBit(64) && bits.getBit(99) : "Bits not set.";
+        assert !bits.getBit(1) : "Bit should not be set.";
+        assert bits.getWord(1) == (1L | (1L << 35)) : "Wrong word contents.";
+        bits.setBit(64, false);
+        assert bits.countSetBits() == 2 : "Wrong set bit count: " + bits.countSetBits();
+        assert bits.countUnsetBits() == 98 : "Wrong unset bit count: " + bits.countUnsetBits();
+    }
+
+
+    /**
+     * Bits beyond the end of the bit string must never be set, otherwise
+     * word-level counts would be wrong.
+     */
+    @Test
+    public void testLastWordMasked()
+    {
+        LongBitString bits = new LongBitString(70);
+        bits.setWord(1, -1L);
+        assert bits.countSetBits() == 6 : "Bits beyond the end should be discarded.";
+        LongBitString randomBits = new LongBitString(70, FrameworkTestUtils.getRNG());
+        assert Long.numberOfLeadingZeros(randomBits.getWord(1)) >= 58 : "Bits beyond the end should be zero.";
+    }
+
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testInvalidIndex()
+    {
+        new LongBitString(70).getBit(70);
+    }
+
+
+    @Test
+    public void testBitStringConversion()
+    {
+        BitString original = new BitString(130, FrameworkTestUtils.getRNG());
+        LongBitString bits = new LongBitString(original);
+        assert bits.getLength() == 130 : "Wrong length: " + bits.getLength();
+        assert bits.countSetBits() == original.countSetBits() : "Wrong number of set bits.";
+        assert bits.toString().equals(original.toString()) : "String representations should match.";
+        assert bits.toBitString().equals(original) : "Round trip should preserve bits.";
+    }
+
+
+    @Test
+    public void testHammingDistance()
+    {
+        LongBitString bits1 = new LongBitString(new BitString("110011001100"));
+        LongBitString bits2 = new LongBitString(new BitString("100011101101"));
+        assert bits1.hammingDistance(bits2) == 3 : "Wrong distance: " + bits1.hammingDistance(bits2);
+    }
+
+
+    @Test
+    public void testSwapBits()
+    {
+        LongBitString bits1 = new LongBitString(new BitString("11111111"));
+        LongBitString bits2 = new LongBitString(8);
+        bits1.swapBits(bits2, 0, 0x0FL);
+        assert bits1.toString().equals("11110000") : "Wrong bits: " + bits1;
+        assert bits2.toString().equals("00001111") : "Wrong bits: " + bits2;
+    }
+
+
+    @Test
+    public void testEquality()
+    {
+        LongBitString bits = new LongBitString(80, FrameworkTestUtils.getRNG());
+        LongBitString copy = bits.copy();
+        assert copy != bits : "Copy should be a different object.";
+        assert copy.equals(bits) : "Copy should be equal.";
+        assert copy.hashCode() == bits.hashCode() : "Hash codes should be equal.";
+        copy.flipBit(79);
+        assert !copy.equals(bits) : "Modified copy should not be equal.";
+        assert !bits.equals(new LongBitString(81)) : "Different lengths should not be equal.";
+    }
+}
@@ -0,0 +1,196 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.selection.TournamentSelection;
+
+/**
+ * Unit test for {@link PackedBitStringPopulation}.
+ * @author Daniel Dyer
+ */
+public class PackedBitStringPopulationTest
+{
+    @Test
+    public void testBitStringConversion()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(3, 100);
+        BitString original = new BitString(100, FrameworkTestUtils.getRNG());
+        population.set(1, original);
+        assert population.toBitString(1).equals(original) : "Bit string changed by packing.";
+        assert population.countSetBits(1) == original.countSetBits() : "Wrong set bit count.";
+        assert population.countSetBits(0) == 0 : "Neighbouring individual should not be affected.";
+        assert population.countSetBits(2) == 0 : "Neighbouring individual should not be affected.";
+    }
+
+
+    @Test
+    public void testBitAccess()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(2, 70);
+        PackedBitString bitString = population.get(0);
+        bitString.setBit(69, true);
+        bitString.flipBit(3);
+        assert bitString.getBit(69) : "Bit 69 should be set.";
+        assert bitString.getBit(3) : "Bit 3 should be set.";
+        assert !bitString.getBit(4) : "Bit 4 should not be set.";
+        assert bitString.countSetBits() == 2 : "Wrong number of set bits: " + bitString.countSetBits();
+        bitString.flipBit(69);
+        assert bitString.countUnsetBits() == 69 : "Wrong number of unset bits: " + bitString.countUnsetBits();
+    }
+
+
+    /**
+     * Bits beyond the length of the bit string must never become set, otherwise
+     * word-level operations such as counting will give the wrong answer.
+     */
+    @Test
+    public void testLastWordIsMasked()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(1, 65);
+        population.setWord(0, 1, -1L);
+        assert population.getWord(0, 1) == 1 : "Unused bits should have been cleared.";
+        assert population.countSetBits(0) == 1 : "Unused bits should not be counted.";
+    }
+
+
+    @Test
+    public void testSwapPrefix()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(2, 130);
+        population.set(0, new BitString(130, FrameworkTestUtils.getRNG()));
+        population.set(1, new BitString(130, FrameworkTestUtils.getRNG()));
+        BitString original0 = population.toBitString(0);
+        BitString original1 = population.toBitString(1);
+        BitString expected0 = original0.clone();
+        BitString expected1 = original1.clone();
+        for (int i = 0; i < 100; i++)
+        {
+            expected0.setBit(i, original1.getBit(i));
+            expected1.setBit(i, original0.getBit(i));
+        }
+        population.swapPrefix(0, 1, 100);
+        assert population.toBitString(0).equals(expected0) : "Wrong bits after swap.";
+        assert population.toBitString(1).equals(expected1) : "Wrong bits after swap.";
+    }
+
+
+    @Test
+    public void testFitnessAndCopy()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(5, 10);
+        population.set(2, new BitString("1110001110"));
+        population.evaluate(new FitnessEvaluator<PackedBitString>()
+        {
+            public double getFitness(PackedBitString candidate, List<? extends PackedBitString> population)
+            {
+                return candidate.countSetBits();
+            }
+
+            public boolean isNatural()
+            {
+                return true;
+            }
+        }, 0, population.getSize());
+        assert population.getFitness(2) == 6 : "Wrong fitness: " + population.getFitness(2);
+        assert population.getFitness(0) == 0 : "Wrong fitness: " + population.getFitness(0);
+
+        PackedBitStringPopulation nextGeneration = PackedBitStringPopulation.allocate(5, 10);
+        population.copy(2, nextGeneration, 4);
+        assert nextGeneration.get(4).getFitness() == 6 : "Fitness should have been copied.";
+        assert nextGeneration.toBitString(4).equals(new BitString("1110001110")) : "Bits should have been copied.";
+    }
+
+
+    @Test
+    public void testMemoryMapped() throws IOException
+    {
+        File file = File.createTempFile("population", ".bin");
+        try
+        {
+            BitString bitString = new BitString(200, FrameworkTestUtils.getRNG());
+            PackedBitStringPopulation population = PackedBitStringPopulation.map(file, 10, 200);
+            population.set(9, bitString);
+            population.setFitness(9, 42);
+            population.force();
+
+            // A second mapping of the same file should see the same data.
+            PackedBitStringPopulation reloaded = PackedBitStringPopulation.map(file, 10, 200);
+            assert reloaded.toBitString(9).equals(bitString) : "Bits not persisted.";
+            assert reloaded.getFitness(9) == 42 : "Fitness not persisted.";
+        }
+        finally
+        {
+            // Deletion may fail on some platforms while the file is still mapped.
+            file.deleteOnExit();
+        }
+    }
+
+
+    /**
+     * Selection should copy individuals, with their fitness scores, into the target
+     * range, favouring the fitter individuals.
+     */
+    @Test
+    public void testSelect()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(100, 20);
+        for (int i = 0; i < 100; i++)
+        {
+            population.setBit(i, i % 20, true);
+            population.setFitness(i, i);
+        }
+        PackedBitStringPopulation next = PackedBitStringPopulation.allocate(100, 20);
+        population.select(new TournamentSelection(Probability.ONE), true, next, 10, 90, FrameworkTestUtils.getRNG());
+        double total = 0;
+        for (int i = 10; i < 90; i++)
+        {
+            int source = (int) next.getFitness(i);
+            assert next.countSetBits(i) == 1 && next.getBit(i, source % 20) : "Bits not copied with fitness.";
+            total += source;
+        }
+        // The expected mean winner of a binary tournament over 0-99 is 66.
+        assert total / 80 > 60 : "Selection should favour fitter individuals: " + total / 80;
+        assert next.getFitness(0) == 0 && next.countSetBits(0) == 0 : "Slots outside the range should be unchanged.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSelectIntoSelf()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(10, 20);
+        population.select(new TournamentSelection(Probability.ONE),
+                          true,
+                          population,
+                          0,
+                          10,
+                          FrameworkTestUtils.getRNG());
+    }
+
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testInvalidIndex()
+    {
+        PackedBitStringPopulation.allocate(5, 10).get(5);
+    }
+}
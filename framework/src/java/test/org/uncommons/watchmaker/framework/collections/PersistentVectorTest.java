@@ -0,0 +1,122 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link PersistentVector}.
+ * @author Daniel Dyer
+ */
+public class PersistentVectorTest
+{
+    /**
+     * Applies a long random sequence of modifications to a vector and to an
+     * {@link ArrayList} and checks that they always have the same contents.
+     * The vector grows large enough to need several levels of tree and then
+     * shrinks again so that nodes are merged.
+     */
+    @Test
+    public void testRandomModifications()
+    {
+        Random rng = FrameworkTestUtils.getRNG();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 20000; i++)
+        {
+            int operation = rng.nextInt(10);
+            // Grow for the first half, then shrink.
+            boolean grow = i < 10000 ? operation < 7 : operation < 3;
+            if (grow || expected.isEmpty())
+            {
+                int index = rng.nextInt(expected.size() + 1);
+                vector = vector.insert(index, i);
+                expected.add(index, i);
+            }
+            else if (operation < 8)
+            {
+                int index = rng.nextInt(expected.size());
+                vector = vector.delete(index);
+                expected.remove(index);
+            }
+            else
+            {
+                int index = rng.nextInt(expected.size());
+                vector = vector.replace(index, -i);
+                expected.set(index, -i);
+            }
+            assert vector.size() == expected.size() : "Wrong size after " + i + " operations.";
+        }
+        assert vector.equals(expected) : "Vector contents do not match.";
+        // Check that emptying the vector completely works.
+        while (!vector.isEmpty())
+        {
+            vector = vector.delete(rng.nextInt(vector.size()));
+        }
+        assert vector.size() == 0 : "Vector should be empty.";
+    }
+
+
+    /**
+     * Modified copies must not affect the vector that they were derived from.
+     */
+    @Test
+    public void testImmutability()
+    {
+        List<Integer> elements = new ArrayList<Integer>();
+        for (int i = 0; i < 2000; i++)
+        {
+            elements.add(i);
+        }
+        PersistentVector<Integer> original = PersistentVector.copyOf(elements);
+        PersistentVector<Integer> modified = original.insert(1000, -1).delete(5).replace(1999, -2).swap(0, 1);
+        assert original.equals(elements) : "Original vector was modified.";
+        assert modified.size() == 2000 : "Wrong size: " + modified.size();
+        assert modified.get(0) == 1 && modified.get(1) == 0 : "Elements not swapped.";
+        assert modified.get(999) == -1 : "Element not inserted.";
+        assert modified.get(1999) == -2 : "Element not replaced.";
+        assert modified.get(5) == 6 : "Element not deleted.";
+    }
+
+
+    @Test
+    public void testCopyOf()
+    {
+        PersistentVector<String> vector = PersistentVector.copyOf(Arrays.asList("a", "b", "c"));
+        assert PersistentVector.copyOf(vector) == vector : "Persistent vectors should not be copied.";
+        assert vector.append("d").equals(Arrays.asList("a", "b", "c", "d")) : "Wrong contents after append.";
+        assert PersistentVector.copyOf(new ArrayList<String>()).isEmpty() : "Vector should be empty.";
+    }
+
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testInvalidIndex()
+    {
+        PersistentVector.copyOf(Arrays.asList(1, 2, 3)).get(3);
+    }
+
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testStandardMutatorsUnsupported()
+    {
+        PersistentVector.copyOf(Arrays.asList(1, 2, 3)).add(4);
+    }
+}
@@ -0,0 +1,100 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the sampling performed by {@link AbstractSampledDiversity}.
+ * @author Daniel Dyer
+ */
+public class AbstractSampledDiversityTest
+{
+    /**
+     * Each sample should contain the configured number of distinct members of the
+     * population, and every member should be sampled sometimes.
+     */
+    @Test
+    public void testSampleWithoutReplacement()
+    {
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>();
+        for (int i = 0; i < 50; i++)
+        {
+            population.add(new EvaluatedCandidate<Integer>(i, 0));
+        }
+        SampleRecorder recorder = new SampleRecorder(10);
+        Set<Integer> everSampled = new HashSet<Integer>();
+        for (int i = 0; i < 100; i++)
+        {
+            recorder.getDiversity(population, FrameworkTestUtils.getRNG());
+            List<? extends Integer> sample = recorder.getSample();
+            assert sample.size() == 10 : "Wrong sample size: " + sample.size();
+            assert new HashSet<Integer>(sample).size() == 10 : "Sample contains duplicates: " + sample;
+            everSampled.addAll(sample);
+        }
+        assert everSampled.size() == 50 : "Some members were never sampled: " + everSampled.size();
+    }
+
+
+    /**
+     * If the population is no larger than the sample size, the whole population
+     * should be examined.
+     */
+    @Test
+    public void testSmallPopulation()
+    {
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>();
+        for (int i = 0; i < 5; i++)
+        {
+            population.add(new EvaluatedCandidate<Integer>(i, 0));
+        }
+        SampleRecorder recorder = new SampleRecorder(10);
+        recorder.getDiversity(population, FrameworkTestUtils.getRNG());
+        assert recorder.getSample().size() == 5 : "Wrong sample size: " + recorder.getSample().size();
+    }
+
+
+    /**
+     * Diversity measure that records the most recent sample.
+     */
+    private static final class SampleRecorder extends AbstractSampledDiversity<Integer>
+    {
+        private List<? extends Integer> lastSample;
+
+        SampleRecorder(int sampleSize)
+        {
+            super(sampleSize);
+        }
+
+        @Override
+        protected double measure(List<? extends Integer> sample)
+        {
+            lastSample = sample;
+            return 0;
+        }
+
+        public List<? extends Integer> getSample()
+        {
+            return lastSample;
+        }
+    }
+}
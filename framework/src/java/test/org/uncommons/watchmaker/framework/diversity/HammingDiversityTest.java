@@ -0,0 +1,74 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.watchmaker.framework.DiversityMeasure;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link HammingDiversity}.
+ * @author Daniel Dyer
+ */
+public class HammingDiversityTest
+{
+    @Test
+    public void testIdenticalPopulation()
+    {
+        List<EvaluatedCandidate<BitString>> population = new ArrayList<EvaluatedCandidate<BitString>>();
+        for (int i = 0; i < 10; i++)
+        {
+            population.add(new EvaluatedCandidate<BitString>(new BitString("1010011"), 0));
+        }
+        DiversityMeasure<BitString> measure = new HammingDiversity();
+        double diversity = measure.getDiversity(population, FrameworkTestUtils.getRNG());
+        assert diversity == 0 : "Identical population should have zero diversity: " + diversity;
+    }
+
+
+    @Test
+    public void testKnownDistance()
+    {
+        List<EvaluatedCandidate<BitString>> population = new ArrayList<EvaluatedCandidate<BitString>>();
+        population.add(new EvaluatedCandidate<BitString>(new BitString("0000"), 0));
+        population.add(new EvaluatedCandidate<BitString>(new BitString("0011"), 0));
+        population.add(new EvaluatedCandidate<BitString>(new BitString("1111"), 0));
+        // Distances are 2, 4 and 2, so the mean is 8/3, divided by the length of 4.
+        double diversity = new HammingDiversity().getDiversity(population, FrameworkTestUtils.getRNG());
+        assert Math.abs(diversity - 2d / 3) < 0.0001 : "Wrong diversity: " + diversity;
+    }
+
+
+    /**
+     * A population of random bit strings should have a diversity of around 0.5, even
+     * when only a sample is examined.
+     */
+    @Test
+    public void testRandomPopulation()
+    {
+        List<EvaluatedCandidate<BitString>> population = new ArrayList<EvaluatedCandidate<BitString>>();
+        for (int i = 0; i < 1000; i++)
+        {
+            population.add(new EvaluatedCandidate<BitString>(new BitString(200, FrameworkTestUtils.getRNG()), 0));
+        }
+        double diversity = new HammingDiversity(50).getDiversity(population, FrameworkTestUtils.getRNG());
+        assert diversity > 0.45 && diversity < 0.55 : "Wrong diversity: " + diversity;
+    }
+}
@@ -0,0 +1,57 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link PermutationDiversity}.
+ * @author Daniel Dyer
+ */
+public class PermutationDiversityTest
+{
+    /**
+     * Rotations and reversals of a cyclic permutation are the same tour, so should
+     * not contribute any diversity.
+     */
+    @Test
+    public void testEquivalentTours()
+    {
+        List<EvaluatedCandidate<List<?>>> population = new ArrayList<EvaluatedCandidate<List<?>>>();
+        population.add(new EvaluatedCandidate<List<?>>(Arrays.asList(1, 2, 3, 4, 5), 0));
+        population.add(new EvaluatedCandidate<List<?>>(Arrays.asList(3, 4, 5, 1, 2), 0));
+        population.add(new EvaluatedCandidate<List<?>>(Arrays.asList(5, 4, 3, 2, 1), 0));
+        double diversity = new PermutationDiversity().getDiversity(population, FrameworkTestUtils.getRNG());
+        assert diversity == 0 : "Equivalent tours should have zero diversity: " + diversity;
+    }
+
+
+    @Test
+    public void testKnownDistance()
+    {
+        List<EvaluatedCandidate<List<?>>> population = new ArrayList<EvaluatedCandidate<List<?>>>();
+        population.add(new EvaluatedCandidate<List<?>>(Arrays.asList("A", "B", "C", "D", "E", "F"), 0));
+        // Swapping C and D breaks the B-C and D-E edges (C-D remains adjacent).
+        population.add(new EvaluatedCandidate<List<?>>(Arrays.asList("A", "B", "D", "C", "E", "F"), 0));
+        double diversity = new PermutationDiversity().getDiversity(population, FrameworkTestUtils.getRNG());
+        assert Math.abs(diversity - 2d / 6) < 0.0001 : "Wrong diversity: " + diversity;
+    }
+}
@@ -0,0 +1,65 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.diversity;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for per-locus entropy diversity of strings.
+ * @author Daniel Dyer
+ */
+public class StringDiversityTest
+{
+    private static final char[] ALPHABET = {'A', 'B'};
+
+    @Test
+    public void testConvergedPopulation()
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>();
+        population.add(new EvaluatedCandidate<String>("ABBA", 0));
+        population.add(new EvaluatedCandidate<String>("ABBA", 0));
+        population.add(new EvaluatedCandidate<String>("ABBA", 0));
+        double diversity = new StringDiversity(ALPHABET, 10).getDiversity(population, FrameworkTestUtils.getRNG());
+        assert diversity == 0 : "Identical population should have zero diversity: " + diversity;
+    }
+
+
+    @Test
+    public void testMaximumDiversity()
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>();
+        population.add(new EvaluatedCandidate<String>("ABBA", 0));
+        population.add(new EvaluatedCandidate<String>("BAAB", 0));
+        double diversity = new StringDiversity(ALPHABET, 10).getDiversity(population, FrameworkTestUtils.getRNG());
+        assert Math.abs(diversity - 1) < 0.0001 : "Every locus has maximum entropy: " + diversity;
+    }
+
+
+    @Test
+    public void testPartialDiversity()
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>();
+        population.add(new EvaluatedCandidate<String>("AA", 0));
+        population.add(new EvaluatedCandidate<String>("AB", 0));
+        // First locus has no entropy, second has maximum.
+        double diversity = new StringDiversity(ALPHABET, 10).getDiversity(population, FrameworkTestUtils.getRNG());
+        assert Math.abs(diversity - 0.5) < 0.0001 : "Wrong diversity: " + diversity;
+    }
+}
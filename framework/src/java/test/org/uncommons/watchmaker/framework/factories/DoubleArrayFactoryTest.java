@@ -0,0 +1,53 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.factories;
+
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.operators.DoubleArrayBounds;
+
+/**
+ * Unit test for the real-valued candidate factory.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayFactoryTest
+{
+    @Test
+    public void testUnseededPopulation()
+    {
+        DoubleArrayBounds bounds = new DoubleArrayBounds(new double[]{0, -10, 5}, new double[]{1, -5, 5});
+        DoubleArrayFactory factory = new DoubleArrayFactory(3, bounds);
+        List<double[]> population = factory.generateInitialPopulation(20, FrameworkTestUtils.getRNG());
+        assert population.size() == 20 : "Wrong population size: " + population.size();
+        for (double[] candidate : population)
+        {
+            assert candidate.length == 3 : "Wrong candidate length: " + candidate.length;
+            for (int i = 0; i < candidate.length; i++)
+            {
+                assert candidate[i] >= bounds.getMinimum(i) && candidate[i] <= bounds.getMaximum(i)
+                    : "Gene out of bounds: " + candidate[i];
+            }
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBoundsLengthMismatch()
+    {
+        new DoubleArrayFactory(4, new DoubleArrayBounds(new double[]{0, 0}, new double[]{1, 1}));
+    }
+}
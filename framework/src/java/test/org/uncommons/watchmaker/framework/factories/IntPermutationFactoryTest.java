@@ -0,0 +1,53 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.factories;
+
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the factory that creates primitive int permutations.
+ * @author Daniel Dyer
+ */
+public class IntPermutationFactoryTest
+{
+    @Test
+    public void testUnseededPopulation()
+    {
+        List<int[]> population = new IntPermutationFactory(10).generateInitialPopulation(20,
+                                                                                          FrameworkTestUtils.getRNG());
+        assert population.size() == 20 : "Wrong population size: " + population.size();
+        for (int[] candidate : population)
+        {
+            assert candidate.length == 10 : "Wrong candidate length: " + candidate.length;
+            boolean[] seen = new boolean[candidate.length];
+            for (int value : candidate)
+            {
+                assert value >= 0 && value < candidate.length : "Element out of range: " + value;
+                assert !seen[value] : "Duplicate element: " + value;
+                seen[value] = true;
+            }
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSize()
+    {
+        new IntPermutationFactory(0);
+    }
+}
@@ -0,0 +1,43 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.factories;
+
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.CandidateFactory;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.binary.LongBitString;
+
+/**
+ * Unit test for the {@link LongBitString} candidate factory.
+ * @author Daniel Dyer
+ */
+public class LongBitStringFactoryTest
+{
+    @Test
+    public void testUnseededPopulation()
+    {
+        CandidateFactory<LongBitString> factory = new LongBitStringFactory(100);
+        List<LongBitString> population = factory.generateInitialPopulation(5, FrameworkTestUtils.getRNG());
+        assert population.size() == 5 : "Wrong population size: " + population.size();
+        for (LongBitString candidate : population)
+        {
+            assert candidate.getLength() == 100 : "Wrong candidate length: " + candidate.getLength();
+            assert candidate.countSetBits() > 0 : "Candidate should have some bits set.";
+            assert candidate.countUnsetBits() > 0 : "Candidate should have some bits unset.";
+        }
+    }
+}
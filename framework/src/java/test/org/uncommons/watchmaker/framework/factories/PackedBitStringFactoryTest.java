@@ -0,0 +1,51 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.factories;
+
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.binary.PackedBitStringPopulation;
+
+/**
+ * Unit test for the packed bit string factory.
+ * @author Daniel Dyer
+ */
+public class PackedBitStringFactoryTest
+{
+    @Test
+    public void testInitialPopulation()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(20, 1000);
+        new PackedBitStringFactory().generateInitialPopulation(population, FrameworkTestUtils.getRNG());
+        for (int i = 0; i < population.getSize(); i++)
+        {
+            int setBits = population.countSetBits(i);
+            // With 1000 random bits, anything outside of this range is astronomically unlikely.
+            assert setBits > 350 && setBits < 650 : "Bits do not appear to be random: " + setBits;
+            assert population.getWord(i, population.getWordCount() - 1) >>> 40 == 0 : "Unused bits are set.";
+        }
+    }
+
+
+    @Test
+    public void testRange()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(4, 64);
+        new PackedBitStringFactory().generateRandomCandidates(population, 1, 3, FrameworkTestUtils.getRNG());
+        assert population.countSetBits(0) == 0 : "Individual outside of range was modified.";
+        assert population.countSetBits(3) == 0 : "Individual outside of range was modified.";
+    }
+}
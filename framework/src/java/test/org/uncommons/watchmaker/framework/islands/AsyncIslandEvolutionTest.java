@@ -0,0 +1,318 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.EvolutionEngine;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.GenerationalEvolutionEngine;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.factories.AbstractCandidateFactory;
+import org.uncommons.watchmaker.framework.factories.StubIntegerFactory;
+import org.uncommons.watchmaker.framework.operators.IntegerAdjuster;
+import org.uncommons.watchmaker.framework.selection.RouletteWheelSelection;
+import org.uncommons.watchmaker.framework.selection.TournamentSelection;
+import org.uncommons.watchmaker.framework.termination.ElapsedTime;
+import org.uncommons.watchmaker.framework.termination.GenerationCount;
+
+/**
+ * Unit test for the {@link AsyncIslandEvolution} class.
+ * @author Daniel Dyer
+ */
+public class AsyncIslandEvolutionTest
+{
+    /**
+     * Global updates should be made on the request thread until the termination
+     * condition is satisfied.
+     */
+    @Test
+    public void testGlobalUpdates()
+    {
+        AsyncIslandEvolution<Integer> islandEvolution = new AsyncIslandEvolution<Integer>(3,
+                                                                                          new RingTopology(),
+                                                                                          new StubIntegerFactory(),
+                                                                                          new IntegerAdjuster(2),
+                                                                                          new ValueEvaluator(),
+                                                                                          new RouletteWheelSelection(),
+                                                                                          FrameworkTestUtils.getRNG());
+        final Thread requestThread = Thread.currentThread();
+        final List<PopulationData<? extends Integer>> updates = new ArrayList<PopulationData<? extends Integer>>();
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                assert Thread.currentThread() == requestThread : "Global update on wrong thread.";
+                updates.add(populationData);
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData){}
+        });
+        TerminationCondition condition = new GenerationCount(3);
+        Integer result = islandEvolution.evolve(5, 1, 3, 1, condition);
+        assert result != null : "Result should not be null.";
+        assert updates.size() == 3 : "Expected 3 global updates, was " + updates.size();
+        for (int i = 0; i < updates.size(); i++)
+        {
+            assert updates.get(i).getGenerationNumber() == i : "Wrong epoch number.";
+            assert updates.get(i).getPopulationSize() == 15 : "Wrong population size.";
+            assert i == 0 || updates.get(i).getEvaluationCount() >= updates.get(i - 1).getEvaluationCount()
+                : "Evaluation count should not decrease.";
+        }
+        assert islandEvolution.getSatisfiedTerminationConditions().contains(condition) : "Wrong satisfied conditions.";
+    }
+
+
+    /**
+     * Candidates from one island should eventually arrive on the next island in the ring.
+     */
+    @Test
+    public void testMigration()
+    {
+        List<EvolutionEngine<Integer>> islands = new ArrayList<EvolutionEngine<Integer>>(2);
+        islands.add(createIsland(0));
+        islands.add(createIsland(10));
+        AsyncIslandEvolution<Integer> islandEvolution = new AsyncIslandEvolution<Integer>(islands,
+                                                                                          new RingTopology(),
+                                                                                          true,
+                                                                                          FrameworkTestUtils.getRNG());
+        final boolean[] arrived = new boolean[1];
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData){}
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                if (islandIndex == 0 && populationData.getBestCandidate() == 10)
+                {
+                    arrived[0] = true;
+                }
+            }
+        });
+        TerminationCondition migrated = new TerminationCondition()
+        {
+            public boolean shouldTerminate(PopulationData<?> populationData)
+            {
+                return arrived[0];
+            }
+        };
+        islandEvolution.evolve(10, 1, 2, 2, migrated, new ElapsedTime(10000));
+        assert islandEvolution.getSatisfiedTerminationConditions().contains(migrated) : "No immigrants arrived.";
+    }
+
+
+    /**
+     * Many more islands than threads should be able to share a small, long-lived pool,
+     * with every island getting a turn.
+     */
+    @Test
+    public void testManyIslands()
+    {
+        final int islandCount = 200;
+        AsyncIslandEvolution<Integer> islandEvolution = new AsyncIslandEvolution<Integer>(islandCount,
+                                                                                          new RingTopology(),
+                                                                                          new StubIntegerFactory(),
+                                                                                          new IntegerAdjuster(2),
+                                                                                          new ValueEvaluator(),
+                                                                                          new RouletteWheelSelection(),
+                                                                                          FrameworkTestUtils.getRNG());
+        final Set<Thread> islandThreads = Collections.synchronizedSet(new HashSet<Thread>());
+        final int[] globalPopulationSize = new int[1];
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                globalPopulationSize[0] = populationData.getPopulationSize();
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                islandThreads.add(Thread.currentThread());
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            islandEvolution.setExecutorService(executor);
+            for (int run = 0; run < 2; run++)
+            {
+                Integer result = islandEvolution.evolve(5, 0, 2, 1, new GenerationCount(3));
+                assert result != null : "Result should not be null.";
+                // Every island must have contributed to the global statistics.
+                assert globalPopulationSize[0] == islandCount * 5 : "Wrong population size: " + globalPopulationSize[0];
+            }
+            assert !executor.isShutdown() : "Caller-supplied executor should not be shut down.";
+            assert islandThreads.size() <= 2 : "Islands should only use the executor's threads: " + islandThreads.size();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * No island should still be evolving once {@link AsyncIslandEvolution#evolve(int, int, int, int,
+     * TerminationCondition[])} has returned, otherwise a subsequent invocation would share its
+     * engines with the epochs left over from the previous one.
+     */
+    @Test
+    public void testNoEpochsAfterReturn()
+    {
+        AsyncIslandEvolution<Integer> islandEvolution = new AsyncIslandEvolution<Integer>(4,
+                                                                                          new RingTopology(),
+                                                                                          new StubIntegerFactory(),
+                                                                                          new IntegerAdjuster(2),
+                                                                                          new ValueEvaluator(),
+                                                                                          new RouletteWheelSelection(),
+                                                                                          FrameworkTestUtils.getRNG());
+        final AtomicInteger activeIslands = new AtomicInteger(0);
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData){}
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                activeIslands.incrementAndGet();
+                // Slow the islands down, ignoring interrupts, so that some epochs are still
+                // running when evolution terminates.
+                long end = System.currentTimeMillis() + 10;
+                while (System.currentTimeMillis() < end)
+                {
+                    Thread.yield();
+                }
+                activeIslands.decrementAndGet();
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            islandEvolution.setExecutorService(executor);
+            for (int run = 0; run < 3; run++)
+            {
+                islandEvolution.evolve(5, 0, 20, 1, new GenerationCount(2));
+                assert activeIslands.get() == 0 : "Islands were still evolving after return.";
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+
+    @Test
+    public void testInterrupt()
+    {
+        AsyncIslandEvolution<Integer> islandEvolution = new AsyncIslandEvolution<Integer>(2,
+                                                                                          new RingTopology(),
+                                                                                          new StubIntegerFactory(),
+                                                                                          new IntegerAdjuster(2),
+                                                                                          new ValueEvaluator(),
+                                                                                          new RouletteWheelSelection(),
+                                                                                          FrameworkTestUtils.getRNG());
+        final long timeout = 1000L;
+        final Thread requestThread = Thread.currentThread();
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                if (populationData.getElapsedTime() > timeout / 2)
+                {
+                    requestThread.interrupt();
+                }
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData){}
+        });
+        long startTime = System.currentTimeMillis();
+        islandEvolution.evolve(10, 0, 10, 0, new ElapsedTime(timeout));
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        assert Thread.interrupted() : "Thread was not interrupted before timeout.";
+        assert elapsedTime < timeout : "Engine did not respond to interrupt before timeout.";
+        assert islandEvolution.getSatisfiedTerminationConditions().isEmpty()
+            : "Interrupted islands should have no satisfied termination conditions.";
+    }
+
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testGetSatisfiedTerminationConditionsBeforeStart()
+    {
+        AsyncIslandEvolution<Integer> islandEvolution = new AsyncIslandEvolution<Integer>(2,
+                                                                                          new RingTopology(),
+                                                                                          new StubIntegerFactory(),
+                                                                                          new IntegerAdjuster(2),
+                                                                                          new ValueEvaluator(),
+                                                                                          new RouletteWheelSelection(),
+                                                                                          FrameworkTestUtils.getRNG());
+        islandEvolution.getSatisfiedTerminationConditions();
+    }
+
+
+    /**
+     * Creates an island on which every candidate has the same value.
+     */
+    private EvolutionEngine<Integer> createIsland(final int value)
+    {
+        GenerationalEvolutionEngine<Integer> island
+            = new GenerationalEvolutionEngine<Integer>(new AbstractCandidateFactory<Integer>()
+                                                       {
+                                                           public Integer generateRandomCandidate(Random rng)
+                                                           {
+                                                               return value;
+                                                           }
+                                                       },
+                                                       new IntegerAdjuster(0),
+                                                       new ValueEvaluator(),
+                                                       new TournamentSelection(new Probability(0.9)),
+                                                       FrameworkTestUtils.getRNG());
+        island.setSingleThreaded(true);
+        return island;
+    }
+
+
+    /**
+     * Fitness is the value of the candidate.
+     */
+    private static class ValueEvaluator implements FitnessEvaluator<Integer>
+    {
+        public double getFitness(Integer candidate, List<? extends Integer> population)
+        {
+            return candidate;
+        }
+
+        public boolean isNatural()
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link BalancingUtils} class.
+ * @author Daniel Dyer
+ */
+public class BalancingUtilsTest
+{
+    @Test
+    public void testProportionalShares()
+    {
+        int[] shares = new int[3];
+        BalancingUtils.apportion(new double[]{1, 2, 7}, 100, 1, shares);
+        assert shares[0] == 10 : "Wrong share: " + shares[0];
+        assert shares[1] == 20 : "Wrong share: " + shares[1];
+        assert shares[2] == 70 : "Wrong share: " + shares[2];
+    }
+
+
+    /**
+     * Rounded shares must always add up to the total.
+     */
+    @Test
+    public void testRounding()
+    {
+        int[] shares = new int[3];
+        BalancingUtils.apportion(new double[]{1, 1, 1}, 10, 1, shares);
+        assert shares[0] + shares[1] + shares[2] == 10 : "Shares do not add up to total.";
+        for (int share : shares)
+        {
+            assert share == 3 || share == 4 : "Share should be rounded up or down: " + share;
+        }
+    }
+
+
+    /**
+     * Shares that would be below the minimum are raised to it, and the others
+     * divide what is left.
+     */
+    @Test
+    public void testMinimum()
+    {
+        int[] shares = new int[3];
+        BalancingUtils.apportion(new double[]{1, 100, 100}, 50, 5, shares);
+        assert shares[0] == 5 : "Share should be raised to minimum: " + shares[0];
+        assert shares[1] + shares[2] == 45 : "Other shares should divide remainder.";
+        assert Math.abs(shares[1] - shares[2]) <= 1 : "Equal weights should get equal shares.";
+    }
+
+
+    /**
+     * If the total is too small, every share should be the minimum.
+     */
+    @Test
+    public void testTotalTooSmall()
+    {
+        int[] shares = new int[3];
+        BalancingUtils.apportion(new double[]{1, 2, 3}, 2, 1, shares);
+        for (int share : shares)
+        {
+            assert share == 1 : "Share should be the minimum: " + share;
+        }
+    }
+}
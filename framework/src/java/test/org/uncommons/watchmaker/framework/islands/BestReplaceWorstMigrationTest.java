@@ -0,0 +1,80 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Arrays;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link BestReplaceWorstMigration} class.
+ * @author Daniel Dyer
+ */
+public class BestReplaceWorstMigrationTest
+{
+    /**
+     * The fittest members of each island (first in the list) should replace the
+     * least fit members (last in the list) of the next island.
+     */
+    @Test
+    public void testRingMigration()
+    {
+        Migration<Object> migration = new BestReplaceWorstMigration();
+        @SuppressWarnings("unchecked")
+        List<List<EvaluatedCandidate<String>>> islandPopulations = Arrays.asList(MigrationTestUtils.createTestPopulation("A1", "A2", "A3", "A4"),
+                                                                                 MigrationTestUtils.createTestPopulation("B1", "B2", "B3", "B4"),
+                                                                                 MigrationTestUtils.createTestPopulation("C1", "C2", "C3", "C4"));
+        migration.migrate(islandPopulations, 2, FrameworkTestUtils.getRNG());
+        // Emigrants are copied, so the fittest remain on their home island.
+        MigrationTestUtils.testPopulationContents(islandPopulations.get(0), "A1", "A2", "C2", "C1");
+        MigrationTestUtils.testPopulationContents(islandPopulations.get(1), "B1", "B2", "A2", "A1");
+        MigrationTestUtils.testPopulationContents(islandPopulations.get(2), "C1", "C2", "B2", "B1");
+    }
+
+
+    /**
+     * Islands with several neighbours may receive more immigrants than they have members.
+     */
+    @Test
+    public void testExcessImmigrants()
+    {
+        Migration<Object> migration = new BestReplaceWorstMigration(new HypercubeTopology());
+        @SuppressWarnings("unchecked")
+        List<List<EvaluatedCandidate<String>>> islandPopulations = Arrays.asList(MigrationTestUtils.createTestPopulation("A1", "A2"),
+                                                                                 MigrationTestUtils.createTestPopulation("B1", "B2"),
+                                                                                 MigrationTestUtils.createTestPopulation("C1", "C2"),
+                                                                                 MigrationTestUtils.createTestPopulation("D1", "D2"));
+        migration.migrate(islandPopulations, 2, FrameworkTestUtils.getRNG());
+        // Islands 0 and 3 receive from islands 1 and 2.  The immigrants from island 1 arrive first and fill them.
+        MigrationTestUtils.testPopulationContents(islandPopulations.get(0), "B2", "B1");
+        MigrationTestUtils.testPopulationContents(islandPopulations.get(3), "B2", "B1");
+    }
+
+
+    @Test
+    public void testZeroMigration()
+    {
+        Migration<Object> migration = new BestReplaceWorstMigration();
+        @SuppressWarnings("unchecked")
+        List<List<EvaluatedCandidate<String>>> islandPopulations = Arrays.asList(MigrationTestUtils.createTestPopulation("A", "A"),
+                                                                                 MigrationTestUtils.createTestPopulation("B", "B"));
+        migration.migrate(islandPopulations, 0, FrameworkTestUtils.getRNG());
+        MigrationTestUtils.testPopulationContents(islandPopulations.get(0), "A", "A");
+        MigrationTestUtils.testPopulationContents(islandPopulations.get(1), "B", "B");
+    }
+}
@@ -0,0 +1,56 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link BitStringCodec} class.
+ * @author Daniel Dyer
+ */
+public class BitStringCodecTest
+{
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        BitStringCodec codec = new BitStringCodec();
+        BitString original = new BitString(77, FrameworkTestUtils.getRNG());
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        codec.encode(original, new DataOutputStream(buffer));
+        // Length plus 77 bits packed into 10 bytes.
+        assert buffer.size() == 4 + 10 : "Encoding is not compact: " + buffer.size() + " bytes.";
+        BitString decoded = codec.decode(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+        assert decoded.equals(original) : "Wrong bits: " + decoded;
+    }
+
+
+    @Test
+    public void testEmptyBitString() throws IOException
+    {
+        BitStringCodec codec = new BitStringCodec();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        codec.encode(new BitString(0), new DataOutputStream(buffer));
+        BitString decoded = codec.decode(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+        assert decoded.getLength() == 0 : "Wrong length: " + decoded.getLength();
+    }
+}
@@ -0,0 +1,200 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.EvolutionEngine;
+import org.uncommons.watchmaker.framework.FitnessEvaluator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.GenerationalEvolutionEngine;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.factories.AbstractCandidateFactory;
+import org.uncommons.watchmaker.framework.operators.IntegerAdjuster;
+import org.uncommons.watchmaker.framework.selection.TournamentSelection;
+import org.uncommons.watchmaker.framework.termination.ElapsedTime;
+
+/**
+ * Unit test for the {@link DistributedIslandEvolution} class.  Both "JVMs" run
+ * in the test's JVM, each with its own transport.
+ * @author Daniel Dyer
+ */
+public class DistributedIslandEvolutionTest
+{
+    /**
+     * Candidates from one node's island should arrive on the other node's island.
+     */
+    @Test
+    public void testMigration() throws Exception
+    {
+        File file = SharedFileTransportTest.createTempFile();
+        SharedFileTransport transport0 = new SharedFileTransport(file, 2, 8, 256);
+        SharedFileTransport transport1 = new SharedFileTransport(file, 2, 8, 256);
+        try
+        {
+            final DistributedIslandEvolution<Integer> node0 = createNode(0, transport0);
+            final DistributedIslandEvolution<Integer> node1 = createNode(1, transport1);
+            final AtomicBoolean finished = new AtomicBoolean(false);
+            Thread node1Thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    node1.evolve(10, 1, 2, 2, new ElapsedTime(10000), new TerminationCondition()
+                    {
+                        public boolean shouldTerminate(PopulationData<?> populationData)
+                        {
+                            return finished.get();
+                        }
+                    });
+                }
+            };
+            node1Thread.start();
+            TerminationCondition migrated = new MigrantArrival(0);
+            node0.evolve(10, 1, 2, 2, migrated, new ElapsedTime(10000));
+            finished.set(true);
+            node1Thread.join();
+            assert node0.getSatisfiedTerminationConditions().contains(migrated) : "No immigrants arrived.";
+        }
+        finally
+        {
+            transport0.close();
+            transport1.close();
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testIslandOutOfRange() throws IOException
+    {
+        SharedFileTransport transport = new SharedFileTransport(SharedFileTransportTest.createTempFile(), 2, 8, 256);
+        try
+        {
+            // Should throw an exception because the hosted island would be number 2 of only 2.
+            new DistributedIslandEvolution<Integer>(Collections.singletonList(createIsland(0)),
+                                                    2,
+                                                    2,
+                                                    new RingTopology(),
+                                                    transport,
+                                                    new IntegerCodec(),
+                                                    true,
+                                                    FrameworkTestUtils.getRNG());
+        }
+        finally
+        {
+            transport.close();
+        }
+    }
+
+
+    /**
+     * Creates a node that hosts a single island, on which every candidate has the value
+     * ten times the island's index.
+     */
+    static DistributedIslandEvolution<Integer> createNode(int islandIndex, MigrantTransport transport)
+    {
+        List<EvolutionEngine<Integer>> islands = Collections.singletonList(createIsland(islandIndex * 10));
+        return new DistributedIslandEvolution<Integer>(islands,
+                                                       islandIndex,
+                                                       2,
+                                                       new RingTopology(),
+                                                       transport,
+                                                       new IntegerCodec(),
+                                                       true,
+                                                       FrameworkTestUtils.getRNG());
+    }
+
+
+    private static EvolutionEngine<Integer> createIsland(final int value)
+    {
+        GenerationalEvolutionEngine<Integer> island
+            = new GenerationalEvolutionEngine<Integer>(new AbstractCandidateFactory<Integer>()
+                                                       {
+                                                           public Integer generateRandomCandidate(Random rng)
+                                                           {
+                                                               return value;
+                                                           }
+                                                       },
+                                                       new IntegerAdjuster(0),
+                                                       new ValueEvaluator(),
+                                                       new TournamentSelection(new Probability(0.9)),
+                                                       FrameworkTestUtils.getRNG());
+        island.setSingleThreaded(true);
+        return island;
+    }
+
+
+    /**
+     * Satisfied once the node's population includes a candidate from the other node,
+     * which will have a different value from all of the natives.
+     */
+    static final class MigrantArrival implements TerminationCondition
+    {
+        private final int nativeValue;
+
+        MigrantArrival(int islandIndex)
+        {
+            this.nativeValue = islandIndex * 10;
+        }
+
+
+        public boolean shouldTerminate(PopulationData<?> populationData)
+        {
+            return populationData.getMeanFitness() != nativeValue;
+        }
+    }
+
+
+    static final class IntegerCodec implements MigrantCodec<Integer>
+    {
+        public void encode(Integer candidate, DataOutput out) throws IOException
+        {
+            out.writeInt(candidate);
+        }
+
+
+        public Integer decode(DataInput in) throws IOException
+        {
+            return in.readInt();
+        }
+    }
+
+
+    /**
+     * Fitness is the value of the candidate.
+     */
+    private static class ValueEvaluator implements FitnessEvaluator<Integer>
+    {
+        public double getFitness(Integer candidate, List<? extends Integer> population)
+        {
+            return candidate;
+        }
+
+        public boolean isNatural()
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.termination.ElapsedTime;
+import org.uncommons.watchmaker.framework.termination.GenerationCount;
+import org.uncommons.watchmaker.framework.termination.TargetFitness;
+
+/**
+ * Unit test for the {@link EpochCancellation} class.
+ * @author Daniel Dyer
+ */
+public class EpochCancellationTest
+{
+    @Test
+    public void testCancellation()
+    {
+        EpochCancellation cancellation = new EpochCancellation(new TerminationCondition[]{new TargetFitness(10, true)},
+                                                               System.currentTimeMillis());
+        cancellation.check(createData(5, 0));
+        assert !cancellation.shouldTerminate(createData(0, 0)) : "Should not cancel before target is reached.";
+        cancellation.check(createData(10, 0));
+        // Any island should now see the cancellation, whatever its own state.
+        assert cancellation.shouldTerminate(createData(0, 0)) : "Should cancel once target is reached.";
+    }
+
+
+    /**
+     * Conditions that keep state, or that depend on the generation number, must only be
+     * checked against the global statistics at the end of an epoch.
+     */
+    @Test
+    public void testStatefulConditionsIgnored()
+    {
+        EpochCancellation cancellation = new EpochCancellation(new TerminationCondition[]{new GenerationCount(1)},
+                                                               System.currentTimeMillis());
+        cancellation.check(createData(0, 100));
+        assert !cancellation.shouldTerminate(createData(0, 100)) : "Generation count should not be checked.";
+    }
+
+
+    /**
+     * Elapsed time should be measured from the start of evolution, not from the start
+     * of the island's epoch.
+     */
+    @Test
+    public void testElapsedTime()
+    {
+        EpochCancellation cancellation = new EpochCancellation(new TerminationCondition[]{new ElapsedTime(1000)},
+                                                               System.currentTimeMillis() - 2000);
+        cancellation.check(createData(0, 0)); // Island's own elapsed time is zero.
+        assert cancellation.shouldTerminate(createData(0, 0)) : "Should cancel once time has elapsed.";
+    }
+
+
+    private PopulationData<Integer> createData(double bestFitness, int generationNumber)
+    {
+        return new PopulationData<Integer>(0, bestFitness, 0, 0, true, 10, 0, generationNumber, 0);
+    }
+}
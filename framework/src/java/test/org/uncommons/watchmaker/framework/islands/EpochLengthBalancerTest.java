@@ -0,0 +1,55 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link EpochLengthBalancer} class.
+ * @author Daniel Dyer
+ */
+public class EpochLengthBalancerTest
+{
+    /**
+     * An island that takes four times as long per generation should be given a quarter
+     * as many generations, with the total number of generations unchanged.
+     */
+    @Test
+    public void testBalance()
+    {
+        long[] epochTimes = {1000, 4000};
+        int[] epochLengths = {10, 10};
+        int[] populationSizes = {50, 50};
+        new EpochLengthBalancer().balance(epochTimes, epochLengths, populationSizes);
+        assert epochLengths[0] == 16 : "Wrong epoch length for fast island: " + epochLengths[0];
+        assert epochLengths[1] == 4 : "Wrong epoch length for slow island: " + epochLengths[1];
+        assert populationSizes[0] == 50 && populationSizes[1] == 50 : "Population sizes should not change.";
+    }
+
+
+    /**
+     * Every island must evolve for at least one generation.
+     */
+    @Test
+    public void testMinimumEpochLength()
+    {
+        long[] epochTimes = {1, 1000000};
+        int[] epochLengths = {5, 5};
+        new EpochLengthBalancer().balance(epochTimes, epochLengths, new int[]{10, 10});
+        assert epochLengths[1] == 1 : "Slow island should evolve for one generation: " + epochLengths[1];
+        assert epochLengths[0] == 9 : "Fast island should have the remaining generations: " + epochLengths[0];
+    }
+}
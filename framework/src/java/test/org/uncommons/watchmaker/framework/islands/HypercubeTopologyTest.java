@@ -0,0 +1,55 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Arrays;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link HypercubeTopology} class.
+ * @author Daniel Dyer
+ */
+public class HypercubeTopologyTest
+{
+    @Test
+    public void testNeighbours()
+    {
+        Topology topology = new HypercubeTopology();
+        int[] neighbours = topology.getNeighbours(5, 8); // 101
+        Arrays.sort(neighbours);
+        assert Arrays.equals(neighbours, new int[]{1, 4, 7}) : "Wrong neighbours: " + Arrays.toString(neighbours);
+    }
+
+
+    /**
+     * Corners without an island should be skipped.
+     */
+    @Test
+    public void testIncompleteHypercube()
+    {
+        Topology topology = new HypercubeTopology();
+        int[] neighbours = topology.getNeighbours(4, 6); // 100
+        Arrays.sort(neighbours);
+        assert Arrays.equals(neighbours, new int[]{0, 5}) : "Wrong neighbours: " + Arrays.toString(neighbours);
+    }
+
+
+    @Test
+    public void testSingleIsland()
+    {
+        assert new HypercubeTopology().getNeighbours(0, 1).length == 0 : "Single island should have no neighbours.";
+    }
+}
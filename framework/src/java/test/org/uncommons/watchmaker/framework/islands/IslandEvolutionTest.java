@@ -15,16 +15,25 @@
 //=============================================================================
 package org.uncommons.watchmaker.framework.islands;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
 import org.uncommons.watchmaker.framework.FitnessEvaluator;
 import org.uncommons.watchmaker.framework.FrameworkTestUtils;
 import org.uncommons.watchmaker.framework.PopulationData;
 import org.uncommons.watchmaker.framework.factories.StubIntegerFactory;
 import org.uncommons.watchmaker.framework.operators.IntegerAdjuster;
 import org.uncommons.watchmaker.framework.selection.RouletteWheelSelection;
+import org.uncommons.watchmaker.framework.selection.TournamentSelection;
 import org.uncommons.watchmaker.framework.termination.ElapsedTime;
 import org.uncommons.watchmaker.framework.termination.GenerationCount;
+import org.uncommons.watchmaker.framework.termination.TargetFitness;
 
 /**
  * Unit test for the {@link IslandEvolution} class.
@@ -78,6 +87,287 @@ public class IslandEvolutionTest
     }
 
 
+    /**
+     * Islands should keep their evaluated populations between epochs, so only the
+     * first epoch evaluates an initial population.
+     */
+    @Test
+    public void testNoReEvaluation()
+    {
+        IslandEvolution<Integer> islandEvolution = new IslandEvolution<Integer>(3,
+                                                                                new RingMigration(),
+                                                                                new StubIntegerFactory(),
+                                                                                new IntegerAdjuster(2),
+                                                                                new DummyFitnessEvaluator(),
+                                                                                new RouletteWheelSelection(),
+                                                                                FrameworkTestUtils.getRNG());
+        final long[] evaluationCount = new long[1];
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                evaluationCount[0] = populationData.getEvaluationCount();
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData){}
+        });
+        islandEvolution.evolve(5, 0, 5, 1, new GenerationCount(2));
+        // First epoch: 5 initial evaluations plus 4 generations of 5, second epoch: 4 generations of 5.
+        long expected = 3 * (5 + 4 * 5 + 4 * 5);
+        assert evaluationCount[0] == expected : "Expected " + expected + " evaluations, was " + evaluationCount[0];
+    }
+
+
+    /**
+     * The global statistics for each epoch should combine the statistics of the
+     * final generation of that epoch on each island.
+     */
+    @Test
+    public void testGlobalStatistics()
+    {
+        final int islandCount = 3;
+        IslandEvolution<Integer> islandEvolution = new IslandEvolution<Integer>(islandCount,
+                                                                                new RingMigration(),
+                                                                                new StubIntegerFactory(),
+                                                                                new IntegerAdjuster(2),
+                                                                                new ValueEvaluator(),
+                                                                                new RouletteWheelSelection(),
+                                                                                FrameworkTestUtils.getRNG());
+        final PopulationData<?>[] islandData = new PopulationData<?>[islandCount];
+        final List<PopulationData<? extends Integer>> globalData = new ArrayList<PopulationData<? extends Integer>>();
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                globalData.add(populationData);
+                double sum = 0;
+                double best = Double.NEGATIVE_INFINITY;
+                for (PopulationData<?> data : islandData)
+                {
+                    sum += data.getMeanFitness() * data.getPopulationSize();
+                    best = Math.max(best, data.getBestCandidateFitness());
+                }
+                assert populationData.getPopulationSize() == 15 : "Wrong population size.";
+                assert Math.abs(populationData.getMeanFitness() - sum / 15) < 1e-9 : "Wrong mean fitness.";
+                assert populationData.getBestCandidateFitness() == best : "Wrong best fitness.";
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                islandData[islandIndex] = populationData;
+            }
+        });
+        Integer result = islandEvolution.evolve(5, 1, 3, 1, new GenerationCount(3));
+        assert globalData.size() == 3 : "Wrong number of global updates: " + globalData.size();
+        assert result.equals(globalData.get(2).getBestCandidate()) : "Wrong result.";
+    }
+
+
+    /**
+     * Many more islands than threads should be able to share a small, long-lived pool.
+     */
+    @Test
+    public void testManyIslands()
+    {
+        final int islandCount = 500;
+        IslandEvolution<Integer> islandEvolution = new IslandEvolution<Integer>(islandCount,
+                                                                                new RingMigration(),
+                                                                                new StubIntegerFactory(),
+                                                                                new IntegerAdjuster(2),
+                                                                                new DummyFitnessEvaluator(),
+                                                                                new RouletteWheelSelection(),
+                                                                                FrameworkTestUtils.getRNG());
+        final Set<Thread> islandThreads = Collections.synchronizedSet(new HashSet<Thread>());
+        final int[] globalPopulationSize = new int[1];
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                globalPopulationSize[0] = populationData.getPopulationSize();
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                islandThreads.add(Thread.currentThread());
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            islandEvolution.setExecutorService(executor);
+            // The executor should be re-usable for subsequent runs.
+            for (int run = 0; run < 2; run++)
+            {
+                islandEvolution.evolve(5, 0, 2, 1, new GenerationCount(2));
+                assert globalPopulationSize[0] == islandCount * 5 : "Wrong population size: " + globalPopulationSize[0];
+            }
+            assert !executor.isShutdown() : "Caller-supplied executor should not be shut down.";
+            assert islandThreads.size() <= 2 : "Islands should only use the executor's threads: " + islandThreads.size();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Islands with their own configurations and population sizes.
+     */
+    @Test
+    public void testHeterogeneousIslands()
+    {
+        List<IslandConfiguration<Integer>> configurations = new ArrayList<IslandConfiguration<Integer>>();
+        configurations.add(new IslandConfiguration<Integer>(new StubIntegerFactory(),
+                                                            new IntegerAdjuster(1),
+                                                            new ValueEvaluator(),
+                                                            new RouletteWheelSelection()));
+        configurations.add(new IslandConfiguration<Integer>(new StubIntegerFactory(),
+                                                            new IntegerAdjuster(3),
+                                                            new ValueEvaluator(),
+                                                            new TournamentSelection(Probability.ONE)));
+        IslandEvolution<Integer> islandEvolution = new IslandEvolution<Integer>(configurations,
+                                                                                new RingMigration(),
+                                                                                FrameworkTestUtils.getRNG());
+        final int[] islandSizes = new int[2];
+        final int[] globalSize = new int[1];
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                globalSize[0] = populationData.getPopulationSize();
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                islandSizes[islandIndex] = populationData.getPopulationSize();
+            }
+        });
+        islandEvolution.evolve(new int[]{5, 10}, 1, 3, 2, new GenerationCount(2));
+        assert islandSizes[0] == 5 : "Wrong size for first island: " + islandSizes[0];
+        assert islandSizes[1] == 10 : "Wrong size for second island: " + islandSizes[1];
+        assert globalSize[0] == 15 : "Wrong global population size: " + globalSize[0];
+    }
+
+
+    /**
+     * Islands can't exchange fitness scores if they disagree on whether fitness is natural.
+     */
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInconsistentFitness()
+    {
+        List<IslandConfiguration<Integer>> configurations = new ArrayList<IslandConfiguration<Integer>>();
+        configurations.add(new IslandConfiguration<Integer>(new StubIntegerFactory(),
+                                                            new IntegerAdjuster(1),
+                                                            new ValueEvaluator(),
+                                                            new RouletteWheelSelection()));
+        configurations.add(new IslandConfiguration<Integer>(new StubIntegerFactory(),
+                                                            new IntegerAdjuster(1),
+                                                            new NonNaturalValueEvaluator(),
+                                                            new RouletteWheelSelection()));
+        new IslandEvolution<Integer>(configurations, new RingMigration(), FrameworkTestUtils.getRNG());
+    }
+
+
+    /**
+     * The load balancer should be consulted after every epoch except the first, and its
+     * epoch lengths and population sizes should be applied to the following epoch.
+     */
+    @Test
+    public void testLoadBalancing()
+    {
+        IslandEvolution<Integer> islandEvolution = new IslandEvolution<Integer>(2,
+                                                                                new RingMigration(),
+                                                                                new StubIntegerFactory(),
+                                                                                new IntegerAdjuster(2),
+                                                                                new ValueEvaluator(),
+                                                                                new RouletteWheelSelection(),
+                                                                                FrameworkTestUtils.getRNG());
+        final int[] balanceCount = new int[1];
+        islandEvolution.setLoadBalancer(new LoadBalancer()
+        {
+            public void balance(long[] epochTimes, int[] epochLengths, int[] populationSizes)
+            {
+                ++balanceCount[0];
+                assert epochTimes[0] > 0 && epochTimes[1] > 0 : "Epoch times should be measured.";
+                epochLengths[0] = 2;
+                epochLengths[1] = 6;
+                populationSizes[0] = 4;
+                populationSizes[1] = 8;
+            }
+        });
+        final int[] generationCounts = new int[2];
+        final int[] islandSizes = new int[2];
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                // No global checks.
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                ++generationCounts[islandIndex];
+                islandSizes[islandIndex] = populationData.getPopulationSize();
+            }
+        });
+        islandEvolution.evolve(6, 1, 4, 1, new GenerationCount(3));
+        // The balancer runs after the second and third epochs (its last adjustment is not used).
+        assert balanceCount[0] == 2 : "Balancer should have been called twice: " + balanceCount[0];
+        assert generationCounts[0] == 4 + 4 + 2 : "Wrong generation count: " + generationCounts[0];
+        assert generationCounts[1] == 4 + 4 + 6 : "Wrong generation count: " + generationCounts[1];
+        assert islandSizes[0] == 4 : "Wrong population size: " + islandSizes[0];
+        assert islandSizes[1] == 8 : "Wrong population size: " + islandSizes[1];
+    }
+
+
+    /**
+     * Reaching the target fitness on any island should stop all islands part-way
+     * through the epoch.
+     */
+    @Test
+    public void testCancellationMidEpoch()
+    {
+        final int islandCount = 3;
+        final int epochLength = 1000;
+        IslandEvolution<Integer> islandEvolution = new IslandEvolution<Integer>(islandCount,
+                                                                                new RingMigration(),
+                                                                                new StubIntegerFactory(),
+                                                                                new IntegerAdjuster(2),
+                                                                                new ValueEvaluator(),
+                                                                                new RouletteWheelSelection(),
+                                                                                FrameworkTestUtils.getRNG());
+        final int[] generationCounts = new int[islandCount];
+        final int[] epochCount = new int[1];
+        islandEvolution.addEvolutionObserver(new IslandEvolutionObserver<Integer>()
+        {
+            public void populationUpdate(PopulationData<? extends Integer> populationData)
+            {
+                ++epochCount[0];
+            }
+
+
+            public void islandPopulationUpdate(int islandIndex, PopulationData<? extends Integer> populationData)
+            {
+                ++generationCounts[islandIndex];
+            }
+        });
+        Integer result = islandEvolution.evolve(10, 0, epochLength, 1, new TargetFitness(20, true));
+        assert result >= 20 : "Target fitness not reached: " + result;
+        assert epochCount[0] == 1 : "Evolution should finish in the first epoch: " + epochCount[0];
+        for (int count : generationCounts)
+        {
+            assert count < epochLength : "Island should stop before the end of the epoch: " + count;
+        }
+        assert islandEvolution.getSatisfiedTerminationConditions().size() == 1 : "Target should be satisfied.";
+    }
+
+
     @Test
     public void testInterrupt()
     {
@@ -140,4 +430,38 @@ public class IslandEvolutionTest
             return true;
         }
     }
+
+
+    /**
+     * Fitness is the value of the candidate.
+     */
+    private static class ValueEvaluator implements FitnessEvaluator<Integer>
+    {
+        public double getFitness(Integer candidate, List<? extends Integer> population)
+        {
+            return candidate;
+        }
+
+        public boolean isNatural()
+        {
+            return true;
+        }
+    }
+
+
+    /**
+     * Fitness is the value of the candidate, with lower values being fitter.
+     */
+    private static class NonNaturalValueEvaluator implements FitnessEvaluator<Integer>
+    {
+        public double getFitness(Integer candidate, List<? extends Integer> population)
+        {
+            return candidate;
+        }
+
+        public boolean isNatural()
+        {
+            return false;
+        }
+    }
 }
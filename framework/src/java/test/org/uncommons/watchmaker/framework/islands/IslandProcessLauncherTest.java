@@ -0,0 +1,80 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+import org.uncommons.watchmaker.framework.termination.ElapsedTime;
+
+/**
+ * Unit test for the {@link IslandProcessLauncher} class.
+ * @author Daniel Dyer
+ */
+public class IslandProcessLauncherTest
+{
+    /**
+     * Migrants should be exchanged between islands in separate JVMs.
+     */
+    @Test
+    public void testMigrationBetweenProcesses() throws IOException, InterruptedException
+    {
+        File file = SharedFileTransportTest.createTempFile();
+        List<Process> workers = IslandProcessLauncher.launch(Worker.class, 2, file.getAbsolutePath());
+        try
+        {
+            int[] exitCodes = IslandProcessLauncher.waitFor(workers);
+            assert exitCodes.length == 2 : "Wrong number of workers.";
+            for (int i = 0; i < exitCodes.length; i++)
+            {
+                assert exitCodes[i] == 0 : "No immigrants arrived at worker " + i + ", exit code " + exitCodes[i];
+            }
+        }
+        finally
+        {
+            IslandProcessLauncher.destroy(workers);
+        }
+    }
+
+
+    /**
+     * Each worker hosts a single island and exits successfully once migrants
+     * from the other worker's island arrive.
+     */
+    public static final class Worker
+    {
+        private Worker()
+        {
+            // Prevents instantiation.
+        }
+
+
+        public static void main(String[] args) throws IOException
+        {
+            int workerIndex = Integer.parseInt(args[0]);
+            int workerCount = Integer.parseInt(args[1]);
+            SharedFileTransport transport = new SharedFileTransport(new File(args[2]), workerCount, 8, 256);
+            DistributedIslandEvolution<Integer> node = DistributedIslandEvolutionTest.createNode(workerIndex,
+                                                                                                 transport);
+            TerminationCondition migrated = new DistributedIslandEvolutionTest.MigrantArrival(workerIndex);
+            node.evolve(10, 1, 2, 2, migrated, new ElapsedTime(20000));
+            transport.close();
+            System.exit(node.getSatisfiedTerminationConditions().contains(migrated) ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link Mailbox} class.
+ * @author Daniel Dyer
+ */
+public class MailboxTest
+{
+    @Test
+    public void testDrain()
+    {
+        Mailbox<String> mailbox = new Mailbox<String>(5);
+        mailbox.post("A");
+        mailbox.post("B");
+        List<String> items = new ArrayList<String>();
+        assert mailbox.drainTo(items) == 2 : "Wrong number of items drained.";
+        assert items.get(0).equals("A") && items.get(1).equals("B") : "Items should be drained oldest first.";
+        assert mailbox.drainTo(items) == 0 : "Mailbox should be empty.";
+    }
+
+
+    /**
+     * When the mailbox is full, the oldest items should be discarded.
+     */
+    @Test
+    public void testOverflow()
+    {
+        Mailbox<String> mailbox = new Mailbox<String>(2);
+        mailbox.post("A");
+        mailbox.post("B");
+        mailbox.post("C");
+        List<String> items = new ArrayList<String>();
+        mailbox.drainTo(items);
+        assert items.size() == 2 : "Capacity exceeded: " + items.size();
+        assert items.get(0).equals("B") && items.get(1).equals("C") : "Oldest item should be discarded.";
+    }
+
+
+    @Test
+    public void testConcurrentPosting() throws InterruptedException
+    {
+        final Mailbox<Integer> mailbox = new Mailbox<Integer>(10);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++)
+        {
+            threads[i] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for (int j = 0; j < 1000; j++)
+                    {
+                        mailbox.post(j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        List<Integer> items = new ArrayList<Integer>();
+        assert mailbox.drainTo(items) == 10 : "Mailbox should be full, has " + items.size();
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroCapacity()
+    {
+        new Mailbox<Object>(0);
+    }
+}
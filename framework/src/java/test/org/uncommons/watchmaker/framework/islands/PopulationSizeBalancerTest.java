@@ -0,0 +1,59 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link PopulationSizeBalancer} class.
+ * @author Daniel Dyer
+ */
+public class PopulationSizeBalancerTest
+{
+    /**
+     * An island that takes three times as long per individual should be given a third of
+     * the population of the other island, with the total population unchanged.
+     */
+    @Test
+    public void testBalance()
+    {
+        long[] epochTimes = {1000, 3000};
+        int[] epochLengths = {10, 10};
+        int[] populationSizes = {100, 100};
+        new PopulationSizeBalancer(2).balance(epochTimes, epochLengths, populationSizes);
+        assert populationSizes[0] == 150 : "Wrong size for fast island: " + populationSizes[0];
+        assert populationSizes[1] == 50 : "Wrong size for slow island: " + populationSizes[1];
+        assert epochLengths[0] == 10 && epochLengths[1] == 10 : "Epoch lengths should not change.";
+    }
+
+
+    @Test
+    public void testMinimumSize()
+    {
+        long[] epochTimes = {1, 1000000};
+        int[] populationSizes = {20, 20};
+        new PopulationSizeBalancer(8).balance(epochTimes, new int[]{10, 10}, populationSizes);
+        assert populationSizes[1] == 8 : "Slow island should have the minimum size: " + populationSizes[1];
+        assert populationSizes[0] == 32 : "Fast island should have the remaining individuals: " + populationSizes[0];
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMinimumSize()
+    {
+        new PopulationSizeBalancer(0);
+    }
+}
@@ -0,0 +1,85 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Arrays;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link RandomRegularTopology} class.
+ * @author Daniel Dyer
+ */
+public class RandomRegularTopologyTest
+{
+    /**
+     * Every island should have the specified number of distinct neighbours, not including
+     * itself, and should be the neighbour of the same number of islands.
+     */
+    @Test
+    public void testRegularity()
+    {
+        final int islandCount = 50;
+        final int degree = 4;
+        Topology topology = new RandomRegularTopology(degree, 42L);
+        int[] inDegrees = new int[islandCount];
+        for (int i = 0; i < islandCount; i++)
+        {
+            int[] neighbours = topology.getNeighbours(i, islandCount);
+            assert neighbours.length == degree : "Wrong number of neighbours: " + neighbours.length;
+            Arrays.sort(neighbours);
+            for (int j = 0; j < neighbours.length; j++)
+            {
+                assert neighbours[j] != i : "Island should not be its own neighbour.";
+                assert j == 0 || neighbours[j] != neighbours[j - 1] : "Duplicate neighbour.";
+                ++inDegrees[neighbours[j]];
+            }
+        }
+        for (int inDegree : inDegrees)
+        {
+            assert inDegree == degree : "Wrong number of incoming connections: " + inDegree;
+        }
+    }
+
+
+    /**
+     * The same seed should always produce the same graph.
+     */
+    @Test
+    public void testDeterminism()
+    {
+        Topology topology1 = new RandomRegularTopology(3, 7L);
+        Topology topology2 = new RandomRegularTopology(3, 7L);
+        for (int i = 0; i < 20; i++)
+        {
+            assert Arrays.equals(topology1.getNeighbours(i, 20), topology2.getNeighbours(i, 20))
+                : "Graphs differ for island " + i;
+        }
+    }
+
+
+    /**
+     * If the degree is too high for the number of islands, every island should be
+     * connected to every other island.
+     */
+    @Test
+    public void testTooFewIslands()
+    {
+        Topology topology = new RandomRegularTopology(5, 1L);
+        int[] neighbours = topology.getNeighbours(1, 3);
+        Arrays.sort(neighbours);
+        assert Arrays.equals(neighbours, new int[]{0, 2}) : "Wrong neighbours: " + Arrays.toString(neighbours);
+    }
+}
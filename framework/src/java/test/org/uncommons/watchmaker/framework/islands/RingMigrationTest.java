@@ -64,4 +64,33 @@ public class RingMigrationTest
         MigrationTestUtils.testPopulationContents(islandPopulations.get(1), "A", "A", "A");
         MigrationTestUtils.testPopulationContents(islandPopulations.get(2), "B", "B", "B");
     }
+
+
+    /**
+     * Each island should receive exactly the migrants from the previous island, in
+     * place of its own emigrants.
+     */
+    @Test
+    public void testPartialMigration()
+    {
+        Migration<Object> migration = new RingMigration();
+        @SuppressWarnings("unchecked")
+        List<List<EvaluatedCandidate<String>>> islandPopulations = Arrays.asList(MigrationTestUtils.createTestPopulation("A", "A", "A", "A"),
+                                                                                 MigrationTestUtils.createTestPopulation("B", "B", "B", "B"),
+                                                                                 MigrationTestUtils.createTestPopulation("C", "C", "C", "C"));
+        migration.migrate(islandPopulations, 1, FrameworkTestUtils.getRNG());
+        String[] natives = {"A", "B", "C"};
+        for (int i = 0; i < natives.length; i++)
+        {
+            String immigrant = natives[(i + natives.length - 1) % natives.length];
+            int nativeCount = 0;
+            int immigrantCount = 0;
+            for (EvaluatedCandidate<String> member : islandPopulations.get(i))
+            {
+                nativeCount += member.getCandidate().equals(natives[i]) ? 1 : 0;
+                immigrantCount += member.getCandidate().equals(immigrant) ? 1 : 0;
+            }
+            assert nativeCount == 3 && immigrantCount == 1 : "Wrong members on island " + i;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link SharedFileTransport} class.
+ * @author Daniel Dyer
+ */
+public class SharedFileTransportTest
+{
+    /**
+     * Messages written via one instance should be readable via another instance
+     * that maps the same file.
+     */
+    @Test
+    public void testDelivery() throws IOException
+    {
+        File file = createTempFile();
+        SharedFileTransport sender = new SharedFileTransport(file, 2, 4, 16);
+        SharedFileTransport receiver = new SharedFileTransport(file, 2, 4, 16);
+        try
+        {
+            sender.send(1, new byte[]{1, 2});
+            sender.send(1, new byte[]{3});
+            List<byte[]> messages = new ArrayList<byte[]>();
+            assert receiver.receive(0, messages) == 0 : "Message delivered to wrong island.";
+            assert receiver.receive(1, messages) == 2 : "Wrong number of messages.";
+            assert messages.get(0).length == 2 && messages.get(0)[1] == 2 : "Wrong first message.";
+            assert messages.get(1).length == 1 && messages.get(1)[0] == 3 : "Wrong second message.";
+            assert receiver.receive(1, messages) == 0 : "Messages should only be received once.";
+        }
+        finally
+        {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+
+    /**
+     * When more messages are sent than there is space for, the oldest should be discarded.
+     */
+    @Test
+    public void testOverflow() throws IOException
+    {
+        SharedFileTransport transport = new SharedFileTransport(createTempFile(), 1, 3, 4);
+        try
+        {
+            for (byte i = 0; i < 5; i++)
+            {
+                transport.send(0, new byte[]{i});
+            }
+            List<byte[]> messages = new ArrayList<byte[]>();
+            assert transport.receive(0, messages) == 3 : "Wrong number of messages.";
+            for (int i = 0; i < 3; i++)
+            {
+                assert messages.get(i)[0] == i + 2 : "Wrong message: " + messages.get(i)[0];
+            }
+        }
+        finally
+        {
+            transport.close();
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMessageTooLarge() throws IOException
+    {
+        SharedFileTransport transport = new SharedFileTransport(createTempFile(), 1, 3, 4);
+        try
+        {
+            transport.send(0, new byte[5]); // Should throw exception because the maximum size is 4 bytes.
+        }
+        finally
+        {
+            transport.close();
+        }
+    }
+
+
+    static File createTempFile() throws IOException
+    {
+        File file = File.createTempFile("islands", ".dat");
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,205 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link SocketTransport} class.
+ * @author Daniel Dyer
+ */
+public class SocketTransportTest
+{
+    @Test
+    public void testRemoteDelivery() throws IOException, InterruptedException
+    {
+        List<InetSocketAddress> addresses = getLoopbackAddresses(2);
+        SocketTransport node0 = new SocketTransport(addresses, 0, 2, 10);
+        SocketTransport node1 = new SocketTransport(addresses, 1, 2, 10);
+        try
+        {
+            node0.send(3, new byte[]{1, 2, 3}); // Island 3 is hosted by node 1.
+            List<byte[]> messages = new ArrayList<byte[]>();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (messages.isEmpty() && System.currentTimeMillis() < deadline)
+            {
+                node1.receive(3, messages);
+                Thread.sleep(10);
+            }
+            assert messages.size() == 1 : "Message not delivered.";
+            assert Arrays.equals(messages.get(0), new byte[]{1, 2, 3}) : "Wrong message content.";
+            node1.receive(2, messages);
+            assert messages.size() == 1 : "Message delivered to wrong island.";
+        }
+        finally
+        {
+            node0.close();
+            node1.close();
+        }
+    }
+
+
+    /**
+     * Messages between islands on the same node should not need the network.
+     */
+    @Test
+    public void testLocalDelivery() throws IOException
+    {
+        SocketTransport transport = new SocketTransport(getLoopbackAddresses(2), 1, 2, 10);
+        try
+        {
+            transport.send(2, new byte[]{4});
+            transport.send(2, new byte[]{5});
+            List<byte[]> messages = new ArrayList<byte[]>();
+            assert transport.receive(2, messages) == 2 : "Wrong number of messages.";
+            assert messages.get(0)[0] == 4 && messages.get(1)[0] == 5 : "Wrong messages or order.";
+        }
+        finally
+        {
+            transport.close();
+        }
+    }
+
+
+    /**
+     * Sending to a node that isn't running should not fail, since migration is best-effort.
+     */
+    @Test
+    public void testUnreachableNode() throws IOException
+    {
+        SocketTransport transport = new SocketTransport(getLoopbackAddresses(2), 0, 1, 10);
+        try
+        {
+            transport.send(1, new byte[]{1});
+        }
+        finally
+        {
+            transport.close();
+        }
+    }
+
+
+    /**
+     * A connection that announces a message longer than the limit should be closed
+     * rather than the receiver trying to allocate a buffer for it.
+     */
+    @Test
+    public void testOversizedMessageHeader() throws IOException
+    {
+        List<InetSocketAddress> addresses = getLoopbackAddresses(2);
+        SocketTransport transport = new SocketTransport(addresses, 1, 2, 10, 16);
+        Socket socket = new Socket();
+        try
+        {
+            socket.connect(addresses.get(1), 5000);
+            socket.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(2);
+            out.writeInt(Integer.MAX_VALUE);
+            out.flush();
+            assert socket.getInputStream().read() == -1 : "Connection should have been closed.";
+            assert transport.receive(2, new ArrayList<byte[]>()) == 0 : "No message should have been delivered.";
+        }
+        finally
+        {
+            socket.close();
+            transport.close();
+        }
+    }
+
+
+    /**
+     * Messages that are longer than the limit should be discarded by the sender, without
+     * affecting later messages.
+     */
+    @Test
+    public void testOversizedMessage() throws IOException, InterruptedException
+    {
+        List<InetSocketAddress> addresses = getLoopbackAddresses(2);
+        SocketTransport node0 = new SocketTransport(addresses, 0, 1, 10, 2);
+        SocketTransport node1 = new SocketTransport(addresses, 1, 1, 10, 2);
+        try
+        {
+            node0.send(1, new byte[]{1, 2, 3});
+            node0.send(1, new byte[]{4, 5});
+            List<byte[]> messages = new ArrayList<byte[]>();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (messages.isEmpty() && System.currentTimeMillis() < deadline)
+            {
+                node1.receive(1, messages);
+                Thread.sleep(10);
+            }
+            assert messages.size() == 1 : "Wrong number of messages: " + messages.size();
+            assert Arrays.equals(messages.get(0), new byte[]{4, 5}) : "Wrong message content.";
+        }
+        finally
+        {
+            node0.close();
+            node1.close();
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testReceiveForRemoteIsland() throws IOException
+    {
+        SocketTransport transport = new SocketTransport(getLoopbackAddresses(2), 0, 1, 10);
+        try
+        {
+            transport.receive(1, new ArrayList<byte[]>()); // Should throw exception because island 1 is on node 1.
+        }
+        finally
+        {
+            transport.close();
+        }
+    }
+
+
+    /**
+     * Finds unused ports on the loopback interface.
+     */
+    static List<InetSocketAddress> getLoopbackAddresses(int count) throws IOException
+    {
+        List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>(count);
+        List<ServerSocket> sockets = new ArrayList<ServerSocket>(count);
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                ServerSocket socket = new ServerSocket(0, 1, InetAddress.getByName(null));
+                sockets.add(socket);
+                addresses.add(new InetSocketAddress(socket.getInetAddress(), socket.getLocalPort()));
+            }
+        }
+        finally
+        {
+            for (ServerSocket socket : sockets)
+            {
+                socket.close();
+            }
+        }
+        return addresses;
+    }
+}
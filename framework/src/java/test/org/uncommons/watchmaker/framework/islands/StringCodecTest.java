@@ -0,0 +1,46 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link StringCodec} class.
+ * @author Daniel Dyer
+ */
+public class StringCodecTest
+{
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        StringCodec codec = new StringCodec();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        codec.encode("HELLO WORLD", out);
+        codec.encode("", out);
+        codec.encode("\u00e9\u4e16", out); // Non-ASCII characters.
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        assert codec.decode(in).equals("HELLO WORLD") : "Wrong first string.";
+        assert codec.decode(in).equals("") : "Wrong second string.";
+        assert codec.decode(in).equals("\u00e9\u4e16") : "Wrong third string.";
+        assert in.read() == -1 : "Unexpected trailing bytes.";
+    }
+}
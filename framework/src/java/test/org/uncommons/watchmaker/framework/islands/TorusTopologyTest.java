@@ -0,0 +1,63 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.islands;
+
+import java.util.Arrays;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for the {@link TorusTopology} class.
+ * @author Daniel Dyer
+ */
+public class TorusTopologyTest
+{
+    @Test
+    public void testNeighbours()
+    {
+        // 0  1  2
+        // 3  4  5
+        // 6  7  8
+        // 9 10 11
+        Topology topology = new TorusTopology(3);
+        int[] neighbours = topology.getNeighbours(4, 12);
+        Arrays.sort(neighbours);
+        assert Arrays.equals(neighbours, new int[]{1, 3, 5, 7}) : "Wrong neighbours: " + Arrays.toString(neighbours);
+        // Corners wrap around.
+        neighbours = topology.getNeighbours(0, 12);
+        Arrays.sort(neighbours);
+        assert Arrays.equals(neighbours, new int[]{1, 2, 3, 9}) : "Wrong neighbours: " + Arrays.toString(neighbours);
+    }
+
+
+    /**
+     * In a small grid, several directions lead to the same island.  Each neighbour should
+     * only be listed once, and an island is never its own neighbour.
+     */
+    @Test
+    public void testSmallGrid()
+    {
+        Topology topology = new TorusTopology(2);
+        int[] neighbours = topology.getNeighbours(0, 2);
+        assert Arrays.equals(neighbours, new int[]{1}) : "Wrong neighbours: " + Arrays.toString(neighbours);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testIncompleteGrid()
+    {
+        new TorusTopology(3).getNeighbours(0, 10); // Should throw an exception because 10 is not a multiple of 3.
+    }
+}
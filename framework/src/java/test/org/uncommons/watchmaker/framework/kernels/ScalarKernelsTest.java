@@ -0,0 +1,98 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.kernels;
+
+import java.util.Arrays;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link ScalarKernels}.
+ * @author Daniel Dyer
+ */
+public class ScalarKernelsTest
+{
+    private final ArrayKernels kernels = new ScalarKernels();
+
+    @Test
+    public void testHammingDistance()
+    {
+        long[] words1 = {0L, -1L, 0xF0L};
+        long[] words2 = {1L, 0L, 0x0FL};
+        int distance = kernels.hammingDistance(words1, words2);
+        assert distance == 1 + 64 + 8 : "Wrong distance: " + distance;
+    }
+
+
+    @Test
+    public void testSquaredError()
+    {
+        double error = kernels.squaredError(new double[]{1, 2, 3}, new double[]{2, 0, 3});
+        assert error == 5 : "Wrong error: " + error;
+    }
+
+
+    /**
+     * The alpha channel must be ignored.
+     */
+    @Test
+    public void testRGBDistance()
+    {
+        int[] pixels1 = {0xFF000000, 0x00030400, 0x00102030};
+        int[] pixels2 = {0x00000000, 0x00000000, 0xFF102030};
+        double distance = kernels.rgbDistance(pixels1, pixels2);
+        assert distance == 5 : "Wrong distance: " + distance;
+    }
+
+
+    @Test
+    public void testMaskedCrossover()
+    {
+        double[] parent1 = {1, 2, 3, 4};
+        double[] parent2 = {5, 6, 7, 8};
+        boolean[] mask = {true, false, false, true};
+        double[] offspring1 = new double[4];
+        double[] offspring2 = new double[4];
+        kernels.maskedCrossover(parent1, parent2, mask, offspring1, offspring2);
+        assert Arrays.equals(offspring1, new double[]{5, 2, 3, 8}) : "Wrong offspring: " + Arrays.toString(offspring1);
+        assert Arrays.equals(offspring2, new double[]{1, 6, 7, 4}) : "Wrong offspring: " + Arrays.toString(offspring2);
+    }
+
+
+    /**
+     * Cross-over must work in place, with the offspring arrays being the parents.
+     */
+    @Test
+    public void testMaskedCrossoverInPlace()
+    {
+        double[] parent1 = {1, 2, 3, 4};
+        double[] parent2 = {5, 6, 7, 8};
+        boolean[] mask = {true, false, false, true};
+        kernels.maskedCrossover(parent1, parent2, mask, parent1, parent2);
+        assert Arrays.equals(parent1, new double[]{5, 2, 3, 8}) : "Wrong offspring: " + Arrays.toString(parent1);
+        assert Arrays.equals(parent2, new double[]{1, 6, 7, 4}) : "Wrong offspring: " + Arrays.toString(parent2);
+    }
+
+
+    /**
+     * Without the optional SIMD module on the classpath, the scalar kernels are used.
+     */
+    @Test
+    public void testKernelSupportFallback()
+    {
+        assert KernelSupport.getKernels() instanceof ScalarKernels : "Scalar kernels should be selected.";
+        assert KernelSupport.getKernels() == KernelSupport.getKernels() : "Kernels should be shared.";
+    }
+}
@@ -0,0 +1,63 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+import org.testng.annotations.Test;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+
+/**
+ * Unit test for {@link IntGeneratorAdapter} and {@link ConstantIntGenerator}.
+ * @author Daniel Dyer
+ */
+public class IntGeneratorAdapterTest
+{
+    /**
+     * A constant generator should be replaced by a primitive constant rather than
+     * wrapped.
+     */
+    @Test
+    public void testAdaptConstant()
+    {
+        IntGenerator generator = IntGeneratorAdapter.adapt(new ConstantGenerator<Integer>(7));
+        assert generator instanceof ConstantIntGenerator : "Constant generator should not be wrapped.";
+        assert generator.nextInt() == 7 : "Wrong value: " + generator.nextInt();
+    }
+
+
+    /**
+     * Any other generator is wrapped and consulted on every call.
+     */
+    @Test
+    public void testAdaptVariable()
+    {
+        IntGenerator generator = IntGeneratorAdapter.adapt(new NumberGenerator<Integer>()
+        {
+            private int count = 0;
+
+            public Integer nextValue()
+            {
+                return ++count;
+            }
+        });
+        assert generator instanceof IntGeneratorAdapter : "Variable generator should be wrapped.";
+        for (int i = 1; i <= 5; i++)
+        {
+            int value = generator.nextInt();
+            assert value == i : "Expected " + i + ", was " + value;
+        }
+    }
+}
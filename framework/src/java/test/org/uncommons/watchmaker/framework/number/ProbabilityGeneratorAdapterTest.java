@@ -0,0 +1,102 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.number;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.number.NumberGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link ProbabilityGeneratorAdapter} and {@link ConstantProbabilityGenerator}.
+ * @author Daniel Dyer
+ */
+public class ProbabilityGeneratorAdapterTest
+{
+    /**
+     * A constant generator should be replaced by a primitive constant rather than
+     * wrapped, so that the operators never unbox in the common case.
+     */
+    @Test
+    public void testAdaptConstant()
+    {
+        ProbabilityGenerator generator
+            = ProbabilityGeneratorAdapter.adapt(new ConstantGenerator<Probability>(new Probability(0.25)));
+        assert generator instanceof ConstantProbabilityGenerator : "Constant generator should not be wrapped.";
+        assert generator.nextProbability() == 0.25 : "Wrong probability: " + generator.nextProbability();
+    }
+
+
+    /**
+     * Any other generator is wrapped and consulted on every call.
+     */
+    @Test
+    public void testAdaptVariable()
+    {
+        ProbabilityGenerator generator = ProbabilityGeneratorAdapter.adapt(new NumberGenerator<Probability>()
+        {
+            private int count = 0;
+
+            public Probability nextValue()
+            {
+                return ++count % 2 == 0 ? Probability.ONE : Probability.ZERO;
+            }
+        });
+        assert generator instanceof ProbabilityGeneratorAdapter : "Variable generator should be wrapped.";
+        assert generator.nextProbability() == 0 : "First value should be zero.";
+        assert generator.nextProbability() == 1 : "Second value should be one.";
+        Random rng = FrameworkTestUtils.getRNG();
+        assert !generator.nextEvent(rng) : "Event should never occur with probability zero.";
+        assert generator.nextEvent(rng) : "Event should always occur with probability one.";
+    }
+
+
+    /**
+     * The primitive constant must give the same events as {@link Probability#nextEvent(Random)}
+     * for the same sequence of random numbers, so that migrated operators are unchanged.
+     */
+    @Test
+    public void testConstantMatchesProbability()
+    {
+        Probability probability = new Probability(0.3);
+        ProbabilityGenerator generator = new ConstantProbabilityGenerator(probability);
+        Random rng1 = new Random(42);
+        Random rng2 = new Random(42);
+        for (int i = 0; i < 1000; i++)
+        {
+            assert generator.nextEvent(rng1) == probability.nextEvent(rng2) : "Events differ at " + i;
+        }
+    }
+
+
+    /**
+     * The boundary probabilities should always and never produce events.
+     */
+    @Test
+    public void testConstantBoundaries()
+    {
+        ProbabilityGenerator always = new ConstantProbabilityGenerator(Probability.ONE);
+        ProbabilityGenerator never = new ConstantProbabilityGenerator(Probability.ZERO);
+        Random rng = FrameworkTestUtils.getRNG();
+        for (int i = 0; i < 1000; i++)
+        {
+            assert always.nextEvent(rng) : "Event should always occur with probability one.";
+            assert !never.nextEvent(rng) : "Event should never occur with probability zero.";
+        }
+    }
+}
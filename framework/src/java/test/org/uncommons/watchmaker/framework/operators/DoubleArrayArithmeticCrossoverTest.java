@@ -0,0 +1,54 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link DoubleArrayArithmeticCrossover} operator.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayArithmeticCrossoverTest
+{
+    /**
+     * Both offspring must lie on the line between the parents, symmetrically
+     * about its mid-point.
+     */
+    @Test
+    public void testCrossover()
+    {
+        EvolutionaryOperator<double[]> crossover = new DoubleArrayArithmeticCrossover();
+        double[] parent1 = {0, 0};
+        double[] parent2 = {2, 4};
+        List<double[]> population = new ArrayList<double[]>(2);
+        population.add(parent1);
+        population.add(parent2);
+        for (int i = 0; i < 20; i++)
+        {
+            List<double[]> offspring = crossover.apply(population, FrameworkTestUtils.getRNG());
+            assert offspring.size() == 2 : "Population size changed after cross-over.";
+            double[] offspring1 = offspring.get(0);
+            double[] offspring2 = offspring.get(1);
+            assert Math.abs(offspring1[1] - 2 * offspring1[0]) < 1e-9 : "Offspring not on the line between parents.";
+            assert Math.abs(offspring1[0] + offspring2[0] - 2) < 1e-9 : "Offspring not symmetric.";
+            assert Math.abs(offspring1[1] + offspring2[1] - 4) < 1e-9 : "Offspring not symmetric.";
+        }
+    }
+}
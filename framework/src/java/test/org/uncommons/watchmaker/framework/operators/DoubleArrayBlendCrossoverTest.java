@@ -0,0 +1,81 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link DoubleArrayBlendCrossover} operator.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayBlendCrossoverTest
+{
+    /**
+     * With alpha = 0 all offspring genes must lie between the parent genes.
+     */
+    @Test
+    public void testOffspringBetweenParents()
+    {
+        EvolutionaryOperator<double[]> crossover = new DoubleArrayBlendCrossover(0, DoubleArrayBounds.UNBOUNDED);
+        List<double[]> population = new ArrayList<double[]>(2);
+        population.add(new double[]{0, 10, -5});
+        population.add(new double[]{1, 20, -5});
+        for (int i = 0; i < 20; i++)
+        {
+            for (double[] offspring : crossover.apply(population, FrameworkTestUtils.getRNG()))
+            {
+                assert offspring[0] >= 0 && offspring[0] <= 1 : "Gene outside parent interval: " + offspring[0];
+                assert offspring[1] >= 10 && offspring[1] <= 20 : "Gene outside parent interval: " + offspring[1];
+                assert offspring[2] == -5 : "Identical parent genes should be inherited: " + offspring[2];
+            }
+        }
+    }
+
+
+    @Test
+    public void testBounds()
+    {
+        DoubleArrayBlendCrossover crossover = new DoubleArrayBlendCrossover(5, new DoubleArrayBounds(0, 1));
+        double[] parent1 = {0, 0.5};
+        double[] parent2 = {1, 0.6};
+        double[] offspring1 = new double[2];
+        double[] offspring2 = new double[2];
+        for (int i = 0; i < 20; i++)
+        {
+            crossover.crossover(parent1, parent2, offspring1, offspring2, FrameworkTestUtils.getRNG());
+            for (int j = 0; j < 2; j++)
+            {
+                assert offspring1[j] >= 0 && offspring1[j] <= 1 : "Gene out of bounds: " + offspring1[j];
+                assert offspring2[j] >= 0 && offspring2[j] <= 1 : "Gene out of bounds: " + offspring2[j];
+            }
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDifferentLengthParents()
+    {
+        new DoubleArrayBlendCrossover().crossover(new double[2],
+                                                  new double[3],
+                                                  new double[2],
+                                                  new double[2],
+                                                  FrameworkTestUtils.getRNG());
+    }
+}
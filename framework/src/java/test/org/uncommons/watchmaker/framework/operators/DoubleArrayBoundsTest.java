@@ -0,0 +1,70 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link DoubleArrayBounds}.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayBoundsTest
+{
+    @Test
+    public void testUniformBounds()
+    {
+        DoubleArrayBounds bounds = new DoubleArrayBounds(-1, 2);
+        assert bounds.getMinimum(5) == -1 : "Wrong minimum.";
+        assert bounds.getMaximum(100) == 2 : "Wrong maximum.";
+        assert bounds.clamp(0, -3) == -1 : "Value should be clamped to minimum.";
+        assert bounds.clamp(0, 3) == 2 : "Value should be clamped to maximum.";
+        assert bounds.clamp(0, 0.5) == 0.5 : "Value within bounds should be unchanged.";
+        bounds.checkLength(1000); // Uniform bounds apply to any length.
+    }
+
+
+    @Test
+    public void testPerGeneBounds()
+    {
+        DoubleArrayBounds bounds = new DoubleArrayBounds(new double[]{0, 10}, new double[]{1, 20});
+        assert bounds.getMinimum(1) == 10 : "Wrong minimum.";
+        assert bounds.getMaximum(0) == 1 : "Wrong maximum.";
+        assert bounds.clamp(0, 5) == 1 : "Value should be clamped to maximum.";
+        assert bounds.clamp(1, 5) == 10 : "Value should be clamped to minimum.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWrongLength()
+    {
+        new DoubleArrayBounds(new double[]{0, 10}, new double[]{1, 20}).checkLength(3);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvertedBounds()
+    {
+        new DoubleArrayBounds(1, 0);
+    }
+
+
+    @Test
+    public void testUnbounded()
+    {
+        assert DoubleArrayBounds.UNBOUNDED.clamp(0, -1e300) == -1e300 : "Value should not be clamped.";
+        assert DoubleArrayBounds.UNBOUNDED.clamp(0, 1e300) == 1e300 : "Value should not be clamped.";
+    }
+}
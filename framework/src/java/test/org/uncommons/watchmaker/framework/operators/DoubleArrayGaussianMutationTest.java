@@ -0,0 +1,83 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Collections;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link DoubleArrayGaussianMutation} operator.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayGaussianMutationTest
+{
+    /**
+     * The number of mutated genes should be close to the length multiplied by
+     * the mutation probability.
+     */
+    @Test
+    public void testMutationRate()
+    {
+        EvolutionaryOperator<double[]> mutation = new DoubleArrayGaussianMutation(new Probability(0.05), 1);
+        double[] original = new double[10000];
+        List<double[]> result = mutation.apply(Collections.singletonList(original), FrameworkTestUtils.getRNG());
+        double[] mutant = result.get(0);
+        assert mutant != original : "Mutant should be a copy.";
+        int mutated = 0;
+        for (double gene : mutant)
+        {
+            mutated += gene == 0 ? 0 : 1;
+        }
+        // Expected 500 mutations with a standard deviation of about 22.
+        assert mutated > 400 && mutated < 600 : "Unexpected number of mutated genes: " + mutated;
+        for (double gene : original)
+        {
+            assert gene == 0 : "Original should not be modified.";
+        }
+    }
+
+
+    @Test
+    public void testBoundedInPlace()
+    {
+        DoubleArrayGaussianMutation mutation = new DoubleArrayGaussianMutation(Probability.ONE,
+                                                                               10,
+                                                                               new DoubleArrayBounds(-1, 1));
+        double[] candidate = new double[100];
+        assert mutation.mutate(candidate, FrameworkTestUtils.getRNG()) : "Candidate should be mutated.";
+        for (double gene : candidate)
+        {
+            assert gene >= -1 && gene <= 1 : "Gene out of bounds: " + gene;
+        }
+    }
+
+
+    /**
+     * Candidates that are not mutated should be passed through without being copied.
+     */
+    @Test
+    public void testZeroProbability()
+    {
+        EvolutionaryOperator<double[]> mutation = new DoubleArrayGaussianMutation(Probability.ZERO, 1);
+        double[] original = new double[100];
+        List<double[]> result = mutation.apply(Collections.singletonList(original), FrameworkTestUtils.getRNG());
+        assert result.get(0) == original : "Unmutated candidate should not be copied.";
+    }
+}
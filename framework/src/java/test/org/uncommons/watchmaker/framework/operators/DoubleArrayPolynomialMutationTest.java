@@ -0,0 +1,59 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link DoubleArrayPolynomialMutation} operator.
+ * @author Daniel Dyer
+ */
+public class DoubleArrayPolynomialMutationTest
+{
+    @Test
+    public void testWithinBounds()
+    {
+        DoubleArrayBounds bounds = new DoubleArrayBounds(new double[]{0, -5, 10}, new double[]{1, 5, 10});
+        DoubleArrayPolynomialMutation mutation = new DoubleArrayPolynomialMutation(Probability.ONE, 20, bounds);
+        double[] candidate = {0, 5, 10};
+        int changed = 0;
+        for (int i = 0; i < 100; i++)
+        {
+            double[] before = candidate.clone();
+            mutation.mutate(candidate, FrameworkTestUtils.getRNG());
+            for (int j = 0; j < candidate.length; j++)
+            {
+                assert candidate[j] >= bounds.getMinimum(j) && candidate[j] <= bounds.getMaximum(j)
+                    : "Gene out of bounds: " + candidate[j];
+                changed += candidate[j] == before[j] ? 0 : 1;
+            }
+        }
+        assert candidate[2] == 10 : "Gene with no range should not change.";
+        assert changed > 100 : "Genes should have been perturbed.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnboundedGene()
+    {
+        DoubleArrayPolynomialMutation mutation = new DoubleArrayPolynomialMutation(Probability.ONE,
+                                                                                   20,
+                                                                                   DoubleArrayBounds.UNBOUNDED);
+        mutation.mutate(new double[1], FrameworkTestUtils.getRNG());
+    }
+}
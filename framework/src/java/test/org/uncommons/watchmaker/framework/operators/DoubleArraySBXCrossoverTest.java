@@ -0,0 +1,72 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link DoubleArraySBXCrossover} operator.
+ * @author Daniel Dyer
+ */
+public class DoubleArraySBXCrossoverTest
+{
+    /**
+     * SBX places the offspring symmetrically about the parents' mean, so
+     * unless the offspring are clamped the sum of each pair of genes is preserved.
+     */
+    @Test
+    public void testMeanPreserved()
+    {
+        DoubleArraySBXCrossover crossover = new DoubleArraySBXCrossover(10, DoubleArrayBounds.UNBOUNDED);
+        double[] parent1 = {0, 1, 2, 3};
+        double[] parent2 = {4, 3, 2, 1};
+        double[] offspring1 = new double[4];
+        double[] offspring2 = new double[4];
+        for (int i = 0; i < 20; i++)
+        {
+            crossover.crossover(parent1, parent2, offspring1, offspring2, FrameworkTestUtils.getRNG());
+            for (int j = 0; j < 4; j++)
+            {
+                double sum = offspring1[j] + offspring2[j];
+                assert Math.abs(sum - (parent1[j] + parent2[j])) < 1e-9 : "Mean not preserved at " + j;
+            }
+            assert Math.abs(offspring1[2] - 2) < 1e-9 && Math.abs(offspring2[2] - 2) < 1e-9
+                : "Identical parent genes should be inherited.";
+        }
+    }
+
+
+    /**
+     * The offspring arrays may be the parent arrays themselves.
+     */
+    @Test
+    public void testInPlace()
+    {
+        DoubleArraySBXCrossover crossover = new DoubleArraySBXCrossover(2, new DoubleArrayBounds(-1, 1));
+        double[] parent1 = {-1, 1};
+        double[] parent2 = {1, -1};
+        for (int i = 0; i < 20; i++)
+        {
+            crossover.crossover(parent1, parent2, parent1, parent2, FrameworkTestUtils.getRNG());
+            for (int j = 0; j < 2; j++)
+            {
+                assert parent1[j] >= -1 && parent1[j] <= 1 : "Gene out of bounds: " + parent1[j];
+                assert parent2[j] >= -1 && parent2[j] <= 1 : "Gene out of bounds: " + parent2[j];
+            }
+        }
+    }
+}
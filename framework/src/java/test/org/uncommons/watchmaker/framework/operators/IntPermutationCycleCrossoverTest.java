@@ -0,0 +1,81 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link IntPermutationCycleCrossover} operator.
+ * @author Daniel Dyer
+ */
+public class IntPermutationCycleCrossoverTest
+{
+    @Test
+    public void testCrossover()
+    {
+        EvolutionaryOperator<int[]> crossover = new IntPermutationCycleCrossover();
+        List<int[]> population = IntPermutationTestUtils.generatePopulation(20, 12);
+        for (int i = 0; i < 20; i++)
+        {
+            population = crossover.apply(population, FrameworkTestUtils.getRNG());
+            assert population.size() == 20 : "Population size changed after cross-over.";
+            for (int[] individual : population)
+            {
+                assert individual.length == 12 : "Invalid candidate length: " + individual.length;
+                assert IntPermutationTestUtils.isPermutation(individual) : "Offspring is not a valid permutation.";
+            }
+        }
+    }
+
+
+    /**
+     * Every element of each offspring must be in the same position as it was in
+     * one of the parents, and between them the two offspring must use every
+     * element of both parents.
+     */
+    @Test
+    public void testPositionsPreserved()
+    {
+        EvolutionaryOperator<int[]> crossover = new IntPermutationCycleCrossover();
+        List<int[]> parents = IntPermutationTestUtils.generatePopulation(2, 12);
+        // Parents are shuffled by the operator, so check against both orderings.
+        List<int[]> offspring = crossover.apply(parents, FrameworkTestUtils.getRNG());
+        for (int i = 0; i < 12; i++)
+        {
+            int a = parents.get(0)[i];
+            int b = parents.get(1)[i];
+            int x = offspring.get(0)[i];
+            int y = offspring.get(1)[i];
+            assert (x == a && y == b) || (x == b && y == a) : "Element moved from parent position: " + i;
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDifferentLengthParents()
+    {
+        EvolutionaryOperator<int[]> crossover = new IntPermutationCycleCrossover();
+        List<int[]> population = new ArrayList<int[]>(2);
+        population.add(new int[]{0, 1, 2, 3, 4});
+        population.add(new int[]{0});
+        // This should cause an exception since the parents are different lengths.
+        crossover.apply(population, FrameworkTestUtils.getRNG());
+    }
+}
@@ -0,0 +1,75 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link IntPermutationInversion} operator.
+ * @author Daniel Dyer
+ */
+public class IntPermutationInversionTest
+{
+    @Test
+    public void testMutation()
+    {
+        EvolutionaryOperator<int[]> mutation = new IntPermutationInversion();
+        List<int[]> population = IntPermutationTestUtils.generatePopulation(20, 10);
+        List<int[]> mutatedPopulation = mutation.apply(population, FrameworkTestUtils.getRNG());
+        assert mutatedPopulation.size() == population.size() : "Population size should be unchanged.";
+        for (int i = 0; i < population.size(); i++)
+        {
+            int[] original = population.get(i);
+            int[] mutated = mutatedPopulation.get(i);
+            assert mutated != original : "Mutated candidate should be a copy.";
+            assert IntPermutationTestUtils.isPermutation(mutated) : "Mutant is not a valid permutation.";
+            // The mutant should be the original with a (possibly wrapped) segment reversed,
+            // so the set of adjacent pairs, ignoring direction, changes by at most two.
+            int brokenEdges = 0;
+            int[] positions = new int[original.length];
+            for (int j = 0; j < original.length; j++)
+            {
+                positions[original[j]] = j;
+            }
+            for (int j = 0; j < mutated.length; j++)
+            {
+                int distance = Math.abs(positions[mutated[j]] - positions[mutated[(j + 1) % mutated.length]]);
+                brokenEdges += distance == 1 || distance == original.length - 1 ? 0 : 1;
+            }
+            assert brokenEdges <= 2 : "Too many edges changed: " + brokenEdges;
+        }
+    }
+
+
+    /**
+     * Candidates that are not mutated should be passed through without being copied.
+     */
+    @Test
+    public void testNoMutation()
+    {
+        EvolutionaryOperator<int[]> mutation = new IntPermutationInversion(new ConstantGenerator<Integer>(0));
+        List<int[]> population = IntPermutationTestUtils.generatePopulation(5, 10);
+        List<int[]> mutatedPopulation = mutation.apply(population, FrameworkTestUtils.getRNG());
+        for (int i = 0; i < population.size(); i++)
+        {
+            assert mutatedPopulation.get(i) == population.get(i) : "Unmutated candidate should not be copied.";
+        }
+    }
+}
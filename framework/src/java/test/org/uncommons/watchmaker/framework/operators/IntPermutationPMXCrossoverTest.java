@@ -0,0 +1,72 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link IntPermutationPMXCrossover} operator.
+ * @author Daniel Dyer
+ */
+public class IntPermutationPMXCrossoverTest
+{
+    @Test
+    public void testCrossover()
+    {
+        EvolutionaryOperator<int[]> crossover = new IntPermutationPMXCrossover();
+        List<int[]> population = IntPermutationTestUtils.generatePopulation(20, 12);
+        for (int i = 0; i < 20; i++)
+        {
+            population = crossover.apply(population, FrameworkTestUtils.getRNG());
+            assert population.size() == 20 : "Population size changed after cross-over.";
+            for (int[] individual : population)
+            {
+                assert individual.length == 12 : "Invalid candidate length: " + individual.length;
+                assert IntPermutationTestUtils.isPermutation(individual) : "Offspring is not a valid permutation.";
+            }
+        }
+    }
+
+
+    /**
+     * With a single-element permutation there is nothing to cross over.
+     */
+    @Test
+    public void testSingleElement()
+    {
+        EvolutionaryOperator<int[]> crossover = new IntPermutationPMXCrossover();
+        List<int[]> population = IntPermutationTestUtils.generatePopulation(2, 1);
+        population = crossover.apply(population, FrameworkTestUtils.getRNG());
+        assert population.size() == 2 : "Population size changed after cross-over.";
+        assert population.get(0)[0] == 0 && population.get(1)[0] == 0 : "Invalid offspring.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDifferentLengthParents()
+    {
+        EvolutionaryOperator<int[]> crossover = new IntPermutationPMXCrossover();
+        List<int[]> population = new ArrayList<int[]>(2);
+        population.add(new int[]{0, 1, 2, 3, 4});
+        population.add(new int[]{0});
+        // This should cause an exception since the parents are different lengths.
+        crossover.apply(population, FrameworkTestUtils.getRNG());
+    }
+}
@@ -0,0 +1,61 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for the {@link IntPermutationScrambleMutation} operator.
+ * @author Daniel Dyer
+ */
+public class IntPermutationScrambleMutationTest
+{
+    @Test
+    public void testMutation()
+    {
+        EvolutionaryOperator<int[]> mutation = new IntPermutationScrambleMutation();
+        List<int[]> population = IntPermutationTestUtils.generatePopulation(20, 10);
+        List<int[]> mutatedPopulation = mutation.apply(population, FrameworkTestUtils.getRNG());
+        assert mutatedPopulation.size() == population.size() : "Population size should be unchanged.";
+        for (int i = 0; i < population.size(); i++)
+        {
+            int[] original = population.get(i);
+            int[] mutated = mutatedPopulation.get(i);
+            assert mutated != original : "Mutated candidate should be a copy.";
+            assert IntPermutationTestUtils.isPermutation(mutated) : "Mutant is not a valid permutation.";
+        }
+    }
+
+
+    /**
+     * Candidates that are not mutated should be passed through without being copied.
+     */
+    @Test
+    public void testNoMutation()
+    {
+        EvolutionaryOperator<int[]> mutation = new IntPermutationScrambleMutation(new ConstantGenerator<Integer>(0));
+        List<int[]> population = IntPermutationTestUtils.generatePopulation(5, 10);
+        List<int[]> mutatedPopulation = mutation.apply(population, FrameworkTestUtils.getRNG());
+        for (int i = 0; i < population.size(); i++)
+        {
+            assert mutatedPopulation.get(i) == population.get(i) : "Unmutated candidate should not be copied.";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.List;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.factories.IntPermutationFactory;
+
+/**
+ * Helper methods for the int-permutation operator tests.
+ * @author Daniel Dyer
+ */
+final class IntPermutationTestUtils
+{
+    private IntPermutationTestUtils()
+    {
+        // Prevents instantiation.
+    }
+
+
+    /**
+     * @return A population of random permutations of the integers 0 to length-1.
+     */
+    static List<int[]> generatePopulation(int size, int length)
+    {
+        return new IntPermutationFactory(length).generateInitialPopulation(size, FrameworkTestUtils.getRNG());
+    }
+
+
+    /**
+     * Checks that the array contains each of the integers 0 to n-1 exactly once.
+     */
+    static boolean isPermutation(int[] candidate)
+    {
+        boolean[] seen = new boolean[candidate.length];
+        for (int value : candidate)
+        {
+            if (value < 0 || value >= candidate.length || seen[value])
+            {
+                return false;
+            }
+            seen[value] = true;
+        }
+        return true;
+    }
+}
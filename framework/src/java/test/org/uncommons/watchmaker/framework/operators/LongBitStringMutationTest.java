@@ -0,0 +1,106 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.binary.LongBitString;
+
+/**
+ * Unit test for the {@link LongBitStringMutation} operator.
+ * @author Daniel Dyer
+ */
+public class LongBitStringMutationTest
+{
+    /**
+     * The number of flipped bits over a long string should be close to the
+     * length multiplied by the mutation probability.
+     */
+    @Test
+    public void testMutationRate()
+    {
+        EvolutionaryOperator<LongBitString> mutation = new LongBitStringMutation(new Probability(0.1));
+        LongBitString original = new LongBitString(10000, FrameworkTestUtils.getRNG());
+        List<LongBitString> result = mutation.apply(Collections.singletonList(original), FrameworkTestUtils.getRNG());
+        LongBitString mutant = result.get(0);
+        assert mutant != original : "Mutant should be a copy.";
+        int flipped = original.hammingDistance(mutant);
+        // Expected 1000 flips with a standard deviation of 30.
+        assert flipped > 850 && flipped < 1150 : "Unexpected number of flipped bits: " + flipped;
+    }
+
+
+    /**
+     * Low probabilities are handled by skip sampling rather than random masks.  The
+     * number of flipped bits should still match the mutation probability.
+     */
+    @Test
+    public void testSparseMutationRate()
+    {
+        EvolutionaryOperator<LongBitString> mutation = new LongBitStringMutation(new Probability(0.001));
+        LongBitString original = new LongBitString(100000, FrameworkTestUtils.getRNG());
+        List<LongBitString> result = mutation.apply(Collections.singletonList(original), FrameworkTestUtils.getRNG());
+        LongBitString mutant = result.get(0);
+        assert mutant.getLength() == original.getLength() : "Length should be unchanged.";
+        int flipped = original.hammingDistance(mutant);
+        // Expected 100 flips with a standard deviation of 10.
+        assert flipped > 50 && flipped < 150 : "Unexpected number of flipped bits: " + flipped;
+    }
+
+
+    /**
+     * Candidates that are not mutated should be passed through without being copied.
+     */
+    @Test
+    public void testZeroProbability()
+    {
+        EvolutionaryOperator<LongBitString> mutation = new LongBitStringMutation(Probability.ZERO);
+        LongBitString original = new LongBitString(100, FrameworkTestUtils.getRNG());
+        List<LongBitString> result = mutation.apply(Collections.singletonList(original), FrameworkTestUtils.getRNG());
+        assert result.get(0) == original : "Unmutated candidate should not be copied.";
+    }
+
+
+    @Test
+    public void testCertainMutation()
+    {
+        EvolutionaryOperator<LongBitString> mutation = new LongBitStringMutation(Probability.ONE);
+        LongBitString original = new LongBitString(100, FrameworkTestUtils.getRNG());
+        List<LongBitString> result = mutation.apply(Collections.singletonList(original), FrameworkTestUtils.getRNG());
+        assert result.get(0).hammingDistance(original) == 100 : "All bits should be flipped.";
+        assert result.get(0).getLength() == 100 : "Length should be unchanged.";
+    }
+
+
+    @Test
+    public void testRandomMaskProbability()
+    {
+        Random rng = FrameworkTestUtils.getRNG();
+        long threshold = 3L << 28; // 3/16 as a 32-bit fixed-point fraction.
+        int setBits = 0;
+        for (int i = 0; i < 1000; i++)
+        {
+            setBits += Long.bitCount(LongBitStringMutation.randomMask(threshold, rng));
+        }
+        // Expected 12000 set bits with a standard deviation of about 100.
+        assert setBits > 11500 && setBits < 12500 : "Unexpected number of set bits: " + setBits;
+    }
+}
@@ -0,0 +1,74 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.EvolutionaryOperator;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.binary.LongBitString;
+
+/**
+ * Unit test for the {@link LongBitStringUniformCrossover} operator.
+ * @author Daniel Dyer
+ */
+public class LongBitStringUniformCrossoverTest
+{
+    /**
+     * Crossing a string of all ones with a string of all zeros must produce
+     * complementary offspring with the same total number of ones.
+     */
+    @Test
+    public void testCrossover()
+    {
+        EvolutionaryOperator<LongBitString> crossover = new LongBitStringUniformCrossover();
+        for (int i = 0; i < 20; i++)
+        {
+            LongBitString ones = new LongBitString(150);
+            for (int j = 0; j < ones.getWordCount(); j++)
+            {
+                ones.setWord(j, -1L);
+            }
+            List<LongBitString> population = new ArrayList<LongBitString>(2);
+            population.add(ones);
+            population.add(new LongBitString(150));
+            List<LongBitString> offspring = crossover.apply(population, FrameworkTestUtils.getRNG());
+            assert offspring.size() == 2 : "Population size changed after cross-over.";
+            LongBitString offspring1 = offspring.get(0);
+            LongBitString offspring2 = offspring.get(1);
+            assert offspring1.getLength() == 150 && offspring2.getLength() == 150 : "Wrong offspring length.";
+            assert offspring1.hammingDistance(offspring2) == 150 : "Offspring should be complementary.";
+            assert offspring1.countSetBits() + offspring2.countSetBits() == 150 : "Information lost in cross-over.";
+            assert ones.countSetBits() == 150 : "Parent should not be modified.";
+            // Each bit is exchanged with probability 0.5, so a very uneven split is unlikely.
+            assert offspring1.countSetBits() > 30 && offspring1.countSetBits() < 120 : "Bits not exchanged uniformly.";
+        }
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDifferentLengthParents()
+    {
+        EvolutionaryOperator<LongBitString> crossover = new LongBitStringUniformCrossover(Probability.ONE);
+        List<LongBitString> population = new ArrayList<LongBitString>(2);
+        population.add(new LongBitString(64));
+        population.add(new LongBitString(65));
+        // This should cause an exception since the parents are different lengths.
+        crossover.apply(population, FrameworkTestUtils.getRNG());
+    }
+}
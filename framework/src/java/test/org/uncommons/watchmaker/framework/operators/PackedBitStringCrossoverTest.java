@@ -0,0 +1,59 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.binary.PackedBitStringPopulation;
+import org.uncommons.watchmaker.framework.factories.PackedBitStringFactory;
+
+/**
+ * Unit test for in-place cross-over of packed bit strings.
+ * @author Daniel Dyer
+ */
+public class PackedBitStringCrossoverTest
+{
+    @Test
+    public void testCrossover()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(2, 150);
+        new PackedBitStringFactory().generateInitialPopulation(population, FrameworkTestUtils.getRNG());
+        PackedBitStringCrossover operator = new PackedBitStringCrossover(3);
+        // Test to make sure that cross-over correctly preserves all genetic material
+        // originally present in the population and does not introduce anything new.
+        int totalSetBits = population.countSetBits(0) + population.countSetBits(1);
+        for (int i = 0; i < 50; i++) // Test several generations.
+        {
+            operator.apply(population, 0, 2, FrameworkTestUtils.getRNG());
+            int setBits = population.countSetBits(0) + population.countSetBits(1);
+            assert setBits == totalSetBits : "Total number of set bits in population changed during cross-over.";
+        }
+    }
+
+
+    /**
+     * With an odd number of individuals in the range, the last one has no partner and
+     * must be left alone.
+     */
+    @Test
+    public void testOddRange()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(3, 64);
+        new PackedBitStringFactory().generateRandomCandidates(population, 0, 2, FrameworkTestUtils.getRNG());
+        new PackedBitStringCrossover().apply(population, 0, 3, FrameworkTestUtils.getRNG());
+        assert population.countSetBits(2) == 0 : "Unpaired individual should not be modified.";
+    }
+}
@@ -0,0 +1,66 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import org.testng.annotations.Test;
+import org.uncommons.maths.binary.BitString;
+import org.uncommons.maths.number.ConstantGenerator;
+import org.uncommons.maths.random.Probability;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+import org.uncommons.watchmaker.framework.binary.PackedBitStringPopulation;
+
+/**
+ * Unit test for in-place mutation of packed bit strings.
+ * @author Daniel Dyer
+ */
+public class PackedBitStringMutationTest
+{
+    /**
+     * Uses a probability of 1 to make the outcome predictable (every individual
+     * has exactly one bit flipped).
+     */
+    @Test
+    public void testSingleBitMutation()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(10, 9);
+        for (int i = 0; i < population.getSize(); i++)
+        {
+            population.set(i, new BitString("111100101"));
+        }
+        new PackedBitStringMutation(Probability.ONE).apply(population, 0, 10, FrameworkTestUtils.getRNG());
+        for (int i = 0; i < population.getSize(); i++)
+        {
+            int set = population.countSetBits(i);
+            assert set == 5 || set == 7 : "Mutated bit string has wrong number of 1s: " + set;
+        }
+    }
+
+
+    @Test
+    public void testZeroProbability()
+    {
+        PackedBitStringPopulation population = PackedBitStringPopulation.allocate(10, 100);
+        new PackedBitStringMutation(new ConstantGenerator<Probability>(Probability.ZERO),
+                                    new ConstantGenerator<Integer>(5)).apply(population,
+                                                                            0,
+                                                                            10,
+                                                                            FrameworkTestUtils.getRNG());
+        for (int i = 0; i < population.getSize(); i++)
+        {
+            assert population.countSetBits(i) == 0 : "No mutation should have occurred.";
+        }
+    }
+}
@@ -0,0 +1,54 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.operators;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link SkipSampling}.
+ * @author Daniel Dyer
+ */
+public class SkipSamplingTest
+{
+    /**
+     * The number of indices selected from a long sequence should be close to
+     * the length multiplied by the probability.
+     */
+    @Test
+    public void testSelectionRate()
+    {
+        Random rng = FrameworkTestUtils.getRNG();
+        int count = 0;
+        for (int i = SkipSampling.nextIndex(-1, 0.01, rng); i < 100000; i = SkipSampling.nextIndex(i, 0.01, rng))
+        {
+            ++count;
+        }
+        // Expected 1000 selections with a standard deviation of about 31.
+        assert count > 850 && count < 1150 : "Unexpected number of selections: " + count;
+    }
+
+
+    @Test
+    public void testExtremeProbabilities()
+    {
+        Random rng = FrameworkTestUtils.getRNG();
+        assert SkipSampling.nextGap(1, rng) == 0 : "Every index should be selected.";
+        assert SkipSampling.nextGap(0, rng) == Integer.MAX_VALUE : "No index should be selected.";
+        assert SkipSampling.nextIndex(10, 0, rng) == Integer.MAX_VALUE : "Index should not overflow.";
+    }
+}
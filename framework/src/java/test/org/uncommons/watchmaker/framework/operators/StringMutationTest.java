@@ -51,4 +51,41 @@ public class StringMutationTest
             }
         }
     }
+
+
+    /**
+     * The number of changed characters in a long string should match the mutation
+     * probability, and the alphabet should be respected.
+     */
+    @Test
+    public void testMutationRate()
+    {
+        StringMutation mutation = new StringMutation(new char[]{'b'}, new Probability(0.01));
+        char[] chars = new char[100000];
+        Arrays.fill(chars, 'a');
+        String original = new String(chars);
+        String mutant = mutation.apply(Arrays.asList(original), FrameworkTestUtils.getRNG()).get(0);
+        assert mutant.length() == original.length() : "Length changed after mutation: " + mutant.length();
+        int changed = 0;
+        for (char c : mutant.toCharArray())
+        {
+            assert c == 'a' || c == 'b' : "Mutation introduced invalid character: " + c;
+            changed += c == 'b' ? 1 : 0;
+        }
+        // Expected 1000 changes with a standard deviation of about 31.
+        assert changed > 850 && changed < 1150 : "Unexpected number of changed characters: " + changed;
+    }
+
+
+    /**
+     * Strings that are not mutated should be passed through unchanged.
+     */
+    @Test
+    public void testZeroProbability()
+    {
+        StringMutation mutation = new StringMutation(alphabet, Probability.ZERO);
+        String individual = "abcdabcd";
+        String result = mutation.apply(Arrays.asList(individual), FrameworkTestUtils.getRNG()).get(0);
+        assert result == individual : "Unmutated string should be returned as it is.";
+    }
 }
@@ -0,0 +1,101 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link AliasTable}.
+ * @author Daniel Dyer
+ */
+public class AliasTableTest
+{
+    /**
+     * The observed frequencies of the indices should match their weights, even
+     * when the weights are very uneven.
+     */
+    @Test
+    public void testFrequencies()
+    {
+        double[] weights = {1, 0, 5, 0.25, 13.75};
+        AliasTable table = new AliasTable(weights);
+        assert table.size() == weights.length : "Wrong size: " + table.size();
+        int[] counts = new int[weights.length];
+        Random rng = FrameworkTestUtils.getRNG();
+        int samples = 100000;
+        for (int i = 0; i < samples; i++)
+        {
+            counts[table.sample(rng)]++;
+        }
+        assert counts[1] == 0 : "Index with zero weight was selected.";
+        for (int i = 0; i < weights.length; i++)
+        {
+            double expected = weights[i] / 20;
+            double actual = (double) counts[i] / samples;
+            // The standard deviation of each frequency is less than 0.002.
+            assert Math.abs(actual - expected) < 0.01 : "Index " + i + ": expected " + expected + ", was " + actual;
+        }
+    }
+
+
+    /**
+     * Infinite weights share all of the probability.
+     */
+    @Test
+    public void testInfiniteWeights()
+    {
+        AliasTable table = new AliasTable(new double[]{1, Double.POSITIVE_INFINITY, 2, Double.POSITIVE_INFINITY});
+        Random rng = FrameworkTestUtils.getRNG();
+        int[] counts = new int[4];
+        for (int i = 0; i < 10000; i++)
+        {
+            counts[table.sample(rng)]++;
+        }
+        assert counts[0] == 0 && counts[2] == 0 : "Only infinite weights should be selected.";
+        assert counts[1] > 4500 && counts[3] > 4500 : "Infinite weights should be shared equally.";
+    }
+
+
+    @Test
+    public void testSingleWeight()
+    {
+        AliasTable table = new AliasTable(new double[]{0.5});
+        assert table.sample(FrameworkTestUtils.getRNG()) == 0 : "Only index should be selected.";
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNoWeights()
+    {
+        new AliasTable(new double[0]);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroWeights()
+    {
+        new AliasTable(new double[]{0, 0});
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeWeight()
+    {
+        new AliasTable(new double[]{1, -1});
+    }
+}
@@ -0,0 +1,138 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link FitnessViews}.
+ * @author Daniel Dyer
+ */
+public class FitnessViewsTest
+{
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testPopulationView()
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>(2);
+        population.add(new EvaluatedCandidate<String>("Steve", 10.0));
+        population.add(new EvaluatedCandidate<String>("Mary", 4.5));
+        FitnessView view = FitnessViews.of(population);
+        assertScores(view, 10, 4.5);
+    }
+
+
+    @Test
+    public void testRank()
+    {
+        assertScores(FitnessViews.rank(FitnessViews.of(new double[]{7, 5, 5, 1})), 4, 3, 2, 1);
+    }
+
+
+    @Test
+    public void testExponentialRank()
+    {
+        assertScores(FitnessViews.exponentialRank(FitnessViews.of(new double[]{7, 5, 1}), 0.5), 1, 0.5, 0.25);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testExponentialRankInvalidBase()
+    {
+        FitnessViews.exponentialRank(FitnessViews.of(new double[]{7, 5, 1}), 1);
+    }
+
+
+    @Test
+    public void testLinear()
+    {
+        assertScores(FitnessViews.linear(FitnessViews.of(new double[]{3, 1}), -2, 10), 4, 8);
+    }
+
+
+    /**
+     * The mean of {2, 4, 4, 4, 5, 5, 7, 9} is 5 and the (population) standard deviation
+     * is 2.  Scores more than two standard deviations below the mean get the floor value.
+     */
+    @Test
+    public void testSigma()
+    {
+        FitnessView view = FitnessViews.sigma(FitnessViews.of(new double[]{2, 4, 4, 4, 5, 5, 7, 9}));
+        assertScores(view, 0.25, 0.75, 0.75, 0.75, 1, 1, 1.5, 2);
+        view = FitnessViews.sigma(FitnessViews.of(new double[]{-100, 10, 10, 10, 10}));
+        assertScores(view, 0.1, 1.25, 1.25, 1.25, 1.25);
+        assertScores(FitnessViews.sigma(FitnessViews.of(new double[]{3, 3})), 1, 1);
+    }
+
+
+    @Test
+    public void testBoltzmann()
+    {
+        FitnessView view = FitnessViews.boltzmann(FitnessViews.of(new double[]{1000, 998}), 2);
+        assertScores(view, 1, Math.exp(-1));
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBoltzmannInvalidTemperature()
+    {
+        FitnessViews.boltzmann(FitnessViews.of(new double[]{1}), 0);
+    }
+
+
+    /**
+     * Transforms can be stacked, and an indexed strategy can select from the result.
+     */
+    @Test
+    public void testComposedSelection()
+    {
+        // Non-natural scores, converted to natural and then Boltzmann-scaled.
+        FitnessView view = FitnessViews.boltzmann(FitnessViews.linear(FitnessViews.of(new double[]{3, 1, 2}), -1, 0),
+                                                  1);
+        assertScores(view, Math.exp(-2), 1, Math.exp(-1));
+        int[] selection = new int[1000];
+        new StochasticUniversalSampling().select(view, true, selection, FrameworkTestUtils.getRNG());
+        int[] counts = new int[3];
+        for (int index : selection)
+        {
+            counts[index]++;
+        }
+        double total = Math.exp(-2) + 1 + Math.exp(-1);
+        for (int i = 0; i < 3; i++)
+        {
+            double expected = view.getFitness(i) / total * selection.length;
+            // Stochastic universal sampling gives each candidate the floor or ceiling of its expectation.
+            assert Math.abs(counts[i] - expected) < 1 : "Index " + i + " selected " + counts[i] + " times.";
+        }
+    }
+
+
+    private void assertScores(FitnessView view, double... expected)
+    {
+        assert view.size() == expected.length : "Wrong size: " + view.size();
+        for (int i = 0; i < expected.length; i++)
+        {
+            double actual = view.getFitness(i);
+            assert Math.abs(actual - expected[i]) < EPSILON
+                : "Index " + i + ": expected " + expected[i] + ", was " + actual;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.uncommons.watchmaker.framework.selection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import org.testng.annotations.Test;
 import org.uncommons.watchmaker.framework.EvaluatedCandidate;
 import org.uncommons.watchmaker.framework.FrameworkTestUtils;
@@ -91,4 +92,34 @@ public class RankSelectionTest
         assert johnCount <= 1 : "Candidate selected wrong number of times (should be 0 or 1, was " + johnCount + ")";
         assert steveCount <= 1 : "Candidate selected wrong number of times (should be 0 or 1, was " + steveCount + ")";
     }
+
+
+    /**
+     * A delegate that cannot select by index must be given a ranked population.
+     */
+    @Test
+    public void testNonIndexedDelegate()
+    {
+        final SelectionStrategy<Object> sus = new StochasticUniversalSampling();
+        SelectionStrategy<Object> selector = new RankSelection(new SelectionStrategy<Object>()
+        {
+            public <S> List<S> select(List<EvaluatedCandidate<S>> population,
+                                      boolean naturalFitnessScores,
+                                      int selectionSize,
+                                      Random rng)
+            {
+                return sus.select(population, naturalFitnessScores, selectionSize, rng);
+            }
+        });
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>(4);
+        population.add(new EvaluatedCandidate<String>("Steve", 10.0));
+        population.add(new EvaluatedCandidate<String>("John", 4.5));
+        population.add(new EvaluatedCandidate<String>("Mary", 1.0));
+        population.add(new EvaluatedCandidate<String>("Gary", 0.5));
+        // Ranks of 4, 3, 2 and 1 give expected frequencies of 4, 3, 2 and 1 in 10 selections.
+        List<String> selection = selector.select(population, true, 10, FrameworkTestUtils.getRNG());
+        assert selection.size() == 10 : "Selection size is " + selection.size() + ", should be 10.";
+        assert Collections.frequency(selection, "Steve") == 4 : "Steve should be selected 4 times.";
+        assert Collections.frequency(selection, "Gary") == 1 : "Gary should be selected once.";
+    }
 }
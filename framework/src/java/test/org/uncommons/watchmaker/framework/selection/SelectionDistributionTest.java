@@ -0,0 +1,96 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.selection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.EvaluatedCandidate;
+import org.uncommons.watchmaker.framework.FrameworkTestUtils;
+
+/**
+ * Unit test for {@link SelectionDistribution}.
+ * @author Daniel Dyer
+ */
+public class SelectionDistributionTest
+{
+    @Test
+    public void testFitnessProportionate()
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>(3);
+        population.add(new EvaluatedCandidate<String>("Steve", 6));
+        population.add(new EvaluatedCandidate<String>("Mary", 3));
+        population.add(new EvaluatedCandidate<String>("John", 1));
+        SelectionDistribution<String> distribution = SelectionDistribution.fitnessProportionate(population, true);
+        assert distribution.size() == 3 : "Wrong size: " + distribution.size();
+        assertFrequency(distribution.select(10000, FrameworkTestUtils.getRNG()), "Steve", 0.6);
+
+        // With non-natural fitness the weights are inverted, so John is the most likely.
+        distribution = SelectionDistribution.fitnessProportionate(population, false);
+        // Weights of 1/6, 1/3 and 1, so John is selected with probability 2/3.
+        assertFrequency(distribution.select(10000, FrameworkTestUtils.getRNG()), "John", 2.0 / 3);
+    }
+
+
+    /**
+     * A perfect non-natural score of zero must not break the distribution.
+     */
+    @Test
+    public void testNonNaturalPerfectSolution()
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>(2);
+        population.add(new EvaluatedCandidate<String>("Steve", 0));
+        population.add(new EvaluatedCandidate<String>("Mary", 3));
+        SelectionDistribution<String> distribution = SelectionDistribution.fitnessProportionate(population, false);
+        Random rng = FrameworkTestUtils.getRNG();
+        for (int i = 0; i < 100; i++)
+        {
+            assert distribution.sample(rng).equals("Steve") : "Perfect candidate should always be selected.";
+        }
+    }
+
+
+    @Test
+    public void testExplicitWeights()
+    {
+        SelectionDistribution<String> distribution
+            = new SelectionDistribution<String>(Arrays.asList("A", "B", "C"), new double[]{0, 1, 0});
+        List<String> selection = distribution.select(100, FrameworkTestUtils.getRNG());
+        assert selection.size() == 100 : "Wrong selection size: " + selection.size();
+        assertFrequency(selection, "B", 1);
+    }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMismatchedWeights()
+    {
+        new SelectionDistribution<String>(Arrays.asList("A", "B"), new double[]{1});
+    }
+
+
+    private void assertFrequency(List<String> selection, String candidate, double expected)
+    {
+        int count = 0;
+        for (String s : selection)
+        {
+            count += s.equals(candidate) ? 1 : 0;
+        }
+        double frequency = (double) count / selection.size();
+        assert Math.abs(frequency - expected) < 0.025 : "Frequency of " + candidate + " was " + frequency;
+    }
+}
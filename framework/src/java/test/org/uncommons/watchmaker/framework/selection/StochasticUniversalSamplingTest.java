@@ -88,4 +88,22 @@ public class StochasticUniversalSamplingTest
         assert johnCount <= 1 : "Candidate selected wrong number of times (should be 0 or 1, was " + johnCount + ")";
         assert steveCount <= 1 : "Candidate selected wrong number of times (should be 0 or 1, was " + steveCount + ")";
     }
+
+
+    /**
+     * A perfect non-natural score of zero gives an infinite adjusted fitness.  The
+     * perfect candidate should take all of the selections.
+     */
+    @Test
+    public void testNonNaturalFitnessPerfectSolution()
+    {
+        SelectionStrategy<Object> selector = new StochasticUniversalSampling();
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>(3);
+        population.add(new EvaluatedCandidate<String>("Gary", 0));
+        population.add(new EvaluatedCandidate<String>("John", 8.4));
+        population.add(new EvaluatedCandidate<String>("Mary", 9.1));
+        List<String> selection = selector.select(population, false, 4, FrameworkTestUtils.getRNG());
+        assert selection.size() == 4 : "Selection size is " + selection.size() + ", should be 4.";
+        assert Collections.frequency(selection, "Gary") == 4 : "Perfect candidate should always be selected.";
+    }
 }
@@ -87,4 +87,62 @@ public class TournamentSelectionTest
     {
         new TournamentSelection(Probability.EVENS);
     }
+
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTournamentSizeTooSmall()
+    {
+        new TournamentSelection(1, Probability.ONE);
+    }
+
+
+    /**
+     * With a selection probability of one, the fittest of the entrants always wins.
+     * The fittest of ten candidates must win whenever it is drawn at least once in
+     * a tournament of three, which happens with probability 1 - 0.9<sup>3</sup>.
+     */
+    @Test
+    public void testLargeTournament()
+    {
+        List<EvaluatedCandidate<Integer>> population = new ArrayList<EvaluatedCandidate<Integer>>(10);
+        for (int i = 0; i < 10; i++)
+        {
+            population.add(new EvaluatedCandidate<Integer>(i, i));
+        }
+        SelectionStrategy<Object> selector = new TournamentSelection(3, Probability.ONE);
+        assertWinFrequency(selector.select(population, true, 10000, FrameworkTestUtils.getRNG()), 9, 0.271);
+        // With non-natural fitness, the lowest score is the fittest.
+        assertWinFrequency(selector.select(population, false, 10000, FrameworkTestUtils.getRNG()), 0, 0.271);
+    }
+
+
+    /**
+     * Checks that places other than first win with the expected probabilities.  With
+     * two candidates and three entrants per tournament, the weaker candidate wins if
+     * it fills all three places, or if it fills the places that win with probabilities
+     * p(1 - p) and p(1 - p)<sup>2</sup>.
+     */
+    @Test
+    public void testLargeTournamentPlaces()
+    {
+        List<EvaluatedCandidate<String>> population = new ArrayList<EvaluatedCandidate<String>>(2);
+        population.add(new EvaluatedCandidate<String>("Strong", 2));
+        population.add(new EvaluatedCandidate<String>("Weak", 1));
+        SelectionStrategy<Object> selector = new TournamentSelection(3, new Probability(0.75));
+        // 1/8 + 3/8 * (1/16) + 3/8 * (3/16 + 1/16)
+        assertWinFrequency(selector.select(population, true, 10000, FrameworkTestUtils.getRNG()), "Weak", 0.2422);
+    }
+
+
+    private <S> void assertWinFrequency(List<S> selection, S winner, double expected)
+    {
+        int wins = 0;
+        for (S candidate : selection)
+        {
+            wins += candidate.equals(winner) ? 1 : 0;
+        }
+        double frequency = (double) wins / selection.size();
+        // The standard deviation of the frequency is less than 0.005.
+        assert Math.abs(frequency - expected) < 0.025 : "Frequency of " + winner + " was " + frequency;
+    }
 }
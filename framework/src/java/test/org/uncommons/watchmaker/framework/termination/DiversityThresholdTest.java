@@ -0,0 +1,64 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.termination;
+
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+
+/**
+ * Unit test for the {@link DiversityThreshold} termination condition.
+ * @author Daniel Dyer
+ */
+public class DiversityThresholdTest
+{
+    @Test
+    public void testThreshold()
+    {
+        TerminationCondition condition = new DiversityThreshold(0.1);
+        PopulationData<Object> data = new PopulationData<Object>(new Object(), 2, 1, 0.1, true, 10, 0, 0, 1, 0.5);
+        assert !condition.shouldTerminate(data) : "Diversity is above the threshold.";
+        data = new PopulationData<Object>(new Object(), 2, 1, 0.1, true, 10, 0, 1, 2, 0.05);
+        assert condition.shouldTerminate(data) : "Diversity is below the threshold.";
+    }
+
+
+    @Test
+    public void testGenerationLimit()
+    {
+        TerminationCondition condition = new DiversityThreshold(0.1, 2);
+        PopulationData<Object> data = new PopulationData<Object>(new Object(), 2, 1, 0.1, true, 10, 0, 0, 1, 0.05);
+        assert !condition.shouldTerminate(data) : "Diversity has only been low for 1 generation.";
+        data = new PopulationData<Object>(new Object(), 2, 1, 0.1, true, 10, 0, 1, 2, 0.2);
+        assert !condition.shouldTerminate(data) : "Diversity has recovered.";
+        data = new PopulationData<Object>(new Object(), 2, 1, 0.1, true, 10, 0, 2, 3, 0.05);
+        assert !condition.shouldTerminate(data) : "Diversity has only been low for 1 generation.";
+        data = new PopulationData<Object>(new Object(), 2, 1, 0.1, true, 10, 0, 3, 4, 0.05);
+        assert condition.shouldTerminate(data) : "Diversity has been low for 2 generations.";
+    }
+
+
+    /**
+     * If the engine does not measure diversity, the condition must never be satisfied.
+     */
+    @Test
+    public void testDiversityNotMeasured()
+    {
+        TerminationCondition condition = new DiversityThreshold(0.1);
+        PopulationData<Object> data = new PopulationData<Object>(new Object(), 2, 1, 0.1, true, 10, 0, 0, 1);
+        assert !condition.shouldTerminate(data) : "Diversity was not measured.";
+    }
+}
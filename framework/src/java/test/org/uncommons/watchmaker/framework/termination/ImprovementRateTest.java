@@ -0,0 +1,57 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.framework.termination;
+
+import org.testng.annotations.Test;
+import org.uncommons.watchmaker.framework.PopulationData;
+import org.uncommons.watchmaker.framework.TerminationCondition;
+
+/**
+ * Unit test for the {@link ImprovementRate} termination condition.
+ * @author Daniel Dyer
+ */
+public class ImprovementRateTest
+{
+    @Test
+    public void testImprovementRate()
+    {
+        TerminationCondition condition = new ImprovementRate(2, 1);
+        assert !condition.shouldTerminate(createData(0, 10)) : "Window is not yet full.";
+        assert !condition.shouldTerminate(createData(1, 12)) : "Window is not yet full.";
+        assert !condition.shouldTerminate(createData(2, 14)) : "Improvement rate is 2 per generation.";
+        assert !condition.shouldTerminate(createData(3, 15)) : "Improvement rate is 1.5 per generation.";
+        assert condition.shouldTerminate(createData(4, 15.5)) : "Improvement rate is 0.75 per generation.";
+    }
+
+
+    /**
+     * The history should be discarded when a new evolution starts.
+     */
+    @Test
+    public void testRestart()
+    {
+        TerminationCondition condition = new ImprovementRate(1, 1);
+        condition.shouldTerminate(createData(0, 10));
+        assert condition.shouldTerminate(createData(1, 10)) : "No improvement.";
+        assert !condition.shouldTerminate(createData(0, 10)) : "New evolution, window is not yet full.";
+    }
+
+
+    private PopulationData<Object> createData(int generation, double bestFitness)
+    {
+        return new PopulationData<Object>(new Object(), bestFitness, 5, 1, true, 10, 0, generation, 100);
+    }
+}
@@ -0,0 +1,127 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.simd;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.uncommons.watchmaker.framework.kernels.ArrayKernels;
+import org.uncommons.watchmaker.framework.kernels.ScalarKernels;
+
+/**
+ * JMH benchmarks comparing the {@link VectorKernels} with the {@link ScalarKernels}.
+ * Run with:
+ * <pre>
+ * mvn -Psimd -pl framework,simd install -DskipTests
+ * cd simd
+ * java --add-modules jdk.incubator.vector \
+ *      -cp "target/classes:target/test-classes:$(cat target/benchmark.classpath)" \
+ *      org.openjdk.jmh.Main KernelBenchmark
+ * </pre>
+ * The smaller size corresponds to a 64,000-bit genome or a 1,000-gene real-valued
+ * genome, the larger to a 200x200 pixel image.
+ * @author Daniel Dyer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class KernelBenchmark
+{
+    @Param({"scalar", "vector"})
+    private String implementation;
+
+    @Param({"1000", "40000"})
+    private int size;
+
+    private ArrayKernels kernels;
+    private long[] words1;
+    private long[] words2;
+    private double[] values1;
+    private double[] values2;
+    private double[] offspring1;
+    private double[] offspring2;
+    private boolean[] mask;
+    private int[] pixels1;
+    private int[] pixels2;
+
+    @Setup
+    public void setUp()
+    {
+        kernels = "vector".equals(implementation) ? new VectorKernels() : new ScalarKernels();
+        Random rng = new Random(size);
+        words1 = new long[size];
+        words2 = new long[size];
+        values1 = new double[size];
+        values2 = new double[size];
+        offspring1 = new double[size];
+        offspring2 = new double[size];
+        mask = new boolean[size];
+        pixels1 = new int[size];
+        pixels2 = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            words1[i] = rng.nextLong();
+            words2[i] = rng.nextLong();
+            values1[i] = rng.nextGaussian();
+            values2[i] = rng.nextGaussian();
+            mask[i] = rng.nextBoolean();
+            pixels1[i] = rng.nextInt();
+            pixels2[i] = rng.nextInt();
+        }
+    }
+
+
+    @Benchmark
+    public int hammingDistance()
+    {
+        return kernels.hammingDistance(words1, words2);
+    }
+
+
+    @Benchmark
+    public double squaredError()
+    {
+        return kernels.squaredError(values1, values2);
+    }
+
+
+    @Benchmark
+    public double rgbDistance()
+    {
+        return kernels.rgbDistance(pixels1, pixels2);
+    }
+
+
+    @Benchmark
+    public double[] maskedCrossover()
+    {
+        kernels.maskedCrossover(values1, values2, mask, offspring1, offspring2);
+        return offspring1;
+    }
+}
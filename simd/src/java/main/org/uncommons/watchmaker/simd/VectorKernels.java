@@ -0,0 +1,214 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.uncommons.watchmaker.framework.kernels.ArrayKernels;
+import org.uncommons.watchmaker.framework.kernels.ScalarKernels;
+
+/**
+ * {@link ArrayKernels} implemented with the JDK Vector API, using the preferred (widest)
+ * vector shape of the platform.  Each kernel processes as many whole vectors as fit
+ * in the arrays and finishes the remainder with a scalar loop.  Floating-point sums
+ * are accumulated per lane, so they may differ from the {@link ScalarKernels} in the
+ * last few bits.
+ * @author Daniel Dyer
+ */
+public final class VectorKernels implements ArrayKernels
+{
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    // Constants for the bit-parallel population count.
+    private static final long M1 = 0x5555555555555555L;
+    private static final long M2 = 0x3333333333333333L;
+    private static final long M4 = 0x0F0F0F0F0F0F0F0FL;
+    private static final long M8 = 0x00FF00FF00FF00FFL;
+    private static final long M16 = 0x0000FFFF0000FFFFL;
+    private static final long M32 = 0x00000000FFFFFFFFL;
+
+    // Each byte of a partial count holds at most 8, so 31 of them can be summed
+    // before a byte might overflow.
+    private static final int MAX_BYTE_SUMS = 31;
+
+    /**
+     * @throws UnsupportedOperationException If the platform has no vector hardware,
+     * in which case the Vector API would be slower than the scalar kernels.
+     */
+    public VectorKernels()
+    {
+        if (DOUBLES.length() < 2)
+        {
+            throw new UnsupportedOperationException("No vector support on this platform.");
+        }
+    }
+
+
+    /**
+     * Counts differing bits with a bit-parallel (SWAR) population count in each lane,
+     * since a lane-wise bit count operation is not available in all versions of the
+     * incubating API.  Per-byte counts are accumulated across iterations and only
+     * reduced to a single total when they might overflow.
+     * {@inheritDoc}
+     */
+    public int hammingDistance(long[] words1, long[] words2)
+    {
+        int bound = LONGS.loopBound(words1.length);
+        long distance = 0;
+        LongVector byteCounts = LongVector.zero(LONGS);
+        int sums = 0;
+        int i = 0;
+        for (; i < bound; i += LONGS.length())
+        {
+            LongVector x = LongVector.fromArray(LONGS, words1, i)
+                .lanewise(VectorOperators.XOR, LongVector.fromArray(LONGS, words2, i));
+            x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(M1));
+            x = x.and(M2).add(x.lanewise(VectorOperators.LSHR, 2).and(M2));
+            x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(M4);
+            byteCounts = byteCounts.add(x);
+            if (++sums == MAX_BYTE_SUMS)
+            {
+                distance += sumBytes(byteCounts);
+                byteCounts = LongVector.zero(LONGS);
+                sums = 0;
+            }
+        }
+        distance += sumBytes(byteCounts);
+        for (; i < words1.length; i++)
+        {
+            distance += Long.bitCount(words1[i] ^ words2[i]);
+        }
+        return (int) distance;
+    }
+
+
+    /**
+     * @param byteCounts A vector in which each byte holds a count of no more than 255.
+     * @return The sum of all of the bytes in all lanes.
+     */
+    private static long sumBytes(LongVector byteCounts)
+    {
+        LongVector x = byteCounts.and(M8).add(byteCounts.lanewise(VectorOperators.LSHR, 8).and(M8));
+        x = x.and(M16).add(x.lanewise(VectorOperators.LSHR, 16).and(M16));
+        x = x.and(M32).add(x.lanewise(VectorOperators.LSHR, 32));
+        return x.reduceLanes(VectorOperators.ADD);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public double squaredError(double[] values1, double[] values2)
+    {
+        int bound = DOUBLES.loopBound(values1.length);
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length())
+        {
+            DoubleVector delta = DoubleVector.fromArray(DOUBLES, values1, i)
+                .sub(DoubleVector.fromArray(DOUBLES, values2, i));
+            sum = delta.fma(delta, sum);
+        }
+        double error = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < values1.length; i++)
+        {
+            double delta = values1[i] - values2[i];
+            error += delta * delta;
+        }
+        return error;
+    }
+
+
+    /**
+     * The channel differences are computed on integer lanes and the squared distances
+     * are then widened to doubles for the square roots, so each pixel's distance is
+     * exactly the same as for the scalar kernel.
+     * {@inheritDoc}
+     */
+    public double rgbDistance(int[] pixels1, int[] pixels2)
+    {
+        int bound = INTS.loopBound(pixels1.length);
+        int parts = INTS.length() / DOUBLES.length();
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (; i < bound; i += INTS.length())
+        {
+            IntVector p1 = IntVector.fromArray(INTS, pixels1, i);
+            IntVector p2 = IntVector.fromArray(INTS, pixels2, i);
+            IntVector deltaR = channel(p1, 16).sub(channel(p2, 16));
+            IntVector deltaG = channel(p1, 8).sub(channel(p2, 8));
+            IntVector deltaB = channel(p1, 0).sub(channel(p2, 0));
+            IntVector squares = deltaR.mul(deltaR).add(deltaG.mul(deltaG)).add(deltaB.mul(deltaB));
+            for (int part = 0; part < parts; part++)
+            {
+                DoubleVector wide = (DoubleVector) squares.convertShape(VectorOperators.I2D, DOUBLES, part);
+                sum = sum.add(wide.lanewise(VectorOperators.SQRT));
+            }
+        }
+        double distance = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < pixels1.length; i++)
+        {
+            distance += ScalarKernels.rgbDistance(pixels1[i], pixels2[i]);
+        }
+        return distance;
+    }
+
+
+    /**
+     * @param pixels Packed RGB values.
+     * @param shift The position of the channel (16 for red, 8 for green, 0 for blue).
+     * @return The values of a single colour channel.
+     */
+    private static IntVector channel(IntVector pixels, int shift)
+    {
+        return pixels.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void maskedCrossover(double[] parent1,
+                                double[] parent2,
+                                boolean[] mask,
+                                double[] offspring1,
+                                double[] offspring2)
+    {
+        int bound = DOUBLES.loopBound(mask.length);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length())
+        {
+            DoubleVector genes1 = DoubleVector.fromArray(DOUBLES, parent1, i);
+            DoubleVector genes2 = DoubleVector.fromArray(DOUBLES, parent2, i);
+            VectorMask<Double> exchange = VectorMask.fromArray(DOUBLES, mask, i);
+            genes1.blend(genes2, exchange).intoArray(offspring1, i);
+            genes2.blend(genes1, exchange).intoArray(offspring2, i);
+        }
+        for (; i < mask.length; i++)
+        {
+            double gene1 = parent1[i];
+            double gene2 = parent2[i];
+            offspring1[i] = mask[i] ? gene2 : gene1;
+            offspring2[i] = mask[i] ? gene1 : gene2;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+/**
+ * Vectorised implementations of the framework's array kernels, using the incubating
+ * JDK Vector API.  This module requires JDK 17 or later and the JVM must be started with
+ * {@code --add-modules jdk.incubator.vector}.  When it is on the classpath,
+ * {@link org.uncommons.watchmaker.framework.kernels.KernelSupport} picks it up automatically.
+ * @author Daniel Dyer
+ */
+package org.uncommons.watchmaker.simd;
@@ -0,0 +1,147 @@
+//=============================================================================
+// Copyright 2006-2010 Daniel W. Dyer
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//=============================================================================
+package org.uncommons.watchmaker.simd;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.annotations.Test;
+import org.uncommons.maths.random.MersenneTwisterRNG;
+import org.uncommons.watchmaker.framework.kernels.ArrayKernels;
+import org.uncommons.watchmaker.framework.kernels.KernelSupport;
+import org.uncommons.watchmaker.framework.kernels.ScalarKernels;
+
+/**
+ * Checks that the {@link VectorKernels} give the same results as the
+ * {@link ScalarKernels}.  Array lengths are chosen so that some are shorter than
+ * a vector, some are whole multiples and some have a remainder.
+ * @author Daniel Dyer
+ */
+public class VectorKernelsTest
+{
+    private static final int[] LENGTHS = {0, 1, 3, 8, 17, 64, 1000, 4099};
+
+    private final ArrayKernels vector = new VectorKernels();
+    private final ArrayKernels scalar = new ScalarKernels();
+    private final Random rng = new MersenneTwisterRNG();
+
+    @Test
+    public void testKernelSupportFindsVectorKernels()
+    {
+        assert KernelSupport.getKernels() instanceof VectorKernels : "Vector kernels should be selected.";
+    }
+
+
+    @Test
+    public void testHammingDistance()
+    {
+        for (int length : LENGTHS)
+        {
+            long[] words1 = new long[length];
+            long[] words2 = new long[length];
+            for (int i = 0; i < length; i++)
+            {
+                words1[i] = rng.nextLong();
+                words2[i] = rng.nextLong();
+            }
+            int expected = scalar.hammingDistance(words1, words2);
+            int actual = vector.hammingDistance(words1, words2);
+            assert actual == expected : "Length " + length + ": expected " + expected + ", was " + actual;
+        }
+    }
+
+
+    /**
+     * Bytes of the partial counts must not overflow when every bit differs.
+     */
+    @Test
+    public void testHammingDistanceAllBitsDiffer()
+    {
+        long[] words1 = new long[4099];
+        long[] words2 = new long[4099];
+        Arrays.fill(words2, -1L);
+        int actual = vector.hammingDistance(words1, words2);
+        assert actual == 4099 * 64 : "Wrong distance: " + actual;
+    }
+
+
+    @Test
+    public void testSquaredError()
+    {
+        for (int length : LENGTHS)
+        {
+            double[] values1 = randomDoubles(length);
+            double[] values2 = randomDoubles(length);
+            double expected = scalar.squaredError(values1, values2);
+            double actual = vector.squaredError(values1, values2);
+            assert Math.abs(actual - expected) <= 1e-9 * Math.max(1, expected)
+                : "Length " + length + ": expected " + expected + ", was " + actual;
+        }
+    }
+
+
+    @Test
+    public void testRGBDistance()
+    {
+        for (int length : LENGTHS)
+        {
+            int[] pixels1 = new int[length];
+            int[] pixels2 = new int[length];
+            for (int i = 0; i < length; i++)
+            {
+                pixels1[i] = rng.nextInt();
+                pixels2[i] = rng.nextInt();
+            }
+            double expected = scalar.rgbDistance(pixels1, pixels2);
+            double actual = vector.rgbDistance(pixels1, pixels2);
+            assert Math.abs(actual - expected) <= 1e-9 * Math.max(1, expected)
+                : "Length " + length + ": expected " + expected + ", was " + actual;
+        }
+    }
+
+
+    @Test
+    public void testMaskedCrossover()
+    {
+        for (int length : LENGTHS)
+        {
+            double[] parent1 = randomDoubles(length);
+            double[] parent2 = randomDoubles(length);
+            boolean[] mask = new boolean[length];
+            for (int i = 0; i < length; i++)
+            {
+                mask[i] = rng.nextBoolean();
+            }
+            double[] expected1 = new double[length];
+            double[] expected2 = new double[length];
+            scalar.maskedCrossover(parent1, parent2, mask, expected1, expected2);
+            // Cross-over in place, to check that the offspring may alias the parents.
+            vector.maskedCrossover(parent1, parent2, mask, parent1, parent2);
+            assert Arrays.equals(parent1, expected1) : "Wrong first offspring for length " + length;
+            assert Arrays.equals(parent2, expected2) : "Wrong second offspring for length " + length;
+        }
+    }
+
+
+    private double[] randomDoubles(int length)
+    {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++)
+        {
+            values[i] = rng.nextGaussian() * 100;
+        }
+        return values;
+    }
+}